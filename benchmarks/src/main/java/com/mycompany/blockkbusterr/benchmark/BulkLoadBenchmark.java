@@ -0,0 +1,115 @@
+package com.mycompany.blockkbusterr.benchmark;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.repository.MovieRepository;
+import com.mycompany.blockkbusterr.repository.SharedCache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bulk movie inserts and updates through MovieRepository against an in-memory
+ * H2 database: one flush per row, as IDENTITY IDs force, versus the batched
+ * saveAll/updateAll. Each invocation runs in a transaction that is rolled
+ * back, so the table does not grow between invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkLoadBenchmark {
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private MovieRepository movieRepository;
+
+    private List<Movie> movies;
+    private List<Movie> storedMovies;
+
+    @Setup
+    public void setup() {
+        entityManagerFactory = Persistence.createEntityManagerFactory("benchmark_pu");
+        entityManager = entityManagerFactory.createEntityManager();
+
+        SharedCache sharedCache = new SharedCache();
+        sharedCache.setEntityManagerFactory(entityManagerFactory);
+        movieRepository = new MovieRepository();
+        movieRepository.setEntityManager(entityManager);
+        movieRepository.setSharedCache(sharedCache);
+
+        // Committed rows for the update benchmark, detached for merging
+        entityManager.getTransaction().begin();
+        storedMovies = movieRepository.saveAll(SampleData.movies(rows, false));
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+        for (Movie movie : storedMovies) {
+            movie.setQuantity(movie.getQuantity() + 1);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void begin() {
+        movies = SampleData.movies(rows, false);
+        entityManager.getTransaction().begin();
+    }
+
+    @TearDown(Level.Invocation)
+    public void rollback() {
+        entityManager.getTransaction().rollback();
+        entityManager.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public int saveOneByOne() {
+        for (Movie movie : movies) {
+            movieRepository.save(movie);
+            entityManager.flush();
+        }
+        return movies.size();
+    }
+
+    @Benchmark
+    public int saveAll() {
+        return movieRepository.saveAll(movies).size();
+    }
+
+    @Benchmark
+    public int updateOneByOne() {
+        for (Movie movie : storedMovies) {
+            movieRepository.update(movie);
+            entityManager.flush();
+        }
+        return storedMovies.size();
+    }
+
+    @Benchmark
+    public int updateAll() {
+        return movieRepository.updateAll(storedMovies).size();
+    }
+}
@@ -0,0 +1,133 @@
+package com.mycompany.blockkbusterr.benchmark;
+
+import com.mycompany.blockkbusterr.util.CoRentalMatrix;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Co-rental matrix build time, memory footprint, incremental updates and queries
+ * over synthetic rentals: about 20 rentals per user and a skewed popularity
+ * curve over 5,000 movies, so a few titles appear in most baskets.
+ * The footprint is reported as the secondary metrics estimatedKiB (computed
+ * from the backing arrays) and retainedKiB (heap in use after GC, measured by
+ * the retainedHeap benchmark, whose own time score is GC time and meaningless).
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CoRentalBenchmark {
+
+    private static final int MOVIE_COUNT = 5000;
+    private static final int RENTALS_PER_USER = 20;
+
+    @Param({"100000", "1000000"})
+    private int rentals;
+
+    private long[] userIds;
+    private long[] movieIds;
+    private CoRentalMatrix matrix;
+    private Random random;
+    private int cursor;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long estimatedKiB;
+        public long retainedKiB;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            estimatedKiB = 0;
+            retainedKiB = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        Random data = new Random(42);
+        int users = Math.max(1, rentals / RENTALS_PER_USER);
+        userIds = new long[rentals];
+        movieIds = new long[rentals];
+        for (int i = 0; i < rentals; i++) {
+            userIds[i] = 1 + data.nextInt(users);
+            movieIds[i] = 1 + (long) (Math.pow(data.nextDouble(), 3) * MOVIE_COUNT);
+        }
+        matrix = CoRentalMatrix.build(userIds, movieIds, rentals, Runtime.getRuntime().availableProcessors());
+        random = new Random(7);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public CoRentalMatrix parallelBuild(Footprint footprint) {
+        CoRentalMatrix built = CoRentalMatrix.build(userIds, movieIds, rentals, Runtime.getRuntime().availableProcessors());
+        footprint.estimatedKiB = built.estimatedBytes() >> 10;
+        return built;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public CoRentalMatrix sequentialBuild() {
+        return CoRentalMatrix.build(userIds, movieIds, rentals, 1);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 3)
+    public CoRentalMatrix retainedHeap(Footprint footprint) {
+        long before = usedHeapAfterGc();
+        CoRentalMatrix built = CoRentalMatrix.build(userIds, movieIds, rentals, Runtime.getRuntime().availableProcessors());
+        footprint.retainedKiB = (usedHeapAfterGc() - before) >> 10;
+        footprint.estimatedKiB = built.estimatedBytes() >> 10;
+        return built;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public long[] topCoRented() {
+        cursor = (cursor + 7) % MOVIE_COUNT;
+        return matrix.topCoRented(cursor + 1, 6);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public boolean addRental() {
+        // Mostly existing users, so each add updates one row per movie in their basket
+        long userId = 1 + random.nextInt(Math.max(1, rentals / RENTALS_PER_USER) + 1000);
+        long movieId = 1 + (long) (Math.pow(random.nextDouble(), 3) * MOVIE_COUNT);
+        return matrix.addRental(userId, movieId);
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
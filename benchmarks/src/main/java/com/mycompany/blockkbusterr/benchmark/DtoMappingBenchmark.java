@@ -0,0 +1,62 @@
+package com.mycompany.blockkbusterr.benchmark;
+
+import com.mycompany.blockkbusterr.dto.MovieResponse;
+import com.mycompany.blockkbusterr.dto.UserResponse;
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.entity.User;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Entity to SOAP response mapping, as done for every list operation of the web services
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"20", "500"})
+    private int listSize;
+
+    private List<Movie> movies;
+    private List<User> users;
+
+    @Setup
+    public void setup() {
+        movies = SampleData.movies(listSize, true);
+        users = SampleData.users(listSize, true);
+    }
+
+    @Benchmark
+    public List<MovieResponse> mapMovies() {
+        List<MovieResponse> responses = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            responses.add(MovieResponse.success(movie));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public List<UserResponse> mapUsers() {
+        List<UserResponse> responses = new ArrayList<>(users.size());
+        for (User user : users) {
+            responses.add(UserResponse.success(user));
+        }
+        return responses;
+    }
+}
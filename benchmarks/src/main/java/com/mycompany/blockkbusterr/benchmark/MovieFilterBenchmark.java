@@ -0,0 +1,67 @@
+package com.mycompany.blockkbusterr.benchmark;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.util.MovieFilterEngine;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Catalog filtering as done by MovieListBean through MovieFilterEngine
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovieFilterBenchmark {
+
+    // Keystrokes of a user typing a search term
+    private static final String[] TYPED_TERMS = {"s", "st", "sta", "star"};
+
+    @Param({"1000", "10000"})
+    private int catalogSize;
+
+    private List<Movie> movies;
+    private MovieFilterEngine engine;
+    private int genreIndex;
+
+    @Setup
+    public void setup() {
+        movies = SampleData.movies(catalogSize, true);
+        engine = new MovieFilterEngine(movies);
+    }
+
+    @Benchmark
+    public MovieFilterEngine buildEngine() {
+        return new MovieFilterEngine(movies);
+    }
+
+    @Benchmark
+    public void typeAheadSearch(Blackhole blackhole) {
+        for (String term : TYPED_TERMS) {
+            blackhole.consume(engine.filter(term, ""));
+        }
+        // Reset so the next invocation starts from a full scan
+        blackhole.consume(engine.filter("", ""));
+    }
+
+    @Benchmark
+    public List<Movie> genreFilter() {
+        // Changing genre on every call defeats the incremental refinement
+        genreIndex = (genreIndex + 1) % SampleData.GENRES.length;
+        return engine.filter("", SampleData.GENRES[genreIndex]);
+    }
+}
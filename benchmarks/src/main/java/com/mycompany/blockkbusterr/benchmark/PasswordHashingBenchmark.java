@@ -0,0 +1,57 @@
+package com.mycompany.blockkbusterr.benchmark;
+
+import com.mycompany.blockkbusterr.util.PasswordUtil;
+import java.util.concurrent.TimeUnit;
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BCrypt hashing and verification cost per work factor.
+ * PasswordUtil always hashes at cost 12, so other costs call BCrypt the same way
+ * with a different salt; verification goes through PasswordUtil since the cost
+ * is read from the stored hash.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    private static final int PRODUCTION_COST = 12;
+    private static final String PASSWORD = "rentals2024";
+
+    @Param({"10", "11", "12"})
+    private int cost;
+
+    private String hashed;
+
+    @Setup
+    public void setup() {
+        hashed = BCrypt.hashpw(PASSWORD, BCrypt.gensalt(cost));
+    }
+
+    @Benchmark
+    public String hashPassword() {
+        if (cost == PRODUCTION_COST) {
+            return PasswordUtil.hashPassword(PASSWORD);
+        }
+        return BCrypt.hashpw(PASSWORD, BCrypt.gensalt(cost));
+    }
+
+    @Benchmark
+    public boolean verifyPassword() {
+        return PasswordUtil.verifyPassword(PASSWORD, hashed);
+    }
+}
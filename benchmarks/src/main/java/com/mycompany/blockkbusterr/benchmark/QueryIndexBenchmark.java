@@ -0,0 +1,294 @@
+package com.mycompany.blockkbusterr.benchmark;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.entity.RentalStatus;
+import com.mycompany.blockkbusterr.entity.UserRole;
+import com.mycompany.blockkbusterr.repository.BaseRepository;
+import com.mycompany.blockkbusterr.repository.MovieRepository;
+import com.mycompany.blockkbusterr.repository.PageRequest;
+import com.mycompany.blockkbusterr.repository.RentalRepository;
+import com.mycompany.blockkbusterr.repository.ReviewRepository;
+import com.mycompany.blockkbusterr.repository.SharedCache;
+import com.mycompany.blockkbusterr.repository.UserRepository;
+import com.mycompany.blockkbusterr.service.SchemaMigrationService;
+import com.mycompany.blockkbusterr.util.SqlScript;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Repository queries before and after the V7__query_indexes migration, against
+ * an in-memory H2 database loaded with a production-sized catalog: 20,000
+ * movies, one user per ten rentals and one review per five rentals.
+ * "baseline" has only the keys declared on the entities; "migrated" also
+ * runs the migration's CREATE INDEX statements. H2 plans differ from MySQL's,
+ * so treat the ratios, not the absolute times, as the result.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryIndexBenchmark {
+
+    private static final String INDEX_MIGRATION = SchemaMigrationService.LOCATION + "V7__query_indexes.sql";
+
+    private static final int MOVIE_COUNT = 20_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"baseline", "migrated"})
+    private String schema;
+
+    @Param({"100000", "500000"})
+    private int rentals;
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private RentalRepository rentalRepository;
+    private ReviewRepository reviewRepository;
+    private MovieRepository movieRepository;
+    private UserRepository userRepository;
+
+    private int userCount;
+    private int cursor;
+
+    @Setup
+    public void setup() throws IOException {
+        entityManagerFactory = Persistence.createEntityManagerFactory("benchmark_pu");
+        entityManager = entityManagerFactory.createEntityManager();
+        userCount = rentals / 10;
+
+        List<String> indexStatements = schema.equals("migrated")
+                ? SqlScript.load(INDEX_MIGRATION).getStatements() : List.of();
+        // The provider's own connection, since it does not expose the configured credentials
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            connection.setAutoCommit(false);
+            seed(connection);
+            connection.commit();
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : indexStatements) {
+                    statement.execute(sql);
+                }
+                // Fresh statistics, so the planner sees the loaded row counts
+                statement.execute("ANALYZE");
+            }
+            connection.commit();
+        });
+
+        rentalRepository = new RentalRepository();
+        reviewRepository = new ReviewRepository();
+        movieRepository = new MovieRepository();
+        userRepository = new UserRepository();
+        SharedCache sharedCache = new SharedCache();
+        sharedCache.setEntityManagerFactory(entityManagerFactory);
+        for (BaseRepository<?, ?> repository : List.of(rentalRepository, reviewRepository, movieRepository, userRepository)) {
+            repository.setEntityManager(entityManager);
+            repository.setSharedCache(sharedCache);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public int activeRentalsByUser() {
+        long userId = nextUserId();
+        return rentalRepository.findActiveRentalsByUserId(userId).size();
+    }
+
+    @Benchmark
+    public boolean hasActiveRental() {
+        long userId = nextUserId();
+        return rentalRepository.hasActiveRental(userId, movieIdFor(cursor));
+    }
+
+    @Benchmark
+    public int rentalHistoryByMovie() {
+        long movieId = nextMovieId();
+        return rentalRepository.findByMovieIdPage(movieId, PageRequest.first(PAGE_SIZE)).getSize();
+    }
+
+    @Benchmark
+    public long overdueCount() {
+        return rentalRepository.countOverdueRentals();
+    }
+
+    @Benchmark
+    public int reviewsByUser() {
+        long userId = nextUserId();
+        return reviewRepository.findByUserIdPage(userId, PageRequest.first(PAGE_SIZE)).getSize();
+    }
+
+    @Benchmark
+    public int ratingDistribution() {
+        long movieId = nextMovieId();
+        return reviewRepository.getRatingDistributionForMovie(movieId).size();
+    }
+
+    @Benchmark
+    public int outOfStockPage() {
+        entityManager.clear();
+        return movieRepository.findOutOfStockPage(PageRequest.first(PAGE_SIZE)).getSize();
+    }
+
+    @Benchmark
+    public int moviesByYearPage() {
+        int year = 1970 + next() % 55;
+        entityManager.clear();
+        return movieRepository.findByReleaseYearPage(year, PageRequest.first(PAGE_SIZE)).getSize();
+    }
+
+    @Benchmark
+    public int usersByRole() {
+        entityManager.clear();
+        return userRepository.findByRole(UserRole.ADMIN).size();
+    }
+
+    /**
+     * Next user ID, starting with an empty persistence context as a new request would
+     */
+    private long nextUserId() {
+        entityManager.clear();
+        return 1 + next() % userCount;
+    }
+
+    private long nextMovieId() {
+        entityManager.clear();
+        return movieIdFor(next());
+    }
+
+    private static long movieIdFor(int index) {
+        return 1 + index % MOVIE_COUNT;
+    }
+
+    private int next() {
+        cursor = (cursor + 7919) & Integer.MAX_VALUE;
+        return cursor;
+    }
+
+    /**
+     * Load users, movies, rentals and reviews with plain JDBC batches; entities
+     * are far too slow for this many rows and nothing here needs them
+     */
+    private void seed(Connection connection) throws SQLException {
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (user_id, first_name, last_name, email, username, password, role, created_at, active) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= userCount; i++) {
+                insert.setLong(1, i);
+                insert.setString(2, "First" + random.nextInt(500));
+                insert.setString(3, "Last" + random.nextInt(2000));
+                insert.setString(4, "user" + i + "@example.com");
+                insert.setString(5, "user" + i);
+                insert.setString(6, "$2a$12$abcdefghijklmnopqrstuuM0v7G0bJ6iQ6G5j8rX0m7b6T1c2d3e4");
+                // One admin per thousand users
+                insert.setString(7, (i % 1000 == 0 ? UserRole.ADMIN : UserRole.USER).name());
+                insert.setTimestamp(8, Timestamp.valueOf(now.minusDays(random.nextInt(1825))));
+                insert.setBoolean(9, random.nextInt(20) != 0);
+                addBatch(insert, i);
+            }
+            insert.executeBatch();
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO movies (movie_id, title, release_year, duration, genre, quantity, description, created_at, " +
+                "active, rating_sum, rating_count, average_rating, rating_1_count, rating_2_count, rating_3_count, " +
+                "rating_4_count, rating_5_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0, 0, 0, 0, 0)")) {
+            int id = 0;
+            for (Movie movie : SampleData.movies(MOVIE_COUNT, false)) {
+                insert.setLong(1, ++id);
+                insert.setString(2, movie.getTitle());
+                insert.setInt(3, movie.getReleaseYear());
+                insert.setInt(4, movie.getDuration());
+                insert.setString(5, movie.getGenre());
+                // Most of the catalog in stock, a few percent sold out
+                insert.setInt(6, random.nextInt(25) == 0 ? 0 : 1 + random.nextInt(10));
+                insert.setString(7, movie.getDescription());
+                insert.setTimestamp(8, Timestamp.valueOf(now.minusDays(random.nextInt(1825))));
+                insert.setBoolean(9, true);
+                addBatch(insert, id);
+            }
+            insert.executeBatch();
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO rentals (rental_id, user_id, movie_id, borrow_date, return_date, actual_return_date, " +
+                "status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= rentals; i++) {
+                LocalDate borrowDate = today.minusDays(random.nextInt(1825));
+                LocalDate returnDate = borrowDate.plusDays(7);
+                // Rentals from the last two weeks are still out; a few of them are overdue
+                boolean outstanding = borrowDate.isAfter(today.minusDays(14)) && random.nextInt(4) != 0;
+                RentalStatus status = !outstanding ? RentalStatus.RETURNED
+                        : returnDate.isBefore(today) ? RentalStatus.OVERDUE : RentalStatus.ACTIVE;
+                insert.setLong(1, i);
+                insert.setLong(2, 1 + random.nextInt(userCount));
+                insert.setLong(3, 1 + random.nextInt(MOVIE_COUNT));
+                insert.setDate(4, Date.valueOf(borrowDate));
+                insert.setDate(5, Date.valueOf(returnDate));
+                insert.setDate(6, outstanding ? null : Date.valueOf(returnDate.minusDays(random.nextInt(3))));
+                insert.setString(7, status.name());
+                insert.setTimestamp(8, Timestamp.valueOf(borrowDate.atTime(10, 0)));
+                addBatch(insert, i);
+            }
+            insert.executeBatch();
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO reviews (review_id, user_id, movie_id, rating, comment, review_date, active) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            int reviews = rentals / 5;
+            for (int i = 1; i <= reviews; i++) {
+                insert.setLong(1, i);
+                insert.setLong(2, 1 + random.nextInt(userCount));
+                insert.setLong(3, 1 + random.nextInt(MOVIE_COUNT));
+                insert.setInt(4, 1 + random.nextInt(5));
+                insert.setString(5, random.nextBoolean() ? "Review " + i : null);
+                insert.setTimestamp(6, Timestamp.valueOf(now.minusMinutes(random.nextInt(2_628_000))));
+                insert.setBoolean(7, random.nextInt(50) != 0);
+                addBatch(insert, i);
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void addBatch(PreparedStatement insert, int row) throws SQLException {
+        insert.addBatch();
+        if (row % 1000 == 0) {
+            insert.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.mycompany.blockkbusterr.benchmark;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.entity.Rental;
+import com.mycompany.blockkbusterr.entity.RentalStatus;
+import com.mycompany.blockkbusterr.entity.User;
+import com.mycompany.blockkbusterr.repository.BaseRepository;
+import com.mycompany.blockkbusterr.repository.InventoryJournalRepository;
+import com.mycompany.blockkbusterr.repository.MovieRepository;
+import com.mycompany.blockkbusterr.repository.RentalRepository;
+import com.mycompany.blockkbusterr.repository.SharedCache;
+import com.mycompany.blockkbusterr.repository.UserRepository;
+import com.mycompany.blockkbusterr.service.InventoryService;
+import com.mycompany.blockkbusterr.service.RentalService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RentalService eligibility and validation checks against an in-memory H2 database.
+ * Services and repositories are wired by hand, since there is no container here.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RentalValidationBenchmark {
+
+    private static final int USER_COUNT = 200;
+    private static final int MOVIE_COUNT = 500;
+    private static final int RENTALS_PER_USER = 3;
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private RentalService rentalService;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> movieIds = new ArrayList<>();
+    private final List<Long> activeRentalIds = new ArrayList<>();
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        entityManagerFactory = Persistence.createEntityManagerFactory("benchmark_pu");
+        entityManager = entityManagerFactory.createEntityManager();
+        seed();
+
+        RentalRepository rentalRepository = new RentalRepository();
+        UserRepository userRepository = new UserRepository();
+        MovieRepository movieRepository = new MovieRepository();
+        InventoryJournalRepository journalRepository = new InventoryJournalRepository();
+        SharedCache sharedCache = new SharedCache();
+        sharedCache.setEntityManagerFactory(entityManagerFactory);
+        for (BaseRepository<?, ?> repository : List.of(rentalRepository, userRepository, movieRepository, journalRepository)) {
+            repository.setEntityManager(entityManager);
+            repository.setSharedCache(sharedCache);
+        }
+
+        InventoryService inventoryService = new InventoryService();
+        inventoryService.setMovieRepository(movieRepository);
+        inventoryService.setJournalRepository(journalRepository);
+
+        rentalService = new RentalService();
+        rentalService.setRentalRepository(rentalRepository);
+        rentalService.setUserRepository(userRepository);
+        rentalService.setMovieRepository(movieRepository);
+        rentalService.setInventoryService(inventoryService);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public boolean canUserRentMovie() {
+        int index = next();
+        // Start each check with an empty persistence context, as a new request would
+        entityManager.clear();
+        return rentalService.canUserRentMovie(userIds.get(index % userIds.size()), movieIds.get(index % movieIds.size()));
+    }
+
+    @Benchmark
+    public boolean rejectInvalidExtension() {
+        int index = next();
+        entityManager.clear();
+        try {
+            return rentalService.extendRental(activeRentalIds.get(index % activeRentalIds.size()), LocalDate.now().minusDays(1));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 7) & Integer.MAX_VALUE;
+        return cursor;
+    }
+
+    private void seed() {
+        entityManager.getTransaction().begin();
+        List<User> users = SampleData.users(USER_COUNT, false);
+        List<Movie> movies = SampleData.movies(MOVIE_COUNT, false);
+        users.forEach(entityManager::persist);
+        movies.forEach(entityManager::persist);
+
+        for (int u = 0; u < users.size(); u++) {
+            for (int r = 0; r < RENTALS_PER_USER; r++) {
+                Rental rental = new Rental();
+                rental.setUser(users.get(u));
+                rental.setMovie(movies.get((u * RENTALS_PER_USER + r) % movies.size()));
+                rental.setBorrowDate(LocalDate.now().minusDays(r));
+                rental.setReturnDate(LocalDate.now().plusDays(7 - r));
+                rental.setStatus(r == 0 ? RentalStatus.RETURNED : RentalStatus.ACTIVE);
+                entityManager.persist(rental);
+                if (rental.getStatus() == RentalStatus.ACTIVE) {
+                    activeRentalIds.add(rental.getRentalId());
+                }
+            }
+        }
+        entityManager.getTransaction().commit();
+
+        users.forEach(user -> userIds.add(user.getUserId()));
+        movies.forEach(movie -> movieIds.add(movie.getMovieId()));
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,77 @@
+package com.mycompany.blockkbusterr.benchmark;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.entity.User;
+import com.mycompany.blockkbusterr.entity.UserRole;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic sample entities shared by the benchmarks
+ */
+final class SampleData {
+
+    static final String[] GENRES = {"Action", "Comedy", "Drama", "Horror", "Sci-Fi", "Thriller", "Romance", "Animation"};
+
+    private static final String[] TITLE_WORDS = {"The", "Dark", "Night", "Return", "Of", "Last", "City", "Star",
+            "Lost", "Empire", "Shadow", "River", "Silent", "Storm", "King", "Dream", "Secret", "Garden"};
+
+    private SampleData() {
+    }
+
+    /**
+     * Build unsaved movies with stable pseudo-random titles, genres and stock
+     */
+    static List<Movie> movies(int count, boolean withIds) {
+        Random random = new Random(42);
+        List<Movie> movies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Movie movie = new Movie();
+            if (withIds) {
+                movie.setMovieId((long) i + 1);
+            }
+            movie.setTitle(title(random) + " " + (i + 1));
+            movie.setGenre(GENRES[random.nextInt(GENRES.length)]);
+            movie.setReleaseYear(1970 + random.nextInt(55));
+            movie.setDuration(80 + random.nextInt(100));
+            movie.setQuantity(random.nextInt(6));
+            movie.setDescription("A " + title(random).toLowerCase() + " story about " + title(random).toLowerCase() + ".");
+            movies.add(movie);
+        }
+        return movies;
+    }
+
+    /**
+     * Build unsaved regular users
+     */
+    static List<User> users(int count, boolean withIds) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            if (withIds) {
+                user.setUserId((long) i + 1);
+            }
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setUsername("user" + i);
+            user.setPassword("$2a$12$abcdefghijklmnopqrstuuM0v7G0bJ6iQ6G5j8rX0m7b6T1c2d3e4");
+            user.setRole(UserRole.USER);
+            users.add(user);
+        }
+        return users;
+    }
+
+    private static String title(Random random) {
+        int words = 2 + random.nextInt(3);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            title.append(TITLE_WORDS[random.nextInt(TITLE_WORDS.length)]);
+        }
+        return title.toString();
+    }
+}
@@ -9,32 +9,57 @@ ALTER TABLE movies DROP COLUMN IF EXISTS image_url;
 -- Use the blockkbusterr database
 USE blockkbusterr;
 
+-- IDs come from the id_sequences table behind the application's pooled ID
+-- generators, not from AUTO_INCREMENT. The rows below take their IDs from
+-- the sequences and move them past the highest ID, in one transaction that
+-- locks the sequence rows, so a running application never reissues them.
+-- id_sequences is created by the schema migrations: start the application
+-- once before running this script.
+START TRANSACTION;
+
+-- Make sure both sequences exist and start past the existing rows
+INSERT INTO id_sequences (sequence_name, next_value)
+SELECT 'users', COALESCE(MAX(user_id), 0) + 1 FROM users
+ON DUPLICATE KEY UPDATE next_value = GREATEST(next_value, VALUES(next_value));
+INSERT INTO id_sequences (sequence_name, next_value)
+SELECT 'movies', COALESCE(MAX(movie_id), 0) + 1 FROM movies
+ON DUPLICATE KEY UPDATE next_value = GREATEST(next_value, VALUES(next_value));
+
 -- ============================================
 -- 1. CREATE DEFAULT ADMIN USER
 -- ============================================
 
 -- Note: The password 'admin123' is BCrypt hashed with 12 rounds
 -- This hash was generated using: BCrypt.hashpw("admin123", BCrypt.gensalt(12))
-INSERT IGNORE INTO users (first_name, last_name, email, username, password, role, created_at, active)
-VALUES (
+SELECT next_value INTO @admin_id FROM id_sequences WHERE sequence_name = 'users' FOR UPDATE;
+
+INSERT INTO users (user_id, first_name, last_name, email, username, password, role, created_at, active)
+SELECT
+    @admin_id,
     'System',
-    'Administrator', 
+    'Administrator',
     'admin@blockkbusterr.com',
     'admin',
     '$2a$12$K8ZV8Z1QJ2gQ4K8ZV8Z1QOK8ZV8Z1QJ2gQ4K8ZV8Z1QOK8ZV8Z1QJ2', -- admin123
     'ADMIN',
     NOW(),
     TRUE
-);
+FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM users WHERE username = 'admin' OR email = 'admin@blockkbusterr.com');
 
 -- ============================================
 -- 2. CREATE SAMPLE MOVIES
 -- ============================================
 
--- Insert sample movies only if the table is empty
-INSERT INTO movies (title, release_year, duration, genre, quantity, description, created_at, active)
-SELECT * FROM (
+SELECT next_value INTO @first_movie_id FROM id_sequences WHERE sequence_name = 'movies' FOR UPDATE;
+
+-- Insert sample movies only if the table is empty; each row's ID is the
+-- first free sequence value plus its offset
+INSERT INTO movies (movie_id, title, release_year, duration, genre, quantity, description, created_at, active)
+SELECT @first_movie_id + row_offset, title, release_year, duration, genre, quantity, description, created_at, active
+FROM (
     SELECT 
+        0 as row_offset,
         'The Shawshank Redemption' as title,
         1994 as release_year,
         142 as duration,
@@ -45,6 +70,7 @@ SELECT * FROM (
         TRUE as active
     UNION ALL
     SELECT 
+        1,
         'The Godfather',
         1972,
         175,
@@ -55,6 +81,7 @@ SELECT * FROM (
         TRUE
     UNION ALL
     SELECT 
+        2,
         'The Dark Knight',
         2008,
         152,
@@ -65,6 +92,7 @@ SELECT * FROM (
         TRUE
     UNION ALL
     SELECT 
+        3,
         'Pulp Fiction',
         1994,
         154,
@@ -75,6 +103,7 @@ SELECT * FROM (
         TRUE
     UNION ALL
     SELECT 
+        4,
         'Forrest Gump',
         1994,
         142,
@@ -85,6 +114,7 @@ SELECT * FROM (
         TRUE
     UNION ALL
     SELECT 
+        5,
         'Inception',
         2010,
         148,
@@ -95,6 +125,7 @@ SELECT * FROM (
         TRUE
     UNION ALL
     SELECT 
+        6,
         'The Matrix',
         1999,
         136,
@@ -105,6 +136,7 @@ SELECT * FROM (
         TRUE
     UNION ALL
     SELECT 
+        7,
         'Goodfellas',
         1990,
         146,
@@ -115,6 +147,7 @@ SELECT * FROM (
         TRUE
     UNION ALL
     SELECT 
+        8,
         'The Lord of the Rings: The Fellowship of the Ring',
         2001,
         178,
@@ -125,6 +158,7 @@ SELECT * FROM (
         TRUE
     UNION ALL
     SELECT 
+        9,
         'Star Wars: Episode IV - A New Hope',
         1977,
         121,
@@ -135,6 +169,7 @@ SELECT * FROM (
         TRUE
     UNION ALL
     SELECT 
+        10,
         'The Silence of the Lambs',
         1991,
         118,
@@ -145,6 +180,7 @@ SELECT * FROM (
         TRUE
     UNION ALL
     SELECT 
+        11,
         'Saving Private Ryan',
         1998,
         169,
@@ -155,6 +191,7 @@ SELECT * FROM (
         TRUE
     UNION ALL
     SELECT 
+        12,
         'Interstellar',
         2014,
         169,
@@ -165,6 +202,7 @@ SELECT * FROM (
         TRUE
     UNION ALL
     SELECT 
+        13,
         'The Departed',
         2006,
         151,
@@ -175,6 +213,7 @@ SELECT * FROM (
         TRUE
     UNION ALL
     SELECT 
+        14,
         'Gladiator',
         2000,
         155,
@@ -186,6 +225,16 @@ SELECT * FROM (
 ) AS new_movies
 WHERE NOT EXISTS (SELECT 1 FROM movies LIMIT 1);
 
+-- Move both sequences past the rows just inserted
+INSERT INTO id_sequences (sequence_name, next_value)
+SELECT 'users', COALESCE(MAX(user_id), 0) + 1 FROM users
+ON DUPLICATE KEY UPDATE next_value = GREATEST(next_value, VALUES(next_value));
+INSERT INTO id_sequences (sequence_name, next_value)
+SELECT 'movies', COALESCE(MAX(movie_id), 0) + 1 FROM movies
+ON DUPLICATE KEY UPDATE next_value = GREATEST(next_value, VALUES(next_value));
+
+COMMIT;
+
 -- ============================================
 -- 3. VERIFICATION QUERIES
 -- ============================================
@@ -227,7 +276,10 @@ To use this script:
 Note: 
 - The admin password is 'admin123' (hashed)
 - Change the admin password immediately after first login
-- This script is safe to run multiple times (uses INSERT IGNORE)
+- This script is safe to run multiple times (the admin user and the movies
+  are only inserted when missing)
+- Run it after the application has started once, so the schema migrations
+  have created id_sequences
 - For production, consider using environment-specific credentials
 
 Security Warning:
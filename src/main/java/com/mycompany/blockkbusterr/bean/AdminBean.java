@@ -1,32 +1,56 @@
 package com.mycompany.blockkbusterr.bean;
 
+import com.mycompany.blockkbusterr.dto.MovieSummary;
+import com.mycompany.blockkbusterr.dto.RentalRow;
+import com.mycompany.blockkbusterr.dto.UserSummary;
 import com.mycompany.blockkbusterr.entity.Movie;
-import com.mycompany.blockkbusterr.entity.Rental;
 import com.mycompany.blockkbusterr.entity.User;
+import com.mycompany.blockkbusterr.metrics.SlowQueryShape;
+import com.mycompany.blockkbusterr.repository.PageRequest;
+import com.mycompany.blockkbusterr.service.CacheStatisticsService;
+import com.mycompany.blockkbusterr.service.CatalogImportService;
+import com.mycompany.blockkbusterr.service.DashboardService;
 import com.mycompany.blockkbusterr.service.MovieService;
+import com.mycompany.blockkbusterr.service.QueryDiagnosticsService;
 import com.mycompany.blockkbusterr.service.RentalService;
 import com.mycompany.blockkbusterr.service.UserService;
 import jakarta.annotation.PostConstruct;
-import jakarta.enterprise.context.RequestScoped;
 import jakarta.faces.application.FacesMessage;
 import jakarta.faces.context.FacesContext;
+import jakarta.faces.view.ViewScoped;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
+import jakarta.servlet.http.Part;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Logger;
 
 /**
- * JSF Managed Bean for admin dashboard functionality
+ * JSF Managed Bean for admin dashboard functionality.
+ * Counters come from the shared dashboard snapshot; each tab's list is
+ * only loaded when that tab is first shown, as read-only projection rows.
  */
 @Named("adminBean")
-@RequestScoped
+@ViewScoped
 public class AdminBean implements Serializable {
     
     private static final long serialVersionUID = 1L;
     private static final Logger logger = Logger.getLogger(AdminBean.class.getName());
+    private static final int RECENT_RENTALS_SIZE = 10;
+    private static final int USER_PAGE_SIZE = 20;
+    
+    public static final String TAB_RENTALS = "rentals";
+    public static final String TAB_OVERDUE = "overdue";
+    public static final String TAB_STOCK = "stock";
+    public static final String TAB_USERS = "users";
+    public static final String TAB_CACHE = "cache";
+    public static final String TAB_IMPORT = "import";
+    public static final String TAB_QUERIES = "queries";
     
     @Inject
     private RentalService rentalService;
@@ -37,20 +61,36 @@ public class AdminBean implements Serializable {
     @Inject
     private UserService userService;
     
+    @Inject
+    private DashboardService dashboardService;
+    
+    @Inject
+    private CacheStatisticsService cacheStatisticsService;
+    
+    @Inject
+    private CatalogImportService catalogImportService;
+    
+    @Inject
+    private QueryDiagnosticsService queryDiagnosticsService;
+    
     @Inject
     private SessionBean sessionBean;
     
-    // Dashboard data
-    private List<Rental> recentRentals;
-    private List<Rental> overdueRentals;
-    private List<Movie> lowStockMovies;
-    private List<User> users;
-    private List<User> filteredUsers;
+    private String activeTab = TAB_RENTALS;
     
-    // Statistics
-    private RentalService.RentalStats rentalStats;
-    private MovieService.MovieStats movieStats;
-    private UserService.UserStats userStats;
+    // Dashboard data
+    private List<RentalRow> recentRentals;
+    private List<RentalRow> overdueRentals;
+    private List<MovieSummary> lowStockMovies;
+    private List<UserSummary> users;
+    private List<UserSummary> filteredUsers;
+    private Map<Long, Long> userRentalCounts = new HashMap<>();
+    private List<CacheStatisticsService.RegionStatistics> cacheStatistics;
+    private List<SlowQueryShape> slowQueries;
+    private Long slowQueryThreshold;
+    
+    // Catalog import upload; request-scoped by nature, so never serialized with the view
+    private transient Part importFile;
     
     // User management
     private String userSearchTerm = "";
@@ -71,8 +111,6 @@ public class AdminBean implements Serializable {
                 return;
             }
             
-            loadDashboardData();
-            
         } catch (Exception e) {
             logger.severe("Error initializing AdminBean: " + e.getMessage());
             addErrorMessage("Error loading admin dashboard data.");
@@ -80,29 +118,43 @@ public class AdminBean implements Serializable {
     }
     
     /**
-     * Load all dashboard data
+     * Refresh dashboard data: recompute the counters and reload lists on next access
      */
     public void loadDashboardData() {
-        try {
-            loadRecentRentals();
-            loadOverdueRentals();
-            loadLowStockMovies();
-            loadStats();
-            loadUsers();
-            loadAllMovies();
-            
-        } catch (Exception e) {
-            logger.severe("Error loading dashboard data: " + e.getMessage());
-            addErrorMessage("Error loading dashboard data.");
+        dashboardService.invalidate();
+        clearLoadedLists();
+    }
+    
+    /**
+     * Switch the visible dashboard tab
+     */
+    public void selectTab(String tab) {
+        if (TAB_RENTALS.equals(tab) || TAB_OVERDUE.equals(tab) || TAB_STOCK.equals(tab) || TAB_USERS.equals(tab)
+                || TAB_CACHE.equals(tab) || TAB_IMPORT.equals(tab) || TAB_QUERIES.equals(tab)) {
+            activeTab = tab;
+            // Cache counters and the slow query log move constantly, so re-read them each time the tab is opened
+            cacheStatistics = null;
+            slowQueries = null;
         }
     }
     
+    private void clearLoadedLists() {
+        recentRentals = null;
+        overdueRentals = null;
+        lowStockMovies = null;
+        users = null;
+        filteredUsers = null;
+        allMovies = null;
+        cacheStatistics = null;
+        slowQueries = null;
+    }
+    
     /**
      * Load recent rentals for dashboard
      */
     private void loadRecentRentals() {
         try {
-            recentRentals = rentalService.getRecentRentals(30); // Last 30 days
+            recentRentals = rentalService.getRentalRowsPage(PageRequest.first(RECENT_RENTALS_SIZE)).getItems();
             logger.info("Loaded " + recentRentals.size() + " recent rentals");
         } catch (Exception e) {
             logger.severe("Error loading recent rentals: " + e.getMessage());
@@ -115,7 +167,7 @@ public class AdminBean implements Serializable {
      */
     private void loadOverdueRentals() {
         try {
-            overdueRentals = rentalService.getOverdueRentals();
+            overdueRentals = rentalService.getOverdueRentalRows();
             logger.info("Loaded " + overdueRentals.size() + " overdue rentals");
         } catch (Exception e) {
             logger.severe("Error loading overdue rentals: " + e.getMessage());
@@ -128,7 +180,7 @@ public class AdminBean implements Serializable {
      */
     private void loadLowStockMovies() {
         try {
-            lowStockMovies = movieService.getLowStockMovies(3); // 3 or fewer copies
+            lowStockMovies = movieService.getLowStockMovieSummaries(3); // 3 or fewer copies
             logger.info("Loaded " + lowStockMovies.size() + " low stock movies");
         } catch (Exception e) {
             logger.severe("Error loading low stock movies: " + e.getMessage());
@@ -136,27 +188,14 @@ public class AdminBean implements Serializable {
         }
     }
     
-    /**
-     * Load system statistics
-     */
-    private void loadStats() {
-        try {
-            rentalStats = rentalService.getRentalStats();
-            movieStats = movieService.getMovieStats();
-            userStats = userService.getUserStats();
-            logger.info("Loaded system statistics");
-        } catch (Exception e) {
-            logger.severe("Error loading stats: " + e.getMessage());
-        }
-    }
-    
     /**
      * Load all users for management
      */
     private void loadUsers() {
         try {
-            users = userService.getAllUsers();
+            users = userService.getUserSummariesPage(PageRequest.first(USER_PAGE_SIZE)).getItems();
             filteredUsers = new ArrayList<>(users);
+            loadUserRentalCounts(users);
             logger.info("Loaded " + users.size() + " users");
         } catch (Exception e) {
             logger.severe("Error loading users: " + e.getMessage());
@@ -165,6 +204,28 @@ public class AdminBean implements Serializable {
         }
     }
     
+    /**
+     * Load total rental counts for the listed users with one grouped query
+     */
+    private void loadUserRentalCounts(List<UserSummary> listedUsers) {
+        try {
+            List<Long> userIds = new ArrayList<>(listedUsers.size());
+            for (UserSummary user : listedUsers) {
+                if (!userRentalCounts.containsKey(user.getUserId())) {
+                    userIds.add(user.getUserId());
+                }
+            }
+            if (!userIds.isEmpty()) {
+                Map<Long, Long> counts = rentalService.getRentalCountsByUser(userIds);
+                for (Long userId : userIds) {
+                    userRentalCounts.put(userId, counts.getOrDefault(userId, 0L));
+                }
+            }
+        } catch (Exception e) {
+            logger.severe("Error loading user rental counts: " + e.getMessage());
+        }
+    }
+    
     /**
      * Load all movies for management
      */
@@ -184,9 +245,10 @@ public class AdminBean implements Serializable {
     public void searchUsers() {
         try {
             if (userSearchTerm == null || userSearchTerm.trim().isEmpty()) {
-                filteredUsers = new ArrayList<>(users);
+                filteredUsers = new ArrayList<>(getUsers());
             } else {
-                filteredUsers = userService.searchUsersByName(userSearchTerm.trim());
+                filteredUsers = userService.searchUserSummariesPage(userSearchTerm.trim(), PageRequest.first(USER_PAGE_SIZE)).getItems();
+                loadUserRentalCounts(filteredUsers);
             }
             logger.info("User search returned " + filteredUsers.size() + " results");
         } catch (Exception e) {
@@ -211,7 +273,10 @@ public class AdminBean implements Serializable {
             
             if (success) {
                 addSuccessMessage("Movie returned successfully.");
-                loadDashboardData(); // Refresh data
+                dashboardService.invalidate();
+                recentRentals = null;
+                overdueRentals = null;
+                userRentalCounts.clear();
             } else {
                 addErrorMessage("Failed to process return.");
             }
@@ -230,8 +295,9 @@ public class AdminBean implements Serializable {
             
             if (success) {
                 addSuccessMessage("Movie quantity updated successfully.");
-                loadLowStockMovies(); // Refresh low stock data
-                loadAllMovies(); // Refresh movie data
+                dashboardService.invalidate();
+                lowStockMovies = null;
+                allMovies = null;
             } else {
                 addErrorMessage("Failed to update movie quantity.");
             }
@@ -264,6 +330,7 @@ public class AdminBean implements Serializable {
                 }
                 
                 if (success) {
+                    dashboardService.invalidate();
                     loadUsers(); // Refresh user data
                 } else {
                     addErrorMessage("Failed to update user status.");
@@ -278,15 +345,28 @@ public class AdminBean implements Serializable {
     /**
      * Get user rental history
      */
-    public List<Rental> getUserRentalHistory(Long userId) {
+    public List<RentalRow> getUserRentalHistory(Long userId) {
         try {
-            return rentalService.getRentalsByUser(userId);
+            return rentalService.getRentalHistoryRowsPage(userId, PageRequest.first(USER_PAGE_SIZE)).getItems();
         } catch (Exception e) {
             logger.severe("Error getting user rental history: " + e.getMessage());
             return new ArrayList<>();
         }
     }
     
+    /**
+     * Get total number of rentals for a user
+     */
+    public long getUserRentalCount(Long userId) {
+        try {
+            Long count = userRentalCounts.get(userId);
+            return count != null ? count : rentalService.getUserRentalStats(userId).getTotalRentals();
+        } catch (Exception e) {
+            logger.severe("Error getting user rental count: " + e.getMessage());
+            return 0;
+        }
+    }
+    
     /**
      * Navigate to edit movie page
      */
@@ -312,10 +392,10 @@ public class AdminBean implements Serializable {
             if (success) {
                 addSuccessMessage("Movie deleted successfully.");
                 logger.info("Movie deleted successfully: " + movieId);
-                // Refresh all data to ensure UI is updated
-                loadLowStockMovies();
-                loadAllMovies();
-                loadStats();
+                // Counters and movie lists are reloaded on next access
+                dashboardService.invalidate();
+                lowStockMovies = null;
+                allMovies = null;
             } else {
                 addErrorMessage("Failed to delete movie. Movie may have active rentals or does not exist.");
                 logger.warning("Failed to delete movie: " + movieId);
@@ -329,10 +409,12 @@ public class AdminBean implements Serializable {
     /**
      * Get rental status class for styling
      */
-    public String getRentalStatusClass(Rental rental) {
+    public String getRentalStatusClass(RentalRow rental) {
         switch (rental.getStatus()) {
             case ACTIVE:
                 return rental.isOverdue() ? "status-overdue" : "status-active";
+            case OVERDUE:
+                return "status-overdue";
             case RETURNED:
                 return "status-returned";
             case CANCELLED:
@@ -345,7 +427,7 @@ public class AdminBean implements Serializable {
     /**
      * Get stock level class for styling
      */
-    public String getStockLevelClass(Movie movie) {
+    public String getStockLevelClass(MovieSummary movie) {
         if (movie.getQuantity() == 0) {
             return "stock-out";
         } else if (movie.getQuantity() <= 2) {
@@ -360,14 +442,14 @@ public class AdminBean implements Serializable {
     /**
      * Get user status class for styling
      */
-    public String getUserStatusClass(User user) {
+    public String getUserStatusClass(UserSummary user) {
         return user.getActive() ? "user-active" : "user-inactive";
     }
     
     /**
      * Format rental duration for display
      */
-    public String getRentalDuration(Rental rental) {
+    public String getRentalDuration(RentalRow rental) {
         long days = rental.getDaysRented();
         if (days == 1) {
             return "1 day";
@@ -379,17 +461,107 @@ public class AdminBean implements Serializable {
     /**
      * Check if rental is overdue
      */
-    public boolean isRentalOverdue(Rental rental) {
+    public boolean isRentalOverdue(RentalRow rental) {
         return rental.isOverdue();
     }
     
     /**
      * Get overdue days for rental
      */
-    public long getOverdueDays(Rental rental) {
+    public long getOverdueDays(RentalRow rental) {
         return rental.getDaysOverdue();
     }
     
+    /**
+     * Empty the shared entity and catalog caches
+     */
+    public void clearCaches() {
+        try {
+            cacheStatisticsService.clearAll();
+            cacheStatistics = null;
+            addSuccessMessage("Caches cleared.");
+        } catch (Exception e) {
+            logger.severe("Error clearing caches: " + e.getMessage());
+            addErrorMessage("Error clearing caches: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Clear the slow query log
+     */
+    public void resetSlowQueries() {
+        try {
+            queryDiagnosticsService.reset();
+            slowQueries = null;
+            addSuccessMessage("Slow query log cleared.");
+        } catch (Exception e) {
+            logger.severe("Error clearing slow query log: " + e.getMessage());
+            addErrorMessage("Error clearing slow query log: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Run EXPLAIN now for repeated slow queries that have no plan yet
+     */
+    public void captureQueryPlans() {
+        try {
+            int captured = queryDiagnosticsService.capturePendingPlans();
+            slowQueries = null;
+            addSuccessMessage("Captured " + captured + " query plans.");
+        } catch (Exception e) {
+            logger.severe("Error capturing query plans: " + e.getMessage());
+            addErrorMessage("Error capturing query plans: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Apply the slow query threshold entered on the Queries tab
+     */
+    public void updateSlowQueryThreshold() {
+        try {
+            if (slowQueryThreshold == null) {
+                addErrorMessage("Threshold is required.");
+                return;
+            }
+            queryDiagnosticsService.setThresholdMillis(slowQueryThreshold);
+            addSuccessMessage("Slow query threshold set to " + slowQueryThreshold + " ms.");
+        } catch (IllegalArgumentException e) {
+            addErrorMessage(e.getMessage());
+        }
+    }
+    
+    /**
+     * Store the uploaded catalog file and start importing it in the background
+     */
+    public void startCatalogImport() {
+        if (importFile == null || importFile.getSize() == 0) {
+            addErrorMessage("Please choose a CSV or JSON catalog file.");
+            return;
+        }
+        try (InputStream content = importFile.getInputStream()) {
+            String fileName = catalogImportService.storeUpload(importFile.getSubmittedFileName(), content);
+            catalogImportService.startImport(fileName);
+            addSuccessMessage("Import of " + fileName + " started.");
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            addErrorMessage(e.getMessage());
+        } catch (Exception e) {
+            logger.severe("Error starting catalog import: " + e.getMessage());
+            addErrorMessage("Error starting catalog import: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Resume an unfinished import from its checkpoint
+     */
+    public void resumeCatalogImport(String fileName) {
+        try {
+            catalogImportService.startImport(fileName);
+            addSuccessMessage("Import of " + fileName + " resumed.");
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            addErrorMessage(e.getMessage());
+        }
+    }
+    
     /**
      * Add success message
      */
@@ -407,36 +579,120 @@ public class AdminBean implements Serializable {
     }
     
     // Getters and Setters
-    public List<Rental> getRecentRentals() {
+    public List<RentalRow> getRecentRentals() {
+        if (recentRentals == null) {
+            loadRecentRentals();
+        }
         return recentRentals;
     }
     
-    public List<Rental> getOverdueRentals() {
+    public List<RentalRow> getOverdueRentals() {
+        if (overdueRentals == null) {
+            loadOverdueRentals();
+        }
         return overdueRentals;
     }
     
-    public List<Movie> getLowStockMovies() {
+    public List<MovieSummary> getLowStockMovies() {
+        if (lowStockMovies == null) {
+            loadLowStockMovies();
+        }
         return lowStockMovies;
     }
     
-    public List<User> getUsers() {
+    public List<UserSummary> getUsers() {
+        if (users == null) {
+            loadUsers();
+        }
         return users;
     }
     
-    public List<User> getFilteredUsers() {
+    public List<UserSummary> getFilteredUsers() {
+        if (filteredUsers == null) {
+            filteredUsers = new ArrayList<>(getUsers());
+        }
         return filteredUsers;
     }
     
+    public List<CacheStatisticsService.RegionStatistics> getCacheStatistics() {
+        if (cacheStatistics == null) {
+            cacheStatistics = cacheStatisticsService.getStatistics();
+        }
+        return cacheStatistics;
+    }
+    
+    public List<SlowQueryShape> getSlowQueries() {
+        if (slowQueries == null) {
+            slowQueries = queryDiagnosticsService.getTopShapes();
+        }
+        return slowQueries;
+    }
+    
+    public long getSlowStatementCount() {
+        return queryDiagnosticsService.getSlowStatementCount();
+    }
+    
+    public long getDroppedQueryShapeCount() {
+        return queryDiagnosticsService.getDroppedShapeCount();
+    }
+    
+    public Long getSlowQueryThreshold() {
+        if (slowQueryThreshold == null) {
+            slowQueryThreshold = queryDiagnosticsService.getThresholdMillis();
+        }
+        return slowQueryThreshold;
+    }
+    
+    public void setSlowQueryThreshold(Long slowQueryThreshold) {
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+    
+    public CatalogImportService.ImportProgress getImportProgress() {
+        return catalogImportService.getProgress();
+    }
+    
+    public boolean isImportRunning() {
+        return catalogImportService.isRunning();
+    }
+    
+    public List<String> getResumableImports() {
+        return catalogImportService.isRunning() ? new ArrayList<>() : catalogImportService.getResumableImports();
+    }
+    
+    public Part getImportFile() {
+        return importFile;
+    }
+    
+    public void setImportFile(Part importFile) {
+        this.importFile = importFile;
+    }
+    
+    public String getActiveTab() {
+        return activeTab;
+    }
+    
+    public DashboardService.DashboardSnapshot getSnapshot() {
+        try {
+            return dashboardService.getSnapshot();
+        } catch (Exception e) {
+            logger.severe("Error loading dashboard snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+    
     public RentalService.RentalStats getRentalStats() {
-        return rentalStats;
+        DashboardService.DashboardSnapshot snapshot = getSnapshot();
+        return snapshot != null ? snapshot.getRentalStats() : null;
     }
     
     public MovieService.MovieStats getMovieStats() {
-        return movieStats;
+        DashboardService.DashboardSnapshot snapshot = getSnapshot();
+        return snapshot != null ? snapshot.getMovieStats() : null;
     }
     
     public UserService.UserStats getUserStats() {
-        return userStats;
+        DashboardService.DashboardSnapshot snapshot = getSnapshot();
+        return snapshot != null ? snapshot.getUserStats() : null;
     }
     
     public String getUserSearchTerm() {
@@ -460,6 +716,9 @@ public class AdminBean implements Serializable {
     }
     
     public List<Movie> getAllMovies() {
+        if (allMovies == null) {
+            loadAllMovies();
+        }
         return allMovies;
     }
     
@@ -473,31 +732,38 @@ public class AdminBean implements Serializable {
     
     // Statistics getters for convenience
     public long getTotalRentals() {
+        RentalService.RentalStats rentalStats = getRentalStats();
         return rentalStats != null ? rentalStats.getTotalRentals() : 0;
     }
     
     public long getActiveRentals() {
+        RentalService.RentalStats rentalStats = getRentalStats();
         return rentalStats != null ? rentalStats.getActiveRentals() : 0;
     }
     
     public long getTotalMovies() {
+        MovieService.MovieStats movieStats = getMovieStats();
         return movieStats != null ? movieStats.getTotalMovies() : 0;
     }
     
     public long getAvailableMovies() {
+        MovieService.MovieStats movieStats = getMovieStats();
         return movieStats != null ? movieStats.getAvailableMovies() : 0;
     }
     
     public long getTotalUsers() {
+        UserService.UserStats userStats = getUserStats();
         return userStats != null ? userStats.getTotalUsers() : 0;
     }
     
     public long getActiveUsers() {
+        UserService.UserStats userStats = getUserStats();
         return userStats != null ? userStats.getActiveUsers() : 0;
     }
     
-    public int getOverdueRentalCount() {
-        return overdueRentals != null ? overdueRentals.size() : 0;
+    public long getOverdueRentalCount() {
+        RentalService.RentalStats rentalStats = getRentalStats();
+        return rentalStats != null ? rentalStats.getOverdueRentals() : 0;
     }
     
     public int getLowStockMovieCount() {
@@ -1,6 +1,7 @@
 package com.mycompany.blockkbusterr.bean;
 
 import com.mycompany.blockkbusterr.entity.User;
+import com.mycompany.blockkbusterr.service.PasswordHashingService;
 import com.mycompany.blockkbusterr.service.UserService;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.faces.application.FacesMessage;
@@ -11,6 +12,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import java.io.Serializable;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Logger;
 
 /**
@@ -26,6 +28,9 @@ public class AuthenticationBean implements Serializable {
     @Inject
     private UserService userService;
     
+    @Inject
+    private PasswordHashingService passwordHashingService;
+    
     @Inject
     private SessionBean sessionBean;
     
@@ -63,7 +68,8 @@ public class AuthenticationBean implements Serializable {
             }
             
             // Attempt authentication
-            Optional<User> userOpt = userService.authenticateUser(username.trim(), password);
+            Optional<User> userOpt = passwordHashingService.await(
+                userService.authenticateUserAsync(username.trim(), password));
             
             if (userOpt.isPresent()) {
                 User user = userOpt.get();
@@ -93,6 +99,12 @@ public class AuthenticationBean implements Serializable {
                 return null;
             }
             
+        } catch (RejectedExecutionException e) {
+            logger.warning("Login rejected, password hashing pool is saturated: " + username);
+            addErrorMessage("The server is busy processing logins. Please try again in a moment.");
+            password = "";
+            return null;
+            
         } catch (Exception e) {
             logger.severe("Login error: " + e.getMessage());
             addErrorMessage("An error occurred during login. Please try again.");
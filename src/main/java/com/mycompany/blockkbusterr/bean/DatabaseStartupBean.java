@@ -1,6 +1,8 @@
 package com.mycompany.blockkbusterr.bean;
 
 import com.mycompany.blockkbusterr.service.DatabaseInitializationService;
+import com.mycompany.blockkbusterr.service.RatingReconciliationService;
+import com.mycompany.blockkbusterr.service.SchemaMigrationService;
 import jakarta.annotation.PostConstruct;
 import jakarta.ejb.Singleton;
 import jakarta.ejb.Startup;
@@ -20,6 +22,12 @@ public class DatabaseStartupBean {
     @Inject
     private DatabaseInitializationService initService;
     
+    @Inject
+    private RatingReconciliationService ratingReconciliationService;
+    
+    @Inject
+    private SchemaMigrationService schemaMigrationService;
+    
     @PostConstruct
     public void initialize() {
         logger.info("=== DatabaseStartupBean @PostConstruct called ===");
@@ -38,6 +46,14 @@ public class DatabaseStartupBean {
             logger.info("DatabaseInitializationService injected successfully");
         }
         
+        try {
+            // Bring the schema up to date before anything touches the tables
+            schemaMigrationService.migrate();
+        } catch (Exception e) {
+            logger.severe("Schema migration failed, skipping data initialization: " + e.getMessage());
+            return;
+        }
+        
         try {
             // Explicitly trigger initialization since CDI event observer might not work
             logger.info("=== Manually triggering database initialization ===");
@@ -47,6 +63,13 @@ public class DatabaseStartupBean {
             logger.severe("Database startup initialization failed: " + e.getMessage());
             e.printStackTrace();
         }
+        
+        try {
+            // Backfill or repair materialized rating aggregates
+            ratingReconciliationService.reconcile();
+        } catch (Exception e) {
+            logger.severe("Rating reconciliation at startup failed: " + e.getMessage());
+        }
     }
     
     /**
@@ -3,6 +3,8 @@ package com.mycompany.blockkbusterr.bean;
 import com.mycompany.blockkbusterr.entity.Movie;
 import com.mycompany.blockkbusterr.entity.Review;
 import com.mycompany.blockkbusterr.entity.User;
+import com.mycompany.blockkbusterr.repository.Page;
+import com.mycompany.blockkbusterr.repository.PageRequest;
 import com.mycompany.blockkbusterr.service.MovieService;
 import com.mycompany.blockkbusterr.service.ReviewService;
 import jakarta.annotation.PostConstruct;
@@ -12,14 +14,20 @@ import jakarta.faces.context.FacesContext;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 @Named
 @ViewScoped
 public class MovieDetailsBean implements Serializable {
     
     private static final long serialVersionUID = 1L;
+    private static final Logger logger = Logger.getLogger(MovieDetailsBean.class.getName());
+    private static final int REVIEW_PAGE_SIZE = 10;
+    private static final int ALSO_RENTED_SIZE = 6;
     
     @Inject
     private MovieService movieService;
@@ -31,13 +39,19 @@ public class MovieDetailsBean implements Serializable {
     private SessionBean sessionBean;
     
     @Inject
-    private com.mycompany.blockkbusterr.service.RentalService rentalService;
+    private com.mycompany.blockkbusterr.service.RentalSubmissionService rentalSubmissionService;
+    
+    @Inject
+    private com.mycompany.blockkbusterr.service.WaitlistService waitlistService;
     
     private Movie movie;
     private List<Review> movieReviews;
+    private List<Movie> alsoRentedMovies;
+    private Page<Review> lastReviewPage;
     private String newReviewComment;
     private Integer newReviewRating;
     private boolean userHasReviewed;
+    
     private Long movieId; // Store movieId to preserve it across requests
     
     @PostConstruct
@@ -62,28 +76,47 @@ public class MovieDetailsBean implements Serializable {
     }
     
     private void loadMovieDetails(Long movieId) {
-        System.out.println("DEBUG: loadMovieDetails() called with movieId: " + movieId);
+        logger.fine("loadMovieDetails() called with movieId: " + movieId);
         try {
-            System.out.println("DEBUG: Calling movieService.findMovieById(" + movieId + ")");
+            logger.fine("Calling movieService.findMovieById(" + movieId + ")");
             Optional<Movie> movieOpt = movieService.findMovieById(movieId);
             
             if (movieOpt.isPresent()) {
                 movie = movieOpt.get();
-                System.out.println("DEBUG: Successfully loaded movie: " + movie.getTitle() + " (ID: " + movie.getMovieId() + ")");
-                movieReviews = reviewService.getReviewsByMovie(movieId);
-                System.out.println("DEBUG: Loaded " + (movieReviews != null ? movieReviews.size() : "null") + " reviews");
+                logger.fine("Successfully loaded movie: " + movie.getTitle() + " (ID: " + movie.getMovieId() + ")");
+                loadFirstReviewPage();
+                logger.fine("Loaded " + (movieReviews != null ? movieReviews.size() : "null") + " reviews");
                 checkIfUserHasReviewed();
             } else {
-                System.out.println("DEBUG: Movie not found with ID: " + movieId + " - movieService returned empty Optional");
+                logger.fine("Movie not found with ID: " + movieId + " - movieService returned empty Optional");
                 addMessage(FacesMessage.SEVERITY_ERROR, "Movie not found");
             }
         } catch (Exception e) {
-            System.out.println("DEBUG: Exception in loadMovieDetails: " + e.getMessage());
-            e.printStackTrace();
+            logger.log(Level.SEVERE, "Error loading movie details", e);
             addMessage(FacesMessage.SEVERITY_ERROR, "Error loading movie details: " + e.getMessage());
         }
     }
     
+    private void loadFirstReviewPage() {
+        lastReviewPage = reviewService.getReviewsByMoviePage(movie.getMovieId(), PageRequest.first(REVIEW_PAGE_SIZE));
+        movieReviews = new ArrayList<>(lastReviewPage.getItems());
+    }
+    
+    /**
+     * Append the next page of reviews
+     */
+    public void loadMoreReviews() {
+        if (movie == null || lastReviewPage == null || !lastReviewPage.isHasNext()) {
+            return;
+        }
+        try {
+            lastReviewPage = reviewService.getReviewsByMoviePage(movie.getMovieId(), lastReviewPage.nextRequest(REVIEW_PAGE_SIZE));
+            movieReviews.addAll(lastReviewPage.getItems());
+        } catch (Exception e) {
+            addMessage(FacesMessage.SEVERITY_ERROR, "Error loading reviews: " + e.getMessage());
+        }
+    }
+    
     private void checkIfUserHasReviewed() {
         if (sessionBean.isAuthenticated() && movie != null) {
             User currentUser = sessionBean.getCurrentUser();
@@ -92,31 +125,31 @@ public class MovieDetailsBean implements Serializable {
     }
     
     public String rentMovie() {
-        System.out.println("DEBUG: rentMovie() called");
-        System.out.println("DEBUG: movie = " + (movie == null ? "NULL" : movie.getTitle()));
-        System.out.println("DEBUG: movieId = " + movieId);
-        System.out.println("DEBUG: authenticated = " + sessionBean.isAuthenticated());
+        logger.fine("rentMovie() called");
+        logger.fine("movie = " + (movie == null ? "NULL" : movie.getTitle()));
+        logger.fine("movieId = " + movieId);
+        logger.fine("authenticated = " + sessionBean.isAuthenticated());
         
         if (!sessionBean.isAuthenticated()) {
-            System.out.println("DEBUG: User not authenticated, redirecting to login");
+            logger.fine("User not authenticated, redirecting to login");
             addMessage(FacesMessage.SEVERITY_WARN, "Please log in to rent movies");
             return "login?faces-redirect=true";
         }
         
         // Try to reload movie if it's null but we have movieId
         if (movie == null && movieId != null) {
-            System.out.println("DEBUG: Movie is null but movieId exists, attempting to reload");
+            logger.fine("Movie is null but movieId exists, attempting to reload");
             loadMovieDetails(movieId);
         }
         
         if (movie == null) {
-            System.out.println("DEBUG: Movie is still null, cannot proceed with rental");
+            logger.fine("Movie is still null, cannot proceed with rental");
             addMessage(FacesMessage.SEVERITY_ERROR, "Movie not found or session expired. Please try again.");
             return "mainPage?faces-redirect=true";
         }
         
         try {
-            System.out.println("DEBUG: Using quick rental for movieId: " + movie.getMovieId());
+            logger.fine("Using quick rental for movieId: " + movie.getMovieId());
             
             // Check if movie is available
             if (!movie.isAvailable()) {
@@ -124,23 +157,20 @@ public class MovieDetailsBean implements Serializable {
                 return null;
             }
             
-            // Check if user can rent this movie
-            if (!rentalService.canUserRentMovie(sessionBean.getCurrentUserId(), movie.getMovieId())) {
-                addMessage(FacesMessage.SEVERITY_ERROR, "You cannot rent this movie. You may already have an active rental for this movie or have reached the maximum number of rentals.");
-                return null;
-            }
-            
             // Set return date to 1 week from now
             java.time.LocalDate oneWeekFromNow = java.time.LocalDate.now().plusWeeks(1);
             
-            // Create the rental directly using RentalService
-            com.mycompany.blockkbusterr.entity.Rental rental = rentalService.createRental(
+            // Check eligibility and create the rental; repeated clicks on the same
+            // rendered form share the first result
+            com.mycompany.blockkbusterr.service.RentalSubmissionService.RentalReceipt rental = rentalSubmissionService.submitRental(
+                FacesContext.getCurrentInstance().getExternalContext().getRequestParameterMap()
+                        .get(com.mycompany.blockkbusterr.service.RentalSubmissionService.KEY_PARAMETER),
                 sessionBean.getCurrentUserId(),
                 movie.getMovieId(),
                 oneWeekFromNow
             );
             
-            System.out.println("DEBUG: Quick rental created successfully: " + rental.getRentalId());
+            logger.fine("Quick rental created successfully: " + rental.getRentalId());
             addMessage(FacesMessage.SEVERITY_INFO, "Movie '" + movie.getTitle() + "' rented successfully for 1 week! Due back on " +
                      oneWeekFromNow.format(java.time.format.DateTimeFormatter.ofPattern("MMM dd, yyyy")));
             
@@ -148,45 +178,86 @@ public class MovieDetailsBean implements Serializable {
             return "rentalHistory?faces-redirect=true";
             
         } catch (IllegalArgumentException e) {
-            System.out.println("DEBUG: Quick rental failed: " + e.getMessage());
+            logger.fine("Quick rental failed: " + e.getMessage());
             addMessage(FacesMessage.SEVERITY_ERROR, e.getMessage());
             return null;
         } catch (Exception e) {
-            System.out.println("DEBUG: Error during quick rental: " + e.getMessage());
-            e.printStackTrace();
+            logger.log(Level.SEVERE, "Error during quick rental", e);
             addMessage(FacesMessage.SEVERITY_ERROR, "An error occurred while processing your rental. Please try again.");
             return null;
         }
     }
     
+    /**
+     * Fresh idempotency key, rendered into the rent form
+     */
+    public String getRentalKey() {
+        return com.mycompany.blockkbusterr.service.RentalSubmissionService.newKey();
+    }
+    
+    /**
+     * Wait for the next copy of an out-of-stock movie; it is rented to the
+     * user automatically when it comes back
+     */
+    public String joinWaitlist() {
+        if (!sessionBean.isAuthenticated()) {
+            addMessage(FacesMessage.SEVERITY_WARN, "Please log in to join the waitlist");
+            return "login?faces-redirect=true";
+        }
+        
+        if (movie == null && movieId != null) {
+            loadMovieDetails(movieId);
+        }
+        
+        if (movie == null) {
+            addMessage(FacesMessage.SEVERITY_ERROR, "Movie not found or session expired. Please try again.");
+            return "mainPage?faces-redirect=true";
+        }
+        
+        try {
+            waitlistService.join(sessionBean.getCurrentUserId(), movie.getMovieId());
+            addMessage(FacesMessage.SEVERITY_INFO, "You are on the waitlist for '" + movie.getTitle() +
+                     "'. When your turn comes, the next copy in stock will be held for you to confirm.");
+            return "rentalHistory?faces-redirect=true";
+            
+        } catch (IllegalArgumentException e) {
+            addMessage(FacesMessage.SEVERITY_ERROR, e.getMessage());
+            return null;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error joining waitlist", e);
+            addMessage(FacesMessage.SEVERITY_ERROR, "An error occurred while joining the waitlist. Please try again.");
+            return null;
+        }
+    }
+    
     public void submitReview() {
-        System.out.println("DEBUG: submitReview() called");
-        System.out.println("DEBUG: movieId = " + movieId);
-        System.out.println("DEBUG: movie = " + (movie == null ? "NULL" : movie.getTitle()));
-        System.out.println("DEBUG: authenticated = " + sessionBean.isAuthenticated());
-        System.out.println("DEBUG: sessionBean = " + sessionBean);
-        System.out.println("DEBUG: movieService = " + movieService);
+        logger.fine("submitReview() called");
+        logger.fine("movieId = " + movieId);
+        logger.fine("movie = " + (movie == null ? "NULL" : movie.getTitle()));
+        logger.fine("authenticated = " + sessionBean.isAuthenticated());
+        logger.fine("sessionBean = " + sessionBean);
+        logger.fine("movieService = " + movieService);
         
         if (!sessionBean.isAuthenticated()) {
-            System.out.println("DEBUG: User not authenticated, returning");
+            logger.fine("User not authenticated, returning");
             addMessage(FacesMessage.SEVERITY_WARN, "Please log in to submit reviews");
             return;
         }
         
         if (movie == null) {
-            System.out.println("DEBUG: Movie is null, trying to reload with movieId: " + movieId);
+            logger.fine("Movie is null, trying to reload with movieId: " + movieId);
             // Try to reload movie if movieId is available
             if (movieId != null) {
-                System.out.println("DEBUG: movieId is not null, calling loadMovieDetails");
+                logger.fine("movieId is not null, calling loadMovieDetails");
                 loadMovieDetails(movieId);
-                System.out.println("DEBUG: After reload, movie = " + (movie == null ? "NULL" : movie.getTitle()));
+                logger.fine("After reload, movie = " + (movie == null ? "NULL" : movie.getTitle()));
             } else {
-                System.out.println("DEBUG: movieId is also null, cannot reload");
+                logger.fine("movieId is also null, cannot reload");
             }
             if (movie == null) {
-                System.out.println("DEBUG: Movie still null after reload attempt - THIS IS THE ERROR LOCATION");
-                System.out.println("DEBUG: Final movieId = " + movieId);
-                System.out.println("DEBUG: Final movieService = " + movieService);
+                logger.fine("Movie still null after reload attempt - THIS IS THE ERROR LOCATION");
+                logger.fine("Final movieId = " + movieId);
+                logger.fine("Final movieService = " + movieService);
                 addMessage(FacesMessage.SEVERITY_ERROR, "Movie not found or an error occurred loading movie details.");
                 return;
             }
@@ -211,12 +282,13 @@ public class MovieDetailsBean implements Serializable {
             User currentUser = sessionBean.getCurrentUser();
             Review review = new Review(currentUser, movie, newReviewRating, newReviewComment.trim());
             
-            System.out.println("DEBUG: Submitting review for movie: " + movie.getMovieId() + " by user: " + currentUser.getUserId());
+            logger.fine("Submitting review for movie: " + movie.getMovieId() + " by user: " + currentUser.getUserId());
             reviewService.addReview(currentUser.getUserId(), movie.getMovieId(), newReviewRating, newReviewComment.trim());
             
             // Refresh reviews and reset form
-            System.out.println("DEBUG: Refreshing reviews after submission");
-            movieReviews = reviewService.getReviewsByMovie(movie.getMovieId());
+            logger.fine("Refreshing reviews after submission");
+            loadFirstReviewPage();
+            movieService.findMovieById(movie.getMovieId()).ifPresent(updated -> movie = updated);
             userHasReviewed = true;
             newReviewComment = null;
             newReviewRating = null;
@@ -250,6 +322,24 @@ public class MovieDetailsBean implements Serializable {
         this.movieReviews = movieReviews;
     }
     
+    /**
+     * Movies most often rented by customers who rented this one, loaded on first access
+     */
+    public List<Movie> getAlsoRentedMovies() {
+        if (alsoRentedMovies == null) {
+            if (movie == null) {
+                return new ArrayList<>();
+            }
+            try {
+                alsoRentedMovies = movieService.getAlsoRentedMovies(movie.getMovieId(), ALSO_RENTED_SIZE);
+            } catch (Exception e) {
+                logger.fine("Error loading also-rented movies: " + e.getMessage());
+                alsoRentedMovies = new ArrayList<>();
+            }
+        }
+        return alsoRentedMovies;
+    }
+    
     public String getNewReviewComment() {
         return newReviewComment;
     }
@@ -287,6 +377,10 @@ public class MovieDetailsBean implements Serializable {
         return movie != null;
     }
     
+    public int getWaitingCount() {
+        return movie != null ? waitlistService.getWaitingCount(movie.getMovieId()) : 0;
+    }
+    
     public boolean isMovieAvailable() {
         return movie != null && movie.isAvailable();
     }
@@ -299,20 +393,18 @@ public class MovieDetailsBean implements Serializable {
         return movieReviews != null && !movieReviews.isEmpty();
     }
     
+    public boolean isHasMoreReviews() {
+        return lastReviewPage != null && lastReviewPage.isHasNext();
+    }
+    
+    public long getReviewCount() {
+        return movie != null && movie.getRatingCount() != null ? movie.getRatingCount() : 0;
+    }
+    
     
     public String getAverageRatingFormatted() {
-        if (movie == null) return "No ratings";
-        
-        // Log debugging information
-        System.out.println("DEBUG: getAverageRatingFormatted() called for movie: " + movie.getMovieId());
-        System.out.println("DEBUG: Movie reviews collection size: " + (movie.getReviews() != null ? movie.getReviews().size() : "null"));
-        
-        // Use ReviewService instead of Movie's lazy-loaded collection
-        double avgRating = reviewService.getAverageRatingForMovie(movie.getMovieId());
-        System.out.println("DEBUG: Average rating from ReviewService: " + avgRating);
-        
-        if (avgRating == 0.0) return "No ratings";
-        return String.format("%.1f/5.0", avgRating);
+        if (movie == null || movie.getRatingCount() == null || movie.getRatingCount() == 0) return "No ratings";
+        return String.format("%.1f/5.0", movie.getAverageRating());
     }
     
     public String getRatingStarsDisplay(int rating) {
@@ -2,6 +2,7 @@ package com.mycompany.blockkbusterr.bean;
 
 import com.mycompany.blockkbusterr.entity.Movie;
 import com.mycompany.blockkbusterr.service.MovieService;
+import com.mycompany.blockkbusterr.util.MovieFilterEngine;
 import jakarta.annotation.PostConstruct;
 import jakarta.faces.event.AjaxBehaviorEvent;
 import jakarta.faces.view.ViewScoped;
@@ -27,6 +28,7 @@ public class MovieListBean implements Serializable {
     
     private List<Movie> movies;
     private List<Movie> filteredMovies;
+    private MovieFilterEngine filterEngine;
     private String searchTerm = "";
     private String selectedGenre = "";
     private List<String> availableGenres;
@@ -43,14 +45,16 @@ public class MovieListBean implements Serializable {
      */
     private void loadMovies() {
         try {
+            // Shared immutable catalog view; no per-view copy needed
             movies = movieService.getAllMovies();
-            filteredMovies = new ArrayList<>(movies);
+            filteredMovies = movies;
             logger.info("Loaded " + movies.size() + " movies");
         } catch (Exception e) {
             logger.severe("Error loading movies: " + e.getMessage());
             movies = new ArrayList<>();
             filteredMovies = new ArrayList<>();
         }
+        filterEngine = new MovieFilterEngine(movies);
     }
     
     /**
@@ -67,46 +71,19 @@ public class MovieListBean implements Serializable {
     }
     
     /**
-     * Search movies based on search term, genre filter, and availability
+     * Search movies based on search term, genre filter, and availability.
+     * Title and genre filter the catalog snapshot loaded for this view, with no
+     * database access per keystroke; availability is checked against the current
+     * stock of the matches, since copies are rented while the view is open.
      */
     public void searchMovies() {
         try {
-            logger.info("Starting search with searchTerm='" + searchTerm + "', selectedGenre='" + selectedGenre + "', showAvailableOnly=" + showAvailableOnly);
-            filteredMovies = new ArrayList<>();
-            
-            // Start with all movies or available movies only
-            List<Movie> sourceMovies = showAvailableOnly ?
-                movieService.getAvailableMovies() : movieService.getAllMovies();
-            
-            logger.info("Source movies count: " + sourceMovies.size());
-            
-            for (Movie movie : sourceMovies) {
-                boolean matches = true;
-                
-                // Filter by search term (title or description)
-                if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-                    String search = searchTerm.toLowerCase().trim();
-                    boolean titleMatch = movie.getTitle().toLowerCase().contains(search);
-                    boolean descMatch = movie.getDescription() != null &&
-                                      movie.getDescription().toLowerCase().contains(search);
-                    matches = titleMatch || descMatch;
-                    logger.info("Movie '" + movie.getTitle() + "' search filter: " + matches);
-                }
-                
-                // Filter by genre
-                if (matches && selectedGenre != null && !selectedGenre.trim().isEmpty()) {
-                    boolean genreMatch = movie.getGenre().equalsIgnoreCase(selectedGenre.trim());
-                    matches = genreMatch;
-                    logger.info("Movie '" + movie.getTitle() + "' (genre: '" + movie.getGenre() + "') vs selected '" + selectedGenre + "': " + matches);
-                }
-                
-                if (matches) {
-                    filteredMovies.add(movie);
-                }
+            if (filterEngine == null) {
+                loadMovies();
             }
-            
-            logger.info("Search completed. Found " + filteredMovies.size() + " movies");
-            
+            List<Movie> matches = filterEngine.filter(searchTerm, selectedGenre);
+            filteredMovies = showAvailableOnly ? movieService.filterAvailable(matches) : matches;
+            logger.fine("Search for '" + searchTerm + "' (genre '" + selectedGenre + "', availableOnly=" + showAvailableOnly + ") found " + filteredMovies.size() + " movies");
         } catch (Exception e) {
             logger.severe("Error searching movies: " + e.getMessage());
             filteredMovies = new ArrayList<>();
@@ -134,7 +111,6 @@ public class MovieListBean implements Serializable {
      * Toggle availability filter
      */
     public void toggleAvailabilityFilter() {
-        logger.info("toggleAvailabilityFilter() called - showAvailableOnly: " + showAvailableOnly);
         searchMovies();
     }
     
@@ -142,7 +118,6 @@ public class MovieListBean implements Serializable {
      * AJAX listener method for availability filter toggle
      */
     public void toggleAvailabilityFilter(AjaxBehaviorEvent event) {
-        logger.info("toggleAvailabilityFilter(AjaxBehaviorEvent) called - showAvailableOnly: " + showAvailableOnly);
         searchMovies();
     }
     
@@ -157,7 +132,6 @@ public class MovieListBean implements Serializable {
      * AJAX listener method for genre filter
      */
     public void onGenreChange(AjaxBehaviorEvent event) {
-        logger.info("Genre changed to: " + selectedGenre);
         searchMovies();
     }
     
@@ -233,9 +207,7 @@ public class MovieListBean implements Serializable {
     }
     
     public List<Movie> getFilteredMovies() {
-        logger.info("getFilteredMovies() called, returning " + (filteredMovies != null ? filteredMovies.size() : "null") + " movies");
         if (filteredMovies == null || filteredMovies.isEmpty()) {
-            logger.info("filteredMovies is null or empty, calling searchMovies()");
             searchMovies();
         }
         return filteredMovies;
@@ -250,12 +222,10 @@ public class MovieListBean implements Serializable {
     }
     
     public String getSelectedGenre() {
-        logger.info("getSelectedGenre() called, returning: '" + selectedGenre + "'");
         return selectedGenre;
     }
     
     public void setSelectedGenre(String selectedGenre) {
-        logger.info("setSelectedGenre() called with: '" + selectedGenre + "'");
         this.selectedGenre = selectedGenre;
     }
     
@@ -1,8 +1,9 @@
 package com.mycompany.blockkbusterr.bean;
 
-import com.mycompany.blockkbusterr.entity.Rental;
+import com.mycompany.blockkbusterr.dto.RentalRow;
 import com.mycompany.blockkbusterr.entity.Review;
 import com.mycompany.blockkbusterr.entity.User;
+import com.mycompany.blockkbusterr.repository.PageRequest;
 import com.mycompany.blockkbusterr.service.RentalService;
 import com.mycompany.blockkbusterr.service.ReviewService;
 import com.mycompany.blockkbusterr.service.UserService;
@@ -22,6 +23,7 @@ import java.util.Optional;
 public class ProfileBean implements Serializable {
     
     private static final long serialVersionUID = 1L;
+    private static final int RECENT_RENTALS_SIZE = 5;
     
     @Inject
     private RentalService rentalService;
@@ -36,7 +38,8 @@ public class ProfileBean implements Serializable {
     private SessionBean sessionBean;
     
     private User currentUser;
-    private List<Rental> userRentals;
+    private List<RentalRow> userRentals;
+    private RentalService.UserRentalStats userRentalStats;
     private List<Review> userReviews;
     private boolean editMode = false;
     
@@ -62,8 +65,10 @@ public class ProfileBean implements Serializable {
         try {
             currentUser = sessionBean.getCurrentUser();
             if (currentUser != null) {
-                // Load user's rental history
-                userRentals = rentalService.getRentalsByUser(currentUser.getUserId());
+                // Load the most recent rentals as list rows; totals come from one aggregate query
+                userRentals = rentalService.getRentalHistoryRowsPage(currentUser.getUserId(),
+                        PageRequest.first(RECENT_RENTALS_SIZE)).getItems();
+                userRentalStats = rentalService.getUserRentalStats(currentUser.getUserId());
                 
                 // Load user's reviews
                 userReviews = reviewService.getReviewsByUser(currentUser.getUserId());
@@ -204,11 +209,11 @@ public class ProfileBean implements Serializable {
         this.currentUser = currentUser;
     }
     
-    public List<Rental> getUserRentals() {
+    public List<RentalRow> getUserRentals() {
         return userRentals;
     }
     
-    public void setUserRentals(List<Rental> userRentals) {
+    public void setUserRentals(List<RentalRow> userRentals) {
         this.userRentals = userRentals;
     }
     
@@ -295,8 +300,8 @@ public class ProfileBean implements Serializable {
         return hasReviews();
     }
     
-    public int getTotalRentals() {
-        return userRentals != null ? userRentals.size() : 0;
+    public long getTotalRentals() {
+        return userRentalStats != null ? userRentalStats.getTotalRentals() : 0;
     }
     
     public int getTotalReviews() {
@@ -304,10 +309,8 @@ public class ProfileBean implements Serializable {
     }
     
     public long getActiveRentals() {
-        if (userRentals == null) return 0;
-        return userRentals.stream()
-                .filter(rental -> !rental.isReturned())
-                .count();
+        if (userRentalStats == null) return 0;
+        return userRentalStats.getTotalRentals() - userRentalStats.getReturnedRentals();
     }
     
     public String getMemberSince() {
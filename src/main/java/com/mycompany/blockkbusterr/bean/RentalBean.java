@@ -1,10 +1,17 @@
 package com.mycompany.blockkbusterr.bean;
 
+import com.mycompany.blockkbusterr.dto.RentalRow;
 import com.mycompany.blockkbusterr.entity.Movie;
 import com.mycompany.blockkbusterr.entity.Rental;
 import com.mycompany.blockkbusterr.entity.RentalStatus;
+import com.mycompany.blockkbusterr.repository.Page;
+import com.mycompany.blockkbusterr.repository.PageRequest;
 import com.mycompany.blockkbusterr.service.MovieService;
 import com.mycompany.blockkbusterr.service.RentalService;
+import com.mycompany.blockkbusterr.service.RentalSubmissionService;
+import com.mycompany.blockkbusterr.service.RentalSubmissionService.RentalReceipt;
+import com.mycompany.blockkbusterr.service.WaitlistNotifier;
+import com.mycompany.blockkbusterr.service.WaitlistService;
 import jakarta.annotation.PostConstruct;
 import jakarta.faces.view.ViewScoped;
 import jakarta.faces.application.FacesMessage;
@@ -20,6 +27,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.logging.Logger;
 
 /**
@@ -31,6 +39,7 @@ public class RentalBean implements Serializable {
     
     private static final long serialVersionUID = 1L;
     private static final Logger logger = Logger.getLogger(RentalBean.class.getName());
+    private static final int HISTORY_PAGE_SIZE = 20;
     
     @Inject
     private RentalService rentalService;
@@ -38,6 +47,15 @@ public class RentalBean implements Serializable {
     @Inject
     private MovieService movieService;
     
+    @Inject
+    private RentalSubmissionService rentalSubmissionService;
+    
+    @Inject
+    private WaitlistService waitlistService;
+    
+    @Inject
+    private WaitlistNotifier waitlistNotifier;
+    
     @Inject
     private SessionBean sessionBean;
     
@@ -50,14 +68,23 @@ public class RentalBean implements Serializable {
     
     private String notes;
     
+    // Idempotency key prefix for rentals submitted from this view, so a double-click rents once
+    private final String submissionToken = UUID.randomUUID().toString();
+    
     // Rental history
-    private List<Rental> userRentals;
-    private List<Rental> filteredRentals;
+    private List<RentalRow> userRentals;
+    private List<RentalRow> filteredRentals;
     private String statusFilter = "ALL";
+    private Page<RentalRow> lastHistoryPage;
+    private RentalService.UserRentalStats userRentalStats;
+    
+    // Movies the user is waiting for
+    private List<WaitlistService.WaitlistPosition> waitlistPositions = new ArrayList<>();
+    private List<WaitlistService.WaitlistOffer> heldOffers = new ArrayList<>();
     
     // Admin functionality
     private List<Rental> allRentals;
-    private List<Rental> overdueRentals;
+    private List<RentalRow> overdueRentals;
     
     @PostConstruct
     public void init() {
@@ -173,17 +200,16 @@ public class RentalBean implements Serializable {
                 return null;
             }
             
-            // Create the rental
-            Rental rental = rentalService.createRental(
+            // Create the rental; a repeated submit of the same form shares the first result
+            String key = postedRentalKey();
+            RentalReceipt rental = rentalSubmissionService.submitRental(
+                key != null ? key : submissionToken + ":" + selectedMovie.getMovieId() + ":" + returnDate,
                 sessionBean.getCurrentUserId(),
                 selectedMovie.getMovieId(),
-                returnDate
+                returnDate,
+                notes
             );
             
-            if (notes != null && !notes.trim().isEmpty()) {
-                rental.setNotes(notes.trim());
-            }
-            
             logger.info("Rental created successfully: " + rental.getRentalId());
             addSuccessMessage("Movie rented successfully! Rental ID: " + rental.getRentalId());
             
@@ -232,17 +258,13 @@ public class RentalBean implements Serializable {
                 return null;
             }
             
-            // Check if user can rent this movie
-            if (!rentalService.canUserRentMovie(sessionBean.getCurrentUserId(), movieId)) {
-                addErrorMessage("You cannot rent this movie. You may already have an active rental for this movie or have reached the maximum number of rentals.");
-                return null;
-            }
-            
             // Set return date to 1 week from now
             LocalDate oneWeekFromNow = LocalDate.now().plusWeeks(1);
             
-            // Create the rental
-            Rental rental = rentalService.createRental(
+            // Check eligibility and create the rental; repeated clicks on the same
+            // rendered form share the first result
+            RentalReceipt rental = rentalSubmissionService.submitRental(
+                postedRentalKey(),
                 sessionBean.getCurrentUserId(),
                 movieId,
                 oneWeekFromNow
@@ -268,20 +290,164 @@ public class RentalBean implements Serializable {
     }
     
     /**
-     * Load user rental history
+     * Fresh idempotency key, rendered into each rent form
+     */
+    public String getRentalKey() {
+        return RentalSubmissionService.newKey();
+    }
+    
+    // Idempotency key posted with the submitted rent form, if it carried one
+    private String postedRentalKey() {
+        return FacesContext.getCurrentInstance()
+            .getExternalContext().getRequestParameterMap().get(RentalSubmissionService.KEY_PARAMETER);
+    }
+    
+    /**
+     * Load the first page of user rental history
      */
     public void loadUserRentals() {
         try {
             if (sessionBean.isAuthenticated()) {
-                userRentals = rentalService.getRentalsByUser(sessionBean.getCurrentUserId());
+                Long userId = sessionBean.getCurrentUserId();
+                lastHistoryPage = rentalService.getRentalHistoryRowsPage(userId, PageRequest.first(HISTORY_PAGE_SIZE));
+                userRentals = new ArrayList<>(lastHistoryPage.getItems());
+                userRentalStats = rentalService.getUserRentalStats(userId);
                 filterRentals();
                 logger.info("Loaded " + userRentals.size() + " rentals for user");
+                
+                // Waitlist outcomes delivered since the last visit
+                for (String notice : waitlistNotifier.drain(userId)) {
+                    addSuccessMessage(notice);
+                }
+                waitlistPositions = waitlistService.getWaitingPositions(userId);
+                heldOffers = waitlistService.getOffers(userId);
             } else {
                 userRentals = new ArrayList<>();
+                lastHistoryPage = null;
+                waitlistPositions = new ArrayList<>();
+                heldOffers = new ArrayList<>();
             }
         } catch (Exception e) {
             logger.severe("Error loading user rentals: " + e.getMessage());
             userRentals = new ArrayList<>();
+            lastHistoryPage = null;
+            addErrorMessage("Error loading rental history.");
+        }
+    }
+    
+    /**
+     * Join the waitlist of an out-of-stock movie
+     */
+    public String joinWaitlist(Long movieId) {
+        try {
+            if (!sessionBean.isAuthenticated()) {
+                addErrorMessage("You must be logged in to join a waitlist.");
+                return "login.xhtml?faces-redirect=true";
+            }
+            
+            waitlistService.join(sessionBean.getCurrentUserId(), movieId);
+            addSuccessMessage("You are on the waitlist. When your turn comes, the next copy in stock will be held for you to confirm.");
+            return "rentalHistory.xhtml?faces-redirect=true";
+            
+        } catch (IllegalArgumentException e) {
+            addErrorMessage(e.getMessage());
+            return null;
+        } catch (Exception e) {
+            logger.severe("Error joining waitlist: " + e.getMessage());
+            addErrorMessage("An error occurred while joining the waitlist. Please try again.");
+            return null;
+        }
+    }
+    
+    /**
+     * Leave a waitlist
+     */
+    public void leaveWaitlist(Long entryId) {
+        try {
+            if (!sessionBean.isAuthenticated()) {
+                addErrorMessage("You must be logged in to leave a waitlist.");
+                return;
+            }
+            
+            if (waitlistService.leave(sessionBean.getCurrentUserId(), entryId)) {
+                addSuccessMessage("You have left the waitlist.");
+            } else {
+                addErrorMessage("This waitlist entry has already been resolved.");
+            }
+            loadUserRentals();
+        } catch (IllegalArgumentException e) {
+            addErrorMessage(e.getMessage());
+        } catch (Exception e) {
+            logger.severe("Error leaving waitlist: " + e.getMessage());
+            addErrorMessage("Error leaving waitlist: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Rent the copy held for the user from a waitlist
+     */
+    public void claimHold(Long entryId) {
+        try {
+            if (!sessionBean.isAuthenticated()) {
+                addErrorMessage("You must be logged in to confirm a held copy.");
+                return;
+            }
+            
+            Rental rental = rentalService.claimWaitlistOffer(sessionBean.getCurrentUserId(), entryId);
+            addSuccessMessage("Rental confirmed! Rental ID: " + rental.getRentalId());
+            loadUserRentals();
+        } catch (IllegalArgumentException e) {
+            addErrorMessage(e.getMessage());
+        } catch (Exception e) {
+            logger.severe("Error confirming held copy: " + e.getMessage());
+            addErrorMessage("An error occurred while confirming the held copy. Please try again.");
+        }
+    }
+    
+    /**
+     * Turn down the copy held for the user; it goes to the next user in line
+     */
+    public void declineHold(Long entryId) {
+        try {
+            if (!sessionBean.isAuthenticated()) {
+                addErrorMessage("You must be logged in to decline a held copy.");
+                return;
+            }
+            
+            rentalService.declineWaitlistOffer(sessionBean.getCurrentUserId(), entryId);
+            addSuccessMessage("You have declined the held copy.");
+            loadUserRentals();
+        } catch (IllegalArgumentException e) {
+            addErrorMessage(e.getMessage());
+        } catch (Exception e) {
+            logger.severe("Error declining held copy: " + e.getMessage());
+            addErrorMessage("Error declining held copy: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Load user rental history unless it is already loaded for this view
+     */
+    public void loadUserRentalsIfNeeded() {
+        if (userRentals == null) {
+            loadUserRentals();
+        }
+    }
+    
+    /**
+     * Append the next page of user rental history
+     */
+    public void loadMoreUserRentals() {
+        if (lastHistoryPage == null || !lastHistoryPage.isHasNext() || !sessionBean.isAuthenticated()) {
+            return;
+        }
+        try {
+            lastHistoryPage = rentalService.getRentalHistoryRowsPage(sessionBean.getCurrentUserId(),
+                    lastHistoryPage.nextRequest(HISTORY_PAGE_SIZE));
+            userRentals.addAll(lastHistoryPage.getItems());
+            filterRentals();
+        } catch (Exception e) {
+            logger.severe("Error loading more user rentals: " + e.getMessage());
             addErrorMessage("Error loading rental history.");
         }
     }
@@ -346,7 +512,7 @@ public class RentalBean implements Serializable {
             Rental rental = rentalOpt.get();
             
             // Check if rental is active first
-            if (rental.getStatus() != RentalStatus.ACTIVE) {
+            if (!rental.getStatus().isOutstanding()) {
                 addErrorMessage("This rental is not active and cannot be returned.");
                 return;
             }
@@ -455,7 +621,7 @@ public class RentalBean implements Serializable {
     public void loadOverdueRentals() {
         try {
             if (sessionBean.isAdmin()) {
-                overdueRentals = rentalService.getOverdueRentals();
+                overdueRentals = rentalService.getOverdueRentalRows();
                 logger.info("Loaded " + overdueRentals.size() + " overdue rentals");
             }
         } catch (Exception e) {
@@ -504,10 +670,12 @@ public class RentalBean implements Serializable {
     /**
      * Get status badge class for rental
      */
-    public String getStatusClass(Rental rental) {
+    public String getStatusClass(RentalRow rental) {
         switch (rental.getStatus()) {
             case ACTIVE:
                 return rental.isOverdue() ? "status-overdue" : "status-active";
+            case OVERDUE:
+                return "status-overdue";
             case RETURNED:
                 return "status-returned";
             case CANCELLED:
@@ -593,11 +761,11 @@ public class RentalBean implements Serializable {
         this.notes = notes;
     }
     
-    public List<Rental> getUserRentals() {
+    public List<RentalRow> getUserRentals() {
         return userRentals;
     }
     
-    public List<Rental> getFilteredRentals() {
+    public List<RentalRow> getFilteredRentals() {
         return filteredRentals;
     }
     
@@ -614,18 +782,27 @@ public class RentalBean implements Serializable {
         return allRentals;
     }
     
-    public List<Rental> getOverdueRentals() {
+    public List<RentalRow> getOverdueRentals() {
         return overdueRentals;
     }
     
-    public int getUserRentalCount() {
-        return userRentals != null ? userRentals.size() : 0;
+    public List<WaitlistService.WaitlistPosition> getWaitlistPositions() {
+        return waitlistPositions;
+    }
+    
+    public List<WaitlistService.WaitlistOffer> getHeldOffers() {
+        return heldOffers;
+    }
+    
+    public boolean isHasMoreRentals() {
+        return lastHistoryPage != null && lastHistoryPage.isHasNext();
+    }
+    
+    public long getUserRentalCount() {
+        return userRentalStats != null ? userRentalStats.getTotalRentals() : 0;
     }
     
-    public int getActiveRentalCount() {
-        if (userRentals == null) return 0;
-        return (int) userRentals.stream()
-            .filter(rental -> rental.getStatus() == RentalStatus.ACTIVE)
-            .count();
+    public long getActiveRentalCount() {
+        return userRentalStats != null ? userRentalStats.getActiveRentals() : 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.mycompany.blockkbusterr.dto;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.repository.Page;
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.List;
+
+@XmlRootElement(name = "moviePageResponse")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class MoviePageResponse {
+    
+    @XmlElement(name = "movie")
+    private List<MovieResponse> movies = new ArrayList<>();
+    
+    @XmlElement
+    private String nextPageToken;
+    
+    @XmlElement
+    private boolean hasMore;
+    
+    @XmlElement
+    private boolean success;
+    
+    @XmlElement
+    private String message;
+    
+    // Default constructor for JAXB
+    public MoviePageResponse() {}
+    
+    public MoviePageResponse(boolean success, String message) {
+        this.success = success;
+        this.message = message;
+    }
+    
+    // Static factory methods
+    public static MoviePageResponse success(Page<Movie> page) {
+        MoviePageResponse response = new MoviePageResponse(true, "Operation successful");
+        for (Movie movie : page.getItems()) {
+            response.movies.add(MovieResponse.success(movie));
+        }
+        response.nextPageToken = page.getNextPageToken();
+        response.hasMore = page.isHasNext();
+        return response;
+    }
+    
+    public static MoviePageResponse error(String message) {
+        return new MoviePageResponse(false, message);
+    }
+    
+    // Getters and Setters
+    public List<MovieResponse> getMovies() {
+        return movies;
+    }
+    
+    public void setMovies(List<MovieResponse> movies) {
+        this.movies = movies;
+    }
+    
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+    
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+    
+    public boolean isSuccess() {
+        return success;
+    }
+    
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -71,6 +71,8 @@ public class MovieResponse {
             this.description = movie.getDescription();
             this.active = movie.getActive();
             this.createdAt = movie.getCreatedAt() != null ? movie.getCreatedAt().toString() : null;
+            this.averageRating = movie.getAverageRating();
+            this.reviewCount = movie.getRatingCount();
         }
     }
     
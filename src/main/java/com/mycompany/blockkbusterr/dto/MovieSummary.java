@@ -0,0 +1,79 @@
+package com.mycompany.blockkbusterr.dto;
+
+import java.io.Serializable;
+
+/**
+ * Read-only movie list row, projected with a JPQL constructor expression.
+ * Leaves out the description and rating columns.
+ */
+public class MovieSummary implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final Long movieId;
+    private final String title;
+    private final String genre;
+    private final Integer releaseYear;
+    private final Integer duration;
+    private final Integer quantity;
+    
+    public MovieSummary(Long movieId, String title, String genre, Integer releaseYear, Integer duration,
+                        Integer quantity) {
+        this.movieId = movieId;
+        this.title = title;
+        this.genre = genre;
+        this.releaseYear = releaseYear;
+        this.duration = duration;
+        this.quantity = quantity;
+    }
+    
+    // Business methods, mirroring Movie
+    public boolean isAvailable() {
+        return quantity != null && quantity > 0;
+    }
+    
+    public String getDurationFormatted() {
+        if (duration == null) return "Unknown";
+        int hours = duration / 60;
+        int minutes = duration % 60;
+        if (hours > 0) {
+            return hours + "h " + minutes + "m";
+        } else {
+            return minutes + "m";
+        }
+    }
+    
+    // Getters
+    public Long getMovieId() {
+        return movieId;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public String getGenre() {
+        return genre;
+    }
+    
+    public Integer getReleaseYear() {
+        return releaseYear;
+    }
+    
+    public Integer getDuration() {
+        return duration;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    @Override
+    public String toString() {
+        return "MovieSummary{" +
+                "movieId=" + movieId +
+                ", title='" + title + '\'' +
+                ", quantity=" + quantity +
+                '}';
+    }
+}
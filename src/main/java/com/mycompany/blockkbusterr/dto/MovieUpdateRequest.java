@@ -0,0 +1,33 @@
+package com.mycompany.blockkbusterr.dto;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlRootElement;
+
+/**
+ * One item of a batch movie update: the movie ID plus the full set of movie fields
+ */
+@XmlRootElement(name = "movieUpdateRequest")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class MovieUpdateRequest extends MovieRequest {
+    
+    @XmlElement(required = true)
+    private Long movieId;
+    
+    // Default constructor for JAXB
+    public MovieUpdateRequest() {}
+    
+    public MovieUpdateRequest(Long movieId, String title, Integer releaseYear, Integer duration, String genre, Integer quantity, String description) {
+        super(title, releaseYear, duration, genre, quantity, description);
+        this.movieId = movieId;
+    }
+    
+    public Long getMovieId() {
+        return movieId;
+    }
+    
+    public void setMovieId(Long movieId) {
+        this.movieId = movieId;
+    }
+}
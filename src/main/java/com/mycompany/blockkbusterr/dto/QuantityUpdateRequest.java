@@ -0,0 +1,44 @@
+package com.mycompany.blockkbusterr.dto;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlRootElement;
+
+/**
+ * One item of a batch quantity update: the new absolute quantity of a movie
+ */
+@XmlRootElement(name = "quantityUpdateRequest")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class QuantityUpdateRequest {
+    
+    @XmlElement(required = true)
+    private Long movieId;
+    
+    @XmlElement(required = true)
+    private Integer quantity;
+    
+    // Default constructor for JAXB
+    public QuantityUpdateRequest() {}
+    
+    public QuantityUpdateRequest(Long movieId, Integer quantity) {
+        this.movieId = movieId;
+        this.quantity = quantity;
+    }
+    
+    public Long getMovieId() {
+        return movieId;
+    }
+    
+    public void setMovieId(Long movieId) {
+        this.movieId = movieId;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,155 @@
+package com.mycompany.blockkbusterr.dto;
+
+import com.mycompany.blockkbusterr.entity.RentalStatus;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Read-only rental list row, projected with a JPQL constructor expression.
+ * Carries only the rental, movie and user columns that list pages render.
+ */
+public class RentalRow implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final Long rentalId;
+    private final RentalStatus status;
+    private final LocalDate borrowDate;
+    private final LocalDate returnDate;
+    private final LocalDate actualReturnDate;
+    private final String notes;
+    private final Long movieId;
+    private final String movieTitle;
+    private final String movieGenre;
+    private final Integer movieReleaseYear;
+    private final Integer movieDuration;
+    private final Long userId;
+    private final String userFirstName;
+    private final String userLastName;
+    
+    public RentalRow(Long rentalId, RentalStatus status, LocalDate borrowDate, LocalDate returnDate,
+                     LocalDate actualReturnDate, String notes, Long movieId, String movieTitle, String movieGenre,
+                     Integer movieReleaseYear, Integer movieDuration, Long userId, String userFirstName,
+                     String userLastName) {
+        this.rentalId = rentalId;
+        this.status = status;
+        this.borrowDate = borrowDate;
+        this.returnDate = returnDate;
+        this.actualReturnDate = actualReturnDate;
+        this.notes = notes;
+        this.movieId = movieId;
+        this.movieTitle = movieTitle;
+        this.movieGenre = movieGenre;
+        this.movieReleaseYear = movieReleaseYear;
+        this.movieDuration = movieDuration;
+        this.userId = userId;
+        this.userFirstName = userFirstName;
+        this.userLastName = userLastName;
+    }
+    
+    // Business methods, mirroring Rental
+    public boolean isOverdue() {
+        return status != null && status.isOutstanding() && returnDate.isBefore(LocalDate.now());
+    }
+    
+    public boolean isActive() {
+        return status != null && status.isOutstanding();
+    }
+    
+    public boolean isReturned() {
+        return status == RentalStatus.RETURNED;
+    }
+    
+    public long getDaysRented() {
+        LocalDate endDate = actualReturnDate != null ? actualReturnDate : LocalDate.now();
+        return borrowDate.until(endDate).getDays();
+    }
+    
+    public long getDaysOverdue() {
+        if (!isOverdue()) {
+            return 0;
+        }
+        return returnDate.until(LocalDate.now()).getDays();
+    }
+    
+    public String getUserFullName() {
+        return userFirstName + " " + userLastName;
+    }
+    
+    public String getMovieDurationFormatted() {
+        if (movieDuration == null) return "Unknown";
+        int hours = movieDuration / 60;
+        int minutes = movieDuration % 60;
+        if (hours > 0) {
+            return hours + "h " + minutes + "m";
+        } else {
+            return minutes + "m";
+        }
+    }
+    
+    // Getters
+    public Long getRentalId() {
+        return rentalId;
+    }
+    
+    public RentalStatus getStatus() {
+        return status;
+    }
+    
+    public LocalDate getBorrowDate() {
+        return borrowDate;
+    }
+    
+    public LocalDate getReturnDate() {
+        return returnDate;
+    }
+    
+    public LocalDate getActualReturnDate() {
+        return actualReturnDate;
+    }
+    
+    public String getNotes() {
+        return notes;
+    }
+    
+    public Long getMovieId() {
+        return movieId;
+    }
+    
+    public String getMovieTitle() {
+        return movieTitle;
+    }
+    
+    public String getMovieGenre() {
+        return movieGenre;
+    }
+    
+    public Integer getMovieReleaseYear() {
+        return movieReleaseYear;
+    }
+    
+    public Integer getMovieDuration() {
+        return movieDuration;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public String getUserFirstName() {
+        return userFirstName;
+    }
+    
+    public String getUserLastName() {
+        return userLastName;
+    }
+    
+    @Override
+    public String toString() {
+        return "RentalRow{" +
+                "rentalId=" + rentalId +
+                ", movieTitle='" + movieTitle + '\'' +
+                ", status=" + status +
+                '}';
+    }
+}
@@ -0,0 +1,94 @@
+package com.mycompany.blockkbusterr.dto;
+
+import com.mycompany.blockkbusterr.entity.User;
+import com.mycompany.blockkbusterr.repository.Page;
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.List;
+
+@XmlRootElement(name = "userPageResponse")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class UserPageResponse {
+    
+    @XmlElement(name = "user")
+    private List<UserResponse> users = new ArrayList<>();
+    
+    @XmlElement
+    private String nextPageToken;
+    
+    @XmlElement
+    private boolean hasMore;
+    
+    @XmlElement
+    private boolean success;
+    
+    @XmlElement
+    private String message;
+    
+    // Default constructor for JAXB
+    public UserPageResponse() {}
+    
+    public UserPageResponse(boolean success, String message) {
+        this.success = success;
+        this.message = message;
+    }
+    
+    // Static factory methods
+    public static UserPageResponse success(Page<User> page) {
+        UserPageResponse response = new UserPageResponse(true, "Operation successful");
+        for (User user : page.getItems()) {
+            response.users.add(UserResponse.success(user));
+        }
+        response.nextPageToken = page.getNextPageToken();
+        response.hasMore = page.isHasNext();
+        return response;
+    }
+    
+    public static UserPageResponse error(String message) {
+        return new UserPageResponse(false, message);
+    }
+    
+    // Getters and Setters
+    public List<UserResponse> getUsers() {
+        return users;
+    }
+    
+    public void setUsers(List<UserResponse> users) {
+        this.users = users;
+    }
+    
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+    
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+    
+    public boolean isSuccess() {
+        return success;
+    }
+    
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,73 @@
+package com.mycompany.blockkbusterr.dto;
+
+import com.mycompany.blockkbusterr.entity.UserRole;
+import java.io.Serializable;
+
+/**
+ * Read-only user list row, projected with a JPQL constructor expression.
+ * Leaves out the password hash and the rental and review collections.
+ */
+public class UserSummary implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final Long userId;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final String username;
+    private final UserRole role;
+    private final Boolean active;
+    
+    public UserSummary(Long userId, String firstName, String lastName, String email, String username,
+                       UserRole role, Boolean active) {
+        this.userId = userId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.username = username;
+        this.role = role;
+        this.active = active;
+    }
+    
+    public String getFullName() {
+        return firstName + " " + lastName;
+    }
+    
+    // Getters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public String getFirstName() {
+        return firstName;
+    }
+    
+    public String getLastName() {
+        return lastName;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public UserRole getRole() {
+        return role;
+    }
+    
+    public Boolean getActive() {
+        return active;
+    }
+    
+    @Override
+    public String toString() {
+        return "UserSummary{" +
+                "userId=" + userId +
+                ", username='" + username + '\'' +
+                '}';
+    }
+}
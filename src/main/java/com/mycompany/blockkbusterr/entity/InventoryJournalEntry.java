@@ -0,0 +1,92 @@
+package com.mycompany.blockkbusterr.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only write-ahead record of a change to a movie's available quantity.
+ * Entries are written in the same transaction as the rental that caused them
+ * and folded into movies.quantity in batches by the inventory flush job.
+ */
+@Entity
+@Table(name = "inventory_journal", indexes = {
+    @Index(name = "idx_inventory_journal_movie", columnList = "movie_id")
+})
+@NamedQueries({
+    @NamedQuery(name = "InventoryJournalEntry.findAll", query = "SELECT j FROM InventoryJournalEntry j ORDER BY j.entryId"),
+    @NamedQuery(name = "InventoryJournalEntry.findByMovieId", query = "SELECT j FROM InventoryJournalEntry j WHERE j.movieId = :movieId ORDER BY j.entryId")
+})
+public class InventoryJournalEntry implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "entry_id")
+    private Long entryId;
+    
+    // Plain column rather than a relationship so appends never touch the movies row
+    @Column(name = "movie_id", nullable = false)
+    private Long movieId;
+    
+    @Column(name = "delta", nullable = false)
+    private Integer delta;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public InventoryJournalEntry() {
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public InventoryJournalEntry(Long movieId, Integer delta) {
+        this();
+        this.movieId = movieId;
+        this.delta = delta;
+    }
+    
+    // Getters and Setters
+    public Long getEntryId() {
+        return entryId;
+    }
+    
+    public void setEntryId(Long entryId) {
+        this.entryId = entryId;
+    }
+    
+    public Long getMovieId() {
+        return movieId;
+    }
+    
+    public void setMovieId(Long movieId) {
+        this.movieId = movieId;
+    }
+    
+    public Integer getDelta() {
+        return delta;
+    }
+    
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "InventoryJournalEntry{" +
+                "entryId=" + entryId +
+                ", movieId=" + movieId +
+                ", delta=" + delta +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
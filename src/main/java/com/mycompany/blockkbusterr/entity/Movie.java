@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
 @Table(name = "movies")
 @NamedQueries({
     @NamedQuery(name = "Movie.findAll", query = "SELECT m FROM Movie m ORDER BY m.title"),
@@ -24,8 +25,11 @@ public class Movie implements Serializable {
     
     private static final long serialVersionUID = 1L;
     
+    // Pooled IDs from the id_sequences table, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TableGenerator(name = "movie_ids", table = "id_sequences", pkColumnName = "sequence_name",
+                    valueColumnName = "next_value", pkColumnValue = "movies", allocationSize = 50)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "movie_ids")
     @Column(name = "movie_id")
     private Long movieId;
     
@@ -69,6 +73,31 @@ public class Movie implements Serializable {
     @Column(name = "active", nullable = false)
     private Boolean active = true;
     
+    // Materialized rating aggregates, maintained by ReviewService (defaults keep seed inserts valid)
+    @Column(name = "rating_sum", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long ratingSum = 0L;
+    
+    @Column(name = "rating_count", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long ratingCount = 0L;
+    
+    @Column(name = "average_rating", nullable = false, columnDefinition = "DOUBLE NOT NULL DEFAULT 0")
+    private Double averageRating = 0.0;
+    
+    @Column(name = "rating_1_count", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long oneStarCount = 0L;
+    
+    @Column(name = "rating_2_count", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long twoStarCount = 0L;
+    
+    @Column(name = "rating_3_count", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long threeStarCount = 0L;
+    
+    @Column(name = "rating_4_count", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long fourStarCount = 0L;
+    
+    @Column(name = "rating_5_count", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long fiveStarCount = 0L;
+    
     @OneToMany(mappedBy = "movie", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Rental> rentals = new ArrayList<>();
     
@@ -89,6 +118,27 @@ public class Movie implements Serializable {
         this.quantity = quantity;
     }
     
+    /**
+     * Unmanaged copy of the movie's columns, without its rentals and reviews
+     */
+    public Movie copy() {
+        Movie copy = new Movie(title, releaseYear, duration, genre, quantity);
+        copy.movieId = movieId;
+        copy.description = description;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.active = active;
+        copy.ratingSum = ratingSum;
+        copy.ratingCount = ratingCount;
+        copy.averageRating = averageRating;
+        copy.oneStarCount = oneStarCount;
+        copy.twoStarCount = twoStarCount;
+        copy.threeStarCount = threeStarCount;
+        copy.fourStarCount = fourStarCount;
+        copy.fiveStarCount = fiveStarCount;
+        return copy;
+    }
+    
     // Lifecycle callbacks
     @PreUpdate
     protected void onUpdate() {
@@ -177,6 +227,30 @@ public class Movie implements Serializable {
         this.active = active;
     }
     
+    public Long getRatingSum() {
+        return ratingSum;
+    }
+    
+    public void setRatingSum(Long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+    
+    public Long getRatingCount() {
+        return ratingCount;
+    }
+    
+    public void setRatingCount(Long ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+    
+    public double getAverageRating() {
+        return averageRating != null ? averageRating : 0.0;
+    }
+    
+    public void setAverageRating(Double averageRating) {
+        this.averageRating = averageRating;
+    }
+    
     public List<Rental> getRentals() {
         return rentals;
     }
@@ -210,14 +284,74 @@ public class Movie implements Serializable {
         }
     }
     
-    public double getAverageRating() {
-        if (reviews == null || reviews.isEmpty()) {
-            return 0.0;
+    /**
+     * Number of active reviews with the given star rating (1-5)
+     */
+    public long getRatingCountForStars(int stars) {
+        switch (stars) {
+            case 1: return oneStarCount != null ? oneStarCount : 0;
+            case 2: return twoStarCount != null ? twoStarCount : 0;
+            case 3: return threeStarCount != null ? threeStarCount : 0;
+            case 4: return fourStarCount != null ? fourStarCount : 0;
+            case 5: return fiveStarCount != null ? fiveStarCount : 0;
+            default: throw new IllegalArgumentException("Rating must be between 1 and 5");
         }
-        return reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+    }
+    
+    /**
+     * Add (delta = 1) or remove (delta = -1) a rating from the materialized aggregates
+     */
+    public void applyRating(int stars, int delta) {
+        long starCount = getRatingCountForStars(stars) + delta;
+        switch (stars) {
+            case 1: oneStarCount = starCount; break;
+            case 2: twoStarCount = starCount; break;
+            case 3: threeStarCount = starCount; break;
+            case 4: fourStarCount = starCount; break;
+            default: fiveStarCount = starCount; break;
+        }
+        ratingSum = (ratingSum != null ? ratingSum : 0L) + (long) stars * delta;
+        ratingCount = (ratingCount != null ? ratingCount : 0L) + delta;
+        recomputeAverageRating();
+    }
+    
+    /**
+     * Replace the materialized aggregates with a freshly computed histogram
+     * (index 1-5 holds the number of reviews with that many stars)
+     */
+    public void resetRatingAggregates(long[] histogram) {
+        oneStarCount = histogram[1];
+        twoStarCount = histogram[2];
+        threeStarCount = histogram[3];
+        fourStarCount = histogram[4];
+        fiveStarCount = histogram[5];
+        ratingSum = 0L;
+        ratingCount = 0L;
+        for (int stars = 1; stars <= 5; stars++) {
+            ratingSum += stars * histogram[stars];
+            ratingCount += histogram[stars];
+        }
+        recomputeAverageRating();
+    }
+    
+    /**
+     * Check whether the materialized aggregates match the given histogram
+     */
+    public boolean hasRatingHistogram(long[] histogram) {
+        long sum = 0;
+        long count = 0;
+        for (int stars = 1; stars <= 5; stars++) {
+            if (getRatingCountForStars(stars) != histogram[stars]) {
+                return false;
+            }
+            sum += stars * histogram[stars];
+            count += histogram[stars];
+        }
+        return ratingSum != null && ratingSum == sum && ratingCount != null && ratingCount == count;
+    }
+    
+    private void recomputeAverageRating() {
+        averageRating = ratingCount > 0 ? (double) ratingSum / ratingCount : 0.0;
     }
     
     // toString, equals, and hashCode
@@ -0,0 +1,89 @@
+package com.mycompany.blockkbusterr.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Checkpointed rental count of one movie for one clock hour.
+ * Written periodically from the in-memory popularity counters so rankings
+ * survive a restart; buckets older than the longest ranking window are pruned.
+ */
+@Entity
+@Table(name = "popularity_buckets", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_popularity_bucket", columnNames = {"movie_id", "bucket_hour"})
+})
+@NamedQueries({
+    @NamedQuery(name = "PopularityBucket.findAll", query = "SELECT b FROM PopularityBucket b ORDER BY b.bucketHour"),
+    @NamedQuery(name = "PopularityBucket.findSince", query = "SELECT b FROM PopularityBucket b WHERE b.bucketHour >= :sinceHour ORDER BY b.bucketHour")
+})
+public class PopularityBucket implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "bucket_id")
+    private Long bucketId;
+    
+    // Plain column so deleting a movie never cascades into ranking history
+    @Column(name = "movie_id", nullable = false)
+    private Long movieId;
+    
+    // Hours since the epoch, in the server time zone
+    @Column(name = "bucket_hour", nullable = false)
+    private Long bucketHour;
+    
+    @Column(name = "rental_count", nullable = false)
+    private Integer rentalCount;
+    
+    // Constructors
+    public PopularityBucket() {}
+    
+    public PopularityBucket(Long movieId, Long bucketHour, Integer rentalCount) {
+        this.movieId = movieId;
+        this.bucketHour = bucketHour;
+        this.rentalCount = rentalCount;
+    }
+    
+    // Getters and Setters
+    public Long getBucketId() {
+        return bucketId;
+    }
+    
+    public void setBucketId(Long bucketId) {
+        this.bucketId = bucketId;
+    }
+    
+    public Long getMovieId() {
+        return movieId;
+    }
+    
+    public void setMovieId(Long movieId) {
+        this.movieId = movieId;
+    }
+    
+    public Long getBucketHour() {
+        return bucketHour;
+    }
+    
+    public void setBucketHour(Long bucketHour) {
+        this.bucketHour = bucketHour;
+    }
+    
+    public Integer getRentalCount() {
+        return rentalCount;
+    }
+    
+    public void setRentalCount(Integer rentalCount) {
+        this.rentalCount = rentalCount;
+    }
+    
+    @Override
+    public String toString() {
+        return "PopularityBucket{" +
+                "movieId=" + movieId +
+                ", bucketHour=" + bucketHour +
+                ", rentalCount=" + rentalCount +
+                '}';
+    }
+}
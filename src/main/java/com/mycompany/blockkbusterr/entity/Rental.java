@@ -7,21 +7,27 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "rentals")
+@Table(name = "rentals", indexes = {
+    @Index(name = "idx_rentals_borrow_date_id", columnList = "borrow_date, rental_id"),
+    @Index(name = "idx_rentals_user_borrow_date_id", columnList = "user_id, borrow_date, rental_id")
+})
 @NamedQueries({
     @NamedQuery(name = "Rental.findAll", query = "SELECT r FROM Rental r ORDER BY r.borrowDate DESC"),
     @NamedQuery(name = "Rental.findByUser", query = "SELECT r FROM Rental r WHERE r.user = :user ORDER BY r.borrowDate DESC"),
     @NamedQuery(name = "Rental.findByMovie", query = "SELECT r FROM Rental r WHERE r.movie = :movie ORDER BY r.borrowDate DESC"),
     @NamedQuery(name = "Rental.findByStatus", query = "SELECT r FROM Rental r WHERE r.status = :status ORDER BY r.borrowDate DESC"),
-    @NamedQuery(name = "Rental.findActiveRentals", query = "SELECT r FROM Rental r WHERE r.status = 'ACTIVE' ORDER BY r.returnDate ASC"),
-    @NamedQuery(name = "Rental.findOverdueRentals", query = "SELECT r FROM Rental r WHERE r.status = 'ACTIVE' AND r.returnDate < CURRENT_DATE")
+    @NamedQuery(name = "Rental.findActiveRentals", query = "SELECT r FROM Rental r WHERE r.status IN ('ACTIVE', 'OVERDUE') ORDER BY r.returnDate ASC"),
+    @NamedQuery(name = "Rental.findOverdueRentals", query = "SELECT r FROM Rental r WHERE r.status IN ('ACTIVE', 'OVERDUE') AND r.returnDate < CURRENT_DATE")
 })
 public class Rental implements Serializable {
     
     private static final long serialVersionUID = 1L;
     
+    // Pooled IDs from the id_sequences table, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TableGenerator(name = "rental_ids", table = "id_sequences", pkColumnName = "sequence_name",
+                    valueColumnName = "next_value", pkColumnValue = "rentals", allocationSize = 50)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "rental_ids")
     @Column(name = "rental_id")
     private Long rentalId;
     
@@ -162,11 +168,11 @@ public class Rental implements Serializable {
     
     // Utility methods
     public boolean isOverdue() {
-        return status == RentalStatus.ACTIVE && returnDate.isBefore(LocalDate.now());
+        return status != null && status.isOutstanding() && returnDate.isBefore(LocalDate.now());
     }
     
     public boolean isActive() {
-        return status == RentalStatus.ACTIVE;
+        return status != null && status.isOutstanding();
     }
     
     public boolean isReturned() {
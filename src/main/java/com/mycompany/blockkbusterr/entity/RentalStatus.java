@@ -1,11 +1,16 @@
 package com.mycompany.blockkbusterr.entity;
 
+import java.util.List;
+
 public enum RentalStatus {
     ACTIVE("Active"),
     RETURNED("Returned"),
     OVERDUE("Overdue"),
     CANCELLED("Cancelled");
     
+    /** Statuses of rentals whose copy has not come back yet */
+    public static final List<RentalStatus> OUTSTANDING = List.of(ACTIVE, OVERDUE);
+    
     private final String displayName;
     
     RentalStatus(String displayName) {
@@ -16,6 +21,10 @@ public enum RentalStatus {
         return displayName;
     }
     
+    public boolean isOutstanding() {
+        return this == ACTIVE || this == OVERDUE;
+    }
+    
     @Override
     public String toString() {
         return displayName;
@@ -9,7 +9,10 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reviews")
+@Cacheable
+@Table(name = "reviews", indexes = {
+    @Index(name = "idx_reviews_movie_date_id", columnList = "movie_id, review_date, review_id")
+})
 @NamedQueries({
     @NamedQuery(name = "Review.findAll", query = "SELECT r FROM Review r ORDER BY r.reviewDate DESC"),
     @NamedQuery(name = "Review.findByMovie", query = "SELECT r FROM Review r WHERE r.movie = :movie ORDER BY r.reviewDate DESC"),
@@ -21,8 +24,11 @@ public class Review implements Serializable {
     
     private static final long serialVersionUID = 1L;
     
+    // Pooled IDs from the id_sequences table, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TableGenerator(name = "review_ids", table = "id_sequences", pkColumnName = "sequence_name",
+                    valueColumnName = "next_value", pkColumnValue = "reviews", allocationSize = 50)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "review_ids")
     @Column(name = "review_id")
     private Long reviewId;
     
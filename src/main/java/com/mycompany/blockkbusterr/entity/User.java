@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
 @Table(name = "users")
 @NamedQueries({
     @NamedQuery(name = "User.findAll", query = "SELECT u FROM User u"),
@@ -21,8 +22,11 @@ public class User implements Serializable {
     
     private static final long serialVersionUID = 1L;
     
+    // Pooled IDs from the id_sequences table, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TableGenerator(name = "user_ids", table = "id_sequences", pkColumnName = "sequence_name",
+                    valueColumnName = "next_value", pkColumnValue = "users", allocationSize = 50)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_ids")
     @Column(name = "user_id")
     private Long userId;
     
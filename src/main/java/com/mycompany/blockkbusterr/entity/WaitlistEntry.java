@@ -0,0 +1,201 @@
+package com.mycompany.blockkbusterr.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A user's place in the waitlist of an out-of-stock movie.
+ * Entries wait in entry ID order; when a copy comes back it is held for the
+ * first waiting user who may rent it until offeredUntil, and the entry is
+ * offered, or skipped with the reason the user could not rent. An offered
+ * entry is fulfilled with the rental once the user confirms it, cancelled if
+ * the user declines, or skipped when the hold expires.
+ * Each outcome stays pending as a notice for the user until notifiedAt is set.
+ */
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+    @Index(name = "idx_waitlist_movie_status_id", columnList = "movie_id, status, entry_id"),
+    @Index(name = "idx_waitlist_user_status", columnList = "user_id, status")
+})
+@NamedQueries({
+    @NamedQuery(name = "WaitlistEntry.findAll", query = "SELECT w FROM WaitlistEntry w ORDER BY w.entryId"),
+    @NamedQuery(name = "WaitlistEntry.findWaitingByMovieId", query = "SELECT w FROM WaitlistEntry w WHERE w.movieId = :movieId AND w.status = :status ORDER BY w.entryId")
+})
+public class WaitlistEntry implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "entry_id")
+    private Long entryId;
+    
+    // Plain columns rather than relationships, as in the inventory journal
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "movie_id", nullable = false)
+    private Long movieId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+    
+    @Column(name = "rental_id")
+    private Long rentalId;
+    
+    @Column(name = "note", length = 200)
+    private String note;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+    
+    @Column(name = "notified_at")
+    private LocalDateTime notifiedAt;
+    
+    @Column(name = "offered_until")
+    private LocalDateTime offeredUntil;
+    
+    // Constructors
+    public WaitlistEntry() {
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public WaitlistEntry(Long userId, Long movieId) {
+        this();
+        this.userId = userId;
+        this.movieId = movieId;
+    }
+    
+    // Business methods
+    public boolean isWaiting() {
+        return status == WaitlistStatus.WAITING;
+    }
+    
+    public boolean isOffered() {
+        return status == WaitlistStatus.OFFERED;
+    }
+    
+    /**
+     * Hold a copy for the user until the given time; the user is told anew
+     */
+    public void offer(LocalDateTime until) {
+        this.status = WaitlistStatus.OFFERED;
+        this.offeredUntil = until;
+        this.notifiedAt = null;
+    }
+    
+    /**
+     * Close the entry with its outcome
+     */
+    public void resolve(WaitlistStatus status, Long rentalId, String note) {
+        this.status = status;
+        this.rentalId = rentalId;
+        this.note = note;
+        this.resolvedAt = LocalDateTime.now();
+        this.notifiedAt = null;
+    }
+    
+    /**
+     * Record that the user has been shown the outcome
+     */
+    public void markNotified() {
+        this.notifiedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getEntryId() {
+        return entryId;
+    }
+    
+    public void setEntryId(Long entryId) {
+        this.entryId = entryId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getMovieId() {
+        return movieId;
+    }
+    
+    public void setMovieId(Long movieId) {
+        this.movieId = movieId;
+    }
+    
+    public WaitlistStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(WaitlistStatus status) {
+        this.status = status;
+    }
+    
+    public Long getRentalId() {
+        return rentalId;
+    }
+    
+    public void setRentalId(Long rentalId) {
+        this.rentalId = rentalId;
+    }
+    
+    public String getNote() {
+        return note;
+    }
+    
+    public void setNote(String note) {
+        this.note = note;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getResolvedAt() {
+        return resolvedAt;
+    }
+    
+    public void setResolvedAt(LocalDateTime resolvedAt) {
+        this.resolvedAt = resolvedAt;
+    }
+    
+    public LocalDateTime getNotifiedAt() {
+        return notifiedAt;
+    }
+    
+    public void setNotifiedAt(LocalDateTime notifiedAt) {
+        this.notifiedAt = notifiedAt;
+    }
+    
+    public LocalDateTime getOfferedUntil() {
+        return offeredUntil;
+    }
+    
+    public void setOfferedUntil(LocalDateTime offeredUntil) {
+        this.offeredUntil = offeredUntil;
+    }
+    
+    @Override
+    public String toString() {
+        return "WaitlistEntry{" +
+                "entryId=" + entryId +
+                ", userId=" + userId +
+                ", movieId=" + movieId +
+                ", status=" + status +
+                ", rentalId=" + rentalId +
+                '}';
+    }
+}
@@ -0,0 +1,24 @@
+package com.mycompany.blockkbusterr.entity;
+
+public enum WaitlistStatus {
+    WAITING("Waiting"),
+    OFFERED("Held for you"),
+    FULFILLED("Fulfilled"),
+    SKIPPED("Skipped"),
+    CANCELLED("Cancelled");
+    
+    private final String displayName;
+    
+    WaitlistStatus(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
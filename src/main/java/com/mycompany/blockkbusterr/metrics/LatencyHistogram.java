@@ -0,0 +1,131 @@
+package com.mycompany.blockkbusterr.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear latency histogram in the style of HdrHistogram.
+ * Values are recorded in microseconds; each power of two is split into 16
+ * linear sub-buckets, so any recorded value is known within 6.25% whatever
+ * its magnitude, in a fixed ~5 KB of memory.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Highest power of two tracked: 2^40 microseconds is about 12 days */
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record one value in microseconds; negative values count as zero
+     */
+    public void record(long micros) {
+        long value = Math.max(micros, 0);
+        counts.incrementAndGet(bucketOf(value));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Exclusive upper bound, in microseconds, of the values in a bucket
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket + 1;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift);
+    }
+
+    /**
+     * Point-in-time copy of the histogram, consistent enough for reporting
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, sum.sum(), max.get());
+    }
+
+    /**
+     * Copied bucket counts with cumulative and quantile queries
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sumMicros;
+        private final long maxMicros;
+
+        Snapshot(long[] counts, long count, long sumMicros, long maxMicros) {
+            this.counts = counts;
+            this.count = count;
+            this.sumMicros = sumMicros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSumMicros() {
+            return sumMicros;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        /**
+         * Number of values known to be at most the given bound. Values in a bucket
+         * straddling the bound are not counted, so the result never over-reports.
+         */
+        public long countAtOrBelow(long micros) {
+            long cumulative = 0;
+            for (int i = 0; i < counts.length && upperBoundOf(i) - 1 <= micros; i++) {
+                cumulative += counts[i];
+            }
+            return cumulative;
+        }
+
+        /**
+         * Value in microseconds below which the given fraction of values fall,
+         * reported as the upper bound of its bucket; 0 when empty
+         */
+        public long valueAtQuantile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                if (cumulative >= rank) {
+                    return Math.min(upperBoundOf(i) - 1, maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+    }
+}
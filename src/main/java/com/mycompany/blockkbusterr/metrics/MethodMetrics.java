@@ -0,0 +1,51 @@
+package com.mycompany.blockkbusterr.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of one monitored method: latency histogram (which also counts
+ * calls), thrown exceptions and rows returned
+ */
+public class MethodMetrics {
+
+    private final String beanName;
+    private final String methodName;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    MethodMetrics(String beanName, String methodName) {
+        this.beanName = beanName;
+        this.methodName = methodName;
+    }
+
+    void record(long micros, boolean failed, long rowCount) {
+        latency.record(micros);
+        if (failed) {
+            errors.increment();
+        }
+        if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    public long getRowCount() {
+        return rows.sum();
+    }
+}
@@ -0,0 +1,51 @@
+package com.mycompany.blockkbusterr.metrics;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import java.io.Serializable;
+
+/**
+ * Times every business method of @Monitored beans into the MetricsRegistry.
+ * Runs before the transaction interceptor, so latency includes the commit.
+ */
+@Monitored
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+public class MetricsInterceptor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Inject
+    private MetricsRegistry registry;
+
+    @AroundInvoke
+    public Object measure(InvocationContext context) throws Exception {
+        long start = System.nanoTime();
+        boolean failed = true;
+        Object result = null;
+        try {
+            result = context.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long micros = (System.nanoTime() - start) / 1000;
+            registry.record(beanName(context.getTarget().getClass()), context.getMethod().getName(),
+                    micros, failed, result);
+        }
+    }
+
+    /**
+     * Simple name of the bean class, skipping container-generated proxy subclasses
+     */
+    private static String beanName(Class<?> type) {
+        Class<?> beanClass = type;
+        while (beanClass.getSuperclass() != null
+                && (beanClass.isSynthetic() || beanClass.getName().contains("$$"))) {
+            beanClass = beanClass.getSuperclass();
+        }
+        return beanClass.getSimpleName();
+    }
+}
@@ -0,0 +1,68 @@
+package com.mycompany.blockkbusterr.metrics;
+
+import com.mycompany.blockkbusterr.repository.Page;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-method metrics collected by MetricsInterceptor, since application start
+ */
+@ApplicationScoped
+public class MetricsRegistry {
+
+    private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    /**
+     * Metrics of a method, created on first use
+     */
+    public MethodMetrics forMethod(String beanName, String methodName) {
+        return methods.computeIfAbsent(beanName + '.' + methodName, key -> new MethodMetrics(beanName, methodName));
+    }
+
+    /**
+     * Record one call of a method. The row count is the size of a returned
+     * collection, map, array, page or optional, or 1 for any other returned object.
+     */
+    public void record(String beanName, String methodName, long micros, boolean failed, Object result) {
+        forMethod(beanName, methodName).record(micros, failed, rowCount(result));
+    }
+
+    /**
+     * All monitored methods that have been called, ordered by bean and method name
+     */
+    public List<MethodMetrics> getMethods() {
+        List<MethodMetrics> all = new ArrayList<>(methods.values());
+        all.sort(Comparator.comparing(MethodMetrics::getBeanName).thenComparing(MethodMetrics::getMethodName));
+        return all;
+    }
+
+    static long rowCount(Object result) {
+        if (result == null || result instanceof Number || result instanceof Boolean
+                || result instanceof CharSequence) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result instanceof Page) {
+            return ((Page<?>) result).getSize();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result.getClass().isArray()) {
+            return Array.getLength(result);
+        }
+        return 1;
+    }
+}
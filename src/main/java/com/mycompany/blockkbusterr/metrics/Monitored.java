@@ -0,0 +1,19 @@
+package com.mycompany.blockkbusterr.metrics;
+
+import jakarta.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Records latency, call, error and row counts of every business method of the
+ * annotated bean. Inherited, so annotating BaseRepository covers every repository.
+ */
+@Inherited
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Monitored {
+}
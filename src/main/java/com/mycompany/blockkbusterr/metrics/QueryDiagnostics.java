@@ -0,0 +1,226 @@
+package com.mycompany.blockkbusterr.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * JVM-wide collector of slow SQL statements, fed by SlowQueryListener.
+ * It is static because OpenJPA creates the listener itself, outside CDI.
+ * <p>
+ * A sampled fraction of statements is timed. Statements at or over the threshold
+ * are reduced to their shape (the SQL with literals replaced by ?), which is all
+ * that is logged and kept, with the application method that issued them; values
+ * are never recorded. Shapes that are slow repeatedly are queued for an EXPLAIN,
+ * run by QueryDiagnosticsService.
+ * <p>
+ * Settings are read once from system properties:
+ * blockkbusterr.query.slowThresholdMillis (default 200),
+ * blockkbusterr.query.sampleRate (fraction of statements timed, default 1.0) and
+ * blockkbusterr.query.explainAfter (slow executions before a plan is captured, default 3).
+ */
+public final class QueryDiagnostics {
+
+    private static final Logger logger = Logger.getLogger(QueryDiagnostics.class.getName());
+
+    /** Most shapes tracked; later new shapes are counted as dropped */
+    public static final int MAX_SHAPES = 500;
+
+    private static final String APPLICATION_PACKAGE = "com.mycompany.blockkbusterr.";
+    private static final String METRICS_PACKAGE = APPLICATION_PACKAGE + "metrics.";
+    private static final String REPOSITORY_PACKAGE = APPLICATION_PACKAGE + "repository.";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?:[eE][-+]?\\d+)?\\b");
+    private static final Pattern HEX_LITERAL = Pattern.compile("\\b(?:0x[0-9a-fA-F]+|[xX]'[0-9a-fA-F]*')");
+    private static final Pattern VALUE_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern LIMIT_PARAMETERS = Pattern.compile("(?i)\\bLIMIT\\s+\\?(?:\\s*,\\s*\\?)?");
+    private static final Pattern OFFSET_PARAMETER = Pattern.compile("(?i)\\bOFFSET\\s+\\?");
+
+    private static volatile long thresholdNanos = longProperty("blockkbusterr.query.slowThresholdMillis", 200) * 1_000_000;
+    private static final double SAMPLE_RATE = doubleProperty("blockkbusterr.query.sampleRate", 1.0);
+    private static final int EXPLAIN_AFTER = (int) longProperty("blockkbusterr.query.explainAfter", 3);
+
+    private static final Map<String, SlowQueryShape> shapes = new ConcurrentHashMap<>();
+    private static final AtomicLong slowStatements = new AtomicLong();
+    private static final AtomicLong droppedShapes = new AtomicLong();
+
+    private QueryDiagnostics() {
+    }
+
+    /**
+     * Whether the statement about to run should be timed
+     */
+    static boolean sample() {
+        return SAMPLE_RATE >= 1.0 || ThreadLocalRandom.current().nextDouble() < SAMPLE_RATE;
+    }
+
+    /**
+     * Record a timed statement; sql is only evaluated when the statement was slow
+     */
+    static void record(Supplier<String> sql, long elapsedNanos) {
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        String statement = sql.get();
+        if (statement == null || isExplain(statement)) {
+            return;
+        }
+        String owner = findOwner();
+        long millis = elapsedNanos / 1_000_000;
+        String shape = shapeOf(statement);
+        slowStatements.incrementAndGet();
+        logger.warning("Slow query (" + millis + " ms) in " + owner + ": " + shape);
+
+        SlowQueryShape stats = shapes.get(shape);
+        if (stats == null) {
+            if (shapes.size() >= MAX_SHAPES) {
+                droppedShapes.incrementAndGet();
+                return;
+            }
+            stats = shapes.computeIfAbsent(shape, SlowQueryShape::new);
+        }
+        stats.record(elapsedNanos, owner);
+    }
+
+    /**
+     * SQL with literals replaced by ?, value lists collapsed and whitespace normalized,
+     * so executions with different bind values group together
+     */
+    static String shapeOf(String sql) {
+        // Hex first, or the quoted part of X'0A' would be taken for a string
+        String shape = HEX_LITERAL.matcher(sql).replaceAll("?");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = VALUE_LIST.matcher(shape).replaceAll("(?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    /**
+     * Innermost repository method on the stack, else the innermost application method
+     */
+    private static String findOwner() {
+        return StackWalker.getInstance().walk(frames -> {
+            String application = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String className = frame.getClassName();
+                if (!className.startsWith(APPLICATION_PACKAGE) || className.startsWith(METRICS_PACKAGE)
+                        || className.contains("$$")) {
+                    continue;
+                }
+                String method = className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+                if (className.startsWith(REPOSITORY_PACKAGE)) {
+                    return method;
+                }
+                if (application == null) {
+                    application = method;
+                }
+            }
+            return application != null ? application : "unknown";
+        });
+    }
+
+    /**
+     * A shape made runnable for EXPLAIN: placeholders become representative
+     * literals ('1', LIMIT 1, OFFSET 0), so the plan may differ from the one
+     * used for particular values
+     */
+    public static String explainableSql(String shape) {
+        String sql = shape.replace("(?...)", "(?)");
+        sql = LIMIT_PARAMETERS.matcher(sql).replaceAll("LIMIT 1");
+        sql = OFFSET_PARAMETER.matcher(sql).replaceAll("OFFSET 0");
+        return sql.replace("?", "'1'");
+    }
+
+    private static boolean isExplain(String sql) {
+        return sql.trim().regionMatches(true, 0, "EXPLAIN", 0, 7);
+    }
+
+    /**
+     * Whether EXPLAIN can safely run the statement: MySQL explains DML without executing it
+     */
+    public static boolean isExplainable(String sql) {
+        String verb = sql.trim().split("\\s", 2)[0].toUpperCase(Locale.ROOT);
+        return verb.equals("SELECT") || verb.equals("UPDATE") || verb.equals("DELETE");
+    }
+
+    /**
+     * Slow query shapes, largest total slow time first
+     */
+    public static List<SlowQueryShape> getTopShapes(int limit) {
+        List<SlowQueryShape> top = new ArrayList<>(shapes.values());
+        top.sort(Comparator.comparingLong(SlowQueryShape::getTotalNanos).reversed());
+        return top.size() > limit ? new ArrayList<>(top.subList(0, limit)) : top;
+    }
+
+    /**
+     * Shapes slow often enough to need a plan that has not been captured yet
+     */
+    public static List<SlowQueryShape> getShapesNeedingPlan() {
+        List<SlowQueryShape> pending = new ArrayList<>();
+        for (SlowQueryShape shape : shapes.values()) {
+            if (shape.getCount() >= EXPLAIN_AFTER && shape.getPlan() == null && isExplainable(shape.getShape())) {
+                pending.add(shape);
+            }
+        }
+        return pending;
+    }
+
+    public static long getSlowStatementCount() {
+        return slowStatements.get();
+    }
+
+    public static long getDroppedShapeCount() {
+        return droppedShapes.get();
+    }
+
+    public static long getThresholdMillis() {
+        return thresholdNanos / 1_000_000;
+    }
+
+    /**
+     * Change the slow query threshold until restart
+     */
+    public static void setThresholdMillis(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Threshold cannot be negative");
+        }
+        thresholdNanos = millis * 1_000_000;
+    }
+
+    /**
+     * Forget all collected shapes and counts
+     */
+    public static void reset() {
+        shapes.clear();
+        slowStatements.set(0);
+        droppedShapes.set(0);
+    }
+
+    private static long longProperty(String name, long defaultValue) {
+        try {
+            return Long.parseLong(System.getProperty(name, Long.toString(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            logger.warning("Invalid value for " + name + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        try {
+            return Double.parseDouble(System.getProperty(name, Double.toString(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            logger.warning("Invalid value for " + name + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.mycompany.blockkbusterr.metrics;
+
+import org.apache.openjpa.lib.jdbc.AbstractJDBCListener;
+import org.apache.openjpa.lib.jdbc.JDBCEvent;
+
+/**
+ * OpenJPA JDBC listener that times statements for QueryDiagnostics.
+ * Installed by the persistence unit (openjpa.jdbc.JDBCListeners in persistence.xml),
+ * so it is loaded from the application, not by the container's data source.
+ * OpenJPA reports the prepared SQL, so bind values never reach it. Statements
+ * run through the data source directly (migrations, EXPLAIN) are not timed.
+ */
+public class SlowQueryListener extends AbstractJDBCListener {
+
+    @Override
+    public void afterExecuteStatement(JDBCEvent event) {
+        JDBCEvent before = event.getAssociatedEvent();
+        if (before == null || !QueryDiagnostics.sample()) {
+            return;
+        }
+        QueryDiagnostics.record(event::getSQL, (event.getTime() - before.getTime()) * 1_000_000);
+    }
+}
@@ -0,0 +1,70 @@
+package com.mycompany.blockkbusterr.metrics;
+
+import java.time.LocalDateTime;
+
+/**
+ * Slow executions of one query shape: counts and timings, plus the method
+ * that issued the latest one and, once captured, its EXPLAIN output
+ */
+public class SlowQueryShape {
+
+    private final String shape;
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+    private String owner;
+    private LocalDateTime lastSeen;
+    private volatile String plan;
+
+    SlowQueryShape(String shape) {
+        this.shape = shape;
+    }
+
+    synchronized void record(long elapsedNanos, String owner) {
+        count++;
+        totalNanos += elapsedNanos;
+        maxNanos = Math.max(maxNanos, elapsedNanos);
+        this.owner = owner;
+        lastSeen = LocalDateTime.now();
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public synchronized double getAverageMillis() {
+        return count == 0 ? 0 : totalNanos / (count * 1_000_000.0);
+    }
+
+    public synchronized long getMaxMillis() {
+        return maxNanos / 1_000_000;
+    }
+
+    public synchronized String getOwner() {
+        return owner;
+    }
+
+    public synchronized LocalDateTime getLastSeen() {
+        return lastSeen;
+    }
+
+    public String getPlan() {
+        return plan;
+    }
+
+    public void setPlan(String plan) {
+        this.plan = plan;
+    }
+
+    public String getAverageMillisFormatted() {
+        return String.format("%.1f ms", getAverageMillis());
+    }
+}
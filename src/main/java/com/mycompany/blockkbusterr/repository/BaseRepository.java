@@ -1,25 +1,53 @@
 package com.mycompany.blockkbusterr.repository;
 
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Transactional
+@Monitored
 public abstract class BaseRepository<T, ID extends Serializable> {
     
+    /** Rows written per flush by saveAll/updateAll; matches the JDBC batch limit and ID allocation size */
+    public static final int BATCH_SIZE = 50;
+    
     @PersistenceContext(unitName = "blockkbusterr_pu")
     protected EntityManager entityManager;
     
+    @Inject
+    protected SharedCache sharedCache;
+    
     private final Class<T> entityClass;
     
     protected BaseRepository(Class<T> entityClass) {
         this.entityClass = entityClass;
     }
     
+    /**
+     * Wire the persistence context by hand, outside the container
+     */
+    public void setEntityManager(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+    
+    /**
+     * Wire the shared cache by hand, outside the container
+     */
+    public void setSharedCache(SharedCache sharedCache) {
+        this.sharedCache = sharedCache;
+    }
+    
     /**
      * Persist a new entity
      */
@@ -35,6 +63,43 @@ public abstract class BaseRepository<T, ID extends Serializable> {
         return entityManager.merge(entity);
     }
     
+    /**
+     * Persist many new entities, flushing and clearing the persistence context
+     * every BATCH_SIZE rows so the inserts go out as JDBC batches and memory
+     * stays bounded. Clearing detaches every entity the caller still holds
+     * from this persistence context, including the saved ones.
+     */
+    public List<T> saveAll(Collection<? extends T> entities) {
+        List<T> saved = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            entityManager.persist(entity);
+            saved.add(entity);
+            if (saved.size() % BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        return saved;
+    }
+    
+    /**
+     * Merge many detached entities with the same flush/clear cadence as saveAll.
+     * The returned instances are detached once a later batch has been cleared.
+     */
+    public List<T> updateAll(Collection<? extends T> entities) {
+        List<T> updated = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            updated.add(entityManager.merge(entity));
+            if (updated.size() % BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        return updated;
+    }
+    
     /**
      * Save or update entity
      */
@@ -47,13 +112,21 @@ public abstract class BaseRepository<T, ID extends Serializable> {
     }
     
     /**
-     * Find entity by ID
+     * Find entity by ID, served from the shared cache when the entity is cacheable
      */
     public Optional<T> findById(ID id) {
+        sharedCache.recordLookup(entityClass, id);
         T entity = entityManager.find(entityClass, id);
         return Optional.ofNullable(entity);
     }
     
+    /**
+     * Reference to an entity known to exist, for use in associations without loading it
+     */
+    public T getReference(ID id) {
+        return entityManager.getReference(entityClass, id);
+    }
+    
     /**
      * Find all entities
      */
@@ -63,6 +136,92 @@ public abstract class BaseRepository<T, ID extends Serializable> {
         return query.getResultList();
     }
     
+    /**
+     * Find one page of all entities using keyset pagination
+     */
+    public Page<T> findPage(SortKey<T> sortKey, PageRequest pageRequest) {
+        return findPage(null, null, new HashMap<>(), sortKey, pageRequest);
+    }
+    
+    /**
+     * Find one page of entities matching a JPQL condition on alias "e", using
+     * seek-method keyset pagination on (sort key, id). Fetch joins may be given
+     * for associations needed by the caller.
+     */
+    protected Page<T> findPage(String fetchJoins, String whereClause, Map<String, Object> parameters,
+                               SortKey<T> sortKey, PageRequest pageRequest) {
+        return findProjectionPage("e", entityClass, fetchJoins, whereClause, parameters, sortKey,
+                entity -> (Long) getId(entity), pageRequest);
+    }
+    
+    /**
+     * Find one page of read-only rows selected from alias "e", typically a JPQL
+     * constructor expression, with the same keyset pagination as findPage.
+     * The sort key and idOf extract the cursor from the last row.
+     */
+    protected <R> Page<R> findProjectionPage(String select, Class<R> resultClass, String joins, String whereClause,
+                                             Map<String, Object> parameters, SortKey<R> sortKey,
+                                             Function<R, Long> idOf, PageRequest pageRequest) {
+        String idAttribute = entityManager.getMetamodel().entity(entityClass).getId(Long.class).getName();
+        String direction = sortKey.isDescending() ? "DESC" : "ASC";
+        String seek = sortKey.isDescending() ? "<" : ">";
+        
+        StringBuilder jpql = new StringBuilder("SELECT ").append(select)
+                .append(" FROM ").append(entityClass.getSimpleName()).append(" e");
+        if (joins != null) {
+            jpql.append(' ').append(joins);
+        }
+        
+        StringBuilder conditions = new StringBuilder();
+        if (whereClause != null) {
+            conditions.append('(').append(whereClause).append(')');
+        }
+        if (!pageRequest.isFirst()) {
+            if (conditions.length() > 0) {
+                conditions.append(" AND ");
+            }
+            if (sortKey.isIdOnly()) {
+                conditions.append("e.").append(idAttribute).append(' ').append(seek).append(" :afterId");
+            } else {
+                String key = "e." + sortKey.getAttribute();
+                conditions.append('(').append(key).append(' ').append(seek).append(" :afterKey OR (")
+                        .append(key).append(" = :afterKey AND e.").append(idAttribute).append(' ').append(seek)
+                        .append(" :afterId))");
+            }
+        }
+        if (conditions.length() > 0) {
+            jpql.append(" WHERE ").append(conditions);
+        }
+        
+        jpql.append(" ORDER BY ");
+        if (!sortKey.isIdOnly()) {
+            jpql.append("e.").append(sortKey.getAttribute()).append(' ').append(direction).append(", ");
+        }
+        jpql.append("e.").append(idAttribute).append(' ').append(direction);
+        
+        TypedQuery<R> query = entityManager.createQuery(jpql.toString(), resultClass);
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            query.setParameter(parameter.getKey(), parameter.getValue());
+        }
+        if (!pageRequest.isFirst()) {
+            query.setParameter("afterId", pageRequest.getAfterId());
+            if (!sortKey.isIdOnly()) {
+                query.setParameter("afterKey", pageRequest.getAfterKey());
+            }
+        }
+        // Fetch one extra row to know whether another page follows
+        query.setMaxResults(pageRequest.getSize() + 1);
+        
+        List<R> rows = query.getResultList();
+        boolean hasNext = rows.size() > pageRequest.getSize();
+        List<R> items = hasNext ? rows.subList(0, pageRequest.getSize()) : rows;
+        if (items.isEmpty()) {
+            return Page.empty();
+        }
+        R last = items.get(items.size() - 1);
+        return new Page<>(items, hasNext, sortKey.keyOf(last), idOf.apply(last));
+    }
+    
     /**
      * Delete entity by ID
      */
@@ -0,0 +1,35 @@
+package com.mycompany.blockkbusterr.repository;
+
+/**
+ * CDI event fired when a bulk JPQL statement changed a cached entity behind the
+ * persistence provider's back. A null ID means every entity of the type.
+ */
+public class CacheEvictionEvent {
+
+    private final Class<?> entityClass;
+    private final Object id;
+
+    public CacheEvictionEvent(Class<?> entityClass, Object id) {
+        this.entityClass = entityClass;
+        this.id = id;
+    }
+
+    /**
+     * Type of the changed entity
+     */
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * ID of the changed entity, or null for all entities of the type
+     */
+    public Object getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheEvictionEvent{entityClass=" + entityClass.getSimpleName() + ", id=" + id + "}";
+    }
+}
@@ -0,0 +1,46 @@
+package com.mycompany.blockkbusterr.repository;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.entity.Review;
+import com.mycompany.blockkbusterr.entity.User;
+
+/**
+ * Second-level cache regions, one per cacheable entity.
+ * The persistence unit uses shared-cache-mode ENABLE_SELECTIVE, so an entity
+ * listed here must also be annotated @Cacheable. Rentals, journal entries and
+ * popularity buckets change too often to be worth caching and are left out.
+ */
+public enum CacheRegion {
+
+    MOVIES("Movies", Movie.class),
+    USERS("Users", User.class),
+    REVIEWS("Reviews", Review.class);
+
+    private final String displayName;
+    private final Class<?> entityClass;
+
+    CacheRegion(String displayName, Class<?> entityClass) {
+        this.displayName = displayName;
+        this.entityClass = entityClass;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * Region holding the given entity type, or null if the type is not cached
+     */
+    public static CacheRegion forEntity(Class<?> entityClass) {
+        for (CacheRegion region : values()) {
+            if (region.entityClass == entityClass) {
+                return region;
+            }
+        }
+        return null;
+    }
+}
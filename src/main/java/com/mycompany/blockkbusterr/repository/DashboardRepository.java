@@ -0,0 +1,53 @@
+package com.mycompany.blockkbusterr.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Cross-table aggregate queries backing the admin dashboard
+ */
+@ApplicationScoped
+@Transactional
+public class DashboardRepository {
+
+    // One scan per table, combined into a single row
+    private static final String COUNTERS_SQL =
+            "SELECT r.total_rentals, r.active_rentals, r.returned_rentals, r.overdue_rentals, " +
+            "m.total_movies, m.available_movies, m.low_stock_movies, m.out_of_stock_movies, " +
+            "u.total_users, u.active_users, u.admin_users, u.regular_users " +
+            "FROM (SELECT COUNT(*) AS total_rentals, " +
+            "COALESCE(SUM(CASE WHEN status IN ('ACTIVE', 'OVERDUE') THEN 1 ELSE 0 END), 0) AS active_rentals, " +
+            "COALESCE(SUM(CASE WHEN status = 'RETURNED' THEN 1 ELSE 0 END), 0) AS returned_rentals, " +
+            "COALESCE(SUM(CASE WHEN status IN ('ACTIVE', 'OVERDUE') AND return_date < ?1 THEN 1 ELSE 0 END), 0) AS overdue_rentals " +
+            "FROM rentals) r " +
+            "CROSS JOIN (SELECT COUNT(*) AS total_movies, " +
+            "COALESCE(SUM(CASE WHEN quantity > 0 THEN 1 ELSE 0 END), 0) AS available_movies, " +
+            "COALESCE(SUM(CASE WHEN quantity > 0 AND quantity <= ?2 THEN 1 ELSE 0 END), 0) AS low_stock_movies, " +
+            "COALESCE(SUM(CASE WHEN quantity = 0 THEN 1 ELSE 0 END), 0) AS out_of_stock_movies " +
+            "FROM movies) m " +
+            "CROSS JOIN (SELECT COUNT(*) AS total_users, " +
+            "COALESCE(SUM(CASE WHEN active = 1 THEN 1 ELSE 0 END), 0) AS active_users, " +
+            "COALESCE(SUM(CASE WHEN role = 'ADMIN' THEN 1 ELSE 0 END), 0) AS admin_users, " +
+            "COALESCE(SUM(CASE WHEN role = 'USER' THEN 1 ELSE 0 END), 0) AS regular_users " +
+            "FROM users) u";
+
+    @PersistenceContext(unitName = "blockkbusterr_pu")
+    private EntityManager entityManager;
+
+    /**
+     * Load all dashboard counters in one round trip.
+     * Columns: total, active, returned and overdue rentals; total, available,
+     * low stock and out of stock movies; total, active, admin and regular users.
+     */
+    public Object[] getDashboardCounters(LocalDate today, int lowStockThreshold) {
+        Query query = entityManager.createNativeQuery(COUNTERS_SQL);
+        query.setParameter(1, Date.valueOf(today));
+        query.setParameter(2, lowStockThreshold);
+        return (Object[]) query.getSingleResult();
+    }
+}
@@ -0,0 +1,50 @@
+package com.mycompany.blockkbusterr.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maintenance of the id_sequences table behind the pooled table ID generators
+ * of movies, users, rentals and reviews.
+ */
+@ApplicationScoped
+@Transactional
+public class IdSequenceRepository {
+
+    /** Sequence name (the generator's pkColumnValue) to table and ID column */
+    private static final Map<String, String[]> SEQUENCES = new LinkedHashMap<>();
+
+    static {
+        SEQUENCES.put("movies", new String[] { "movies", "movie_id" });
+        SEQUENCES.put("users", new String[] { "users", "user_id" });
+        SEQUENCES.put("rentals", new String[] { "rentals", "rental_id" });
+        SEQUENCES.put("reviews", new String[] { "reviews", "review_id" });
+    }
+
+    @PersistenceContext(unitName = "blockkbusterr_pu")
+    private EntityManager entityManager;
+
+    /**
+     * Move every sequence past the highest ID already in its table, so rows
+     * inserted before the switch from IDENTITY columns are never reissued.
+     * Returns the number of sequences created or advanced.
+     */
+    public int alignWithExistingRows() {
+        int changed = 0;
+        for (Map.Entry<String, String[]> sequence : SEQUENCES.entrySet()) {
+            String table = sequence.getValue()[0];
+            String idColumn = sequence.getValue()[1];
+            String sql = "INSERT INTO id_sequences (sequence_name, next_value) " +
+                        "SELECT ?1, COALESCE(MAX(" + idColumn + "), 0) + 1 FROM " + table + " " +
+                        "ON DUPLICATE KEY UPDATE next_value = GREATEST(next_value, VALUES(next_value))";
+            changed += entityManager.createNativeQuery(sql)
+                    .setParameter(1, sequence.getKey())
+                    .executeUpdate() > 0 ? 1 : 0;
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,110 @@
+package com.mycompany.blockkbusterr.repository;
+
+import com.mycompany.blockkbusterr.entity.InventoryJournalEntry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@ApplicationScoped
+public class InventoryJournalRepository extends BaseRepository<InventoryJournalEntry, Long> {
+    
+    public InventoryJournalRepository() {
+        super(InventoryJournalEntry.class);
+    }
+    
+    @Override
+    protected Long getId(InventoryJournalEntry entity) {
+        return entity.getEntryId();
+    }
+    
+    /**
+     * Find the oldest pending entries, up to the given batch size
+     */
+    public List<InventoryJournalEntry> findBatch(int batchSize) {
+        TypedQuery<InventoryJournalEntry> query = createNamedQuery("InventoryJournalEntry.findAll");
+        query.setMaxResults(batchSize);
+        return query.getResultList();
+    }
+    
+    /**
+     * Find pending entries for a movie
+     */
+    public List<InventoryJournalEntry> findByMovieId(Long movieId) {
+        TypedQuery<InventoryJournalEntry> query = createNamedQuery("InventoryJournalEntry.findByMovieId");
+        query.setParameter("movieId", movieId);
+        return query.getResultList();
+    }
+    
+    /**
+     * Find the committed pending entries of several movies and lock them, so a
+     * concurrent flush cannot apply them as well
+     */
+    public List<InventoryJournalEntry> findByMovieIdsForUpdate(Collection<Long> movieIds) {
+        if (movieIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String jpql = "SELECT j FROM InventoryJournalEntry j WHERE j.movieId IN :movieIds ORDER BY j.entryId";
+        return entityManager.createQuery(jpql, InventoryJournalEntry.class)
+                .setParameter("movieIds", movieIds)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+    
+    /**
+     * Net quantity change not yet applied to a movie
+     */
+    public long sumPendingDelta(Long movieId) {
+        String jpql = "SELECT COALESCE(SUM(j.delta), 0) FROM InventoryJournalEntry j WHERE j.movieId = :movieId";
+        Number sum = entityManager.createQuery(jpql, Number.class)
+                .setParameter("movieId", movieId)
+                .getSingleResult();
+        return sum.longValue();
+    }
+    
+    /**
+     * Net quantity changes not yet applied, by movie ID; movies without entries are left out
+     */
+    public Map<Long, Long> sumPendingDeltas(Collection<Long> movieIds) {
+        Map<Long, Long> sums = new HashMap<>();
+        if (movieIds.isEmpty()) {
+            return sums;
+        }
+        String jpql = "SELECT j.movieId, SUM(j.delta) FROM InventoryJournalEntry j " +
+                     "WHERE j.movieId IN :movieIds GROUP BY j.movieId";
+        List<Object[]> rows = entityManager.createQuery(jpql, Object[].class)
+                .setParameter("movieIds", movieIds)
+                .getResultList();
+        for (Object[] row : rows) {
+            sums.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return sums;
+    }
+    
+    /**
+     * Delete applied entries by ID
+     */
+    public int deleteByIds(Collection<Long> entryIds) {
+        if (entryIds.isEmpty()) {
+            return 0;
+        }
+        String jpql = "DELETE FROM InventoryJournalEntry j WHERE j.entryId IN :entryIds";
+        return entityManager.createQuery(jpql)
+                .setParameter("entryIds", entryIds)
+                .executeUpdate();
+    }
+    
+    /**
+     * Discard all pending entries for a movie
+     */
+    public int deleteByMovieId(Long movieId) {
+        String jpql = "DELETE FROM InventoryJournalEntry j WHERE j.movieId = :movieId";
+        return entityManager.createQuery(jpql)
+                .setParameter("movieId", movieId)
+                .executeUpdate();
+    }
+}
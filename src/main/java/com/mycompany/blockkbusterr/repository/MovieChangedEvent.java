@@ -0,0 +1,38 @@
+package com.mycompany.blockkbusterr.repository;
+
+import jakarta.interceptor.Interceptor;
+
+/**
+ * CDI event fired when a movie row is created, changed or deleted.
+ * Observers interested in committed state should use TransactionPhase.AFTER_SUCCESS.
+ * After-commit observers run in the order below, so each layer reloads from the one beneath it.
+ */
+public class MovieChangedEvent {
+
+    /** Observer priority of the shared (L2) cache eviction */
+    public static final int SHARED_CACHE_PRIORITY = Interceptor.Priority.APPLICATION;
+
+    /** Observer priority of the catalog cache, which reloads through the shared cache */
+    public static final int CATALOG_CACHE_PRIORITY = Interceptor.Priority.APPLICATION + 100;
+
+    /** Observer priority of the search index, which reloads through the catalog cache */
+    public static final int SEARCH_INDEX_PRIORITY = Interceptor.Priority.APPLICATION + 200;
+
+    private final Long movieId;
+
+    public MovieChangedEvent(Long movieId) {
+        this.movieId = movieId;
+    }
+
+    /**
+     * ID of the changed movie
+     */
+    public Long getMovieId() {
+        return movieId;
+    }
+
+    @Override
+    public String toString() {
+        return "MovieChangedEvent{movieId=" + movieId + "}";
+    }
+}
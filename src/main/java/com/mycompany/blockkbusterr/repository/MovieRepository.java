@@ -1,14 +1,32 @@
 package com.mycompany.blockkbusterr.repository;
 
+import com.mycompany.blockkbusterr.dto.MovieSummary;
 import com.mycompany.blockkbusterr.entity.Movie;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.TypedQuery;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @ApplicationScoped
 public class MovieRepository extends BaseRepository<Movie, Long> {
     
+    /** Catalog order: title, then ID */
+    public static final SortKey<Movie> SORT_BY_TITLE = SortKey.ascending("title", Movie::getTitle, value -> value);
+    
+    /** Stock order: quantity, then ID */
+    public static final SortKey<Movie> SORT_BY_QUANTITY = SortKey.ascending("quantity", Movie::getQuantity, Integer::valueOf);
+    
+    @Inject
+    private Event<MovieChangedEvent> movieChanged;
+    
     public MovieRepository() {
         super(Movie.class);
     }
@@ -18,6 +36,23 @@ public class MovieRepository extends BaseRepository<Movie, Long> {
         return entity.getMovieId();
     }
     
+    /**
+     * Find movie by ID with a pessimistic write lock, for read-modify-write updates.
+     * Callers that change the movie report it with fireMovieChanged.
+     */
+    public Optional<Movie> findByIdForUpdate(Long movieId) {
+        return Optional.ofNullable(entityManager.find(Movie.class, movieId, LockModeType.PESSIMISTIC_WRITE));
+    }
+    
+    /**
+     * Notify observers that a movie row changed in the current transaction.
+     * The movie is also dropped from the shared cache, since bulk updates bypass it.
+     */
+    public void fireMovieChanged(Long movieId) {
+        sharedCache.evict(Movie.class, movieId);
+        movieChanged.fire(new MovieChangedEvent(movieId));
+    }
+    
     /**
      * Find movies by title (partial match)
      */
@@ -84,16 +119,44 @@ public class MovieRepository extends BaseRepository<Movie, Long> {
     }
     
     /**
-     * Search movies by multiple criteria
+     * Find movies by a set of IDs and lock their rows, in ID order so concurrent
+     * callers lock them in the same order
      */
-    public List<Movie> searchMovies(String searchTerm) {
-        String jpql = "SELECT m FROM Movie m WHERE " +
-                     "LOWER(m.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-                     "LOWER(m.genre) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-                     "LOWER(m.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-                     "ORDER BY m.title";
+    public List<Movie> findByIdsForUpdate(Collection<Long> movieIds) {
+        if (movieIds == null || movieIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String jpql = "SELECT m FROM Movie m WHERE m.movieId IN :movieIds ORDER BY m.movieId";
         TypedQuery<Movie> query = entityManager.createQuery(jpql, Movie.class);
-        query.setParameter("searchTerm", searchTerm);
+        query.setParameter("movieIds", movieIds);
+        query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        return query.getResultList();
+    }
+    
+    /**
+     * Find movies by a set of IDs
+     */
+    public List<Movie> findByIds(Collection<Long> movieIds) {
+        if (movieIds == null || movieIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String jpql = "SELECT m FROM Movie m WHERE m.movieId IN :movieIds";
+        TypedQuery<Movie> query = entityManager.createQuery(jpql, Movie.class);
+        query.setParameter("movieIds", movieIds);
+        return query.getResultList();
+    }
+    
+    /**
+     * Find the title and release year of every movie whose title is in the given set.
+     * Each row is [title, releaseYear]; used to skip duplicates during catalog import.
+     */
+    public List<Object[]> findTitleYearPairs(Collection<String> titles) {
+        if (titles == null || titles.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String jpql = "SELECT m.title, m.releaseYear FROM Movie m WHERE m.title IN :titles";
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class);
+        query.setParameter("titles", titles);
         return query.getResultList();
     }
     
@@ -107,6 +170,18 @@ public class MovieRepository extends BaseRepository<Movie, Long> {
         return query.getResultList();
     }
     
+    /**
+     * Find list rows for movies with low stock
+     */
+    public List<MovieSummary> findLowStockSummaries(int threshold) {
+        String jpql = "SELECT NEW com.mycompany.blockkbusterr.dto.MovieSummary(m.movieId, m.title, m.genre, " +
+                      "m.releaseYear, m.duration, m.quantity) FROM Movie m " +
+                      "WHERE m.quantity <= :threshold AND m.quantity > 0 ORDER BY m.quantity ASC, m.title ASC";
+        TypedQuery<MovieSummary> query = entityManager.createQuery(jpql, MovieSummary.class);
+        query.setParameter("threshold", threshold);
+        return query.getResultList();
+    }
+    
     /**
      * Find out of stock movies
      */
@@ -127,25 +202,12 @@ public class MovieRepository extends BaseRepository<Movie, Long> {
     }
     
     /**
-     * Find most popular movies (based on rental count)
-     */
-    public List<Movie> findMostPopularMovies(int limit) {
-        String jpql = "SELECT m FROM Movie m " +
-                     "LEFT JOIN m.rentals r " +
-                     "GROUP BY m " +
-                     "ORDER BY COUNT(r) DESC";
-        TypedQuery<Movie> query = entityManager.createQuery(jpql, Movie.class);
-        query.setMaxResults(limit);
-        return query.getResultList();
-    }
-    
-    /**
-     * Find movies by average rating
+     * Find movies by average rating (uses the materialized average_rating column)
      */
     public List<Movie> findByMinimumRating(double minRating) {
         String jpql = "SELECT m FROM Movie m " +
-                     "WHERE (SELECT AVG(CAST(rev.rating AS double)) FROM Review rev WHERE rev.movie = m) >= :minRating " +
-                     "ORDER BY (SELECT AVG(CAST(rev.rating AS double)) FROM Review rev WHERE rev.movie = m) DESC";
+                     "WHERE m.ratingCount > 0 AND m.averageRating >= :minRating " +
+                     "ORDER BY m.averageRating DESC";
         TypedQuery<Movie> query = entityManager.createQuery(jpql, Movie.class);
         query.setParameter("minRating", minRating);
         return query.getResultList();
@@ -160,6 +222,24 @@ public class MovieRepository extends BaseRepository<Movie, Long> {
                 .setParameter("quantity", newQuantity)
                 .setParameter("movieId", movieId)
                 .executeUpdate();
+        if (updatedRows > 0) {
+            fireMovieChanged(movieId);
+        }
+        return updatedRows > 0;
+    }
+    
+    /**
+     * Apply a net quantity change (used when flushing the inventory journal)
+     */
+    public boolean adjustQuantity(Long movieId, int delta) {
+        String jpql = "UPDATE Movie m SET m.quantity = m.quantity + :delta WHERE m.movieId = :movieId";
+        int updatedRows = entityManager.createQuery(jpql)
+                .setParameter("delta", delta)
+                .setParameter("movieId", movieId)
+                .executeUpdate();
+        if (updatedRows > 0) {
+            fireMovieChanged(movieId);
+        }
         return updatedRows > 0;
     }
     
@@ -171,6 +251,9 @@ public class MovieRepository extends BaseRepository<Movie, Long> {
         int updatedRows = entityManager.createQuery(jpql)
                 .setParameter("movieId", movieId)
                 .executeUpdate();
+        if (updatedRows > 0) {
+            fireMovieChanged(movieId);
+        }
         return updatedRows > 0;
     }
     
@@ -182,6 +265,9 @@ public class MovieRepository extends BaseRepository<Movie, Long> {
         int updatedRows = entityManager.createQuery(jpql)
                 .setParameter("movieId", movieId)
                 .executeUpdate();
+        if (updatedRows > 0) {
+            fireMovieChanged(movieId);
+        }
         return updatedRows > 0;
     }
     
@@ -204,6 +290,25 @@ public class MovieRepository extends BaseRepository<Movie, Long> {
         return query.getSingleResult();
     }
     
+    /**
+     * Count movies with low stock
+     */
+    public long countLowStockMovies(int threshold) {
+        String jpql = "SELECT COUNT(m) FROM Movie m WHERE m.quantity <= :threshold AND m.quantity > 0";
+        TypedQuery<Long> query = entityManager.createQuery(jpql, Long.class);
+        query.setParameter("threshold", threshold);
+        return query.getSingleResult();
+    }
+    
+    /**
+     * Count out of stock movies
+     */
+    public long countOutOfStockMovies() {
+        String jpql = "SELECT COUNT(m) FROM Movie m WHERE m.quantity = 0";
+        TypedQuery<Long> query = entityManager.createQuery(jpql, Long.class);
+        return query.getSingleResult();
+    }
+    
     /**
      * Get distinct genres
      */
@@ -212,4 +317,65 @@ public class MovieRepository extends BaseRepository<Movie, Long> {
         TypedQuery<String> query = entityManager.createQuery(jpql, String.class);
         return query.getResultList();
     }
+    
+    /**
+     * Find one page of movies by title (partial match)
+     */
+    public Page<Movie> searchByTitlePage(String title, PageRequest pageRequest) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("title", title);
+        return findPage(null, "LOWER(e.title) LIKE LOWER(CONCAT('%', :title, '%'))", parameters, SORT_BY_TITLE, pageRequest);
+    }
+    
+    /**
+     * Find one page of movies by genre (partial match)
+     */
+    public Page<Movie> findByGenrePage(String genre, PageRequest pageRequest) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("genre", genre);
+        return findPage(null, "LOWER(e.genre) LIKE LOWER(CONCAT('%', :genre, '%'))", parameters, SORT_BY_TITLE, pageRequest);
+    }
+    
+    /**
+     * Find one page of available movies (quantity > 0)
+     */
+    public Page<Movie> findAvailablePage(PageRequest pageRequest) {
+        return findPage(null, "e.quantity > 0", new HashMap<>(), SORT_BY_TITLE, pageRequest);
+    }
+    
+    /**
+     * Find one page of movies whose title, genre or description contains the search term
+     */
+    public Page<Movie> searchPage(String searchTerm, PageRequest pageRequest) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("searchTerm", searchTerm);
+        return findPage(null, "LOWER(e.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                "LOWER(e.genre) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                "LOWER(e.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))", parameters, SORT_BY_TITLE, pageRequest);
+    }
+    
+    /**
+     * Find one page of movies released in the given year
+     */
+    public Page<Movie> findByReleaseYearPage(int year, PageRequest pageRequest) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("year", year);
+        return findPage(null, "e.releaseYear = :year", parameters, SORT_BY_TITLE, pageRequest);
+    }
+    
+    /**
+     * Find one page of movies with low stock, lowest quantity first
+     */
+    public Page<Movie> findLowStockPage(int threshold, PageRequest pageRequest) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("threshold", threshold);
+        return findPage(null, "e.quantity <= :threshold AND e.quantity > 0", parameters, SORT_BY_QUANTITY, pageRequest);
+    }
+    
+    /**
+     * Find one page of out of stock movies
+     */
+    public Page<Movie> findOutOfStockPage(PageRequest pageRequest) {
+        return findPage(null, "e.quantity = 0", new HashMap<>(), SORT_BY_TITLE, pageRequest);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.mycompany.blockkbusterr.repository;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated query, with the cursor of its last row
+ */
+public class Page<T> implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final List<T> items;
+    private final boolean hasNext;
+    private final Object lastKey;
+    private final Long lastId;
+    
+    public Page(List<T> items, boolean hasNext, Object lastKey, Long lastId) {
+        this.items = new ArrayList<>(items);
+        this.hasNext = hasNext;
+        this.lastKey = lastKey;
+        this.lastId = lastId;
+    }
+    
+    /**
+     * Empty last page
+     */
+    public static <T> Page<T> empty() {
+        return new Page<>(new ArrayList<>(), false, null, null);
+    }
+    
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public int getSize() {
+        return items.size();
+    }
+    
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+    
+    public boolean isHasNext() {
+        return hasNext;
+    }
+    
+    /**
+     * Request for the page after this one, or null if this is the last page
+     */
+    public PageRequest nextRequest(int size) {
+        return hasNext ? PageRequest.after(lastKey, lastId, size) : null;
+    }
+    
+    /**
+     * Opaque token for the page after this one, or null if this is the last page
+     */
+    public String getNextPageToken() {
+        if (!hasNext) {
+            return null;
+        }
+        String cursor = (lastKey != null ? lastKey.toString() : "") + "\n" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Map the items of this page, keeping its cursor
+     */
+    public <R> Page<R> map(Function<T, R> mapper) {
+        List<R> mapped = new ArrayList<>(items.size());
+        for (T item : items) {
+            mapped.add(mapper.apply(item));
+        }
+        return new Page<>(mapped, hasNext, lastKey, lastId);
+    }
+}
@@ -0,0 +1,62 @@
+package com.mycompany.blockkbusterr.repository;
+
+import java.io.Serializable;
+
+/**
+ * Request for one page of a keyset-paginated query.
+ * The first page has no cursor; later pages continue strictly after the
+ * (sort key, id) of the last row of the previous page.
+ */
+public final class PageRequest implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 500;
+    
+    private final int size;
+    private final Object afterKey;
+    private final Long afterId;
+    
+    private PageRequest(int size, Object afterKey, Long afterId) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        this.size = Math.min(size, MAX_SIZE);
+        this.afterKey = afterKey;
+        this.afterId = afterId;
+    }
+    
+    /**
+     * First page of the given size
+     */
+    public static PageRequest first(int size) {
+        return new PageRequest(size, null, null);
+    }
+    
+    /**
+     * Page of the given size continuing after the given sort key and ID
+     */
+    public static PageRequest after(Object afterKey, Long afterId, int size) {
+        if (afterId == null) {
+            throw new IllegalArgumentException("Cursor ID is required");
+        }
+        return new PageRequest(size, afterKey, afterId);
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public Object getAfterKey() {
+        return afterKey;
+    }
+    
+    public Long getAfterId() {
+        return afterId;
+    }
+    
+    public boolean isFirst() {
+        return afterId == null;
+    }
+}
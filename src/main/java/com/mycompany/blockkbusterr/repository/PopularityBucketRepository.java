@@ -0,0 +1,52 @@
+package com.mycompany.blockkbusterr.repository;
+
+import com.mycompany.blockkbusterr.entity.PopularityBucket;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.TypedQuery;
+import java.util.List;
+
+@ApplicationScoped
+public class PopularityBucketRepository extends BaseRepository<PopularityBucket, Long> {
+    
+    public PopularityBucketRepository() {
+        super(PopularityBucket.class);
+    }
+    
+    @Override
+    protected Long getId(PopularityBucket entity) {
+        return entity.getBucketId();
+    }
+    
+    /**
+     * Find all buckets from the given hour onwards, oldest first
+     */
+    public List<PopularityBucket> findSince(long sinceHour) {
+        TypedQuery<PopularityBucket> query = createNamedQuery("PopularityBucket.findSince");
+        query.setParameter("sinceHour", sinceHour);
+        return query.getResultList();
+    }
+    
+    /**
+     * Overwrite the count of an existing bucket; returns false if there is none yet
+     */
+    public boolean updateCount(Long movieId, long bucketHour, int rentalCount) {
+        String jpql = "UPDATE PopularityBucket b SET b.rentalCount = :rentalCount " +
+                      "WHERE b.movieId = :movieId AND b.bucketHour = :bucketHour";
+        int updatedRows = entityManager.createQuery(jpql)
+                .setParameter("rentalCount", rentalCount)
+                .setParameter("movieId", movieId)
+                .setParameter("bucketHour", bucketHour)
+                .executeUpdate();
+        return updatedRows > 0;
+    }
+    
+    /**
+     * Delete buckets older than the given hour
+     */
+    public int deleteBefore(long hour) {
+        String jpql = "DELETE FROM PopularityBucket b WHERE b.bucketHour < :hour";
+        return entityManager.createQuery(jpql)
+                .setParameter("hour", hour)
+                .executeUpdate();
+    }
+}
@@ -1,5 +1,6 @@
 package com.mycompany.blockkbusterr.repository;
 
+import com.mycompany.blockkbusterr.dto.RentalRow;
 import com.mycompany.blockkbusterr.entity.Movie;
 import com.mycompany.blockkbusterr.entity.Rental;
 import com.mycompany.blockkbusterr.entity.RentalStatus;
@@ -7,12 +8,41 @@ import com.mycompany.blockkbusterr.entity.User;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.TypedQuery;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @ApplicationScoped
 public class RentalRepository extends BaseRepository<Rental, Long> {
     
+    /** History order: newest borrow date first, then ID */
+    public static final SortKey<Rental> SORT_BY_BORROW_DATE = SortKey.descending("borrowDate", Rental::getBorrowDate, LocalDate::parse);
+    
+    /** History order for list rows */
+    public static final SortKey<RentalRow> SORT_ROWS_BY_BORROW_DATE = SortKey.descending("borrowDate", RentalRow::getBorrowDate, LocalDate::parse);
+    
+    private static final String FETCH_DETAILS = "LEFT JOIN FETCH e.user LEFT JOIN FETCH e.movie";
+    
+    private static final String ROW_SELECT = "NEW com.mycompany.blockkbusterr.dto.RentalRow(e.rentalId, e.status, " +
+            "e.borrowDate, e.returnDate, e.actualReturnDate, e.notes, m.movieId, m.title, m.genre, m.releaseYear, " +
+            "m.duration, u.userId, u.firstName, u.lastName)";
+    
+    private static final String ROW_JOINS = "JOIN e.movie m JOIN e.user u";
+    
+    /** Every rental eligibility input in one round trip; the rentals aggregate always yields one row */
+    private static final String ELIGIBILITY_SQL =
+            "SELECT u.active, m.active, m.quantity + j.pending, r.active_count, r.duplicate_count " +
+            "FROM (SELECT COUNT(*) AS active_count, " +
+            "COALESCE(SUM(CASE WHEN movie_id = ?1 THEN 1 ELSE 0 END), 0) AS duplicate_count " +
+            "FROM rentals WHERE user_id = ?2 AND status IN ('" + RentalStatus.ACTIVE.name() + "', '" +
+            RentalStatus.OVERDUE.name() + "')) r " +
+            "CROSS JOIN (SELECT COALESCE(SUM(delta), 0) AS pending FROM inventory_journal WHERE movie_id = ?3) j " +
+            "LEFT JOIN users u ON u.user_id = ?4 " +
+            "LEFT JOIN movies m ON m.movie_id = ?5";
+    
     public RentalRepository() {
         super(Rental.class);
     }
@@ -88,6 +118,28 @@ public class RentalRepository extends BaseRepository<Rental, Long> {
         return query.getResultList();
     }
     
+    /**
+     * Find (movie ID, created at) of every rental created since the given time
+     */
+    public List<Object[]> findRentalTimesSince(LocalDateTime since) {
+        String jpql = "SELECT r.movie.movieId, r.createdAt FROM Rental r WHERE r.createdAt >= :since";
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class);
+        query.setParameter("since", since);
+        return query.getResultList();
+    }
+    
+    /**
+     * Find (rental ID, user ID, movie ID) of the next rentals after the given rental ID, in ID order
+     */
+    public List<Object[]> findRentalPairsAfter(Long afterRentalId, int limit) {
+        String jpql = "SELECT r.rentalId, r.user.userId, r.movie.movieId FROM Rental r " +
+                      "WHERE r.rentalId > :afterRentalId ORDER BY r.rentalId";
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class);
+        query.setParameter("afterRentalId", afterRentalId);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+    
     /**
      * Find rentals by date range
      */
@@ -103,10 +155,10 @@ public class RentalRepository extends BaseRepository<Rental, Long> {
      * Find rentals due for return on specific date
      */
     public List<Rental> findDueOnDate(LocalDate date) {
-        String jpql = "SELECT r FROM Rental r WHERE r.returnDate = :date AND r.status = :status ORDER BY r.borrowDate";
+        String jpql = "SELECT r FROM Rental r WHERE r.returnDate = :date AND r.status IN :statuses ORDER BY r.borrowDate";
         TypedQuery<Rental> query = entityManager.createQuery(jpql, Rental.class);
         query.setParameter("date", date);
-        query.setParameter("status", RentalStatus.ACTIVE);
+        query.setParameter("statuses", RentalStatus.OUTSTANDING);
         return query.getResultList();
     }
     
@@ -115,10 +167,10 @@ public class RentalRepository extends BaseRepository<Rental, Long> {
      */
     public List<Rental> findDueWithinDays(int days) {
         LocalDate cutoffDate = LocalDate.now().plusDays(days);
-        String jpql = "SELECT r FROM Rental r WHERE r.returnDate <= :cutoffDate AND r.status = :status ORDER BY r.returnDate";
+        String jpql = "SELECT r FROM Rental r WHERE r.returnDate <= :cutoffDate AND r.status IN :statuses ORDER BY r.returnDate";
         TypedQuery<Rental> query = entityManager.createQuery(jpql, Rental.class);
         query.setParameter("cutoffDate", cutoffDate);
-        query.setParameter("status", RentalStatus.ACTIVE);
+        query.setParameter("statuses", RentalStatus.OUTSTANDING);
         return query.getResultList();
     }
     
@@ -137,10 +189,10 @@ public class RentalRepository extends BaseRepository<Rental, Long> {
      * Find user's active rentals
      */
     public List<Rental> findActiveRentalsByUser(User user) {
-        String jpql = "SELECT r FROM Rental r WHERE r.user = :user AND r.status = :status ORDER BY r.returnDate ASC";
+        String jpql = "SELECT r FROM Rental r WHERE r.user = :user AND r.status IN :statuses ORDER BY r.returnDate ASC";
         TypedQuery<Rental> query = entityManager.createQuery(jpql, Rental.class);
         query.setParameter("user", user);
-        query.setParameter("status", RentalStatus.ACTIVE);
+        query.setParameter("statuses", RentalStatus.OUTSTANDING);
         return query.getResultList();
     }
     
@@ -148,10 +200,10 @@ public class RentalRepository extends BaseRepository<Rental, Long> {
      * Find user's active rentals by user ID
      */
     public List<Rental> findActiveRentalsByUserId(Long userId) {
-        String jpql = "SELECT r FROM Rental r WHERE r.user.userId = :userId AND r.status = :status ORDER BY r.returnDate ASC";
+        String jpql = "SELECT r FROM Rental r WHERE r.user.userId = :userId AND r.status IN :statuses ORDER BY r.returnDate ASC";
         TypedQuery<Rental> query = entityManager.createQuery(jpql, Rental.class);
         query.setParameter("userId", userId);
-        query.setParameter("status", RentalStatus.ACTIVE);
+        query.setParameter("statuses", RentalStatus.OUTSTANDING);
         return query.getResultList();
     }
     
@@ -159,11 +211,11 @@ public class RentalRepository extends BaseRepository<Rental, Long> {
      * Check if user has active rental for specific movie
      */
     public boolean hasActiveRental(Long userId, Long movieId) {
-        String jpql = "SELECT COUNT(r) FROM Rental r WHERE r.user.userId = :userId AND r.movie.movieId = :movieId AND r.status = :status";
+        String jpql = "SELECT COUNT(r) FROM Rental r WHERE r.user.userId = :userId AND r.movie.movieId = :movieId AND r.status IN :statuses";
         TypedQuery<Long> query = entityManager.createQuery(jpql, Long.class);
         query.setParameter("userId", userId);
         query.setParameter("movieId", movieId);
-        query.setParameter("status", RentalStatus.ACTIVE);
+        query.setParameter("statuses", RentalStatus.OUTSTANDING);
         return query.getSingleResult() > 0;
     }
     
@@ -171,13 +223,30 @@ public class RentalRepository extends BaseRepository<Rental, Long> {
      * Count active rentals by user
      */
     public long countActiveRentalsByUser(Long userId) {
-        String jpql = "SELECT COUNT(r) FROM Rental r WHERE r.user.userId = :userId AND r.status = :status";
+        String jpql = "SELECT COUNT(r) FROM Rental r WHERE r.user.userId = :userId AND r.status IN :statuses";
         TypedQuery<Long> query = entityManager.createQuery(jpql, Long.class);
         query.setParameter("userId", userId);
-        query.setParameter("status", RentalStatus.ACTIVE);
+        query.setParameter("statuses", RentalStatus.OUTSTANDING);
         return query.getSingleResult();
     }
     
+    /**
+     * Count all rentals for each of the given users in one grouped query
+     */
+    public Map<Long, Long> countByUserIds(Collection<Long> userIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        if (userIds == null || userIds.isEmpty()) {
+            return counts;
+        }
+        String jpql = "SELECT r.user.userId, COUNT(r) FROM Rental r WHERE r.user.userId IN :userIds GROUP BY r.user.userId";
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class);
+        query.setParameter("userIds", userIds);
+        for (Object[] row : query.getResultList()) {
+            counts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+    
     /**
      * Count rentals by status
      */
@@ -192,9 +261,9 @@ public class RentalRepository extends BaseRepository<Rental, Long> {
      * Count overdue rentals
      */
     public long countOverdueRentals() {
-        String jpql = "SELECT COUNT(r) FROM Rental r WHERE r.status = :status AND r.returnDate < :currentDate";
+        String jpql = "SELECT COUNT(r) FROM Rental r WHERE r.status IN :statuses AND r.returnDate < :currentDate";
         TypedQuery<Long> query = entityManager.createQuery(jpql, Long.class);
-        query.setParameter("status", RentalStatus.ACTIVE);
+        query.setParameter("statuses", RentalStatus.OUTSTANDING);
         query.setParameter("currentDate", LocalDate.now());
         return query.getSingleResult();
     }
@@ -205,18 +274,80 @@ public class RentalRepository extends BaseRepository<Rental, Long> {
     public Object[] getUserRentalStats(Long userId) {
         String jpql = "SELECT " +
                      "COUNT(r), " +
-                     "SUM(CASE WHEN r.status = :active THEN 1 ELSE 0 END), " +
+                     "SUM(CASE WHEN (r.status = :active OR r.status = :overdue) THEN 1 ELSE 0 END), " +
                      "SUM(CASE WHEN r.status = :returned THEN 1 ELSE 0 END), " +
-                     "SUM(CASE WHEN r.status = :active AND r.returnDate < :currentDate THEN 1 ELSE 0 END) " +
+                     "SUM(CASE WHEN (r.status = :active OR r.status = :overdue) AND r.returnDate < :currentDate THEN 1 ELSE 0 END) " +
                      "FROM Rental r WHERE r.user.userId = :userId";
         TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class);
         query.setParameter("userId", userId);
         query.setParameter("active", RentalStatus.ACTIVE);
+        query.setParameter("overdue", RentalStatus.OVERDUE);
         query.setParameter("returned", RentalStatus.RETURNED);
         query.setParameter("currentDate", LocalDate.now());
         return query.getSingleResult();
     }
     
+    /**
+     * Rental eligibility of a user for a movie: user active flag, movie active
+     * flag, movie quantity plus pending inventory deltas, the user's outstanding
+     * rental count and how many of those are for this movie.
+     * The flags and quantity are null when the user or movie does not exist.
+     */
+    public Object[] getRentalEligibility(Long userId, Long movieId) {
+        return (Object[]) entityManager.createNativeQuery(ELIGIBILITY_SQL)
+                .setParameter(1, movieId)
+                .setParameter(2, userId)
+                .setParameter(3, movieId)
+                .setParameter(4, userId)
+                .setParameter(5, movieId)
+                .getSingleResult();
+    }
+    
+    /**
+     * Find IDs of active rentals past their return date, keyset-paged by rental ID
+     */
+    public List<Long> findOverdueCandidateIds(LocalDate today, Long afterRentalId, int limit) {
+        String jpql = "SELECT r.rentalId FROM Rental r WHERE r.status = :status AND r.returnDate < :today " +
+                     "AND r.rentalId > :afterRentalId ORDER BY r.rentalId";
+        TypedQuery<Long> query = entityManager.createQuery(jpql, Long.class);
+        query.setParameter("status", RentalStatus.ACTIVE);
+        query.setParameter("today", today);
+        query.setParameter("afterRentalId", afterRentalId);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+    
+    /**
+     * Mark the given rentals overdue if they are still active
+     */
+    public int markOverdue(List<Long> rentalIds) {
+        if (rentalIds.isEmpty()) {
+            return 0;
+        }
+        String jpql = "UPDATE Rental r SET r.status = :overdue, r.updatedAt = :now " +
+                     "WHERE r.rentalId IN :rentalIds AND r.status = :active";
+        return entityManager.createQuery(jpql)
+                .setParameter("overdue", RentalStatus.OVERDUE)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("rentalIds", rentalIds)
+                .setParameter("active", RentalStatus.ACTIVE)
+                .executeUpdate();
+    }
+    
+    /**
+     * Mark every active rental past its return date overdue in one statement
+     */
+    public int markAllOverdue(LocalDate today) {
+        String jpql = "UPDATE Rental r SET r.status = :overdue, r.updatedAt = :now " +
+                     "WHERE r.status = :active AND r.returnDate < :today";
+        return entityManager.createQuery(jpql)
+                .setParameter("overdue", RentalStatus.OVERDUE)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("active", RentalStatus.ACTIVE)
+                .setParameter("today", today)
+                .executeUpdate();
+    }
+    
     /**
      * Update rental status
      */
@@ -273,4 +404,58 @@ public class RentalRepository extends BaseRepository<Rental, Long> {
             return findById(rentalId);
         }
     }
+    
+    /**
+     * Find one page of all rentals with user and movie eagerly loaded, newest first
+     */
+    public Page<Rental> findPageWithDetails(PageRequest pageRequest) {
+        return findPage(FETCH_DETAILS, null, new HashMap<>(), SORT_BY_BORROW_DATE, pageRequest);
+    }
+    
+    /**
+     * Find one page of a user's rentals with user and movie eagerly loaded, newest first
+     */
+    public Page<Rental> findByUserIdPage(Long userId, PageRequest pageRequest) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("userId", userId);
+        return findPage(FETCH_DETAILS, "e.user.userId = :userId", parameters, SORT_BY_BORROW_DATE, pageRequest);
+    }
+    
+    /**
+     * Find one page of a movie's rentals with user and movie eagerly loaded, newest first
+     */
+    public Page<Rental> findByMovieIdPage(Long movieId, PageRequest pageRequest) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("movieId", movieId);
+        return findPage(FETCH_DETAILS, "e.movie.movieId = :movieId", parameters, SORT_BY_BORROW_DATE, pageRequest);
+    }
+    
+    /**
+     * Find one page of rental list rows, newest first
+     */
+    public Page<RentalRow> findRowsPage(PageRequest pageRequest) {
+        return findProjectionPage(ROW_SELECT, RentalRow.class, ROW_JOINS, null, new HashMap<>(),
+                SORT_ROWS_BY_BORROW_DATE, RentalRow::getRentalId, pageRequest);
+    }
+    
+    /**
+     * Find one page of a user's rental list rows, newest first
+     */
+    public Page<RentalRow> findRowsByUserIdPage(Long userId, PageRequest pageRequest) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("userId", userId);
+        return findProjectionPage(ROW_SELECT, RentalRow.class, ROW_JOINS, "u.userId = :userId", parameters,
+                SORT_ROWS_BY_BORROW_DATE, RentalRow::getRentalId, pageRequest);
+    }
+    
+    /**
+     * Find list rows for overdue rentals, longest overdue first
+     */
+    public List<RentalRow> findOverdueRows() {
+        String jpql = "SELECT " + ROW_SELECT + " FROM Rental e " + ROW_JOINS +
+                      " WHERE e.status IN :statuses AND e.returnDate < CURRENT_DATE ORDER BY e.returnDate ASC, e.rentalId ASC";
+        TypedQuery<RentalRow> query = entityManager.createQuery(jpql, RentalRow.class);
+        query.setParameter("statuses", RentalStatus.OUTSTANDING);
+        return query.getResultList();
+    }
 }
\ No newline at end of file
@@ -4,15 +4,21 @@ import com.mycompany.blockkbusterr.entity.Movie;
 import com.mycompany.blockkbusterr.entity.Review;
 import com.mycompany.blockkbusterr.entity.User;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @ApplicationScoped
 public class ReviewRepository extends BaseRepository<Review, Long> {
     
+    /** Newest reviews first, then ID */
+    public static final SortKey<Review> SORT_BY_REVIEW_DATE = SortKey.descending("reviewDate", Review::getReviewDate, LocalDateTime::parse);
+    
     public ReviewRepository() {
         super(Review.class);
     }
@@ -221,6 +227,16 @@ public class ReviewRepository extends BaseRepository<Review, Long> {
         return query.getResultList();
     }
     
+    /**
+     * Get the active rating histogram of every movie.
+     * Each row is [movieId, rating, reviewCount].
+     */
+    public List<Object[]> getRatingHistogramsForAllMovies() {
+        String jpql = "SELECT r.movie.movieId, r.rating, COUNT(r) FROM Review r WHERE r.active = true GROUP BY r.movie.movieId, r.rating";
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class);
+        return query.getResultList();
+    }
+    
     /**
      * Check if user has reviewed a movie
      */
@@ -239,28 +255,45 @@ public class ReviewRepository extends BaseRepository<Review, Long> {
                 .setParameter("updatedAt", LocalDateTime.now())
                 .setParameter("reviewId", reviewId)
                 .executeUpdate();
+        if (updatedRows > 0) {
+            sharedCache.evictOnCommit(Review.class, reviewId);
+        }
         return updatedRows > 0;
     }
     
     /**
-     * Soft delete review (mark as inactive)
+     * Soft delete review (mark as inactive); false unless it was active
      */
     public boolean softDeleteReview(Long reviewId) {
-        String jpql = "UPDATE Review r SET r.active = false WHERE r.reviewId = :reviewId";
+        String jpql = "UPDATE Review r SET r.active = false WHERE r.reviewId = :reviewId AND r.active = true";
         int updatedRows = entityManager.createQuery(jpql)
                 .setParameter("reviewId", reviewId)
                 .executeUpdate();
+        if (updatedRows > 0) {
+            sharedCache.evictOnCommit(Review.class, reviewId);
+        }
         return updatedRows > 0;
     }
     
     /**
-     * Reactivate review
+     * Find review by ID with a pessimistic write lock, for changes that move
+     * it between the movie's rating aggregates
+     */
+    public Optional<Review> findByIdForUpdate(Long reviewId) {
+        return Optional.ofNullable(entityManager.find(Review.class, reviewId, LockModeType.PESSIMISTIC_WRITE));
+    }
+    
+    /**
+     * Reactivate review; false unless it was inactive
      */
     public boolean reactivateReview(Long reviewId) {
-        String jpql = "UPDATE Review r SET r.active = true WHERE r.reviewId = :reviewId";
+        String jpql = "UPDATE Review r SET r.active = true WHERE r.reviewId = :reviewId AND r.active = false";
         int updatedRows = entityManager.createQuery(jpql)
                 .setParameter("reviewId", reviewId)
                 .executeUpdate();
+        if (updatedRows > 0) {
+            sharedCache.evictOnCommit(Review.class, reviewId);
+        }
         return updatedRows > 0;
     }
     
@@ -273,4 +306,24 @@ public class ReviewRepository extends BaseRepository<Review, Long> {
         query.setMaxResults(limit);
         return query.getResultList();
     }
+    
+    /**
+     * Find one page of active reviews for a movie, newest first
+     */
+    public Page<Review> findByMovieIdPage(Long movieId, PageRequest pageRequest) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("movieId", movieId);
+        return findPage("LEFT JOIN FETCH e.user", "e.movie.movieId = :movieId AND e.active = true",
+                parameters, SORT_BY_REVIEW_DATE, pageRequest);
+    }
+    
+    /**
+     * Find one page of active reviews by a user, newest first
+     */
+    public Page<Review> findByUserIdPage(Long userId, PageRequest pageRequest) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("userId", userId);
+        return findPage("LEFT JOIN FETCH e.movie", "e.user.userId = :userId AND e.active = true",
+                parameters, SORT_BY_REVIEW_DATE, pageRequest);
+    }
 }
\ No newline at end of file
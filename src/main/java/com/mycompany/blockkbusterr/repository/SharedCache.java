@@ -0,0 +1,133 @@
+package com.mycompany.blockkbusterr.repository;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Access to the persistence provider's second-level (shared) cache.
+ * Counts lookups by ID per cache region and evicts entries that bulk JPQL
+ * updates changed, since those statements bypass the cache. Bulk changes are
+ * evicted at once, so later reads in the same transaction see them, and again
+ * after commit, so a concurrent read of the old row cannot repopulate the cache
+ * with stale state.
+ */
+@ApplicationScoped
+public class SharedCache {
+
+    private static final Logger logger = Logger.getLogger(SharedCache.class.getName());
+
+    @PersistenceUnit(unitName = "blockkbusterr_pu")
+    private EntityManagerFactory entityManagerFactory;
+
+    @Inject
+    private Event<CacheEvictionEvent> cacheEviction;
+
+    private final Map<CacheRegion, AtomicLong[]> counters = new EnumMap<>(CacheRegion.class);
+
+    public SharedCache() {
+        for (CacheRegion region : CacheRegion.values()) {
+            // hits, misses, evictions
+            counters.put(region, new AtomicLong[] { new AtomicLong(), new AtomicLong(), new AtomicLong() });
+        }
+    }
+
+    /**
+     * Wire the entity manager factory by hand, outside the container
+     */
+    public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Record whether a lookup by ID is about to be served from the shared cache
+     */
+    public void recordLookup(Class<?> entityClass, Object id) {
+        CacheRegion region = CacheRegion.forEntity(entityClass);
+        if (region == null || id == null) {
+            return;
+        }
+        boolean hit = getCache().contains(entityClass, id);
+        counters.get(region)[hit ? 0 : 1].incrementAndGet();
+    }
+
+    /**
+     * Evict an entity changed by a bulk statement now and again once the transaction commits
+     */
+    public void evictOnCommit(Class<?> entityClass, Object id) {
+        if (CacheRegion.forEntity(entityClass) == null) {
+            return;
+        }
+        evict(entityClass, id);
+        cacheEviction.fire(new CacheEvictionEvent(entityClass, id));
+    }
+
+    /**
+     * Evict entries named by a committed bulk change
+     */
+    public void onCacheEviction(@Observes(during = TransactionPhase.AFTER_SUCCESS) CacheEvictionEvent event) {
+        evict(event.getEntityClass(), event.getId());
+    }
+
+    /**
+     * Evict a movie once the change that touched it has committed
+     */
+    public void onMovieChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS)
+                               @Priority(MovieChangedEvent.SHARED_CACHE_PRIORITY) MovieChangedEvent event) {
+        evict(Movie.class, event.getMovieId());
+    }
+
+    /**
+     * Evict one entity, or every entity of the type when the ID is null
+     */
+    public void evict(Class<?> entityClass, Object id) {
+        CacheRegion region = CacheRegion.forEntity(entityClass);
+        if (region == null) {
+            return;
+        }
+        if (id == null) {
+            getCache().evict(entityClass);
+        } else {
+            getCache().evict(entityClass, id);
+        }
+        counters.get(region)[2].incrementAndGet();
+    }
+
+    /**
+     * Evict every cached entity
+     */
+    public void evictAll() {
+        getCache().evictAll();
+        for (AtomicLong[] regionCounters : counters.values()) {
+            regionCounters[2].incrementAndGet();
+        }
+        logger.info("Evicted all entities from the shared cache");
+    }
+
+    public long getHitCount(CacheRegion region) {
+        return counters.get(region)[0].get();
+    }
+
+    public long getMissCount(CacheRegion region) {
+        return counters.get(region)[1].get();
+    }
+
+    public long getEvictionCount(CacheRegion region) {
+        return counters.get(region)[2].get();
+    }
+
+    private Cache getCache() {
+        return entityManagerFactory.getCache();
+    }
+}
@@ -0,0 +1,73 @@
+package com.mycompany.blockkbusterr.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Sort order for keyset pagination: an entity attribute plus the entity ID as tie-breaker.
+ * A null attribute sorts by ID only.
+ */
+public final class SortKey<T> {
+    
+    private final String attribute;
+    private final boolean descending;
+    private final Function<T, Object> extractor;
+    private final Function<String, Object> parser;
+    
+    private SortKey(String attribute, boolean descending, Function<T, Object> extractor, Function<String, Object> parser) {
+        this.attribute = attribute;
+        this.descending = descending;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+    
+    public static <T> SortKey<T> ascending(String attribute, Function<T, Object> extractor, Function<String, Object> parser) {
+        return new SortKey<>(attribute, false, extractor, parser);
+    }
+    
+    public static <T> SortKey<T> descending(String attribute, Function<T, Object> extractor, Function<String, Object> parser) {
+        return new SortKey<>(attribute, true, extractor, parser);
+    }
+    
+    public static <T> SortKey<T> byId(boolean descending) {
+        return new SortKey<>(null, descending, entity -> null, value -> null);
+    }
+    
+    public String getAttribute() {
+        return attribute;
+    }
+    
+    public boolean isDescending() {
+        return descending;
+    }
+    
+    public boolean isIdOnly() {
+        return attribute == null;
+    }
+    
+    /**
+     * Sort key value of an entity
+     */
+    public Object keyOf(T entity) {
+        return extractor.apply(entity);
+    }
+    
+    /**
+     * Decode a page token produced by Page.getNextPageToken; a blank token means the first page
+     */
+    public PageRequest decode(String pageToken, int size) {
+        if (pageToken == null || pageToken.isBlank()) {
+            return PageRequest.first(size);
+        }
+        try {
+            String cursor = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+            int separator = cursor.lastIndexOf('\n');
+            Long afterId = Long.valueOf(cursor.substring(separator + 1));
+            Object afterKey = isIdOnly() ? null : parser.apply(cursor.substring(0, separator));
+            return PageRequest.after(afterKey, afterId, size);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page token");
+        }
+    }
+}
@@ -1,16 +1,32 @@
 package com.mycompany.blockkbusterr.repository;
 
+import com.mycompany.blockkbusterr.dto.UserSummary;
 import com.mycompany.blockkbusterr.entity.User;
 import com.mycompany.blockkbusterr.entity.UserRole;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @ApplicationScoped
 public class UserRepository extends BaseRepository<User, Long> {
     
+    /** Directory order: username, then ID */
+    public static final SortKey<User> SORT_BY_USERNAME = SortKey.ascending("username", User::getUsername, value -> value);
+    
+    /** Directory order for list rows */
+    public static final SortKey<UserSummary> SORT_SUMMARIES_BY_USERNAME = SortKey.ascending("username", UserSummary::getUsername, value -> value);
+    
+    private static final String SUMMARY_SELECT = "NEW com.mycompany.blockkbusterr.dto.UserSummary(e.userId, e.firstName, " +
+            "e.lastName, e.email, e.username, e.role, e.active)";
+    
+    private static final String NAME_MATCHES = "LOWER(e.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(e.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(CONCAT(e.firstName, ' ', e.lastName)) LIKE LOWER(CONCAT('%', :searchTerm, '%'))";
+    
     public UserRepository() {
         super(User.class);
     }
@@ -135,6 +151,9 @@ public class UserRepository extends BaseRepository<User, Long> {
                 .setParameter("password", newPassword)
                 .setParameter("userId", userId)
                 .executeUpdate();
+        if (updatedRows > 0) {
+            sharedCache.evictOnCommit(User.class, userId);
+        }
         return updatedRows > 0;
     }
     
@@ -147,6 +166,9 @@ public class UserRepository extends BaseRepository<User, Long> {
                 .setParameter("active", active)
                 .setParameter("userId", userId)
                 .executeUpdate();
+        if (updatedRows > 0) {
+            sharedCache.evictOnCommit(User.class, userId);
+        }
         return updatedRows > 0;
     }
     
@@ -161,4 +183,31 @@ public class UserRepository extends BaseRepository<User, Long> {
         TypedQuery<User> query = entityManager.createQuery(jpql, User.class);
         return query.getResultList();
     }
+    
+    /**
+     * Find one page of users by name (first name or last name), ordered by username
+     */
+    public Page<User> searchByNamePage(String searchTerm, PageRequest pageRequest) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("searchTerm", searchTerm);
+        return findPage(null, NAME_MATCHES, parameters, SORT_BY_USERNAME, pageRequest);
+    }
+    
+    /**
+     * Find one page of user list rows, ordered by username
+     */
+    public Page<UserSummary> findSummariesPage(PageRequest pageRequest) {
+        return findProjectionPage(SUMMARY_SELECT, UserSummary.class, null, null, new HashMap<>(),
+                SORT_SUMMARIES_BY_USERNAME, UserSummary::getUserId, pageRequest);
+    }
+    
+    /**
+     * Search one page of user list rows by first name, last name or full name, ordered by username
+     */
+    public Page<UserSummary> searchSummariesByNamePage(String searchTerm, PageRequest pageRequest) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("searchTerm", searchTerm);
+        return findProjectionPage(SUMMARY_SELECT, UserSummary.class, null, NAME_MATCHES, parameters,
+                SORT_SUMMARIES_BY_USERNAME, UserSummary::getUserId, pageRequest);
+    }
 }
\ No newline at end of file
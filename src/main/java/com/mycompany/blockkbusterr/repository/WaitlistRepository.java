@@ -0,0 +1,115 @@
+package com.mycompany.blockkbusterr.repository;
+
+import com.mycompany.blockkbusterr.entity.WaitlistEntry;
+import com.mycompany.blockkbusterr.entity.WaitlistStatus;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@ApplicationScoped
+public class WaitlistRepository extends BaseRepository<WaitlistEntry, Long> {
+    
+    public WaitlistRepository() {
+        super(WaitlistEntry.class);
+    }
+    
+    @Override
+    protected Long getId(WaitlistEntry entity) {
+        return entity.getEntryId();
+    }
+    
+    /**
+     * Find waiting entries for a movie, first in line first
+     */
+    public List<WaitlistEntry> findWaitingByMovieId(Long movieId) {
+        TypedQuery<WaitlistEntry> query = createNamedQuery("WaitlistEntry.findWaitingByMovieId");
+        query.setParameter("movieId", movieId);
+        query.setParameter("status", WaitlistStatus.WAITING);
+        return query.getResultList();
+    }
+    
+    /**
+     * Find a user's waiting entries, oldest first
+     */
+    public List<WaitlistEntry> findWaitingByUserId(Long userId) {
+        String jpql = "SELECT w FROM WaitlistEntry w WHERE w.userId = :userId AND w.status = :status ORDER BY w.entryId";
+        TypedQuery<WaitlistEntry> query = entityManager.createQuery(jpql, WaitlistEntry.class);
+        query.setParameter("userId", userId);
+        query.setParameter("status", WaitlistStatus.WAITING);
+        return query.getResultList();
+    }
+    
+    /**
+     * Find a user's entries still waiting or holding a copy, oldest first
+     */
+    public List<WaitlistEntry> findOpenByUserId(Long userId) {
+        String jpql = "SELECT w FROM WaitlistEntry w WHERE w.userId = :userId AND w.status IN :statuses ORDER BY w.entryId";
+        TypedQuery<WaitlistEntry> query = entityManager.createQuery(jpql, WaitlistEntry.class);
+        query.setParameter("userId", userId);
+        query.setParameter("statuses", List.of(WaitlistStatus.WAITING, WaitlistStatus.OFFERED));
+        return query.getResultList();
+    }
+    
+    /**
+     * Find a user's entries holding a copy, soonest expiry first, with the movie titles
+     */
+    public List<Object[]> findOfferedWithTitles(Long userId) {
+        String jpql = "SELECT w, m.title FROM WaitlistEntry w, Movie m WHERE m.movieId = w.movieId " +
+                     "AND w.userId = :userId AND w.status = :status ORDER BY w.offeredUntil, w.entryId";
+        return entityManager.createQuery(jpql, Object[].class)
+                .setParameter("userId", userId)
+                .setParameter("status", WaitlistStatus.OFFERED)
+                .getResultList();
+    }
+    
+    /**
+     * Find the IDs of entries whose hold ended before the given time, oldest first
+     */
+    public List<Long> findExpiredOfferIds(LocalDateTime now, int maxResults) {
+        String jpql = "SELECT w.entryId FROM WaitlistEntry w WHERE w.status = :status AND w.offeredUntil < :now " +
+                     "ORDER BY w.offeredUntil";
+        return entityManager.createQuery(jpql, Long.class)
+                .setParameter("status", WaitlistStatus.OFFERED)
+                .setParameter("now", now)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+    
+    /**
+     * Find the user's waiting entry for a movie
+     */
+    public Optional<WaitlistEntry> findWaiting(Long userId, Long movieId) {
+        String jpql = "SELECT w FROM WaitlistEntry w WHERE w.userId = :userId AND w.movieId = :movieId AND w.status = :status";
+        List<WaitlistEntry> results = entityManager.createQuery(jpql, WaitlistEntry.class)
+                .setParameter("userId", userId)
+                .setParameter("movieId", movieId)
+                .setParameter("status", WaitlistStatus.WAITING)
+                .setMaxResults(1)
+                .getResultList();
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+    }
+    
+    /**
+     * Find a user's offered, fulfilled and skipped entries whose outcome has not been
+     * shown yet, oldest first, with the movie titles
+     */
+    public List<Object[]> findUnnotifiedWithTitles(Long userId, int maxResults) {
+        String jpql = "SELECT w, m.title FROM WaitlistEntry w, Movie m WHERE m.movieId = w.movieId " +
+                     "AND w.userId = :userId AND w.status IN :statuses AND w.notifiedAt IS NULL ORDER BY w.entryId";
+        return entityManager.createQuery(jpql, Object[].class)
+                .setParameter("userId", userId)
+                .setParameter("statuses", List.of(WaitlistStatus.OFFERED, WaitlistStatus.FULFILLED, WaitlistStatus.SKIPPED))
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+    
+    /**
+     * Find an entry and lock its row until the transaction ends
+     */
+    public Optional<WaitlistEntry> findByIdForUpdate(Long entryId) {
+        return Optional.ofNullable(entityManager.find(WaitlistEntry.class, entryId, LockModeType.PESSIMISTIC_WRITE));
+    }
+}
@@ -0,0 +1,131 @@
+package com.mycompany.blockkbusterr.resources;
+
+import com.mycompany.blockkbusterr.bean.SessionBean;
+import com.mycompany.blockkbusterr.metrics.LatencyHistogram;
+import com.mycompany.blockkbusterr.metrics.MethodMetrics;
+import com.mycompany.blockkbusterr.metrics.MetricsRegistry;
+import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.ForbiddenException;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Repository and service method metrics in the Prometheus text exposition format.
+ * Restricted like the admin pages: the caller must be logged in as an admin, or
+ * present the scrape token from the blockkbusterr.metrics.token system property
+ * as a bearer token. Without that property only admin sessions are served.
+ */
+@Path("metrics")
+public class MetricsResource {
+    
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    
+    /** Histogram bucket bounds in seconds */
+    private static final double[] BUCKETS = {
+        0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+    
+    private static final String PREFIX = "blockkbusterr_method_";
+    
+    private static final String SCRAPE_TOKEN = System.getProperty("blockkbusterr.metrics.token");
+    
+    @Inject
+    private MetricsRegistry registry;
+    
+    @Inject
+    private SessionBean sessionBean;
+    
+    @Context
+    private HttpServletRequest request;
+    
+    @GET
+    @Produces(CONTENT_TYPE)
+    public String scrape(@HeaderParam(HttpHeaders.AUTHORIZATION) String authorization) {
+        if (!isScrapeToken(authorization) && !isAdminSession()) {
+            throw new ForbiddenException("Admin access required");
+        }
+        List<MethodMetrics> methods = registry.getMethods();
+        StringBuilder text = new StringBuilder(methods.size() * 1500 + 512);
+        
+        header(text, "duration_seconds", "histogram", "Latency of repository and service methods");
+        for (MethodMetrics method : methods) {
+            LatencyHistogram.Snapshot snapshot = method.getLatency().snapshot();
+            String labels = labels(method);
+            for (double bound : BUCKETS) {
+                sample(text, "duration_seconds_bucket", labels + ",le=\"" + BigDecimal.valueOf(bound).toPlainString() + "\"",
+                        snapshot.countAtOrBelow(Math.round(bound * 1_000_000)));
+            }
+            sample(text, "duration_seconds_bucket", labels + ",le=\"+Inf\"", snapshot.getCount());
+            sample(text, "duration_seconds_sum", labels, seconds(snapshot.getSumMicros()));
+            sample(text, "duration_seconds_count", labels, snapshot.getCount());
+        }
+        
+        header(text, "duration_quantile_seconds", "gauge",
+                "Latency quantiles of repository and service methods since start, within 6.25%");
+        for (MethodMetrics method : methods) {
+            LatencyHistogram.Snapshot snapshot = method.getLatency().snapshot();
+            String labels = labels(method);
+            for (double quantile : QUANTILES) {
+                sample(text, "duration_quantile_seconds", labels + ",quantile=\"" + quantile + "\"",
+                        seconds(snapshot.valueAtQuantile(quantile)));
+            }
+        }
+        
+        header(text, "duration_max_seconds", "gauge", "Slowest call of repository and service methods since start");
+        for (MethodMetrics method : methods) {
+            sample(text, "duration_max_seconds", labels(method), seconds(method.getLatency().snapshot().getMaxMicros()));
+        }
+        
+        header(text, "errors_total", "counter", "Calls of repository and service methods that threw an exception");
+        for (MethodMetrics method : methods) {
+            sample(text, "errors_total", labels(method), method.getErrorCount());
+        }
+        
+        header(text, "rows_total", "counter", "Rows returned by repository and service methods");
+        for (MethodMetrics method : methods) {
+            sample(text, "rows_total", labels(method), method.getRowCount());
+        }
+        return text.toString();
+    }
+    
+    private static boolean isScrapeToken(String authorization) {
+        if (SCRAPE_TOKEN == null || SCRAPE_TOKEN.isEmpty() || authorization == null) {
+            return false;
+        }
+        byte[] expected = ("Bearer " + SCRAPE_TOKEN).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(expected, authorization.trim().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // Checked only when a session exists, so anonymous scrapes do not create one
+    private boolean isAdminSession() {
+        return request.getSession(false) != null && sessionBean.isAdmin();
+    }
+    
+    private static void header(StringBuilder text, String name, String type, String help) {
+        text.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+    
+    private static void sample(StringBuilder text, String name, String labels, Object value) {
+        text.append(PREFIX).append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+    
+    private static String labels(MethodMetrics method) {
+        return "bean=\"" + method.getBeanName() + "\",method=\"" + method.getMethodName() + "\"";
+    }
+    
+    private static double seconds(long micros) {
+        return micros / 1_000_000.0;
+    }
+}
@@ -0,0 +1,90 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.repository.CacheRegion;
+import com.mycompany.blockkbusterr.repository.SharedCache;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Hit and miss statistics of the entity regions of the second-level cache
+ * and of the cached catalog queries, for the admin dashboard.
+ */
+@ApplicationScoped
+@Monitored
+public class CacheStatisticsService {
+
+    private static final Logger logger = Logger.getLogger(CacheStatisticsService.class.getName());
+
+    @Inject
+    private SharedCache sharedCache;
+
+    @Inject
+    private CatalogCache catalogCache;
+
+    /**
+     * Statistics of every cache region, entity regions first
+     */
+    public List<RegionStatistics> getStatistics() {
+        List<RegionStatistics> statistics = new ArrayList<>();
+        for (CacheRegion region : CacheRegion.values()) {
+            statistics.add(new RegionStatistics(region.getDisplayName(), "Entity",
+                    sharedCache.getHitCount(region), sharedCache.getMissCount(region),
+                    sharedCache.getEvictionCount(region)));
+        }
+        statistics.add(new RegionStatistics("Movie catalog", "Query",
+                catalogCache.getHitCount(), catalogCache.getMissCount(), -1));
+        statistics.add(new RegionStatistics("Movie genres", "Query",
+                catalogCache.getGenreHitCount(), catalogCache.getGenreMissCount(), -1));
+        return statistics;
+    }
+
+    /**
+     * Empty the second-level cache and the catalog queries
+     */
+    public void clearAll() {
+        sharedCache.evictAll();
+        catalogCache.clear();
+        logger.info("Cleared shared entity and catalog caches");
+    }
+
+    /**
+     * Counters of one cache region; evictions are -1 where they are not tracked
+     */
+    public static class RegionStatistics implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String region;
+        private final String kind;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        public RegionStatistics(String region, String kind, long hits, long misses, long evictions) {
+            this.region = region;
+            this.kind = kind;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        public String getRegion() { return region; }
+        public String getKind() { return kind; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+
+        public double getHitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        public String getHitRatioFormatted() {
+            return String.format("%.1f%%", getHitRatio() * 100);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.repository.MovieChangedEvent;
+import com.mycompany.blockkbusterr.repository.MovieRepository;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Shared read-through cache of the movie catalog.
+ * Holds a size-bounded LRU map of movies by ID, an immutable, title-ordered
+ * view of the whole catalog (Movie.findAll) and the distinct genre list. When a MovieChangedEvent
+ * is observed after its transaction commits, only that movie is reloaded and swapped into a copy of
+ * the catalog view; the genre list is reloaded only when the movie's genre may have changed.
+ * Cached movies are shared between requests and must not be modified or handed
+ * out (MovieService returns copies, with live availability); loads run
+ * outside the caller's transaction so cached instances are never managed by it.
+ */
+@ApplicationScoped
+@Transactional(Transactional.TxType.NOT_SUPPORTED)
+@Monitored
+public class CatalogCache {
+
+    private static final Logger logger = Logger.getLogger(CatalogCache.class.getName());
+
+    private static final int MAX_ENTRIES = 2000;
+
+    // Order of the catalog view; kept in Java so refreshed movies can be inserted in place
+    private static final Comparator<Movie> CATALOG_ORDER = Comparator
+            .comparing(Movie::getTitle, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(Movie::getMovieId);
+
+    @Inject
+    private MovieRepository movieRepository;
+
+    // Access-ordered so the eldest entry is the least recently used
+    private final Map<Long, Movie> movies = new LinkedHashMap<Long, Movie>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Movie> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private volatile List<Movie> catalog;
+
+    private volatile List<String> genres;
+
+    // Bumped on every invalidation so loads that raced with a change are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    // Movie ID -> generation of its latest refresh, so an older reload never overwrites a newer one.
+    // Guarded by the movies lock.
+    private final Map<Long, Long> pendingRefreshes = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong genreHits = new AtomicLong();
+    private final AtomicLong genreMisses = new AtomicLong();
+
+    /**
+     * Find a movie by ID, loading it from the database on a miss
+     */
+    public Optional<Movie> findMovie(Long movieId) {
+        if (movieId == null) {
+            return Optional.empty();
+        }
+        synchronized (movies) {
+            Movie cached = movies.get(movieId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return Optional.of(cached);
+            }
+        }
+
+        misses.incrementAndGet();
+        long loadGeneration = generation.get();
+        Optional<Movie> loaded = movieRepository.findById(movieId);
+        loaded.ifPresent(movie -> {
+            synchronized (movies) {
+                if (generation.get() == loadGeneration) {
+                    movies.put(movieId, movie);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Find several movies by ID; misses are loaded together in one query
+     */
+    public Map<Long, Movie> findMovies(Collection<Long> movieIds) {
+        Map<Long, Movie> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        synchronized (movies) {
+            for (Long movieId : movieIds) {
+                Movie cached = movies.get(movieId);
+                if (cached != null) {
+                    found.put(movieId, cached);
+                } else {
+                    missing.add(movieId);
+                }
+            }
+        }
+        hits.addAndGet(found.size());
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        misses.addAndGet(missing.size());
+        long loadGeneration = generation.get();
+        List<Movie> loaded = movieRepository.findByIds(missing);
+        synchronized (movies) {
+            boolean current = generation.get() == loadGeneration;
+            for (Movie movie : loaded) {
+                found.put(movie.getMovieId(), movie);
+                if (current) {
+                    movies.put(movie.getMovieId(), movie);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Immutable view of all movies ordered by title
+     */
+    public List<Movie> getCatalog() {
+        List<Movie> current = catalog;
+        if (current != null) {
+            hits.incrementAndGet();
+            return current;
+        }
+
+        misses.incrementAndGet();
+        long loadGeneration = generation.get();
+        List<Movie> sorted = new ArrayList<>(movieRepository.findAll());
+        sorted.sort(CATALOG_ORDER);
+        List<Movie> loaded = Collections.unmodifiableList(sorted);
+        synchronized (movies) {
+            if (generation.get() == loadGeneration) {
+                catalog = loaded;
+                for (Movie movie : loaded) {
+                    movies.put(movie.getMovieId(), movie);
+                }
+            }
+        }
+        logger.fine("Loaded catalog of " + loaded.size() + " movies");
+        return loaded;
+    }
+
+    /**
+     * Immutable list of the distinct genres, ordered by name
+     */
+    public List<String> getGenres() {
+        List<String> current = genres;
+        if (current != null) {
+            genreHits.incrementAndGet();
+            return current;
+        }
+
+        genreMisses.incrementAndGet();
+        long loadGeneration = generation.get();
+        List<String> loaded = Collections.unmodifiableList(new ArrayList<>(movieRepository.getDistinctGenres()));
+        synchronized (movies) {
+            if (generation.get() == loadGeneration) {
+                genres = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Refresh a movie once the change that touched it has committed
+     */
+    public void onMovieChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS)
+                               @Priority(MovieChangedEvent.CATALOG_CACHE_PRIORITY) MovieChangedEvent event) {
+        refresh(event.getMovieId());
+    }
+
+    /**
+     * Reload one movie and replace it in the cache and the catalog view. The catalog is
+     * copied with only that entry swapped, so readers keep using the old view meanwhile.
+     */
+    public void refresh(Long movieId) {
+        if (movieId == null) {
+            return;
+        }
+        long refreshGeneration;
+        Movie previous;
+        synchronized (movies) {
+            refreshGeneration = generation.incrementAndGet();
+            pendingRefreshes.put(movieId, refreshGeneration);
+            previous = movies.remove(movieId);
+        }
+
+        Movie current = movieRepository.findById(movieId).orElse(null);
+        synchronized (movies) {
+            if (!Long.valueOf(refreshGeneration).equals(pendingRefreshes.get(movieId))) {
+                // A later refresh of the same movie will apply a newer state
+                return;
+            }
+            pendingRefreshes.remove(movieId);
+            if (catalog != null) {
+                previous = replaceInCatalog(movieId, current);
+            }
+            if (current != null) {
+                movies.put(movieId, current);
+            }
+            if (previous == null || current == null || !Objects.equals(previous.getGenre(), current.getGenre())) {
+                // The set of genres may have changed
+                genres = null;
+            }
+        }
+    }
+
+    // Swap one movie in a copy of the catalog view; returns the replaced movie, if any
+    private Movie replaceInCatalog(Long movieId, Movie current) {
+        List<Movie> updated = new ArrayList<>(catalog.size() + 1);
+        Movie previous = null;
+        for (Movie movie : catalog) {
+            if (movie.getMovieId().equals(movieId)) {
+                previous = movie;
+            } else {
+                updated.add(movie);
+            }
+        }
+        if (current != null) {
+            int index = Collections.binarySearch(updated, current, CATALOG_ORDER);
+            updated.add(index < 0 ? -index - 1 : index, current);
+        }
+        catalog = Collections.unmodifiableList(updated);
+        return previous;
+    }
+
+    /**
+     * Drop everything
+     */
+    public void clear() {
+        synchronized (movies) {
+            generation.incrementAndGet();
+            movies.clear();
+            catalog = null;
+            genres = null;
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getGenreHitCount() {
+        return genreHits.get();
+    }
+
+    public long getGenreMissCount() {
+        return genreMisses.get();
+    }
+
+    public int size() {
+        synchronized (movies) {
+            return movies.size();
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.service.CatalogImportWriter.ImportRow;
+import com.mycompany.blockkbusterr.util.CatalogFileReader;
+import com.mycompany.blockkbusterr.util.CsvExportStream;
+import com.mycompany.blockkbusterr.util.CatalogFileReader.CatalogRecord;
+import com.mycompany.blockkbusterr.util.CatalogFileReader.Format;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Bulk import of movie catalog files (CSV or JSON) as a streaming pipeline:
+ * a reader thread parses records into chunks, several validator threads apply
+ * the same rules as MovieService.addMovie, and the calling thread dedupes and
+ * inserts each chunk in its own batched transaction, in file order.
+ * Stages are connected by bounded queues, so memory use stays constant however
+ * large the file is.
+ * After each committed chunk a checkpoint next to the file records the last
+ * row done, and an interrupted import resumes after it. A chunk committed just
+ * before a crash is read again on resume and its rows are skipped as duplicates.
+ * Rejected and duplicate rows are listed in a CSV error report next to the file.
+ */
+@ApplicationScoped
+@Monitored
+public class CatalogImportService {
+
+    private static final Logger logger = Logger.getLogger(CatalogImportService.class.getName());
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int QUEUE_CAPACITY = 8;
+    private static final int VALIDATOR_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private static final Path IMPORT_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"), "blockkbusterr-imports");
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+    private static final String REPORT_SUFFIX = ".errors.csv";
+
+    // Marks the end of the records; passed on by each validator
+    private static final Chunk END = new Chunk(-1);
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    @Inject
+    private CatalogImportWriter writer;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile ImportProgress progress;
+
+    /**
+     * Store an uploaded catalog file in the import directory and return its name there
+     */
+    public String storeUpload(String fileName, InputStream content) throws IOException {
+        String safeName = Paths.get(fileName == null ? "" : fileName).getFileName().toString()
+                .replaceAll("[^A-Za-z0-9._-]", "_");
+        if (Format.fromFileName(safeName) == null) {
+            throw new IllegalArgumentException("Catalog file must be a .csv or .json file");
+        }
+        Files.createDirectories(IMPORT_DIRECTORY);
+        Files.copy(content, IMPORT_DIRECTORY.resolve(safeName), StandardCopyOption.REPLACE_EXISTING);
+        return safeName;
+    }
+
+    /**
+     * Start importing a file from the import directory in the background,
+     * resuming from its checkpoint if it has one
+     */
+    public void startImport(String fileName) {
+        Path file = resolveImportFile(fileName);
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Another catalog import is already running");
+        }
+        try {
+            executor.submit(() -> {
+                try {
+                    runImport(file, Format.fromFileName(fileName));
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Import a catalog file on the calling thread, resuming from its checkpoint if it has one
+     */
+    public ImportProgress importFile(Path file, Format format) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Another catalog import is already running");
+        }
+        try {
+            return runImport(file, format);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Progress of the current or last import, or null if none has run
+     */
+    public ImportProgress getProgress() {
+        return progress;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Names of files in the import directory with an unfinished import
+     */
+    public List<String> getResumableImports() {
+        List<String> names = new ArrayList<>();
+        if (!Files.isDirectory(IMPORT_DIRECTORY)) {
+            return names;
+        }
+        try (DirectoryStream<Path> checkpoints = Files.newDirectoryStream(IMPORT_DIRECTORY, "*" + CHECKPOINT_SUFFIX)) {
+            for (Path checkpoint : checkpoints) {
+                String name = checkpoint.getFileName().toString();
+                String source = name.substring(0, name.length() - CHECKPOINT_SUFFIX.length());
+                if (Files.exists(IMPORT_DIRECTORY.resolve(source))) {
+                    names.add(source);
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("Could not list import checkpoints: " + e.getMessage());
+        }
+        return names;
+    }
+
+    private Path resolveImportFile(String fileName) {
+        if (fileName == null || Format.fromFileName(fileName) == null) {
+            throw new IllegalArgumentException("Catalog file must be a .csv or .json file");
+        }
+        Path file = IMPORT_DIRECTORY.resolve(Paths.get(fileName).getFileName());
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Catalog file not found: " + fileName);
+        }
+        return file;
+    }
+
+    private ImportProgress runImport(Path file, Format format) {
+        ImportJob job;
+        try {
+            job = new ImportJob(file, Checkpoint.load(file));
+        } catch (IOException e) {
+            progress = new ImportProgress(file.getFileName().toString(), ImportProgress.Status.FAILED, 0, 0, 0, 0, 0,
+                    null, "Could not read checkpoint: " + e.getMessage());
+            return progress;
+        }
+        long resumeAfter = job.checkpoint.rowsDone;
+        if (resumeAfter > 0) {
+            logger.info("Resuming import of " + file.getFileName() + " after row " + resumeAfter);
+        }
+        progress = job.snapshot(ImportProgress.Status.RUNNING, null);
+
+        BlockingQueue<Chunk> parsed = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Chunk> validated = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        List<Future<?>> stages = new ArrayList<>();
+        boolean finished = false;
+        try {
+            stages.add(executor.submit(() -> {
+                read(file, format, resumeAfter, parsed);
+                return null;
+            }));
+            for (int i = 0; i < VALIDATOR_THREADS; i++) {
+                stages.add(executor.submit(() -> {
+                    validate(parsed, validated);
+                    return null;
+                }));
+            }
+
+            try (BufferedWriter report = openReport(file, resumeAfter > 0)) {
+                write(validated, report, job);
+            }
+            for (Future<?> stage : stages) {
+                stage.get();
+            }
+
+            finished = true;
+            job.checkpoint.delete();
+            progress = job.snapshot(ImportProgress.Status.COMPLETED, null);
+            logger.info("Imported " + file.getFileName() + ": " + job.imported + " added, "
+                    + job.duplicates + " duplicates, " + job.errors + " rejected");
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            String message = "Import stopped after row " + job.checkpoint.rowsDone + ": " + rootMessage(cause);
+            logger.severe("Catalog import of " + file.getFileName() + " failed. " + message);
+            progress = job.snapshot(ImportProgress.Status.FAILED, message);
+        } finally {
+            if (!finished) {
+                // Unblock the reader and validators if the write stage stopped early
+                for (Future<?> stage : stages) {
+                    stage.cancel(true);
+                }
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Parse stage: group records into chunks, skipping rows done by an earlier run
+     */
+    private void read(Path file, Format format, long resumeAfter, BlockingQueue<Chunk> parsed)
+            throws IOException, InterruptedException {
+        boolean cancelled = false;
+        try (CatalogFileReader reader = CatalogFileReader.open(file, format)) {
+            long sequence = 0;
+            Chunk chunk = new Chunk(sequence++);
+            CatalogRecord record;
+            while ((record = reader.next()) != null) {
+                if (record.getRowNumber() <= resumeAfter) {
+                    continue;
+                }
+                chunk.records.add(record);
+                if (chunk.records.size() == CHUNK_SIZE) {
+                    parsed.put(chunk);
+                    chunk = new Chunk(sequence++);
+                }
+            }
+            if (!chunk.records.isEmpty()) {
+                parsed.put(chunk);
+            }
+        } catch (InterruptedException e) {
+            cancelled = true;
+            throw e;
+        } finally {
+            // Nobody is left to take the end markers once the import is cancelled
+            if (!cancelled) {
+                for (int i = 0; i < VALIDATOR_THREADS; i++) {
+                    parsed.put(END);
+                }
+            }
+        }
+    }
+
+    /**
+     * Validation stage: turn records into normalized rows or row errors
+     */
+    private void validate(BlockingQueue<Chunk> parsed, BlockingQueue<Chunk> validated) throws InterruptedException {
+        boolean cancelled = false;
+        try {
+            Chunk chunk;
+            while ((chunk = parsed.take()) != END) {
+                for (CatalogRecord record : chunk.records) {
+                    try {
+                        chunk.rows.add(toRow(record));
+                    } catch (IllegalArgumentException e) {
+                        chunk.errors.add(new RowError(record.getRowNumber(), record.get("title"), e.getMessage()));
+                    }
+                }
+                chunk.lastRow = chunk.records.get(chunk.records.size() - 1).getRowNumber();
+                chunk.records = null;
+                validated.put(chunk);
+            }
+        } catch (InterruptedException e) {
+            cancelled = true;
+            throw e;
+        } finally {
+            if (!cancelled) {
+                validated.put(END);
+            }
+        }
+    }
+
+    private static ImportRow toRow(CatalogRecord record) {
+        String title = record.get("title");
+        Integer releaseYear = parseNumber(record.get("releaseYear"), "Release year");
+        Integer duration = parseNumber(record.get("duration"), "Duration");
+        String genre = record.get("genre");
+        Integer quantity = parseNumber(record.get("quantity"), "Quantity");
+        String description = record.get("description");
+        MovieService.validateMovieFields(title, releaseYear, duration, genre, quantity, description);
+        return new ImportRow(record.getRowNumber(), title, releaseYear, duration, genre, quantity, description);
+    }
+
+    private static Integer parseNumber(String value, String field) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " must be a whole number");
+        }
+    }
+
+    /**
+     * Write stage: insert chunks in file order, report errors and checkpoint after each
+     */
+    private void write(BlockingQueue<Chunk> validated, Writer report, ImportJob job)
+            throws IOException, InterruptedException {
+        Map<Long, Chunk> pending = new HashMap<>();
+        long nextSequence = 0;
+        int finishedValidators = 0;
+        while (finishedValidators < VALIDATOR_THREADS) {
+            Chunk chunk = validated.take();
+            if (chunk == END) {
+                finishedValidators++;
+                continue;
+            }
+            pending.put(chunk.sequence, chunk);
+            for (Chunk ready; (ready = pending.remove(nextSequence)) != null; nextSequence++) {
+                writeChunk(ready, report, job);
+            }
+        }
+        if (!pending.isEmpty()) {
+            throw new IllegalStateException("Validation stopped before all chunks were processed");
+        }
+    }
+
+    private void writeChunk(Chunk chunk, Writer report, ImportJob job) throws IOException {
+        List<Movie> saved;
+        try {
+            saved = writer.insertNew(chunk.rows);
+        } catch (RuntimeException e) {
+            // Find the offending rows by inserting one at a time
+            logger.warning("Batch insert of rows up to " + chunk.lastRow + " failed, retrying row by row: " + rootMessage(e));
+            saved = new ArrayList<>();
+            for (ImportRow row : chunk.rows) {
+                row.setDuplicate(false);
+                try {
+                    saved.addAll(writer.insertNew(List.of(row)));
+                } catch (RuntimeException rowFailure) {
+                    chunk.errors.add(new RowError(row.getRowNumber(), row.getTitle(), rootMessage(rowFailure)));
+                }
+            }
+        }
+
+        int duplicates = 0;
+        for (ImportRow row : chunk.rows) {
+            if (row.isDuplicate()) {
+                duplicates++;
+                chunk.errors.add(new RowError(row.getRowNumber(), row.getTitle(), "Duplicate of an existing movie"));
+            }
+        }
+        chunk.errors.sort((a, b) -> Long.compare(a.rowNumber, b.rowNumber));
+        for (RowError error : chunk.errors) {
+            report.write(error.rowNumber + "," + CsvExportStream.escape(error.title) + "," + CsvExportStream.escape(error.message) + "\n");
+        }
+        report.flush();
+
+        job.imported += saved.size();
+        job.duplicates += duplicates;
+        job.errors += chunk.errors.size() - duplicates;
+        job.checkpoint.rowsDone = chunk.lastRow;
+        job.checkpoint.save(job);
+        progress = job.snapshot(ImportProgress.Status.RUNNING, null);
+    }
+
+    private static BufferedWriter openReport(Path file, boolean append) throws IOException {
+        Path reportFile = file.resolveSibling(file.getFileName() + REPORT_SUFFIX);
+        if (append && Files.exists(reportFile)) {
+            return Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.APPEND);
+        }
+        BufferedWriter report = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8);
+        report.write("row,title,error\n");
+        return report;
+    }
+
+    private static String rootMessage(Throwable failure) {
+        Throwable root = failure;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    /**
+     * Records of one chunk, replaced by rows and errors once validated
+     */
+    private static final class Chunk {
+        final long sequence;
+        List<CatalogRecord> records = new ArrayList<>(CHUNK_SIZE);
+        final List<ImportRow> rows = new ArrayList<>(CHUNK_SIZE);
+        final List<RowError> errors = new ArrayList<>();
+        long lastRow;
+
+        Chunk(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class RowError {
+        final long rowNumber;
+        final String title;
+        final String message;
+
+        RowError(long rowNumber, String title, String message) {
+            this.rowNumber = rowNumber;
+            this.title = title;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Counters of a running import
+     */
+    private static final class ImportJob {
+        final Path file;
+        final Checkpoint checkpoint;
+        final long resumedFromRow;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        long imported;
+        long duplicates;
+        long errors;
+
+        ImportJob(Path file, Checkpoint checkpoint) {
+            this.file = file;
+            this.checkpoint = checkpoint;
+            this.resumedFromRow = checkpoint.rowsDone;
+            this.imported = checkpoint.imported;
+            this.duplicates = checkpoint.duplicates;
+            this.errors = checkpoint.errors;
+        }
+
+        ImportProgress snapshot(ImportProgress.Status status, String message) {
+            return new ImportProgress(file.getFileName().toString(), status, checkpoint.rowsDone, imported,
+                    duplicates, errors, resumedFromRow, startedAt, message);
+        }
+    }
+
+    /**
+     * Resume point of an import, stored as a properties file next to the source.
+     * A checkpoint only applies to the file it was written for, recognised by
+     * size and a checksum of its first megabyte.
+     */
+    private static final class Checkpoint {
+        private static final int FINGERPRINT_BYTES = 1 << 20;
+
+        final Path path;
+        final String fingerprint;
+        long rowsDone;
+        long imported;
+        long duplicates;
+        long errors;
+
+        private Checkpoint(Path path, String fingerprint) {
+            this.path = path;
+            this.fingerprint = fingerprint;
+        }
+
+        static Checkpoint load(Path file) throws IOException {
+            Checkpoint checkpoint = new Checkpoint(file.resolveSibling(file.getFileName() + CHECKPOINT_SUFFIX),
+                    fingerprint(file));
+            if (!Files.exists(checkpoint.path)) {
+                return checkpoint;
+            }
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(checkpoint.path, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            if (!checkpoint.fingerprint.equals(properties.getProperty("fingerprint"))) {
+                logger.info("Ignoring checkpoint of " + file.getFileName() + ": the file has changed");
+                return checkpoint;
+            }
+            checkpoint.rowsDone = Long.parseLong(properties.getProperty("rowsDone", "0"));
+            checkpoint.imported = Long.parseLong(properties.getProperty("imported", "0"));
+            checkpoint.duplicates = Long.parseLong(properties.getProperty("duplicates", "0"));
+            checkpoint.errors = Long.parseLong(properties.getProperty("errors", "0"));
+            return checkpoint;
+        }
+
+        void save(ImportJob job) throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty("fingerprint", fingerprint);
+            properties.setProperty("rowsDone", Long.toString(rowsDone));
+            properties.setProperty("imported", Long.toString(job.imported));
+            properties.setProperty("duplicates", Long.toString(job.duplicates));
+            properties.setProperty("errors", Long.toString(job.errors));
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            try (Writer out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                properties.store(out, "Catalog import checkpoint");
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        void delete() throws IOException {
+            Files.deleteIfExists(path);
+        }
+
+        private static String fingerprint(Path file) throws IOException {
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[8192];
+            try (InputStream in = Files.newInputStream(file)) {
+                int remaining = FINGERPRINT_BYTES;
+                int read;
+                while (remaining > 0 && (read = in.read(buffer, 0, Math.min(buffer.length, remaining))) > 0) {
+                    crc.update(buffer, 0, read);
+                    remaining -= read;
+                }
+            }
+            return Files.size(file) + ":" + Long.toHexString(crc.getValue());
+        }
+    }
+
+    /**
+     * Snapshot of an import's progress
+     */
+    public static class ImportProgress implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        public enum Status { RUNNING, COMPLETED, FAILED }
+
+        private final String fileName;
+        private final Status status;
+        private final long rowsProcessed;
+        private final long imported;
+        private final long duplicates;
+        private final long errors;
+        private final long resumedFromRow;
+        private final LocalDateTime startedAt;
+        private final String message;
+
+        public ImportProgress(String fileName, Status status, long rowsProcessed, long imported, long duplicates,
+                              long errors, long resumedFromRow, LocalDateTime startedAt, String message) {
+            this.fileName = fileName;
+            this.status = status;
+            this.rowsProcessed = rowsProcessed;
+            this.imported = imported;
+            this.duplicates = duplicates;
+            this.errors = errors;
+            this.resumedFromRow = resumedFromRow;
+            this.startedAt = startedAt;
+            this.message = message;
+        }
+
+        public String getFileName() { return fileName; }
+        public Status getStatus() { return status; }
+        public long getRowsProcessed() { return rowsProcessed; }
+        public long getImported() { return imported; }
+        public long getDuplicates() { return duplicates; }
+        public long getErrors() { return errors; }
+        public long getResumedFromRow() { return resumedFromRow; }
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public String getMessage() { return message; }
+        public String getErrorReportName() { return fileName + REPORT_SUFFIX; }
+    }
+}
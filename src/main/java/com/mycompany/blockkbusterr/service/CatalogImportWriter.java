@@ -0,0 +1,108 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.repository.MovieRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Write stage of the catalog import. Each call is one transaction: rows that
+ * duplicate an existing movie, or an earlier row of the same call, are marked
+ * and skipped, and the rest are inserted as one batch.
+ * A movie is a duplicate when title (ignoring case) and release year match.
+ * Every inserted movie fires a MovieChangedEvent, so the catalog view and
+ * search index pick it up once the batch commits, as for any other insert.
+ */
+@ApplicationScoped
+@Transactional
+@Monitored
+public class CatalogImportWriter {
+
+    @Inject
+    private MovieRepository movieRepository;
+
+    /**
+     * Insert the rows that are not duplicates and return the saved movies
+     */
+    public List<Movie> insertNew(List<ImportRow> rows) {
+        Set<String> titles = new HashSet<>();
+        for (ImportRow row : rows) {
+            titles.add(row.getTitle());
+        }
+        Set<String> existing = new HashSet<>();
+        for (Object[] pair : movieRepository.findTitleYearPairs(titles)) {
+            existing.add(key((String) pair[0], (Integer) pair[1]));
+        }
+
+        List<Movie> movies = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            if (!existing.add(key(row.getTitle(), row.getReleaseYear()))) {
+                row.setDuplicate(true);
+                continue;
+            }
+            movies.add(row.toMovie());
+        }
+        List<Movie> saved = movieRepository.saveAll(movies);
+        for (Movie movie : saved) {
+            movieRepository.fireMovieChanged(movie.getMovieId());
+        }
+        return saved;
+    }
+
+    private static String key(String title, Integer releaseYear) {
+        return title.toLowerCase(Locale.ROOT) + '|' + releaseYear;
+    }
+
+    /**
+     * One validated, normalized record of an import file
+     */
+    public static class ImportRow {
+        private final long rowNumber;
+        private final String title;
+        private final Integer releaseYear;
+        private final Integer duration;
+        private final String genre;
+        private final Integer quantity;
+        private final String description;
+        private boolean duplicate;
+
+        public ImportRow(long rowNumber, String title, Integer releaseYear, Integer duration,
+                         String genre, Integer quantity, String description) {
+            this.rowNumber = rowNumber;
+            this.title = title;
+            this.releaseYear = releaseYear;
+            this.duration = duration;
+            this.genre = genre;
+            this.quantity = quantity;
+            this.description = description;
+        }
+
+        /**
+         * New, unsaved movie with the row's values
+         */
+        public Movie toMovie() {
+            Movie movie = new Movie();
+            movie.setTitle(title);
+            movie.setReleaseYear(releaseYear);
+            movie.setDuration(duration);
+            movie.setGenre(genre);
+            movie.setQuantity(quantity);
+            movie.setDescription(description);
+            movie.setActive(true);
+            return movie;
+        }
+
+        public long getRowNumber() { return rowNumber; }
+        public String getTitle() { return title; }
+        public Integer getReleaseYear() { return releaseYear; }
+        public boolean isDuplicate() { return duplicate; }
+        public void setDuplicate(boolean duplicate) { this.duplicate = duplicate; }
+    }
+}
@@ -0,0 +1,178 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.repository.RentalRepository;
+import com.mycompany.blockkbusterr.util.CoRentalMatrix;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+/**
+ * "Customers who rented this also rented" index over the rentals table.
+ * The co-rental matrix is built in parallel from all rentals on first use and
+ * kept current from committed RentalCreatedEvents; a rebuild keeps serving the
+ * old matrix and replays rentals that arrive while it runs.
+ */
+@ApplicationScoped
+@Monitored
+public class CoRentalIndex {
+
+    private static final Logger logger = Logger.getLogger(CoRentalIndex.class.getName());
+
+    private static final int LOAD_CHUNK_SIZE = 10000;
+
+    @Inject
+    private RentalRepository rentalRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Serializes rebuilds without blocking readers
+    private final Object rebuildMonitor = new Object();
+
+    private CoRentalMatrix matrix;
+
+    // (user ID, movie ID) of rentals committed while a rebuild is loading
+    private List<long[]> pendingRentals;
+
+    /**
+     * IDs of the movies most often rented by users who rented the given movie
+     */
+    public long[] findCoRented(Long movieId, int limit) {
+        if (movieId == null) {
+            return new long[0];
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return matrix.topCoRented(movieId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add a rental once its transaction has committed
+     */
+    public void onRentalCreated(@Observes(during = TransactionPhase.AFTER_SUCCESS) RentalCreatedEvent event) {
+        if (event.getUserId() == null || event.getMovieId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pendingRentals != null) {
+                pendingRentals.add(new long[] {event.getUserId(), event.getMovieId()});
+            }
+            // Before the first build the rental is picked up by the load
+            if (matrix != null) {
+                matrix.addRental(event.getUserId(), event.getMovieId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the matrix from the rentals table
+     */
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            build();
+        }
+    }
+
+    /**
+     * Approximate retained heap size of the matrix, or 0 before the first build
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return matrix != null ? matrix.estimatedBytes() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (matrix != null) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        synchronized (rebuildMonitor) {
+            lock.readLock().lock();
+            try {
+                if (matrix != null) {
+                    return;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            build();
+        }
+    }
+
+    private void build() {
+        lock.writeLock().lock();
+        try {
+            pendingRentals = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        CoRentalMatrix rebuilt = null;
+        try {
+            long start = System.currentTimeMillis();
+            rebuilt = load();
+            logger.info("Co-rental matrix built in " + (System.currentTimeMillis() - start) + " ms: "
+                    + rebuilt.getRentalCount() + " rentals, " + rebuilt.getMovieCount() + " movies, "
+                    + rebuilt.getPairCount() + " pairs, ~" + (rebuilt.estimatedBytes() >> 10) + " KiB");
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (rebuilt != null) {
+                    // Replaying is safe even if the load already saw a rental, as repeats count once
+                    for (long[] rental : pendingRentals) {
+                        rebuilt.addRental(rental[0], rental[1]);
+                    }
+                    matrix = rebuilt;
+                }
+                pendingRentals = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private CoRentalMatrix load() {
+        long[] userIds = new long[LOAD_CHUNK_SIZE];
+        long[] movieIds = new long[LOAD_CHUNK_SIZE];
+        int length = 0;
+        Long lastRentalId = 0L;
+        while (true) {
+            List<Object[]> chunk = rentalRepository.findRentalPairsAfter(lastRentalId, LOAD_CHUNK_SIZE);
+            if (length + chunk.size() > userIds.length) {
+                userIds = Arrays.copyOf(userIds, Math.max(userIds.length << 1, length + chunk.size()));
+                movieIds = Arrays.copyOf(movieIds, userIds.length);
+            }
+            for (Object[] row : chunk) {
+                lastRentalId = (Long) row[0];
+                userIds[length] = (Long) row[1];
+                movieIds[length] = (Long) row[2];
+                length++;
+            }
+            if (chunk.size() < LOAD_CHUNK_SIZE) {
+                break;
+            }
+        }
+        return CoRentalMatrix.build(userIds, movieIds, length, Runtime.getRuntime().availableProcessors());
+    }
+}
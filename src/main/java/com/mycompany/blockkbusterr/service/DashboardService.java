@@ -0,0 +1,112 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.repository.DashboardRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Admin dashboard counters, computed with a single aggregate query and
+ * shared across all admin sessions for a short time-to-live.
+ */
+@ApplicationScoped
+@Monitored
+public class DashboardService {
+
+    private static final Logger logger = Logger.getLogger(DashboardService.class.getName());
+
+    private static final long SNAPSHOT_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int LOW_STOCK_THRESHOLD = 5;
+
+    @Inject
+    private DashboardRepository dashboardRepository;
+
+    private final Object refreshLock = new Object();
+
+    private volatile DashboardSnapshot snapshot;
+    private volatile long snapshotExpiresAt;
+
+    // Bumped on every invalidation so a load that raced with it is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Get the current dashboard snapshot, recomputing it once the TTL has expired
+     */
+    public DashboardSnapshot getSnapshot() {
+        DashboardSnapshot current = snapshot;
+        if (current != null && System.nanoTime() - snapshotExpiresAt < 0) {
+            return current;
+        }
+        synchronized (refreshLock) {
+            // Another admin may have refreshed while we were waiting
+            current = snapshot;
+            if (current != null && System.nanoTime() - snapshotExpiresAt < 0) {
+                return current;
+            }
+            long loadGeneration = generation.get();
+            current = loadSnapshot();
+            synchronized (generation) {
+                if (generation.get() == loadGeneration) {
+                    snapshotExpiresAt = System.nanoTime() + SNAPSHOT_TTL_NANOS;
+                    snapshot = current;
+                }
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Drop the cached snapshot so the next request recomputes it
+     */
+    public void invalidate() {
+        // Not refreshLock, so an invalidation never waits for a load
+        synchronized (generation) {
+            generation.incrementAndGet();
+            snapshot = null;
+        }
+    }
+
+    private DashboardSnapshot loadSnapshot() {
+        Object[] row = dashboardRepository.getDashboardCounters(LocalDate.now(), LOW_STOCK_THRESHOLD);
+
+        RentalService.RentalStats rentalStats = new RentalService.RentalStats(
+                toLong(row[0]), toLong(row[1]), toLong(row[2]), toLong(row[3]));
+        MovieService.MovieStats movieStats = new MovieService.MovieStats(
+                toLong(row[4]), toLong(row[5]), toLong(row[6]), toLong(row[7]));
+        UserService.UserStats userStats = new UserService.UserStats(
+                toLong(row[8]), toLong(row[9]), toLong(row[10]), toLong(row[11]));
+
+        logger.fine("Recomputed dashboard snapshot");
+        return new DashboardSnapshot(rentalStats, movieStats, userStats, LocalDateTime.now());
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    // Inner class for a point-in-time set of dashboard counters
+    public static class DashboardSnapshot {
+        private final RentalService.RentalStats rentalStats;
+        private final MovieService.MovieStats movieStats;
+        private final UserService.UserStats userStats;
+        private final LocalDateTime computedAt;
+
+        public DashboardSnapshot(RentalService.RentalStats rentalStats, MovieService.MovieStats movieStats,
+                                 UserService.UserStats userStats, LocalDateTime computedAt) {
+            this.rentalStats = rentalStats;
+            this.movieStats = movieStats;
+            this.userStats = userStats;
+            this.computedAt = computedAt;
+        }
+
+        public RentalService.RentalStats getRentalStats() { return rentalStats; }
+        public MovieService.MovieStats getMovieStats() { return movieStats; }
+        public UserService.UserStats getUserStats() { return userStats; }
+        public LocalDateTime getComputedAt() { return computedAt; }
+    }
+}
@@ -3,6 +3,8 @@ package com.mycompany.blockkbusterr.service;
 import com.mycompany.blockkbusterr.entity.Movie;
 import com.mycompany.blockkbusterr.entity.User;
 import com.mycompany.blockkbusterr.entity.UserRole;
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.repository.IdSequenceRepository;
 import com.mycompany.blockkbusterr.repository.MovieRepository;
 import com.mycompany.blockkbusterr.repository.UserRepository;
 import com.mycompany.blockkbusterr.util.PasswordUtil;
@@ -14,9 +16,12 @@ import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Logger;
 
 @ApplicationScoped
+@Monitored
 public class DatabaseInitializationService {
     
     private static final Logger logger = Logger.getLogger(DatabaseInitializationService.class.getName());
@@ -32,6 +37,12 @@ public class DatabaseInitializationService {
     @Inject
     private MovieRepository movieRepository;
     
+    @Inject
+    private IdSequenceRepository idSequenceRepository;
+    
+    @Inject
+    private SchemaMigrationService schemaMigrationService;
+    
     /**
      * Initialize database on application startup
      */
@@ -39,6 +50,14 @@ public class DatabaseInitializationService {
         logger.info("=== CDI ApplicationScoped @Initialized event received ===");
         logger.info("Event object type: " + (init != null ? init.getClass().getName() : "null"));
         
+        // This event may arrive before DatabaseStartupBean runs; migrate first either way
+        try {
+            schemaMigrationService.migrate();
+        } catch (Exception e) {
+            logger.severe("Schema migration failed, skipping data initialization: " + e.getMessage());
+            return;
+        }
+        
         // Log configuration check
         boolean shouldInit = shouldInitialize();
         logger.info("shouldInitialize() returned: " + shouldInit);
@@ -76,6 +95,9 @@ public class DatabaseInitializationService {
         logger.info("All repositories injected successfully");
         
         try {
+            int alignedSequences = idSequenceRepository.alignWithExistingRows();
+            logger.info("ID sequences aligned with existing rows (" + alignedSequences + " changed)");
+            
             logger.info("Initializing admin user...");
             initializeAdminUser();
             logger.info("Admin user initialization completed");
@@ -167,18 +189,10 @@ public class DatabaseInitializationService {
             createMovie("Gladiator", 2000, 155, "Action", 2, "A former Roman General seeks vengeance against the corrupt emperor who murdered his family.")
         };
         
-        int successCount = 0;
-        for (Movie movie : sampleMovies) {
-            try {
-                movieRepository.save(movie);
-                successCount++;
-                logger.info("Created movie: " + movie.getTitle());
-            } catch (Exception e) {
-                logger.warning("Failed to create movie '" + movie.getTitle() + "': " + e.getMessage());
-            }
-        }
+        // One batched insert instead of a round trip per movie
+        List<Movie> saved = movieRepository.saveAll(Arrays.asList(sampleMovies));
         
-        logger.info("Sample movie creation completed. Successfully created " + successCount + " out of " + sampleMovies.length + " movies.");
+        logger.info("Sample movie creation completed. Successfully created " + saved.size() + " out of " + sampleMovies.length + " movies.");
     }
     
     /**
@@ -0,0 +1,85 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.InventoryJournalEntry;
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.repository.InventoryJournalRepository;
+import com.mycompany.blockkbusterr.repository.MovieRepository;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Folds pending inventory journal entries into movies.quantity.
+ * Each run applies one net UPDATE per movie and deletes the applied entries
+ * in the same transaction, so a crash never loses or double-applies a delta.
+ */
+@Singleton
+@Monitored
+public class InventoryFlushService {
+    
+    private static final Logger logger = Logger.getLogger(InventoryFlushService.class.getName());
+    
+    private static final int BATCH_SIZE = 500;
+    
+    @Inject
+    private InventoryJournalRepository journalRepository;
+    
+    @Inject
+    private MovieRepository movieRepository;
+    
+    /**
+     * Periodic flush of the journal
+     */
+    @Schedule(hour = "*", minute = "*", second = "*/10", persistent = false)
+    public void scheduledFlush() {
+        int applied = flushBatch();
+        if (applied > 0) {
+            logger.fine("Applied " + applied + " inventory journal entries");
+        }
+    }
+    
+    /**
+     * Apply the oldest batch of pending entries; returns the number applied
+     */
+    public int flushBatch() {
+        return apply(journalRepository.findBatch(BATCH_SIZE));
+    }
+    
+    /**
+     * Apply all pending entries for one movie
+     */
+    public int flushMovie(Long movieId) {
+        return apply(journalRepository.findByMovieId(movieId));
+    }
+    
+    private int apply(List<InventoryJournalEntry> entries) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        
+        // Sorted by movie ID so concurrent flushes lock rows in the same order
+        Map<Long, Integer> netDeltas = new TreeMap<>();
+        List<Long> entryIds = new ArrayList<>(entries.size());
+        for (InventoryJournalEntry entry : entries) {
+            netDeltas.merge(entry.getMovieId(), entry.getDelta(), Integer::sum);
+            entryIds.add(entry.getEntryId());
+        }
+        
+        for (Map.Entry<Long, Integer> netDelta : netDeltas.entrySet()) {
+            if (netDelta.getValue() != 0) {
+                movieRepository.adjustQuantity(netDelta.getKey(), netDelta.getValue());
+            }
+        }
+        
+        if (journalRepository.deleteByIds(entryIds) != entryIds.size()) {
+            // Entries were discarded concurrently (absolute quantity reset); roll back and retry next run
+            throw new IllegalStateException("Inventory journal changed during flush");
+        }
+        return entries.size();
+    }
+}
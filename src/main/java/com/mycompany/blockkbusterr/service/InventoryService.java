@@ -0,0 +1,253 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.InventoryJournalEntry;
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.repository.InventoryJournalRepository;
+import com.mycompany.blockkbusterr.repository.MovieRepository;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory available-copy counters for movies.
+ * Reservations and releases adjust an atomic per-movie counter and append a
+ * journal entry in the caller's transaction; the movies row itself is only
+ * written by InventoryFlushService, which applies net deltas in batches, and
+ * by absolute quantity changes, which fold the pending journal in first.
+ * Counters are rebuilt lazily as movies.quantity plus the pending journal and
+ * are only ever adjusted in place, so no reservation in flight is lost.
+ */
+@ApplicationScoped
+@Transactional
+@Monitored
+public class InventoryService {
+    
+    @Inject
+    private MovieRepository movieRepository;
+    
+    @Inject
+    private InventoryJournalRepository journalRepository;
+    
+    @Resource
+    private TransactionSynchronizationRegistry transactionRegistry;
+    
+    private final ConcurrentMap<Long, AtomicInteger> counters = new ConcurrentHashMap<>();
+    
+    /**
+     * Wire the movie repository by hand, outside the container
+     */
+    public void setMovieRepository(MovieRepository movieRepository) {
+        this.movieRepository = movieRepository;
+    }
+    
+    /**
+     * Wire the journal repository by hand, outside the container
+     */
+    public void setJournalRepository(InventoryJournalRepository journalRepository) {
+        this.journalRepository = journalRepository;
+    }
+    
+    /**
+     * Take one copy of a movie; returns false when none are left.
+     * The copy is given back automatically if the transaction rolls back.
+     */
+    public boolean reserve(Long movieId) {
+        AtomicInteger counter = counterFor(movieId);
+        int current;
+        do {
+            current = counter.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - 1));
+        
+        journalRepository.save(new InventoryJournalEntry(movieId, -1));
+        afterCompletion(committed -> {
+            if (!committed) {
+                counter.incrementAndGet();
+            }
+        });
+        return true;
+    }
+    
+    /**
+     * Give back one copy of a movie once the transaction commits;
+     * returns false if the movie does not exist
+     */
+    public boolean release(Long movieId) {
+        AtomicInteger counter;
+        try {
+            // Loaded now, so the counter cannot already include this uncommitted copy
+            counter = counterFor(movieId);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        journalRepository.save(new InventoryJournalEntry(movieId, 1));
+        afterCompletion(committed -> {
+            if (committed) {
+                counter.incrementAndGet();
+            }
+        });
+        return true;
+    }
+    
+    /**
+     * Current number of copies available for rental
+     */
+    public int getAvailableCount(Long movieId) {
+        return Math.max(counterFor(movieId).get(), 0);
+    }
+    
+    /**
+     * Copies available for each of several movies. Movies without a loaded counter
+     * are computed from the given rows plus the pending journal in one query, and
+     * are not seeded, since the rows may come from a cache.
+     */
+    public Map<Long, Integer> getAvailableCounts(Collection<Movie> movies) {
+        Map<Long, Integer> available = new HashMap<>();
+        List<Long> unloaded = new ArrayList<>();
+        for (Movie movie : movies) {
+            AtomicInteger counter = counters.get(movie.getMovieId());
+            if (counter != null) {
+                available.put(movie.getMovieId(), Math.max(counter.get(), 0));
+            } else {
+                unloaded.add(movie.getMovieId());
+            }
+        }
+        if (unloaded.isEmpty()) {
+            return available;
+        }
+        
+        Map<Long, Long> pending = journalRepository.sumPendingDeltas(unloaded);
+        for (Movie movie : movies) {
+            Long movieId = movie.getMovieId();
+            if (!available.containsKey(movieId)) {
+                long count = movie.getQuantity() + pending.getOrDefault(movieId, 0L);
+                available.put(movieId, (int) Math.max(count, 0));
+            }
+        }
+        return available;
+    }
+    
+    /**
+     * Seed the counter of a movie from an availability already read elsewhere
+     * (movies.quantity plus the pending journal), unless it is loaded
+     */
+    public void prime(Long movieId, long available) {
+        counters.putIfAbsent(movieId, new AtomicInteger((int) Math.max(available, 0)));
+    }
+    
+    /**
+     * Set the available copies of movies to absolute values (restocks, write-offs).
+     * The movies must have been loaded with a pessimistic lock in this transaction,
+     * so flushes and other absolute changes of them wait for it. Their committed
+     * journal entries are folded into the new quantities, as a flush would do, and
+     * each counter moves by the difference once the change commits; reservations
+     * still in flight stay counted. Returns the difference per movie.
+     */
+    public Map<Long, Integer> setQuantities(Collection<Movie> lockedMovies, Map<Long, Integer> quantities) {
+        Map<Long, Integer> pending = new HashMap<>();
+        List<Long> entryIds = new ArrayList<>();
+        for (InventoryJournalEntry entry : journalRepository.findByMovieIdsForUpdate(quantities.keySet())) {
+            pending.merge(entry.getMovieId(), entry.getDelta(), Integer::sum);
+            entryIds.add(entry.getEntryId());
+        }
+        journalRepository.deleteByIds(entryIds);
+        
+        Map<Long, Integer> deltas = new HashMap<>();
+        List<Runnable> counterUpdates = new ArrayList<>();
+        for (Movie movie : lockedMovies) {
+            Long movieId = movie.getMovieId();
+            Integer quantity = quantities.get(movieId);
+            if (quantity == null) {
+                continue;
+            }
+            int available = movie.getQuantity() + pending.getOrDefault(movieId, 0);
+            int delta = quantity - available;
+            movie.setQuantity(quantity);
+            deltas.put(movieId, delta);
+            
+            AtomicInteger loaded = new AtomicInteger(available);
+            AtomicInteger existing = counters.putIfAbsent(movieId, loaded);
+            AtomicInteger counter = existing != null ? existing : loaded;
+            if (delta != 0) {
+                counterUpdates.add(() -> counter.addAndGet(delta));
+            }
+        }
+        if (!counterUpdates.isEmpty()) {
+            afterCompletion(committed -> {
+                if (committed) {
+                    counterUpdates.forEach(Runnable::run);
+                }
+            });
+        }
+        return deltas;
+    }
+    
+    /**
+     * Discard the pending entries and the counter of a movie being deleted
+     */
+    public void discard(Long movieId) {
+        journalRepository.deleteByMovieId(movieId);
+        afterCompletion(committed -> {
+            if (committed) {
+                counters.remove(movieId);
+            }
+        });
+    }
+    
+    /**
+     * Drop the cached counter for a movie
+     */
+    public void evict(Long movieId) {
+        counters.remove(movieId);
+    }
+    
+    private AtomicInteger counterFor(Long movieId) {
+        AtomicInteger counter = counters.get(movieId);
+        if (counter != null) {
+            return counter;
+        }
+        
+        Optional<Movie> movieOpt = movieRepository.findById(movieId);
+        if (movieOpt.isEmpty()) {
+            throw new IllegalArgumentException("Movie not found");
+        }
+        long available = movieOpt.get().getQuantity() + journalRepository.sumPendingDelta(movieId);
+        AtomicInteger loaded = new AtomicInteger((int) Math.max(available, 0));
+        counter = counters.putIfAbsent(movieId, loaded);
+        return counter != null ? counter : loaded;
+    }
+    
+    private void afterCompletion(CompletionCallback callback) {
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                callback.completed(status == Status.STATUS_COMMITTED);
+            }
+        });
+    }
+    
+    @FunctionalInterface
+    private interface CompletionCallback {
+        void completed(boolean committed);
+    }
+}
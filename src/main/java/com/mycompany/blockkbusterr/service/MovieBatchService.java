@@ -0,0 +1,183 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.repository.BaseRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Batch add and update of movies. Items are validated one by one, then written
+ * in chunks of BaseRepository.BATCH_SIZE, each chunk in its own transaction as
+ * one JDBC batch. When a chunk fails, its items are retried one at a time so a
+ * single bad item does not fail its neighbours.
+ * Results are returned in request order, one per item.
+ */
+@ApplicationScoped
+@Transactional(Transactional.TxType.NOT_SUPPORTED)
+@Monitored
+public class MovieBatchService {
+
+    private static final Logger logger = Logger.getLogger(MovieBatchService.class.getName());
+
+    /** Largest number of items accepted in one batch call */
+    public static final int MAX_BATCH_SIZE = 10000;
+
+    @Inject
+    private MovieService movieService;
+
+    /**
+     * Add movies; each item needs every field of addMovie
+     */
+    public List<ItemResult> addMovies(List<MovieService.MovieChange> changes) {
+        return run(changes, Operation.ADD);
+    }
+
+    /**
+     * Update movies; each item needs a movie ID and every field of updateMovie
+     */
+    public List<ItemResult> updateMovies(List<MovieService.MovieChange> changes) {
+        return run(changes, Operation.UPDATE);
+    }
+
+    /**
+     * Set absolute quantities; each item needs a movie ID and a quantity
+     */
+    public List<ItemResult> updateQuantities(List<MovieService.MovieChange> changes) {
+        return run(changes, Operation.QUANTITY);
+    }
+
+    private enum Operation { ADD, UPDATE, QUANTITY }
+
+    private List<ItemResult> run(List<MovieService.MovieChange> changes, Operation operation) {
+        if (changes == null || changes.isEmpty()) {
+            throw new IllegalArgumentException("Batch cannot be empty");
+        }
+        if (changes.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch cannot have more than " + MAX_BATCH_SIZE + " items");
+        }
+
+        List<ItemResult> results = new ArrayList<>(changes.size());
+        List<ItemResult> chunk = new ArrayList<>(BaseRepository.BATCH_SIZE);
+        for (int i = 0; i < changes.size(); i++) {
+            ItemResult result = new ItemResult(i, changes.get(i));
+            results.add(result);
+            String error = validate(result.getChange(), operation);
+            if (error != null) {
+                result.fail(error);
+                continue;
+            }
+            chunk.add(result);
+            if (chunk.size() == BaseRepository.BATCH_SIZE) {
+                writeChunk(chunk, operation);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, operation);
+        }
+        return results;
+    }
+
+    private static String validate(MovieService.MovieChange change, Operation operation) {
+        if (change == null) {
+            return "Item cannot be null";
+        }
+        if (operation != Operation.ADD && change.getMovieId() == null) {
+            return "Movie ID cannot be null";
+        }
+        if (operation == Operation.QUANTITY) {
+            return change.getQuantity() == null || change.getQuantity() < 0 ? "Quantity cannot be negative" : null;
+        }
+        try {
+            change.validate();
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    private List<Movie> write(List<MovieService.MovieChange> changes, Operation operation) {
+        switch (operation) {
+            case ADD:
+                return movieService.addMovies(changes);
+            case UPDATE:
+                return movieService.updateMovies(changes);
+            default:
+                return movieService.updateMovieQuantities(changes);
+        }
+    }
+
+    private void writeChunk(List<ItemResult> chunk, Operation operation) {
+        List<MovieService.MovieChange> changes = new ArrayList<>(chunk.size());
+        for (ItemResult result : chunk) {
+            changes.add(result.getChange());
+        }
+        try {
+            complete(chunk, write(changes, operation));
+            return;
+        } catch (RuntimeException e) {
+            logger.log(Level.FINE, "Batch chunk failed, retrying items one at a time", e);
+        }
+        for (ItemResult result : chunk) {
+            try {
+                complete(List.of(result), write(List.of(result.getChange()), operation));
+            } catch (RuntimeException e) {
+                result.fail(rootMessage(e));
+            }
+        }
+    }
+
+    private static void complete(List<ItemResult> chunk, List<Movie> movies) {
+        for (int i = 0; i < chunk.size(); i++) {
+            Movie movie = movies.get(i);
+            if (movie == null) {
+                chunk.get(i).fail("Movie not found");
+            } else {
+                chunk.get(i).succeed(movie);
+            }
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    /**
+     * Outcome of one batch item
+     */
+    public static class ItemResult {
+        private final int index;
+        private final MovieService.MovieChange change;
+        private Movie movie;
+        private String error;
+
+        ItemResult(int index, MovieService.MovieChange change) {
+            this.index = index;
+            this.change = change;
+        }
+
+        void succeed(Movie movie) {
+            this.movie = movie;
+        }
+
+        void fail(String error) {
+            this.error = error;
+        }
+
+        public int getIndex() { return index; }
+        public MovieService.MovieChange getChange() { return change; }
+        public Movie getMovie() { return movie; }
+        public String getError() { return error; }
+        public boolean isSuccess() { return error == null && movie != null; }
+    }
+}
@@ -0,0 +1,380 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.repository.MovieChangedEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+/**
+ * In-memory tokenized inverted index over the movie catalog.
+ * Supports exact token, prefix and trigram (substring) matching over
+ * title, genre and description, and ranks matches by relevance.
+ * Substring matching needs at least NGRAM_SIZE characters: a one or two
+ * character term only matches words that equal or start with it.
+ * Entries follow committed MovieChangedEvents, so rolled back changes never reach the index.
+ */
+@ApplicationScoped
+@Monitored
+public class MovieSearchIndex {
+
+    private static final Logger logger = Logger.getLogger(MovieSearchIndex.class.getName());
+
+    private static final int NGRAM_SIZE = 3;
+
+    // Field weights used for ranking
+    private static final int TITLE_WEIGHT = 4;
+    private static final int GENRE_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Match type multipliers
+    private static final int EXACT_MATCH = 3;
+    private static final int PREFIX_MATCH = 2;
+    private static final int SUBSTRING_MATCH = 1;
+    private static final int TITLE_PHRASE_BONUS = 10;
+
+    @Inject
+    private CatalogCache catalogCache;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // token -> (movieId -> summed field weight)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+    // trigram -> movieIds whose normalized text contains it
+    private final Map<String, Set<Long>> ngrams = new HashMap<>();
+
+    // movieId -> indexed document, kept so entries can be removed
+    private final Map<Long, IndexedMovie> documents = new HashMap<>();
+
+    private volatile boolean loaded = false;
+
+    /**
+     * Search the index and return matching movie IDs ordered by relevance
+     */
+    public List<Long> search(String searchTerm) {
+        ensureLoaded();
+
+        String phrase = normalize(searchTerm);
+        List<String> queryTokens = tokenize(phrase);
+        if (queryTokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String token : queryTokens) {
+                Map<Long, Integer> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // Every query token must match
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + tokenScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+
+            final Map<Long, Integer> finalScores = scores;
+            for (Map.Entry<Long, Integer> entry : finalScores.entrySet()) {
+                IndexedMovie doc = documents.get(entry.getKey());
+                if (doc != null && doc.title.contains(phrase)) {
+                    entry.setValue(entry.getValue() + TITLE_PHRASE_BONUS);
+                }
+            }
+
+            List<Long> result = new ArrayList<>(finalScores.keySet());
+            result.sort(Comparator.<Long>comparingInt(id -> finalScores.get(id)).reversed()
+                    .thenComparing(id -> documents.get(id).title));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Re-index a movie from its committed state once the change that touched it has committed.
+     * Runs after the catalog cache has dropped its copy, so the reload sees the change.
+     */
+    public void onMovieChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS)
+                               @Priority(MovieChangedEvent.SEARCH_INDEX_PRIORITY) MovieChangedEvent event) {
+        Long movieId = event.getMovieId();
+        if (movieId == null || !loaded) {
+            return;
+        }
+        Optional<Movie> movie = catalogCache.findMovie(movieId);
+        if (movie.isPresent()) {
+            index(movie.get());
+        } else {
+            remove(movieId);
+        }
+    }
+
+    /**
+     * Add or replace a movie in the index
+     */
+    public void index(Movie movie) {
+        if (movie == null || movie.getMovieId() == null) {
+            return;
+        }
+        if (!loaded) {
+            // Will be picked up by the initial load
+            return;
+        }
+        IndexedMovie doc = IndexedMovie.of(movie);
+        lock.writeLock().lock();
+        try {
+            if (doc.sameText(documents.get(doc.movieId))) {
+                // Stock and rating changes do not touch the indexed text
+                return;
+            }
+            removeInternal(doc.movieId);
+            addInternal(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a movie from the index
+     */
+    public void remove(Long movieId) {
+        if (movieId == null || !loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeInternal(movieId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the index so it is rebuilt from the database on next search
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            clearInternal();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed movies
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            clearInternal();
+            List<Movie> movies = catalogCache.getCatalog();
+            for (Movie movie : movies) {
+                addInternal(IndexedMovie.of(movie));
+            }
+            loaded = true;
+            logger.info("Movie search index built with " + documents.size() + " movies and " + postings.size() + " tokens");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Long, Integer> scoreToken(String token) {
+        Map<Long, Integer> scores = new HashMap<>();
+
+        // Exact and prefix matches via the sorted token dictionary
+        for (Map.Entry<String, Map<Long, Integer>> entry : postings.subMap(token, true, token + Character.MAX_VALUE, true).entrySet()) {
+            int multiplier = entry.getKey().equals(token) ? EXACT_MATCH : PREFIX_MATCH;
+            for (Map.Entry<Long, Integer> posting : entry.getValue().entrySet()) {
+                scores.merge(posting.getKey(), posting.getValue() * multiplier, Math::max);
+            }
+        }
+
+        // Substring matches via trigram candidates
+        if (token.length() >= NGRAM_SIZE) {
+            Set<Long> candidates = null;
+            for (String gram : ngramsOf(token)) {
+                Set<Long> ids = ngrams.get(gram);
+                if (ids == null) {
+                    candidates = null;
+                    break;
+                }
+                if (candidates == null) {
+                    candidates = new HashSet<>(ids);
+                } else {
+                    candidates.retainAll(ids);
+                }
+                if (candidates.isEmpty()) {
+                    break;
+                }
+            }
+            if (candidates != null) {
+                for (Long id : candidates) {
+                    IndexedMovie doc = documents.get(id);
+                    if (doc != null && !scores.containsKey(id)) {
+                        int weight = doc.substringWeight(token);
+                        if (weight > 0) {
+                            scores.put(id, weight * SUBSTRING_MATCH);
+                        }
+                    }
+                }
+            }
+        }
+
+        return scores;
+    }
+
+    private void addInternal(IndexedMovie doc) {
+        documents.put(doc.movieId, doc);
+
+        for (Map.Entry<String, Integer> entry : doc.tokenWeights().entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(doc.movieId, entry.getValue());
+        }
+        for (String gram : doc.ngrams()) {
+            ngrams.computeIfAbsent(gram, k -> new HashSet<>()).add(doc.movieId);
+        }
+    }
+
+    private void removeInternal(Long movieId) {
+        IndexedMovie doc = documents.remove(movieId);
+        if (doc == null) {
+            return;
+        }
+        for (String token : doc.tokenWeights().keySet()) {
+            Map<Long, Integer> ids = postings.get(token);
+            if (ids != null) {
+                ids.remove(movieId);
+                if (ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+        for (String gram : doc.ngrams()) {
+            Set<Long> ids = ngrams.get(gram);
+            if (ids != null) {
+                ids.remove(movieId);
+                if (ids.isEmpty()) {
+                    ngrams.remove(gram);
+                }
+            }
+        }
+    }
+
+    private void clearInternal() {
+        postings.clear();
+        ngrams.clear();
+        documents.clear();
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase().trim();
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> ngramsOf(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + NGRAM_SIZE <= text.length(); i++) {
+            grams.add(text.substring(i, i + NGRAM_SIZE));
+        }
+        return grams;
+    }
+
+    // Normalized view of a movie as stored in the index
+    private static class IndexedMovie {
+        private final Long movieId;
+        private final String title;
+        private final String genre;
+        private final String description;
+
+        IndexedMovie(Long movieId, String title, String genre, String description) {
+            this.movieId = movieId;
+            this.title = title;
+            this.genre = genre;
+            this.description = description;
+        }
+
+        static IndexedMovie of(Movie movie) {
+            return new IndexedMovie(movie.getMovieId(),
+                    normalize(movie.getTitle()), normalize(movie.getGenre()), normalize(movie.getDescription()));
+        }
+
+        boolean sameText(IndexedMovie other) {
+            return other != null && title.equals(other.title) && genre.equals(other.genre)
+                    && description.equals(other.description);
+        }
+
+        Map<String, Integer> tokenWeights() {
+            Map<String, Integer> weights = new HashMap<>();
+            for (String token : tokenize(title)) {
+                weights.merge(token, TITLE_WEIGHT, Math::max);
+            }
+            for (String token : tokenize(genre)) {
+                weights.merge(token, GENRE_WEIGHT, Math::max);
+            }
+            for (String token : tokenize(description)) {
+                weights.merge(token, DESCRIPTION_WEIGHT, Math::max);
+            }
+            return weights;
+        }
+
+        Set<String> ngrams() {
+            Set<String> grams = ngramsOf(title);
+            grams.addAll(ngramsOf(genre));
+            grams.addAll(ngramsOf(description));
+            return grams;
+        }
+
+        int substringWeight(String token) {
+            if (title.contains(token)) return TITLE_WEIGHT;
+            if (genre.contains(token)) return GENRE_WEIGHT;
+            if (description.contains(token)) return DESCRIPTION_WEIGHT;
+            return 0;
+        }
+    }
+}
@@ -1,16 +1,28 @@
 package com.mycompany.blockkbusterr.service;
 
+import com.mycompany.blockkbusterr.dto.MovieSummary;
 import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.metrics.Monitored;
 import com.mycompany.blockkbusterr.repository.MovieRepository;
+import com.mycompany.blockkbusterr.repository.Page;
+import com.mycompany.blockkbusterr.repository.PageRequest;
 import com.mycompany.blockkbusterr.repository.ReviewRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @ApplicationScoped
 @Transactional
+@Monitored
 public class MovieService {
     
     @Inject
@@ -19,29 +31,30 @@ public class MovieService {
     @Inject
     private ReviewRepository reviewRepository;
     
+    @Inject
+    private MovieSearchIndex movieSearchIndex;
+    
+    @Inject
+    private InventoryService inventoryService;
+    
+    @Inject
+    private RentalService rentalService;
+    
+    @Inject
+    private CatalogCache catalogCache;
+    
+    @Inject
+    private PopularityEngine popularityEngine;
+    
+    @Inject
+    private CoRentalIndex coRentalIndex;
+    
     /**
      * Add a new movie
      */
     public Movie addMovie(String title, Integer releaseYear, Integer duration, String genre, Integer quantity, String description) {
         // Validate input
-        if (title == null || title.trim().isEmpty()) {
-            throw new IllegalArgumentException("Title is required");
-        }
-        if (releaseYear == null) {
-            throw new IllegalArgumentException("Release year is required");
-        }
-        if (releaseYear < 1888 || releaseYear > java.time.LocalDate.now().getYear() + 5) {
-            throw new IllegalArgumentException("Release year must be between 1888 and " + (java.time.LocalDate.now().getYear() + 5));
-        }
-        if (duration == null || duration <= 0) {
-            throw new IllegalArgumentException("Duration must be a positive number");
-        }
-        if (genre == null || genre.trim().isEmpty()) {
-            throw new IllegalArgumentException("Genre is required");
-        }
-        if (quantity == null || quantity < 0) {
-            throw new IllegalArgumentException("Quantity cannot be negative");
-        }
+        validateMovieFields(title, releaseYear, duration, genre, quantity, description);
         
         // Create new movie
         Movie movie = new Movie();
@@ -53,24 +66,23 @@ public class MovieService {
         movie.setDescription(description != null ? description.trim() : null);
         movie.setActive(true);
         
-        return movieRepository.save(movie);
+        Movie saved = movieRepository.save(movie);
+        movieRepository.fireMovieChanged(saved.getMovieId());
+        return saved;
     }
     
     /**
-     * Update an existing movie
+     * Validate the fields of a new or updated movie; shared with the catalog import.
+     * Length limits mirror the Movie entity's constraints.
      */
-    public Movie updateMovie(Long movieId, String title, Integer releaseYear, Integer duration, String genre, Integer quantity, String description) {
-        Optional<Movie> movieOpt = movieRepository.findById(movieId);
-        if (movieOpt.isEmpty()) {
-            throw new IllegalArgumentException("Movie not found");
-        }
-        
-        Movie movie = movieOpt.get();
-        
-        // Validate input
+    public static void validateMovieFields(String title, Integer releaseYear, Integer duration, String genre,
+                                           Integer quantity, String description) {
         if (title == null || title.trim().isEmpty()) {
             throw new IllegalArgumentException("Title is required");
         }
+        if (title.trim().length() > 200) {
+            throw new IllegalArgumentException("Title must be between 1 and 200 characters");
+        }
         if (releaseYear == null) {
             throw new IllegalArgumentException("Release year is required");
         }
@@ -83,50 +95,216 @@ public class MovieService {
         if (genre == null || genre.trim().isEmpty()) {
             throw new IllegalArgumentException("Genre is required");
         }
+        if (genre.trim().length() > 100) {
+            throw new IllegalArgumentException("Genre must be between 1 and 100 characters");
+        }
         if (quantity == null || quantity < 0) {
             throw new IllegalArgumentException("Quantity cannot be negative");
         }
+        if (description != null && description.trim().length() > 1000) {
+            throw new IllegalArgumentException("Description cannot exceed 1000 characters");
+        }
+    }
+    
+    /**
+     * Update an existing movie
+     */
+    public Movie updateMovie(Long movieId, String title, Integer releaseYear, Integer duration, String genre, Integer quantity, String description) {
+        Optional<Movie> movieOpt = movieRepository.findByIdForUpdate(movieId);
+        if (movieOpt.isEmpty()) {
+            throw new IllegalArgumentException("Movie not found");
+        }
+        
+        Movie movie = movieOpt.get();
+        
+        // Validate input
+        validateMovieFields(title, releaseYear, duration, genre, quantity, description);
         
         // Update movie fields
         movie.setTitle(title.trim());
         movie.setReleaseYear(releaseYear);
         movie.setDuration(duration);
         movie.setGenre(genre.trim());
-        movie.setQuantity(quantity);
+        // The quantity is the number of copies available now, journaled rentals included
+        setQuantities(List.of(movie), Map.of(movieId, quantity));
         movie.setDescription(description != null ? description.trim() : null);
         
-        return movieRepository.update(movie);
+        Movie updated = movieRepository.update(movie);
+        movieRepository.fireMovieChanged(movieId);
+        return updated;
     }
     
     /**
-     * Find movie by ID
+     * Find movies by ID from the shared catalog cache, loading the misses with one query
      */
-    public Optional<Movie> findMovieById(Long movieId) {
-        System.out.println("DEBUG: MovieService.findMovieById() called with ID: " + movieId);
-        try {
-            System.out.println("DEBUG: Calling movieRepository.findById(" + movieId + ")");
-            Optional<Movie> result = movieRepository.findById(movieId);
-            System.out.println("DEBUG: Repository returned: " + (result.isPresent() ? "Movie found (" + result.get().getTitle() + ")" : "Movie not found"));
-            return result;
-        } catch (Exception e) {
-            System.out.println("DEBUG: Exception in MovieService.findMovieById: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
+    public Map<Long, Movie> findMoviesByIds(Collection<Long> movieIds) {
+        Map<Long, Movie> found = new HashMap<>();
+        for (Movie movie : readCopies(catalogCache.findMovies(movieIds).values())) {
+            found.put(movie.getMovieId(), movie);
         }
+        return found;
     }
     
     /**
-     * Get all movies
+     * Insert a chunk of validated movies in one transaction, as one JDBC batch
+     */
+    public List<Movie> addMovies(List<MovieChange> changes) {
+        List<Movie> movies = new ArrayList<>(changes.size());
+        for (MovieChange change : changes) {
+            movies.add(change.toMovie());
+        }
+        List<Movie> saved = movieRepository.saveAll(movies);
+        for (Movie movie : saved) {
+            movieRepository.fireMovieChanged(movie.getMovieId());
+        }
+        return saved;
+    }
+    
+    /**
+     * Apply a chunk of validated movie updates in one transaction. The movies are
+     * loaded with one query and their changes flushed as batched UPDATEs.
+     * Returns the movies in request order, null where a movie does not exist.
+     */
+    public List<Movie> updateMovies(List<MovieChange> changes) {
+        Map<Long, Movie> movies = findManagedMovies(changes);
+        Map<Long, Integer> quantities = new HashMap<>();
+        List<Movie> updated = new ArrayList<>(changes.size());
+        for (MovieChange change : changes) {
+            Movie movie = movies.get(change.getMovieId());
+            if (movie != null) {
+                movie.setTitle(change.getTitle());
+                movie.setReleaseYear(change.getReleaseYear());
+                movie.setDuration(change.getDuration());
+                movie.setGenre(change.getGenre());
+                quantities.put(movie.getMovieId(), change.getQuantity());
+                movie.setDescription(change.getDescription());
+            }
+            updated.add(movie);
+        }
+        setQuantities(movies.values(), quantities);
+        for (Movie movie : movies.values()) {
+            movieRepository.fireMovieChanged(movie.getMovieId());
+        }
+        return updated;
+    }
+    
+    /**
+     * Set absolute quantities for a chunk of movies in one transaction.
+     * Only the movie ID and quantity of each change are used.
+     * Returns the movies in request order, null where a movie does not exist.
+     */
+    public List<Movie> updateMovieQuantities(List<MovieChange> changes) {
+        Map<Long, Movie> movies = findManagedMovies(changes);
+        Map<Long, Integer> quantities = new HashMap<>();
+        List<Movie> updated = new ArrayList<>(changes.size());
+        for (MovieChange change : changes) {
+            Movie movie = movies.get(change.getMovieId());
+            if (movie != null) {
+                quantities.put(movie.getMovieId(), change.getQuantity());
+            }
+            updated.add(movie);
+        }
+        setQuantities(movies.values(), quantities);
+        for (Long movieId : movies.keySet()) {
+            movieRepository.fireMovieChanged(movieId);
+        }
+        return updated;
+    }
+    
+    /**
+     * Set absolute quantities of locked movies. Copies added by a restock are
+     * held for the movie's waitlist first, in this transaction, and only the
+     * rest go on sale.
+     */
+    private void setQuantities(Collection<Movie> lockedMovies, Map<Long, Integer> quantities) {
+        Map<Long, Integer> added = inventoryService.setQuantities(lockedMovies, quantities);
+        List<Movie> restocked = new ArrayList<>();
+        Map<Long, Integer> remaining = new HashMap<>();
+        for (Movie movie : lockedMovies) {
+            int copies = added.getOrDefault(movie.getMovieId(), 0);
+            if (copies <= 0) {
+                continue;
+            }
+            int held = rentalService.holdForWaitlist(movie.getMovieId(), movie.getTitle(), copies);
+            if (held > 0) {
+                restocked.add(movie);
+                remaining.put(movie.getMovieId(), movie.getQuantity() - held);
+            }
+        }
+        if (!remaining.isEmpty()) {
+            inventoryService.setQuantities(restocked, remaining);
+        }
+    }
+    
+    /**
+     * Load and lock the movies of a chunk, so their quantities can be set
+     */
+    private Map<Long, Movie> findManagedMovies(List<MovieChange> changes) {
+        Set<Long> movieIds = new HashSet<>();
+        for (MovieChange change : changes) {
+            movieIds.add(change.getMovieId());
+        }
+        Map<Long, Movie> movies = new HashMap<>();
+        for (Movie movie : movieRepository.findByIdsForUpdate(movieIds)) {
+            movies.put(movie.getMovieId(), movie);
+        }
+        return movies;
+    }
+    
+    /**
+     * Find movie by ID (served from the shared catalog cache)
+     */
+    public Optional<Movie> findMovieById(Long movieId) {
+        return catalogCache.findMovie(movieId).map(movie -> readCopies(List.of(movie)).get(0));
+    }
+    
+    /**
+     * Get all movies, as an immutable list served from the catalog cache
      */
     public List<Movie> getAllMovies() {
-        return movieRepository.findAll();
+        return Collections.unmodifiableList(readCopies(catalogCache.getCatalog()));
     }
     
     /**
-     * Get available movies (quantity > 0)
+     * Get available movies (copies in stock right now), as an immutable list
      */
     public List<Movie> getAvailableMovies() {
-        return movieRepository.findAvailableMovies();
+        List<Movie> available = new ArrayList<>();
+        for (Movie movie : readCopies(catalogCache.getCatalog())) {
+            if (movie.isAvailable()) {
+                available.add(movie);
+            }
+        }
+        return Collections.unmodifiableList(available);
+    }
+    
+    /**
+     * The given movies that have copies in stock right now, as copies with the
+     * current quantity; for narrowing a catalog view loaded earlier
+     */
+    public List<Movie> filterAvailable(Collection<Movie> movies) {
+        List<Movie> available = new ArrayList<>();
+        for (Movie movie : readCopies(movies)) {
+            if (movie.isAvailable()) {
+                available.add(movie);
+            }
+        }
+        return available;
+    }
+    
+    /**
+     * Copies of cached movies, with the quantity set to the copies available now.
+     * Cached instances are shared between requests and never leave this service.
+     */
+    private List<Movie> readCopies(Collection<Movie> cached) {
+        Map<Long, Integer> available = inventoryService.getAvailableCounts(cached);
+        List<Movie> copies = new ArrayList<>(cached.size());
+        for (Movie movie : cached) {
+            Movie copy = movie.copy();
+            copy.setQuantity(available.get(movie.getMovieId()));
+            copies.add(copy);
+        }
+        return copies;
     }
     
     /**
@@ -150,13 +328,107 @@ public class MovieService {
     }
     
     /**
-     * Search movies by multiple criteria
+     * Build a movie page request from a client page token (blank for the first page)
+     */
+    public PageRequest toPageRequest(String pageToken, int pageSize) {
+        return MovieRepository.SORT_BY_TITLE.decode(pageToken, pageSize > 0 ? pageSize : PageRequest.DEFAULT_SIZE);
+    }
+    
+    /**
+     * Get one page of movies in catalog (title) order
+     */
+    public Page<Movie> getMoviesPage(PageRequest pageRequest) {
+        return movieRepository.findPage(MovieRepository.SORT_BY_TITLE, pageRequest);
+    }
+    
+    /**
+     * Get one page of available movies in catalog order
+     */
+    public Page<Movie> getAvailableMoviesPage(PageRequest pageRequest) {
+        return movieRepository.findAvailablePage(pageRequest);
+    }
+    
+    /**
+     * Search one page of movies by title
+     */
+    public Page<Movie> searchMoviesByTitlePage(String title, PageRequest pageRequest) {
+        if (title == null || title.trim().isEmpty()) {
+            return getMoviesPage(pageRequest);
+        }
+        return movieRepository.searchByTitlePage(title.trim(), pageRequest);
+    }
+    
+    /**
+     * Search one page of movies by genre
+     */
+    public Page<Movie> searchMoviesByGenrePage(String genre, PageRequest pageRequest) {
+        if (genre == null || genre.trim().isEmpty()) {
+            return getMoviesPage(pageRequest);
+        }
+        return movieRepository.findByGenrePage(genre.trim(), pageRequest);
+    }
+    
+    /**
+     * Get one page of movies whose title, genre or description contains the search term,
+     * in title order. Unlike searchMovies the results are not ranked, so the cursor stays
+     * stable between pages.
+     */
+    public Page<Movie> searchMoviesPage(String searchTerm, PageRequest pageRequest) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return getMoviesPage(pageRequest);
+        }
+        return movieRepository.searchPage(searchTerm.trim(), pageRequest);
+    }
+    
+    /**
+     * Get one page of movies released in the given year, in title order
+     */
+    public Page<Movie> getMoviesByReleaseYearPage(int year, PageRequest pageRequest) {
+        return movieRepository.findByReleaseYearPage(year, pageRequest);
+    }
+    
+    /**
+     * Build a low stock page request from a client page token (blank for the first page);
+     * low stock pages are ordered by quantity, so their tokens differ from catalog tokens
+     */
+    public PageRequest toLowStockPageRequest(String pageToken, int pageSize) {
+        return MovieRepository.SORT_BY_QUANTITY.decode(pageToken, pageSize > 0 ? pageSize : PageRequest.DEFAULT_SIZE);
+    }
+    
+    /**
+     * Get one page of movies with low stock, lowest quantity first
+     */
+    public Page<Movie> getLowStockMoviesPage(int threshold, PageRequest pageRequest) {
+        return movieRepository.findLowStockPage(threshold, pageRequest);
+    }
+    
+    /**
+     * Get one page of out of stock movies, in title order
+     */
+    public Page<Movie> getOutOfStockMoviesPage(PageRequest pageRequest) {
+        return movieRepository.findOutOfStockPage(pageRequest);
+    }
+    
+    /**
+     * Search movies by multiple criteria, ranked by relevance.
+     * Terms shorter than three characters match whole words and word prefixes only.
      */
     public List<Movie> searchMovies(String searchTerm) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return getAllMovies();
         }
-        return movieRepository.searchMovies(searchTerm.trim());
+        
+        List<Long> rankedIds = movieSearchIndex.search(searchTerm.trim());
+        Map<Long, Movie> moviesById = catalogCache.findMovies(rankedIds);
+        
+        List<Movie> results = new ArrayList<>(moviesById.size());
+        for (Long movieId : rankedIds) {
+            Movie movie = moviesById.get(movieId);
+            if (movie != null) {
+                results.add(movie);
+            }
+        }
+        return readCopies(results);
     }
     
     /**
@@ -188,10 +460,62 @@ public class MovieService {
     }
     
     /**
-     * Get most popular movies
+     * Get the movies most often rented by customers who rented the given movie
+     */
+    public List<Movie> getAlsoRentedMovies(Long movieId, int limit) {
+        long[] movieIds = coRentalIndex.findCoRented(movieId, limit);
+        List<Long> ids = new ArrayList<>(movieIds.length);
+        for (long id : movieIds) {
+            ids.add(id);
+        }
+        Map<Long, Movie> movies = catalogCache.findMovies(ids);
+        List<Movie> alsoRented = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Movie movie = movies.get(id);
+            if (movie != null) {
+                alsoRented.add(movie);
+            }
+        }
+        return readCopies(alsoRented);
+    }
+    
+    /**
+     * Get the most rented movies of the last 7 days
      */
     public List<Movie> getMostPopularMovies(int limit) {
-        return movieRepository.findMostPopularMovies(limit);
+        return getMostPopularMovies(PopularityWindow.LAST_7_DAYS, limit);
+    }
+    
+    /**
+     * Get the most rented movies in a time window, from the in-memory popularity
+     * rankings; topped up from the catalog when too few movies were rented
+     */
+    public List<Movie> getMostPopularMovies(PopularityWindow window, int limit) {
+        List<Movie> popular = new ArrayList<>();
+        if (limit <= 0) {
+            return popular;
+        }
+        
+        List<Long> movieIds = popularityEngine.topMovieIds(window, limit);
+        Map<Long, Movie> movies = catalogCache.findMovies(movieIds);
+        Set<Long> included = new HashSet<>();
+        for (Long movieId : movieIds) {
+            Movie movie = movies.get(movieId);
+            if (movie != null) {
+                popular.add(movie);
+                included.add(movieId);
+            }
+        }
+        
+        for (Movie movie : catalogCache.getCatalog()) {
+            if (popular.size() >= limit) {
+                break;
+            }
+            if (!included.contains(movie.getMovieId())) {
+                popular.add(movie);
+            }
+        }
+        return readCopies(popular);
     }
     
     /**
@@ -208,6 +532,13 @@ public class MovieService {
         return movieRepository.findLowStockMovies(threshold);
     }
     
+    /**
+     * Get list rows for movies with low stock
+     */
+    public List<MovieSummary> getLowStockMovieSummaries(int threshold) {
+        return movieRepository.findLowStockSummaries(threshold);
+    }
+    
     /**
      * Get out of stock movies
      */
@@ -222,51 +553,70 @@ public class MovieService {
         if (newQuantity < 0) {
             throw new IllegalArgumentException("Quantity cannot be negative");
         }
-        return movieRepository.updateQuantity(movieId, newQuantity);
+        Optional<Movie> movieOpt = movieRepository.findByIdForUpdate(movieId);
+        if (movieOpt.isEmpty()) {
+            return false;
+        }
+        setQuantities(List.of(movieOpt.get()), Map.of(movieId, newQuantity));
+        movieRepository.fireMovieChanged(movieId);
+        return true;
     }
     
     /**
      * Increase movie quantity (for returns)
      */
     public boolean increaseMovieQuantity(Long movieId) {
-        return movieRepository.increaseQuantity(movieId);
+        Optional<Movie> movieOpt = movieRepository.findById(movieId);
+        if (movieOpt.isEmpty()) {
+            return false;
+        }
+        // Like a returned copy, it goes to the waitlist first
+        return rentalService.holdForWaitlist(movieId, movieOpt.get().getTitle(), 1) > 0
+                || inventoryService.release(movieId);
     }
     
     /**
      * Decrease movie quantity (for rentals)
      */
     public boolean decreaseMovieQuantity(Long movieId) {
-        return movieRepository.decreaseQuantity(movieId);
+        return movieRepository.existsById(movieId) && inventoryService.reserve(movieId);
     }
     
     /**
      * Check if movie is available for rental
      */
     public boolean isMovieAvailable(Long movieId) {
-        Optional<Movie> movieOpt = movieRepository.findById(movieId);
-        return movieOpt.isPresent() && movieOpt.get().isAvailable();
+        Optional<Movie> movieOpt = catalogCache.findMovie(movieId);
+        return movieOpt.isPresent() && movieOpt.get().getActive() && inventoryService.getAvailableCount(movieId) > 0;
     }
     
     /**
      * Get movie availability count
      */
     public int getMovieAvailabilityCount(Long movieId) {
-        Optional<Movie> movieOpt = movieRepository.findById(movieId);
-        return movieOpt.map(Movie::getQuantity).orElse(0);
+        if (!movieRepository.existsById(movieId)) {
+            return 0;
+        }
+        return inventoryService.getAvailableCount(movieId);
     }
     
     /**
      * Delete movie
      */
     public boolean deleteMovie(Long movieId) {
-        return movieRepository.deleteById(movieId);
+        boolean deleted = movieRepository.deleteById(movieId);
+        if (deleted) {
+            inventoryService.discard(movieId);
+            movieRepository.fireMovieChanged(movieId);
+        }
+        return deleted;
     }
     
     /**
      * Get all distinct genres
      */
     public List<String> getAllGenres() {
-        return movieRepository.getDistinctGenres();
+        return catalogCache.getGenres();
     }
     
     /**
@@ -275,42 +625,87 @@ public class MovieService {
     public MovieStats getMovieStats() {
         long totalMovies = movieRepository.count();
         long availableMovies = movieRepository.countAvailableMovies();
-        List<Movie> lowStockMovies = movieRepository.findLowStockMovies(5);
-        List<Movie> outOfStockMovies = movieRepository.findOutOfStockMovies();
+        long lowStockMovies = movieRepository.countLowStockMovies(5);
+        long outOfStockMovies = movieRepository.countOutOfStockMovies();
         
-        return new MovieStats(totalMovies, availableMovies, lowStockMovies.size(), outOfStockMovies.size());
+        return new MovieStats(totalMovies, availableMovies, lowStockMovies, outOfStockMovies);
     }
     
     /**
      * Get movie with average rating
      */
     public MovieWithRating getMovieWithRating(Long movieId) {
-        Optional<Movie> movieOpt = movieRepository.findById(movieId);
+        Optional<Movie> movieOpt = catalogCache.findMovie(movieId);
         if (movieOpt.isEmpty()) {
             return null;
         }
         
-        Movie movie = movieOpt.get();
-        Double averageRating = reviewRepository.getAverageRatingForMovie(movieId);
-        long reviewCount = reviewRepository.countReviewsForMovie(movieId);
-        
-        return new MovieWithRating(movie, averageRating != null ? averageRating : 0.0, reviewCount);
+        Movie movie = readCopies(List.of(movieOpt.get())).get(0);
+        return new MovieWithRating(movie, movie.getAverageRating(), movie.getRatingCount());
     }
     
     /**
      * Get all movies with their ratings
      */
     public List<MovieWithRating> getAllMoviesWithRatings() {
-        List<Movie> movies = movieRepository.findAll();
-        return movies.stream()
-                .map(movie -> {
-                    Double avgRating = reviewRepository.getAverageRatingForMovie(movie.getMovieId());
-                    long reviewCount = reviewRepository.countReviewsForMovie(movie.getMovieId());
-                    return new MovieWithRating(movie, avgRating != null ? avgRating : 0.0, reviewCount);
-                })
+        return readCopies(catalogCache.getCatalog()).stream()
+                .map(movie -> new MovieWithRating(movie, movie.getAverageRating(), movie.getRatingCount()))
                 .toList();
     }
     
+    // Inner class for one item of a batch add or update
+    public static class MovieChange {
+        private final Long movieId;
+        private final String title;
+        private final Integer releaseYear;
+        private final Integer duration;
+        private final String genre;
+        private final Integer quantity;
+        private final String description;
+        
+        public MovieChange(Long movieId, String title, Integer releaseYear, Integer duration, String genre,
+                           Integer quantity, String description) {
+            this.movieId = movieId;
+            this.title = title != null ? title.trim() : null;
+            this.releaseYear = releaseYear;
+            this.duration = duration;
+            this.genre = genre != null ? genre.trim() : null;
+            this.quantity = quantity;
+            this.description = description != null ? description.trim() : null;
+        }
+        
+        public static MovieChange quantity(Long movieId, Integer quantity) {
+            return new MovieChange(movieId, null, null, null, null, quantity, null);
+        }
+        
+        /**
+         * Validate the movie fields with the same rules as addMovie
+         */
+        public void validate() {
+            validateMovieFields(title, releaseYear, duration, genre, quantity, description);
+        }
+        
+        Movie toMovie() {
+            Movie movie = new Movie();
+            movie.setTitle(title);
+            movie.setReleaseYear(releaseYear);
+            movie.setDuration(duration);
+            movie.setGenre(genre);
+            movie.setQuantity(quantity);
+            movie.setDescription(description);
+            movie.setActive(true);
+            return movie;
+        }
+        
+        public Long getMovieId() { return movieId; }
+        public String getTitle() { return title; }
+        public Integer getReleaseYear() { return releaseYear; }
+        public Integer getDuration() { return duration; }
+        public String getGenre() { return genre; }
+        public Integer getQuantity() { return quantity; }
+        public String getDescription() { return description; }
+    }
+    
     // Inner class for movie statistics
     public static class MovieStats {
         private final long totalMovies;
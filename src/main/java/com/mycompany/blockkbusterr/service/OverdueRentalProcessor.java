@@ -0,0 +1,110 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import jakarta.ejb.Lock;
+import jakarta.ejb.LockType;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.logging.Logger;
+
+/**
+ * Nightly job that marks active rentals past their return date as overdue.
+ * Rentals are walked in keyset-paged chunks by rental ID and each chunk is
+ * committed on its own, so the run never holds a long transaction or loads
+ * rental entities into the persistence context.
+ */
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+@Monitored
+public class OverdueRentalProcessor {
+    
+    private static final Logger logger = Logger.getLogger(OverdueRentalProcessor.class.getName());
+    
+    private static final int CHUNK_SIZE = 500;
+    
+    @Inject
+    private RentalService rentalService;
+    
+    private volatile RunStats lastRun;
+    
+    /**
+     * Scheduled run shortly after midnight, when the previous day's rentals become overdue
+     */
+    @Schedule(hour = "0", minute = "5", persistent = false)
+    public void scheduledRun() {
+        processOverdueRentals();
+    }
+    
+    /**
+     * Process all overdue rentals chunk by chunk
+     */
+    public RunStats processOverdueRentals() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        
+        Long lastRentalId = 0L;
+        int chunks = 0;
+        long scanned = 0;
+        long updated = 0;
+        
+        while (true) {
+            // No transaction here, so each chunk commits independently
+            RentalService.OverdueChunk chunk = rentalService.processOverdueChunk(today, lastRentalId, CHUNK_SIZE);
+            if (chunk.getScanned() == 0) {
+                break;
+            }
+            chunks++;
+            scanned += chunk.getScanned();
+            updated += chunk.getUpdated();
+            lastRentalId = chunk.getLastRentalId();
+            logger.fine("Overdue processing chunk " + chunks + ": scanned " + scanned + ", updated " + updated
+                    + ", last rental ID " + lastRentalId);
+            if (chunk.getScanned() < CHUNK_SIZE) {
+                break;
+            }
+        }
+        
+        RunStats stats = new RunStats(startedAt, System.currentTimeMillis() - start, chunks, scanned, updated);
+        lastRun = stats;
+        logger.info("Overdue processing completed in " + stats.getDurationMillis() + " ms: " + updated
+                + " rentals marked overdue in " + chunks + " chunks");
+        return stats;
+    }
+    
+    /**
+     * Metrics of the most recent run, or null if it has not run yet
+     */
+    @Lock(LockType.READ)
+    public RunStats getLastRun() {
+        return lastRun;
+    }
+    
+    // Inner class for run metrics
+    public static class RunStats {
+        private final LocalDateTime startedAt;
+        private final long durationMillis;
+        private final int chunks;
+        private final long scanned;
+        private final long updated;
+        
+        public RunStats(LocalDateTime startedAt, long durationMillis, int chunks, long scanned, long updated) {
+            this.startedAt = startedAt;
+            this.durationMillis = durationMillis;
+            this.chunks = chunks;
+            this.scanned = scanned;
+            this.updated = updated;
+        }
+        
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public long getDurationMillis() { return durationMillis; }
+        public int getChunks() { return chunks; }
+        public long getScanned() { return scanned; }
+        public long getUpdated() { return updated; }
+    }
+}
@@ -0,0 +1,210 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.util.PasswordUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated pool sized to the CPU count,
+ * so bursts of logins cannot tie up the request threads that render pages.
+ * When the queue is full, new work is rejected immediately instead of piling up.
+ */
+@ApplicationScoped
+@Monitored
+public class PasswordHashingService {
+
+    private static final Logger logger = Logger.getLogger(PasswordHashingService.class.getName());
+
+    private static final int QUEUE_CAPACITY_PER_THREAD = 8;
+    private static final long WAIT_TIMEOUT_SECONDS = 10;
+
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong totalWorkNanos = new AtomicLong();
+    private final AtomicLong totalQueueNanos = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_CAPACITY_PER_THREAD),
+                new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Password hashing pool started with " + threads + " threads and queue capacity "
+                + threads * QUEUE_CAPACITY_PER_THREAD);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Hash a password on the hashing pool
+     */
+    public CompletableFuture<String> hashAsync(String plainPassword) {
+        return submit(() -> PasswordUtil.hashPassword(plainPassword));
+    }
+
+    /**
+     * Verify a password against its hash on the hashing pool
+     */
+    public CompletableFuture<Boolean> verifyAsync(String plainPassword, String hashedPassword) {
+        return submit(() -> PasswordUtil.verifyPassword(plainPassword, hashedPassword));
+    }
+
+    /**
+     * Hash a password, waiting for the pool.
+     * Throws RejectedExecutionException when the pool is saturated.
+     */
+    public String hash(String plainPassword) {
+        return await(hashAsync(plainPassword));
+    }
+
+    /**
+     * Verify a password, waiting for the pool.
+     * Throws RejectedExecutionException when the pool is saturated.
+     */
+    public boolean verify(String plainPassword, String hashedPassword) {
+        return await(verifyAsync(plainPassword, hashedPassword));
+    }
+
+    /**
+     * Wait for a hashing result, unwrapping pool failures
+     */
+    public <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new RejectedExecutionException("Password hashing timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        }
+    }
+
+    /**
+     * Current pool metrics
+     */
+    public HashingStats getStats() {
+        return new HashingStats(executor.getPoolSize(), executor.getActiveCount(), executor.getQueue().size(),
+                executor.getQueue().remainingCapacity(), submitted.get(), completed.get(), rejected.get(),
+                failed.get(), totalWorkNanos.get(), totalQueueNanos.get());
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    // Caller gave up while the task was queued
+                    return;
+                }
+                long startedAt = System.nanoTime();
+                totalQueueNanos.addAndGet(startedAt - enqueuedAt);
+                try {
+                    future.complete(work.get());
+                    completed.incrementAndGet();
+                } catch (Throwable e) {
+                    // Errors too, so a waiting caller never hangs until its timeout
+                    failed.incrementAndGet();
+                    future.completeExceptionally(e);
+                } finally {
+                    totalWorkNanos.addAndGet(System.nanoTime() - startedAt);
+                }
+            });
+            submitted.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            logger.warning("Password hashing pool saturated, rejecting request");
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // Daemon threads with recognizable names
+    private static class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    // Inner class for hashing pool metrics
+    public static class HashingStats {
+        private final int poolSize;
+        private final int activeThreads;
+        private final int queueDepth;
+        private final int queueRemainingCapacity;
+        private final long submitted;
+        private final long completed;
+        private final long rejected;
+        private final long failed;
+        private final long totalWorkNanos;
+        private final long totalQueueNanos;
+
+        public HashingStats(int poolSize, int activeThreads, int queueDepth, int queueRemainingCapacity,
+                            long submitted, long completed, long rejected, long failed,
+                            long totalWorkNanos, long totalQueueNanos) {
+            this.poolSize = poolSize;
+            this.activeThreads = activeThreads;
+            this.queueDepth = queueDepth;
+            this.queueRemainingCapacity = queueRemainingCapacity;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.rejected = rejected;
+            this.failed = failed;
+            this.totalWorkNanos = totalWorkNanos;
+            this.totalQueueNanos = totalQueueNanos;
+        }
+
+        public int getPoolSize() { return poolSize; }
+        public int getActiveThreads() { return activeThreads; }
+        public int getQueueDepth() { return queueDepth; }
+        public int getQueueRemainingCapacity() { return queueRemainingCapacity; }
+        public long getSubmitted() { return submitted; }
+        public long getCompleted() { return completed; }
+        public long getRejected() { return rejected; }
+        public long getFailed() { return failed; }
+        public double getAverageWorkMillis() {
+            long finished = completed + failed;
+            return finished > 0 ? totalWorkNanos / 1_000_000.0 / finished : 0.0;
+        }
+        public double getAverageQueueMillis() {
+            long finished = completed + failed;
+            return finished > 0 ? totalQueueNanos / 1_000_000.0 / finished : 0.0;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.PopularityBucket;
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.repository.PopularityBucketRepository;
+import com.mycompany.blockkbusterr.repository.RentalRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Persists the popularity engine's hourly counters so rankings survive a restart.
+ * On startup the engine is rebuilt from the checkpointed buckets, or from recent
+ * rentals when there is no checkpoint yet. Changed hours are written every few
+ * minutes and on shutdown; a crash loses at most the rentals since the last run.
+ */
+@Singleton
+@Startup
+@DependsOn("DatabaseStartupBean")
+@Monitored
+public class PopularityCheckpointService {
+    
+    private static final Logger logger = Logger.getLogger(PopularityCheckpointService.class.getName());
+    
+    @Inject
+    private PopularityEngine popularityEngine;
+    
+    @Inject
+    private PopularityBucketRepository bucketRepository;
+    
+    @Inject
+    private RentalRepository rentalRepository;
+    
+    /**
+     * Rebuild the in-memory counters
+     */
+    @PostConstruct
+    public void restore() {
+        try {
+            long oldestHour = popularityEngine.getOldestHour();
+            List<PopularityBucket> buckets = bucketRepository.findSince(oldestHour);
+            if (!buckets.isEmpty()) {
+                for (PopularityBucket bucket : buckets) {
+                    popularityEngine.restore(bucket.getMovieId(), bucket.getBucketHour(), bucket.getRentalCount());
+                }
+                logger.info("Restored " + buckets.size() + " popularity buckets for "
+                        + popularityEngine.getTrackedMovieCount() + " movies");
+                return;
+            }
+            
+            // No checkpoint yet: replay rentals inside the longest window; they are checkpointed on the next run
+            LocalDateTime since = LocalDateTime.now().minusHours(PopularityWindow.LAST_30_DAYS.getHours());
+            List<Object[]> rentals = rentalRepository.findRentalTimesSince(since);
+            for (Object[] rental : rentals) {
+                popularityEngine.record((Long) rental[0], (LocalDateTime) rental[1]);
+            }
+            logger.info("Seeded popularity rankings from " + rentals.size() + " recent rentals");
+        } catch (Exception e) {
+            logger.warning("Could not restore popularity rankings: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Periodic checkpoint
+     */
+    @Schedule(hour = "*", minute = "*/5", persistent = false)
+    public void scheduledCheckpoint() {
+        int written = checkpoint();
+        if (written > 0) {
+            logger.fine("Checkpointed " + written + " popularity buckets");
+        }
+    }
+    
+    /**
+     * Write the hourly counts changed since the last checkpoint and prune expired
+     * buckets; returns the number of buckets written
+     */
+    public int checkpoint() {
+        List<PopularityEngine.HourlyCount> changes = popularityEngine.drainChanges();
+        try {
+            int written = 0;
+            for (PopularityEngine.HourlyCount change : changes) {
+                if (!bucketRepository.updateCount(change.getMovieId(), change.getHour(), change.getRentalCount())
+                        && change.getRentalCount() > 0) {
+                    bucketRepository.save(new PopularityBucket(change.getMovieId(), change.getHour(), change.getRentalCount()));
+                }
+                written++;
+            }
+            bucketRepository.deleteBefore(popularityEngine.getOldestHour());
+            return written;
+        } catch (RuntimeException e) {
+            // Retry the same hours next run
+            popularityEngine.requeueChanges(changes);
+            throw e;
+        }
+    }
+    
+    /**
+     * Final checkpoint on shutdown
+     */
+    @PreDestroy
+    public void shutdown() {
+        try {
+            checkpoint();
+        } catch (Exception e) {
+            logger.warning("Could not checkpoint popularity rankings on shutdown: " + e.getMessage());
+        }
+    }
+}
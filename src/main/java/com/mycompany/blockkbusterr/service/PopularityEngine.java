@@ -0,0 +1,269 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * In-memory movie popularity over sliding time windows.
+ * Each movie rented within the longest window keeps a ring of hourly rental
+ * counts plus a running total per window; totals are adjusted as rentals are
+ * recorded and as hours slide out of a window. Every window keeps its movies
+ * in a sorted set ordered by total, so top-K is read off the front without
+ * scanning or sorting. Changed hours are handed to PopularityCheckpointService
+ * for persistence, and replayed from it on startup.
+ */
+@ApplicationScoped
+@Monitored
+public class PopularityEngine {
+    
+    private static final PopularityWindow[] WINDOWS = PopularityWindow.values();
+    
+    /** Hours of history kept; the longest window */
+    private static final int HISTORY_HOURS = PopularityWindow.LAST_30_DAYS.getHours();
+    
+    private final Map<Long, MovieCounter> counters = new HashMap<>();
+    
+    // One ranking per window, indexed by ordinal: highest total first, then movie ID
+    private final List<TreeSet<MovieCounter>> rankings = new ArrayList<>(WINDOWS.length);
+    
+    // Hours per movie whose count changed since the last checkpoint
+    private final Map<Long, Set<Long>> dirtyHours = new HashMap<>();
+    
+    private long currentHour;
+    
+    public PopularityEngine() {
+        for (PopularityWindow window : WINDOWS) {
+            int index = window.ordinal();
+            rankings.add(new TreeSet<>(Comparator.comparingLong((MovieCounter counter) -> counter.totals[index])
+                    .reversed()
+                    .thenComparingLong(counter -> counter.movieId)));
+        }
+        currentHour = epochHour(LocalDateTime.now());
+    }
+    
+    /**
+     * Count a rental once its transaction has committed
+     */
+    public void onRentalCreated(@Observes(during = TransactionPhase.AFTER_SUCCESS) RentalCreatedEvent event) {
+        record(event.getMovieId(), event.getRentedAt());
+    }
+    
+    /**
+     * Count one rental of a movie at the given time
+     */
+    public synchronized void record(Long movieId, LocalDateTime rentedAt) {
+        long hour = epochHour(rentedAt);
+        if (add(movieId, hour, 1)) {
+            dirtyHours.computeIfAbsent(movieId, id -> new HashSet<>()).add(hour);
+        }
+    }
+    
+    /**
+     * Add a checkpointed hourly count back in, without marking it for the next checkpoint
+     */
+    public synchronized void restore(Long movieId, long hour, int rentalCount) {
+        add(movieId, hour, rentalCount);
+    }
+    
+    /**
+     * IDs of the most rented movies in a window, most rented first
+     */
+    public synchronized List<Long> topMovieIds(PopularityWindow window, int limit) {
+        advanceTo(epochHour(LocalDateTime.now()));
+        TreeSet<MovieCounter> ranking = rankings.get(window.ordinal());
+        List<Long> movieIds = new ArrayList<>(Math.max(0, Math.min(limit, ranking.size())));
+        for (MovieCounter counter : ranking) {
+            if (movieIds.size() >= limit) {
+                break;
+            }
+            movieIds.add(counter.movieId);
+        }
+        return movieIds;
+    }
+    
+    /**
+     * Number of rentals of a movie in a window
+     */
+    public synchronized long getRentalCount(Long movieId, PopularityWindow window) {
+        advanceTo(epochHour(LocalDateTime.now()));
+        MovieCounter counter = counters.get(movieId);
+        return counter != null ? counter.totals[window.ordinal()] : 0;
+    }
+    
+    /**
+     * Take the hourly counts changed since the last call, for checkpointing
+     */
+    public synchronized List<HourlyCount> drainChanges() {
+        List<HourlyCount> changes = new ArrayList<>();
+        for (Map.Entry<Long, Set<Long>> entry : dirtyHours.entrySet()) {
+            MovieCounter counter = counters.get(entry.getKey());
+            for (Long hour : entry.getValue()) {
+                if (hour > currentHour - HISTORY_HOURS) {
+                    int rentalCount = counter != null ? counter.hourly[slot(hour)] : 0;
+                    changes.add(new HourlyCount(entry.getKey(), hour, rentalCount));
+                }
+            }
+        }
+        dirtyHours.clear();
+        return changes;
+    }
+    
+    /**
+     * Mark counts as changed again after a failed checkpoint
+     */
+    public synchronized void requeueChanges(Collection<HourlyCount> changes) {
+        for (HourlyCount change : changes) {
+            dirtyHours.computeIfAbsent(change.getMovieId(), id -> new HashSet<>()).add(change.getHour());
+        }
+    }
+    
+    /**
+     * Oldest hour still inside the longest window
+     */
+    public synchronized long getOldestHour() {
+        advanceTo(epochHour(LocalDateTime.now()));
+        return currentHour - HISTORY_HOURS + 1;
+    }
+    
+    /**
+     * Number of movies with rentals inside the longest window
+     */
+    public synchronized int getTrackedMovieCount() {
+        return counters.size();
+    }
+    
+    /**
+     * Hours since the epoch in the server time zone, as stored in checkpoints
+     */
+    public static long epochHour(LocalDateTime time) {
+        return Math.floorDiv(time.atZone(ZoneId.systemDefault()).toEpochSecond(), 3600L);
+    }
+    
+    private boolean add(Long movieId, long hour, int rentalCount) {
+        if (movieId == null || rentalCount <= 0) {
+            return false;
+        }
+        advanceTo(hour);
+        if (hour <= currentHour - HISTORY_HOURS) {
+            return false;
+        }
+        
+        MovieCounter counter = counters.computeIfAbsent(movieId, MovieCounter::new);
+        unrank(counter);
+        counter.hourly[slot(hour)] += rentalCount;
+        for (PopularityWindow window : WINDOWS) {
+            if (hour > currentHour - window.getHours()) {
+                counter.totals[window.ordinal()] += rentalCount;
+            }
+        }
+        rank(counter);
+        return true;
+    }
+    
+    /**
+     * Slide every window forward hour by hour, dropping counts that fall out of each
+     */
+    private void advanceTo(long hour) {
+        if (hour <= currentHour) {
+            return;
+        }
+        if (hour - currentHour >= HISTORY_HOURS) {
+            // Everything has expired
+            counters.clear();
+            rankings.forEach(TreeSet::clear);
+            currentHour = hour;
+            return;
+        }
+        
+        while (currentHour < hour) {
+            currentHour++;
+            Iterator<MovieCounter> iterator = counters.values().iterator();
+            while (iterator.hasNext()) {
+                MovieCounter counter = iterator.next();
+                if (!hasExpiringCounts(counter)) {
+                    continue;
+                }
+                unrank(counter);
+                for (PopularityWindow window : WINDOWS) {
+                    counter.totals[window.ordinal()] -= counter.hourly[slot(currentHour - window.getHours())];
+                }
+                // The slot for the new hour still holds the hour that just left the longest window
+                counter.hourly[slot(currentHour)] = 0;
+                if (counter.totals[PopularityWindow.LAST_30_DAYS.ordinal()] == 0) {
+                    iterator.remove();
+                } else {
+                    rank(counter);
+                }
+            }
+        }
+    }
+    
+    private boolean hasExpiringCounts(MovieCounter counter) {
+        for (PopularityWindow window : WINDOWS) {
+            if (counter.hourly[slot(currentHour - window.getHours())] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void rank(MovieCounter counter) {
+        for (PopularityWindow window : WINDOWS) {
+            if (counter.totals[window.ordinal()] > 0) {
+                rankings.get(window.ordinal()).add(counter);
+            }
+        }
+    }
+    
+    // Must run before a total changes, since the sets are ordered by it
+    private void unrank(MovieCounter counter) {
+        for (PopularityWindow window : WINDOWS) {
+            rankings.get(window.ordinal()).remove(counter);
+        }
+    }
+    
+    private static int slot(long hour) {
+        return (int) Math.floorMod(hour, (long) HISTORY_HOURS);
+    }
+    
+    private static final class MovieCounter {
+        private final long movieId;
+        private final int[] hourly = new int[HISTORY_HOURS];
+        private final long[] totals = new long[WINDOWS.length];
+        
+        private MovieCounter(Long movieId) {
+            this.movieId = movieId;
+        }
+    }
+    
+    // Inner class for one movie's rental count in one hour
+    public static class HourlyCount {
+        private final Long movieId;
+        private final long hour;
+        private final int rentalCount;
+        
+        public HourlyCount(Long movieId, long hour, int rentalCount) {
+            this.movieId = movieId;
+            this.hour = hour;
+            this.rentalCount = rentalCount;
+        }
+        
+        public Long getMovieId() { return movieId; }
+        public long getHour() { return hour; }
+        public int getRentalCount() { return rentalCount; }
+    }
+}
@@ -0,0 +1,20 @@
+package com.mycompany.blockkbusterr.service;
+
+/**
+ * Sliding time windows over which movie popularity is ranked
+ */
+public enum PopularityWindow {
+    LAST_24_HOURS(24),
+    LAST_7_DAYS(7 * 24),
+    LAST_30_DAYS(30 * 24);
+    
+    private final int hours;
+    
+    PopularityWindow(int hours) {
+        this.hours = hours;
+    }
+    
+    public int getHours() {
+        return hours;
+    }
+}
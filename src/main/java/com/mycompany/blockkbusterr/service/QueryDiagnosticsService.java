@@ -0,0 +1,132 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.metrics.QueryDiagnostics;
+import com.mycompany.blockkbusterr.metrics.SlowQueryShape;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Admin access to the slow query log collected by QueryDiagnostics, and the
+ * periodic EXPLAIN of query shapes that keep showing up in it.
+ * Plans are captured for each shape with representative literals in place of
+ * its parameters (QueryDiagnostics.explainableSql), outside any transaction.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+@Monitored
+public class QueryDiagnosticsService {
+
+    private static final Logger logger = Logger.getLogger(QueryDiagnosticsService.class.getName());
+
+    /** Shapes shown in the admin view */
+    public static final int TOP_SHAPES = 20;
+
+    @Resource(name = "blockkbusterrDS")
+    private DataSource dataSource;
+
+    /**
+     * Periodic EXPLAIN of repeated slow query shapes
+     */
+    @Schedule(hour = "*", minute = "*", persistent = false)
+    public void scheduledPlanCapture() {
+        int captured = capturePendingPlans();
+        if (captured > 0) {
+            logger.info("Captured " + captured + " slow query plans");
+        }
+    }
+
+    /**
+     * EXPLAIN every shape that needs a plan; returns the number captured
+     */
+    public int capturePendingPlans() {
+        List<SlowQueryShape> pending = QueryDiagnostics.getShapesNeedingPlan();
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        int captured = 0;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (SlowQueryShape shape : pending) {
+                try (ResultSet plan = statement.executeQuery("EXPLAIN " + QueryDiagnostics.explainableSql(shape.getShape()))) {
+                    shape.setPlan(format(plan));
+                    captured++;
+                } catch (SQLException e) {
+                    // Keep the reason, so the shape is not retried every run
+                    shape.setPlan("EXPLAIN failed: " + e.getMessage());
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Could not capture slow query plans", e);
+        }
+        return captured;
+    }
+
+    /**
+     * One line per plan row, as column=value pairs
+     */
+    private static String format(ResultSet plan) throws SQLException {
+        ResultSetMetaData columns = plan.getMetaData();
+        StringBuilder text = new StringBuilder();
+        while (plan.next()) {
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            for (int i = 1; i <= columns.getColumnCount(); i++) {
+                if (i > 1) {
+                    text.append("  ");
+                }
+                text.append(columns.getColumnLabel(i)).append('=').append(plan.getString(i));
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Slowest query shapes by total slow time
+     */
+    public List<SlowQueryShape> getTopShapes() {
+        return QueryDiagnostics.getTopShapes(TOP_SHAPES);
+    }
+
+    public long getSlowStatementCount() {
+        return QueryDiagnostics.getSlowStatementCount();
+    }
+
+    public long getDroppedShapeCount() {
+        return QueryDiagnostics.getDroppedShapeCount();
+    }
+
+    public long getThresholdMillis() {
+        return QueryDiagnostics.getThresholdMillis();
+    }
+
+    /**
+     * Change the slow query threshold until restart
+     */
+    public void setThresholdMillis(long millis) {
+        QueryDiagnostics.setThresholdMillis(millis);
+    }
+
+    /**
+     * Clear the slow query log
+     */
+    public void reset() {
+        QueryDiagnostics.reset();
+    }
+}
@@ -0,0 +1,90 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.repository.MovieRepository;
+import com.mycompany.blockkbusterr.repository.ReviewRepository;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.inject.Inject;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Repairs drift between the materialized rating aggregates stored on each movie
+ * and the active reviews they summarize. Runs nightly and once at startup.
+ */
+@Singleton
+@Monitored
+public class RatingReconciliationService {
+    
+    private static final Logger logger = Logger.getLogger(RatingReconciliationService.class.getName());
+    
+    @Inject
+    private MovieRepository movieRepository;
+    
+    @Inject
+    private ReviewRepository reviewRepository;
+    
+    /**
+     * Nightly reconciliation run
+     */
+    @Schedule(hour = "3", minute = "30", persistent = false)
+    public void scheduledReconcile() {
+        reconcile();
+    }
+    
+    /**
+     * Compare every movie's aggregates with its review histogram and repair mismatches
+     */
+    public int reconcile() {
+        long start = System.currentTimeMillis();
+        Map<Long, long[]> histograms = loadHistograms();
+        
+        int repaired = 0;
+        for (Movie movie : movieRepository.findAll()) {
+            long[] histogram = histograms.getOrDefault(movie.getMovieId(), new long[6]);
+            if (!movie.hasRatingHistogram(histogram)) {
+                repairMovie(movie.getMovieId());
+                repaired++;
+            }
+        }
+        
+        logger.info("Rating reconciliation completed in " + (System.currentTimeMillis() - start)
+                + " ms, repaired " + repaired + " movies");
+        return repaired;
+    }
+    
+    /**
+     * Recompute one movie's aggregates under a row lock so concurrent reviews are not lost
+     */
+    private void repairMovie(Long movieId) {
+        Optional<Movie> movieOpt = movieRepository.findByIdForUpdate(movieId);
+        if (movieOpt.isEmpty()) {
+            return;
+        }
+        
+        long[] histogram = new long[6];
+        for (Object[] row : reviewRepository.getRatingDistributionForMovie(movieId)) {
+            int stars = ((Number) row[0]).intValue();
+            histogram[stars] = ((Number) row[1]).longValue();
+        }
+        movieOpt.get().resetRatingAggregates(histogram);
+        movieRepository.fireMovieChanged(movieId);
+    }
+    
+    private Map<Long, long[]> loadHistograms() {
+        Map<Long, long[]> histograms = new HashMap<>();
+        List<Object[]> rows = reviewRepository.getRatingHistogramsForAllMovies();
+        for (Object[] row : rows) {
+            Long movieId = ((Number) row[0]).longValue();
+            int stars = ((Number) row[1]).intValue();
+            long count = ((Number) row[2]).longValue();
+            histograms.computeIfAbsent(movieId, id -> new long[6])[stars] = count;
+        }
+        return histograms;
+    }
+}
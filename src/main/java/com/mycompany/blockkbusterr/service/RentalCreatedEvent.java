@@ -0,0 +1,46 @@
+package com.mycompany.blockkbusterr.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * CDI event fired by RentalService when a rental is created.
+ * Observers interested in committed rentals should use TransactionPhase.AFTER_SUCCESS.
+ */
+public class RentalCreatedEvent {
+
+    private final Long userId;
+    private final Long movieId;
+    private final LocalDateTime rentedAt;
+
+    public RentalCreatedEvent(Long userId, Long movieId, LocalDateTime rentedAt) {
+        this.userId = userId;
+        this.movieId = movieId;
+        this.rentedAt = rentedAt;
+    }
+
+    /**
+     * ID of the renting user
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * ID of the rented movie
+     */
+    public Long getMovieId() {
+        return movieId;
+    }
+
+    /**
+     * When the rental was created
+     */
+    public LocalDateTime getRentedAt() {
+        return rentedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "RentalCreatedEvent{userId=" + userId + ", movieId=" + movieId + ", rentedAt=" + rentedAt + "}";
+    }
+}
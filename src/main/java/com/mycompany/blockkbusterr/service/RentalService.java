@@ -1,23 +1,41 @@
 package com.mycompany.blockkbusterr.service;
 
+import com.mycompany.blockkbusterr.dto.RentalRow;
 import com.mycompany.blockkbusterr.entity.Movie;
 import com.mycompany.blockkbusterr.entity.Rental;
 import com.mycompany.blockkbusterr.entity.RentalStatus;
-import com.mycompany.blockkbusterr.entity.User;
+import com.mycompany.blockkbusterr.entity.WaitlistEntry;
+import com.mycompany.blockkbusterr.metrics.Monitored;
 import com.mycompany.blockkbusterr.repository.MovieRepository;
+import com.mycompany.blockkbusterr.repository.Page;
+import com.mycompany.blockkbusterr.repository.PageRequest;
 import com.mycompany.blockkbusterr.repository.RentalRepository;
 import com.mycompany.blockkbusterr.repository.UserRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @ApplicationScoped
 @Transactional
+@Monitored
 public class RentalService {
     
+    /** Most outstanding rentals a user may have at once */
+    public static final int MAX_ACTIVE_RENTALS = 5;
+    
+    /** Length of a rental made for a waitlisted user from a held copy */
+    public static final int WAITLIST_RENTAL_DAYS = 7;
+    
+    /** How long a copy is held for a waitlisted user to confirm (blockkbusterr.waitlist.holdHours) */
+    public static final long WAITLIST_HOLD_HOURS = Long.getLong("blockkbusterr.waitlist.holdHours", 24L);
+    
     @Inject
     private RentalRepository rentalRepository;
     
@@ -27,36 +45,62 @@ public class RentalService {
     @Inject
     private MovieRepository movieRepository;
     
+    @Inject
+    private InventoryService inventoryService;
+    
+    @Inject
+    private WaitlistService waitlistService;
+    
+    @Inject
+    private Event<RentalCreatedEvent> rentalCreated;
+    
+    /**
+     * Wire the rental repository by hand, outside the container
+     */
+    public void setRentalRepository(RentalRepository rentalRepository) {
+        this.rentalRepository = rentalRepository;
+    }
+    
+    /**
+     * Wire the user repository by hand, outside the container
+     */
+    public void setUserRepository(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+    
+    /**
+     * Wire the movie repository by hand, outside the container
+     */
+    public void setMovieRepository(MovieRepository movieRepository) {
+        this.movieRepository = movieRepository;
+    }
+    
+    /**
+     * Wire the inventory by hand, outside the container
+     */
+    public void setInventoryService(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+    
     /**
      * Create a new rental
      */
     public Rental createRental(Long userId, Long movieId, LocalDate returnDate) {
-        // Validate user
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isEmpty()) {
-            throw new IllegalArgumentException("User not found");
-        }
-        User user = userOpt.get();
-        
-        if (!user.getActive()) {
-            throw new IllegalArgumentException("User account is not active");
-        }
-        
-        // Validate movie
-        Optional<Movie> movieOpt = movieRepository.findById(movieId);
-        if (movieOpt.isEmpty()) {
-            throw new IllegalArgumentException("Movie not found");
-        }
-        Movie movie = movieOpt.get();
-        
-        if (!movie.getActive()) {
-            throw new IllegalArgumentException("Movie is not active");
-        }
-        
-        if (!movie.isAvailable()) {
-            throw new IllegalArgumentException("Movie is not available for rental");
-        }
-        
+        return createRental(userId, movieId, returnDate, null);
+    }
+    
+    /**
+     * Create a new rental with the customer's notes
+     */
+    public Rental createRental(Long userId, Long movieId, LocalDate returnDate, String notes) {
+        return createRental(checkEligibility(userId, movieId), returnDate, notes);
+    }
+    
+    /**
+     * Create a rental from an eligibility check made just before, in the same transaction.
+     * The copy itself is still reserved atomically, so stock cannot go negative.
+     */
+    private Rental createRental(RentalEligibility eligibility, LocalDate returnDate, String notes) {
         // Validate return date
         if (returnDate == null) {
             throw new IllegalArgumentException("Return date is required");
@@ -66,31 +110,34 @@ public class RentalService {
             throw new IllegalArgumentException("Return date cannot be in the past");
         }
         
-        // Check if user already has an active rental for this movie
-        if (rentalRepository.hasActiveRental(userId, movieId)) {
-            throw new IllegalArgumentException("User already has an active rental for this movie");
+        // User, movie, duplicate rental, rental limit and stock checks
+        String problem = eligibility.getProblem();
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
         }
         
-        // Check rental limits (optional business rule)
-        long activeRentals = rentalRepository.countActiveRentalsByUser(userId);
-        if (activeRentals >= 5) { // Max 5 active rentals per user
-            throw new IllegalArgumentException("User has reached maximum number of active rentals");
-        }
+        Long userId = eligibility.getUserId();
+        Long movieId = eligibility.getMovieId();
         
-        // Create rental
+        // Create rental; both sides are known to exist, so they are not loaded
         Rental rental = new Rental();
-        rental.setUser(user);
-        rental.setMovie(movie);
+        rental.setUser(userRepository.getReference(userId));
+        rental.setMovie(movieRepository.getReference(movieId));
         rental.setBorrowDate(LocalDate.now());
         rental.setReturnDate(returnDate);
         rental.setStatus(RentalStatus.ACTIVE);
+        if (notes != null && !notes.trim().isEmpty()) {
+            rental.setNotes(notes.trim());
+        }
         
-        // Decrease movie quantity
-        if (!movieRepository.decreaseQuantity(movieId)) {
-            throw new RuntimeException("Failed to update movie quantity");
+        // Reserve a copy from the in-memory inventory (journaled, flushed to movies.quantity in batches)
+        if (!inventoryService.reserve(movieId)) {
+            throw new IllegalArgumentException("Movie is not available for rental");
         }
         
-        return rentalRepository.save(rental);
+        Rental saved = rentalRepository.save(rental);
+        rentalCreated.fire(new RentalCreatedEvent(userId, movieId, LocalDateTime.now()));
+        return saved;
     }
     
     /**
@@ -104,7 +151,7 @@ public class RentalService {
         
         Rental rental = rentalOpt.get();
         
-        if (rental.getStatus() != RentalStatus.ACTIVE) {
+        if (!rental.getStatus().isOutstanding()) {
             throw new IllegalArgumentException("Rental is not active");
         }
         
@@ -112,12 +159,136 @@ public class RentalService {
         rental.markAsReturned();
         rentalRepository.update(rental);
         
-        // Increase movie quantity
-        movieRepository.increaseQuantity(rental.getMovie().getMovieId());
+        returnCopy(rental);
         
         return true;
     }
     
+    /**
+     * Hand the copy of a finished rental to the first eligible user on the
+     * movie's waitlist, in the same transaction; it goes back to the inventory
+     * only when nobody is waiting
+     */
+    private void returnCopy(Rental rental) {
+        passCopyOn(rental.getMovie().getMovieId(), rental.getMovie().getTitle());
+    }
+    
+    // Hold a copy that is out of the inventory for the next waiting user, else give it back
+    private void passCopyOn(Long movieId, String movieTitle) {
+        if (!allocateToWaitlist(movieId, movieTitle)) {
+            inventoryService.release(movieId);
+        }
+    }
+    
+    /**
+     * Hand an in-stock copy to the first eligible user on the movie's waitlist.
+     * Covers a copy that went back to stock while a user was joining the waitlist;
+     * returns false if there was no copy or nobody could take it.
+     */
+    public boolean allocateStockToWaitlist(Long movieId) {
+        if (waitlistService.getWaitingCount(movieId) == 0 || !inventoryService.reserve(movieId)) {
+            return false;
+        }
+        String movieTitle = movieRepository.findById(movieId).map(Movie::getTitle).orElse(null);
+        if (allocateToWaitlist(movieId, movieTitle)) {
+            return true;
+        }
+        inventoryService.release(movieId);
+        return false;
+    }
+    
+    /**
+     * Hold restocked copies for the movie's waitlist in the restock's transaction,
+     * before anyone else can rent them; returns how many were held. The caller
+     * takes them out of the new stock.
+     */
+    public int holdForWaitlist(Long movieId, String movieTitle, int copies) {
+        int held = 0;
+        while (held < copies && allocateToWaitlist(movieId, movieTitle)) {
+            held++;
+        }
+        return held;
+    }
+    
+    /**
+     * Hold one copy for the first waiting user who may rent it, skipping those who
+     * may not; returns false if nobody took it. The caller supplies the copy,
+     * which stays out of the inventory while it is held.
+     */
+    private boolean allocateToWaitlist(Long movieId, String movieTitle) {
+        Optional<WaitlistEntry> next;
+        while ((next = waitlistService.claimNext(movieId)).isPresent()) {
+            WaitlistEntry entry = next.get();
+            RentalEligibility eligibility = checkEligibility(entry.getUserId(), movieId);
+            String problem = eligibility.getProblemIgnoringStock();
+            if (problem != null) {
+                waitlistService.skip(entry, problem, movieTitle);
+                continue;
+            }
+            
+            waitlistService.offer(entry, LocalDateTime.now().plusHours(WAITLIST_HOLD_HOURS), movieTitle);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Rent the copy held for a user's waitlist entry. The hold stays if the user
+     * may not rent it right now, so the user can return a rental and try again.
+     */
+    public Rental claimWaitlistOffer(Long userId, Long entryId) {
+        WaitlistEntry entry = waitlistService.findOfferForUpdate(userId, entryId);
+        if (entry.getOfferedUntil().isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("The hold on this copy has expired");
+        }
+        Long movieId = entry.getMovieId();
+        String problem = checkEligibility(userId, movieId).getProblemIgnoringStock();
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
+        
+        // The held copy moves straight to the user, so the inventory is not touched
+        Rental rental = new Rental();
+        rental.setUser(userRepository.getReference(userId));
+        rental.setMovie(movieRepository.getReference(movieId));
+        rental.setBorrowDate(LocalDate.now());
+        rental.setReturnDate(LocalDate.now().plusDays(WAITLIST_RENTAL_DAYS));
+        rental.setStatus(RentalStatus.ACTIVE);
+        rental.setNotes("Held for you from the waitlist");
+        
+        Rental saved = rentalRepository.save(rental);
+        String movieTitle = movieRepository.findById(movieId).map(Movie::getTitle).orElse(null);
+        waitlistService.fulfil(entry, saved.getRentalId(), movieTitle);
+        rentalCreated.fire(new RentalCreatedEvent(userId, movieId, LocalDateTime.now()));
+        return saved;
+    }
+    
+    /**
+     * Turn down the copy held for a user's waitlist entry; it goes to the next user
+     */
+    public void declineWaitlistOffer(Long userId, Long entryId) {
+        WaitlistEntry entry = waitlistService.findOfferForUpdate(userId, entryId);
+        waitlistService.decline(entry);
+        Long movieId = entry.getMovieId();
+        passCopyOn(movieId, movieRepository.findById(movieId).map(Movie::getTitle).orElse(null));
+    }
+    
+    /**
+     * Pass on the copy of a hold that was not confirmed in time; returns false
+     * if the entry was confirmed or declined meanwhile
+     */
+    public boolean expireWaitlistOffer(Long entryId) {
+        Optional<WaitlistEntry> entryOpt = waitlistService.findExpiredOfferForUpdate(entryId, LocalDateTime.now());
+        if (entryOpt.isEmpty()) {
+            return false;
+        }
+        Long movieId = entryOpt.get().getMovieId();
+        String movieTitle = movieRepository.findById(movieId).map(Movie::getTitle).orElse(null);
+        waitlistService.skip(entryOpt.get(), "The held copy was not confirmed in time", movieTitle);
+        passCopyOn(movieId, movieTitle);
+        return true;
+    }
+    
     /**
      * Find rental by ID
      */
@@ -174,6 +345,13 @@ public class RentalService {
         return rentalRepository.findOverdueRentals();
     }
     
+    /**
+     * Get list rows for overdue rentals, longest overdue first
+     */
+    public List<RentalRow> getOverdueRentalRows() {
+        return rentalRepository.findOverdueRows();
+    }
+    
     /**
      * Get rentals by status
      */
@@ -213,26 +391,34 @@ public class RentalService {
      * Check if user can rent movie
      */
     public boolean canUserRentMovie(Long userId, Long movieId) {
-        // Check if user exists and is active
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isEmpty() || !userOpt.get().getActive()) {
-            return false;
-        }
-        
-        // Check if movie exists and is available
-        Optional<Movie> movieOpt = movieRepository.findById(movieId);
-        if (movieOpt.isEmpty() || !movieOpt.get().isAvailable()) {
-            return false;
+        return checkEligibility(userId, movieId).isEligible();
+    }
+    
+    /**
+     * Everything createRental checks, read in a single query
+     */
+    public RentalEligibility checkEligibility(Long userId, Long movieId) {
+        Object[] row = rentalRepository.getRentalEligibility(userId, movieId);
+        
+        int availableCopies = 0;
+        if (row[1] != null) {
+            // Seeds the inventory counter, so reserving the copy needs no further reads
+            inventoryService.prime(movieId, ((Number) row[2]).longValue());
+            availableCopies = inventoryService.getAvailableCount(movieId);
         }
         
-        // Check if user already has an active rental for this movie
-        if (rentalRepository.hasActiveRental(userId, movieId)) {
-            return false;
+        return new RentalEligibility(userId, movieId, row[0] != null, isTrue(row[0]), row[1] != null,
+                isTrue(row[1]), availableCopies, ((Number) row[4]).longValue() > 0, ((Number) row[3]).longValue());
+    }
+    
+    /**
+     * BIT columns come back as Boolean or as a number, depending on the driver settings
+     */
+    private static boolean isTrue(Object flag) {
+        if (flag instanceof Boolean) {
+            return (Boolean) flag;
         }
-        
-        // Check rental limits
-        long activeRentals = rentalRepository.countActiveRentalsByUser(userId);
-        return activeRentals < 5;
+        return flag instanceof Number && ((Number) flag).intValue() != 0;
     }
     
     /**
@@ -246,7 +432,7 @@ public class RentalService {
         
         Rental rental = rentalOpt.get();
         
-        if (rental.getStatus() != RentalStatus.ACTIVE) {
+        if (!rental.getStatus().isOutstanding()) {
             throw new IllegalArgumentException("Rental is not active");
         }
         
@@ -259,6 +445,7 @@ public class RentalService {
         }
         
         rental.setReturnDate(newReturnDate);
+        rental.setStatus(RentalStatus.ACTIVE);
         rentalRepository.update(rental);
         return true;
     }
@@ -274,15 +461,14 @@ public class RentalService {
         
         Rental rental = rentalOpt.get();
         
-        if (rental.getStatus() != RentalStatus.ACTIVE) {
+        if (!rental.getStatus().isOutstanding()) {
             throw new IllegalArgumentException("Rental is not active");
         }
         
         rental.setStatus(RentalStatus.CANCELLED);
         rentalRepository.update(rental);
         
-        // Increase movie quantity back
-        movieRepository.increaseQuantity(rental.getMovie().getMovieId());
+        returnCopy(rental);
         
         return true;
     }
@@ -291,8 +477,42 @@ public class RentalService {
      * Get rental history for a user
      */
     public List<Rental> getRentalHistory(Long userId, int limit) {
-        List<Rental> rentals = rentalRepository.findByUserId(userId);
-        return rentals.stream().limit(limit).toList();
+        return getRentalHistoryPage(userId, PageRequest.first(limit)).getItems();
+    }
+    
+    /**
+     * Get one page of a user's rental history, newest first
+     */
+    public Page<Rental> getRentalHistoryPage(Long userId, PageRequest pageRequest) {
+        return rentalRepository.findByUserIdPage(userId, pageRequest);
+    }
+    
+    /**
+     * Get one page of a user's rental history as list rows, newest first
+     */
+    public Page<RentalRow> getRentalHistoryRowsPage(Long userId, PageRequest pageRequest) {
+        return rentalRepository.findRowsByUserIdPage(userId, pageRequest);
+    }
+    
+    /**
+     * Get one page of a movie's rental history, newest first
+     */
+    public Page<Rental> getMovieRentalHistoryPage(Long movieId, PageRequest pageRequest) {
+        return rentalRepository.findByMovieIdPage(movieId, pageRequest);
+    }
+    
+    /**
+     * Get one page of all rentals, newest first
+     */
+    public Page<Rental> getRentalsPage(PageRequest pageRequest) {
+        return rentalRepository.findPageWithDetails(pageRequest);
+    }
+    
+    /**
+     * Get one page of all rentals as list rows, newest first
+     */
+    public Page<RentalRow> getRentalRowsPage(PageRequest pageRequest) {
+        return rentalRepository.findRowsPage(pageRequest);
     }
     
     /**
@@ -307,13 +527,21 @@ public class RentalService {
      */
     public RentalStats getRentalStats() {
         long totalRentals = rentalRepository.count();
-        long activeRentals = rentalRepository.countByStatus(RentalStatus.ACTIVE);
+        long activeRentals = rentalRepository.countByStatus(RentalStatus.ACTIVE)
+                + rentalRepository.countByStatus(RentalStatus.OVERDUE);
         long returnedRentals = rentalRepository.countByStatus(RentalStatus.RETURNED);
         long overdueRentals = rentalRepository.countOverdueRentals();
         
         return new RentalStats(totalRentals, activeRentals, returnedRentals, overdueRentals);
     }
     
+    /**
+     * Get total rental counts for a set of users, keyed by user ID
+     */
+    public Map<Long, Long> getRentalCountsByUser(Collection<Long> userIds) {
+        return rentalRepository.countByUserIds(userIds);
+    }
+    
     /**
      * Get user rental statistics
      */
@@ -329,21 +557,23 @@ public class RentalService {
     }
     
     /**
-     * Process overdue rentals (mark as overdue)
+     * Process overdue rentals (mark as overdue) with a single set-based update
      */
     public int processOverdueRentals() {
-        List<Rental> overdueRentals = rentalRepository.findOverdueRentals();
-        int processedCount = 0;
-        
-        for (Rental rental : overdueRentals) {
-            if (rental.getStatus() == RentalStatus.ACTIVE) {
-                rental.setStatus(RentalStatus.OVERDUE);
-                rentalRepository.update(rental);
-                processedCount++;
-            }
+        return rentalRepository.markAllOverdue(LocalDate.now());
+    }
+    
+    /**
+     * Mark one keyset-paged chunk of rentals overdue in its own transaction
+     * when called without an active one
+     */
+    public OverdueChunk processOverdueChunk(LocalDate today, Long afterRentalId, int chunkSize) {
+        List<Long> rentalIds = rentalRepository.findOverdueCandidateIds(today, afterRentalId, chunkSize);
+        if (rentalIds.isEmpty()) {
+            return new OverdueChunk(afterRentalId, 0, 0);
         }
-        
-        return processedCount;
+        int updated = rentalRepository.markOverdue(rentalIds);
+        return new OverdueChunk(rentalIds.get(rentalIds.size() - 1), rentalIds.size(), updated);
     }
     
     // Inner class for rental statistics
@@ -367,6 +597,97 @@ public class RentalService {
         public long getCancelledRentals() { return totalRentals - activeRentals - returnedRentals - overdueRentals; }
     }
     
+    // Inner class for the result of one overdue processing chunk
+    public static class OverdueChunk {
+        private final Long lastRentalId;
+        private final int scanned;
+        private final int updated;
+        
+        public OverdueChunk(Long lastRentalId, int scanned, int updated) {
+            this.lastRentalId = lastRentalId;
+            this.scanned = scanned;
+            this.updated = updated;
+        }
+        
+        public Long getLastRentalId() { return lastRentalId; }
+        public int getScanned() { return scanned; }
+        public int getUpdated() { return updated; }
+    }
+    
+    // Inner class for the inputs of a rental decision
+    public static class RentalEligibility {
+        private final Long userId;
+        private final Long movieId;
+        private final boolean userFound;
+        private final boolean userActive;
+        private final boolean movieFound;
+        private final boolean movieActive;
+        private final int availableCopies;
+        private final boolean activeRentalForMovie;
+        private final long activeRentalCount;
+        
+        private RentalEligibility(Long userId, Long movieId, boolean userFound, boolean userActive,
+                                 boolean movieFound, boolean movieActive, int availableCopies,
+                                 boolean activeRentalForMovie, long activeRentalCount) {
+            this.userId = userId;
+            this.movieId = movieId;
+            this.userFound = userFound;
+            this.userActive = userActive;
+            this.movieFound = movieFound;
+            this.movieActive = movieActive;
+            this.availableCopies = availableCopies;
+            this.activeRentalForMovie = activeRentalForMovie;
+            this.activeRentalCount = activeRentalCount;
+        }
+        
+        /**
+         * First reason the rental would be refused, or null if it is allowed
+         */
+        public String getProblem() {
+            String problem = getProblemIgnoringStock();
+            if (problem != null) {
+                return problem;
+            }
+            if (availableCopies <= 0) {
+                return "Movie is not available for rental";
+            }
+            return null;
+        }
+        
+        /**
+         * First reason the rental would be refused if a copy were in stock,
+         * or null; decides who may wait for a copy and who receives one
+         */
+        public String getProblemIgnoringStock() {
+            if (!userFound) {
+                return "User not found";
+            }
+            if (!userActive) {
+                return "User account is not active";
+            }
+            if (!movieFound) {
+                return "Movie not found";
+            }
+            if (!movieActive) {
+                return "Movie is not active";
+            }
+            if (activeRentalForMovie) {
+                return "User already has an active rental for this movie";
+            }
+            if (activeRentalCount >= MAX_ACTIVE_RENTALS) {
+                return "User has reached maximum number of active rentals";
+            }
+            return null;
+        }
+        
+        public boolean isEligible() { return getProblem() == null; }
+        public Long getUserId() { return userId; }
+        public Long getMovieId() { return movieId; }
+        public int getAvailableCopies() { return availableCopies; }
+        public boolean isActiveRentalForMovie() { return activeRentalForMovie; }
+        public long getActiveRentalCount() { return activeRentalCount; }
+    }
+    
     // Inner class for user rental statistics
     public static class UserRentalStats {
         private final long totalRentals;
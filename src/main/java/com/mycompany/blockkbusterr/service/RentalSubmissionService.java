@@ -0,0 +1,121 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.Rental;
+import com.mycompany.blockkbusterr.entity.RentalStatus;
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.util.IdempotencyStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Idempotent rental creation for callers that may submit the same rental more
+ * than once: double-clicked rent buttons and client retries.
+ * Submissions carrying the same idempotency key for the same user run the
+ * eligibility check and createRental once; duplicates arriving while it runs
+ * wait for it and get the same receipt, and later ones get the stored receipt
+ * until the key expires. Keys are scoped per user. Web forms render a fresh key
+ * into each rent form (KEY_PARAMETER), so only a resubmission of the same
+ * rendered form is deduplicated.
+ * <p>
+ * Each rental is created in its own transaction, committed before the result
+ * is shared. Settings are read once from system properties:
+ * blockkbusterr.rental.idempotency.maxKeys (default 10000) and
+ * blockkbusterr.rental.idempotency.ttlSeconds (default 600).
+ */
+@ApplicationScoped
+@Transactional(Transactional.TxType.NOT_SUPPORTED)
+@Monitored
+public class RentalSubmissionService {
+
+    private static final Logger logger = Logger.getLogger(RentalSubmissionService.class.getName());
+
+    /** Longest idempotency key accepted */
+    public static final int MAX_KEY_LENGTH = 100;
+
+    /** Request parameter carrying the idempotency key rendered into a rent form */
+    public static final String KEY_PARAMETER = "rentalKey";
+
+    private static final int MAX_KEYS = Integer.getInteger("blockkbusterr.rental.idempotency.maxKeys", 10000);
+    private static final long TTL_SECONDS = Long.getLong("blockkbusterr.rental.idempotency.ttlSeconds", 600L);
+
+    @Inject
+    private RentalService rentalService;
+
+    private final IdempotencyStore<RentalReceipt> submissions = new IdempotencyStore<>(MAX_KEYS, TTL_SECONDS * 1000);
+
+    /**
+     * Fresh idempotency key for one rendered rent form
+     */
+    public static String newKey() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Create a rental once per idempotency key; without a key every call creates
+     */
+    public RentalReceipt submitRental(String idempotencyKey, Long userId, Long movieId, LocalDate returnDate) {
+        return submitRental(idempotencyKey, userId, movieId, returnDate, null);
+    }
+
+    /**
+     * Create a rental with the customer's notes once per idempotency key
+     */
+    public RentalReceipt submitRental(String idempotencyKey, Long userId, Long movieId, LocalDate returnDate,
+                                      String notes) {
+        if (idempotencyKey == null || idempotencyKey.trim().isEmpty()) {
+            return new RentalReceipt(rentalService.createRental(userId, movieId, returnDate, notes));
+        }
+        if (userId == null) {
+            throw new IllegalArgumentException("User ID cannot be null");
+        }
+        String key = idempotencyKey.trim();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key cannot exceed " + MAX_KEY_LENGTH + " characters");
+        }
+
+        return submissions.execute(userId + ":" + key, List.of(String.valueOf(movieId), String.valueOf(returnDate)), () -> {
+            logger.fine("Creating rental for user " + userId + ", movie " + movieId + ", key " + key);
+            return new RentalReceipt(rentalService.createRental(userId, movieId, returnDate, notes));
+        });
+    }
+
+    /** Keys currently stored or in flight */
+    public int getStoredKeyCount() {
+        return submissions.size();
+    }
+
+    /** Duplicate submissions answered with a stored receipt */
+    public long getReplayedCount() {
+        return submissions.getReplayedCount();
+    }
+
+    /** Duplicate submissions that waited for the first one to finish */
+    public long getCoalescedCount() {
+        return submissions.getCoalescedCount();
+    }
+
+    // Immutable outcome of a submission, safe to share between duplicate requests
+    public static class RentalReceipt {
+        private final Long rentalId;
+        private final Long movieId;
+        private final LocalDate returnDate;
+        private final RentalStatus status;
+
+        public RentalReceipt(Rental rental) {
+            this.rentalId = rental.getRentalId();
+            this.movieId = rental.getMovie() != null ? rental.getMovie().getMovieId() : null;
+            this.returnDate = rental.getReturnDate();
+            this.status = rental.getStatus();
+        }
+
+        public Long getRentalId() { return rentalId; }
+        public Long getMovieId() { return movieId; }
+        public LocalDate getReturnDate() { return returnDate; }
+        public RentalStatus getStatus() { return status; }
+    }
+}
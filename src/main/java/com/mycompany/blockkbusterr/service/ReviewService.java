@@ -3,7 +3,10 @@ package com.mycompany.blockkbusterr.service;
 import com.mycompany.blockkbusterr.entity.Movie;
 import com.mycompany.blockkbusterr.entity.Review;
 import com.mycompany.blockkbusterr.entity.User;
+import com.mycompany.blockkbusterr.metrics.Monitored;
 import com.mycompany.blockkbusterr.repository.MovieRepository;
+import com.mycompany.blockkbusterr.repository.Page;
+import com.mycompany.blockkbusterr.repository.PageRequest;
 import com.mycompany.blockkbusterr.repository.ReviewRepository;
 import com.mycompany.blockkbusterr.repository.UserRepository;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -14,6 +17,7 @@ import java.util.Optional;
 
 @ApplicationScoped
 @Transactional
+@Monitored
 public class ReviewService {
     
     @Inject
@@ -40,8 +44,8 @@ public class ReviewService {
             throw new IllegalArgumentException("User account is not active");
         }
         
-        // Validate movie
-        Optional<Movie> movieOpt = movieRepository.findById(movieId);
+        // Validate movie (locked so the rating aggregates are updated atomically)
+        Optional<Movie> movieOpt = movieRepository.findByIdForUpdate(movieId);
         if (movieOpt.isEmpty()) {
             throw new IllegalArgumentException("Movie not found");
         }
@@ -69,14 +73,18 @@ public class ReviewService {
         review.setComment(comment != null ? comment.trim() : null);
         review.setActive(true);
         
-        return reviewRepository.save(review);
+        Review saved = reviewRepository.save(review);
+        movie.applyRating(rating, 1);
+        movieRepository.fireMovieChanged(movieId);
+        return saved;
     }
     
     /**
      * Update an existing review
      */
     public Review updateReview(Long reviewId, Integer rating, String comment) {
-        Optional<Review> reviewOpt = reviewRepository.findById(reviewId);
+        // Locked, so the previous rating cannot change before the delta is applied
+        Optional<Review> reviewOpt = reviewRepository.findByIdForUpdate(reviewId);
         if (reviewOpt.isEmpty()) {
             throw new IllegalArgumentException("Review not found");
         }
@@ -92,6 +100,15 @@ public class ReviewService {
             throw new IllegalArgumentException("Rating must be between 1 and 5");
         }
         
+        // Move the review between rating buckets if the rating changed
+        Integer previousRating = review.getRating();
+        if (!rating.equals(previousRating)) {
+            Movie movie = lockMovieOf(review);
+            movie.applyRating(previousRating, -1);
+            movie.applyRating(rating, 1);
+            movieRepository.fireMovieChanged(movie.getMovieId());
+        }
+        
         // Update review
         review.setRating(rating);
         review.setComment(comment != null ? comment.trim() : null);
@@ -127,6 +144,20 @@ public class ReviewService {
         return reviewRepository.findByUserId(userId);
     }
     
+    /**
+     * Get one page of reviews for a movie, newest first
+     */
+    public Page<Review> getReviewsByMoviePage(Long movieId, PageRequest pageRequest) {
+        return reviewRepository.findByMovieIdPage(movieId, pageRequest);
+    }
+    
+    /**
+     * Get one page of reviews by a user, newest first
+     */
+    public Page<Review> getReviewsByUserPage(Long userId, PageRequest pageRequest) {
+        return reviewRepository.findByUserIdPage(userId, pageRequest);
+    }
+    
     /**
      * Get reviews by rating
      */
@@ -233,14 +264,55 @@ public class ReviewService {
      * Delete review (soft delete)
      */
     public boolean deleteReview(Long reviewId) {
-        return reviewRepository.softDeleteReview(reviewId);
+        Optional<Review> reviewOpt = reviewRepository.findByIdForUpdate(reviewId);
+        if (reviewOpt.isEmpty()) {
+            return false;
+        }
+        
+        Review review = reviewOpt.get();
+        if (!review.getActive()) {
+            return true;
+        }
+        // Only the call that actually deactivates the review takes it out of the aggregates
+        Movie movie = lockMovieOf(review);
+        if (reviewRepository.softDeleteReview(reviewId)) {
+            movie.applyRating(review.getRating(), -1);
+            movieRepository.fireMovieChanged(movie.getMovieId());
+        }
+        return true;
     }
     
     /**
      * Reactivate review
      */
     public boolean reactivateReview(Long reviewId) {
-        return reviewRepository.reactivateReview(reviewId);
+        Optional<Review> reviewOpt = reviewRepository.findByIdForUpdate(reviewId);
+        if (reviewOpt.isEmpty()) {
+            return false;
+        }
+        
+        Review review = reviewOpt.get();
+        if (review.getActive()) {
+            return true;
+        }
+        // Only the call that actually reactivates the review adds it back to the aggregates
+        Movie movie = lockMovieOf(review);
+        if (reviewRepository.reactivateReview(reviewId)) {
+            movie.applyRating(review.getRating(), 1);
+            movieRepository.fireMovieChanged(movie.getMovieId());
+        }
+        return true;
+    }
+    
+    /**
+     * Lock the reviewed movie's row for a rating aggregate update.
+     * Callers lock the review row first, so concurrent changes to one review
+     * always take the two locks in the same order.
+     */
+    private Movie lockMovieOf(Review review) {
+        Long movieId = review.getMovie().getMovieId();
+        return movieRepository.findByIdForUpdate(movieId)
+                .orElseThrow(() -> new IllegalArgumentException("Movie not found"));
     }
     
     /**
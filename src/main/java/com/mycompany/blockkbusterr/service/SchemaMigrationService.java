@@ -0,0 +1,199 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.util.SqlScript;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Versioned schema migrations, applied at startup in place of OpenJPA's
+ * SynchronizeMappings. Scripts live in db/migration and are named
+ * V&lt;version&gt;__&lt;description&gt;.sql; each is applied once, in version order,
+ * and recorded in schema_migrations with its checksum. A script changed after
+ * it was applied stops the migration rather than leaving the schema unknown.
+ * <p>
+ * V1 is the schema as OpenJPA generated it before migrations existed, so a
+ * database from that time gets every later change as its own version.
+ * <p>
+ * MySQL commits DDL implicitly, so a script is not atomic. Tables are created
+ * only if missing, and adding a column or index that already exists is
+ * skipped, so a script interrupted part-way can simply be run again. A named
+ * lock keeps several nodes from migrating at once.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+@Monitored
+public class SchemaMigrationService {
+
+    private static final Logger logger = Logger.getLogger(SchemaMigrationService.class.getName());
+
+    /** Migration scripts in version order; add new ones at the end */
+    private static final List<String> MIGRATIONS = List.of(
+            "V1__baseline.sql",
+            "V2__rating_aggregates.sql",
+            "V3__inventory_journal.sql",
+            "V4__keyset_indexes.sql",
+            "V5__popularity_buckets.sql",
+            "V6__id_sequences.sql",
+            "V7__query_indexes.sql",
+            "V8__waitlist.sql",
+            "V9__waitlist_notices.sql",
+            "V10__waitlist_holds.sql");
+
+    public static final String LOCATION = "db/migration/";
+
+    private static final String LOCK_NAME = "blockkbusterr.schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 300;
+
+    /** Only the baseline may meet objects a schema created by SynchronizeMappings already has */
+    private static final int BASELINE_VERSION = 1;
+
+    /** MySQL error for ADD COLUMN with a name already in use */
+    private static final int ER_DUP_FIELDNAME = 1060;
+
+    /** MySQL error for CREATE INDEX with a name already in use */
+    private static final int ER_DUP_KEYNAME = 1061;
+
+    private static final String CREATE_HISTORY_SQL =
+            "CREATE TABLE IF NOT EXISTS schema_migrations (" +
+            "version INT NOT NULL, " +
+            "description VARCHAR(200) NOT NULL, " +
+            "checksum CHAR(64) NOT NULL, " +
+            "applied_at DATETIME NOT NULL, " +
+            "execution_ms BIGINT NOT NULL, " +
+            "PRIMARY KEY (version)) ENGINE = InnoDB";
+
+    @Resource(name = "blockkbusterrDS_nonJta")
+    private DataSource dataSource;
+
+    private volatile boolean migrated;
+
+    /**
+     * Apply pending migrations, once per application start; returns the number applied
+     */
+    public synchronized int migrate() {
+        if (migrated) {
+            return 0;
+        }
+        int applied = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            lock(connection);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_HISTORY_SQL);
+                }
+                Map<Integer, String> history = loadHistory(connection);
+                for (String name : MIGRATIONS) {
+                    SqlScript script = SqlScript.load(LOCATION + name);
+                    int version = versionOf(name);
+                    String checksum = history.get(version);
+                    if (checksum == null) {
+                        apply(connection, script, version, descriptionOf(name));
+                        applied++;
+                    } else if (!checksum.equals(script.getChecksum())) {
+                        throw new IllegalStateException("Migration " + name + " was changed after it was applied");
+                    }
+                }
+            } finally {
+                unlock(connection);
+            }
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Schema migration failed: " + e.getMessage(), e);
+        }
+        migrated = true;
+        logger.info("Schema is at version " + versionOf(MIGRATIONS.get(MIGRATIONS.size() - 1))
+                + " (" + applied + " migrations applied)");
+        return applied;
+    }
+
+    private void apply(Connection connection, SqlScript script, int version, String description) throws SQLException {
+        logger.info("Applying schema migration " + script.getName());
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : script.getStatements()) {
+                try {
+                    statement.execute(sql);
+                } catch (SQLException e) {
+                    boolean duplicate = e.getErrorCode() == ER_DUP_FIELDNAME || e.getErrorCode() == ER_DUP_KEYNAME;
+                    if (version != BASELINE_VERSION || !duplicate) {
+                        throw new SQLException("Migration " + script.getName() + " failed at: " + sql, e);
+                    }
+                    logger.info("Column or index already exists, skipped: " + sql);
+                }
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        String insert = "INSERT INTO schema_migrations (version, description, checksum, applied_at, execution_ms) " +
+                       "VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(insert)) {
+            statement.setInt(1, version);
+            statement.setString(2, description);
+            statement.setString(3, script.getChecksum());
+            statement.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+            statement.setLong(5, elapsedMillis);
+            statement.executeUpdate();
+        }
+        logger.info("Applied schema migration " + script.getName() + " in " + elapsedMillis + " ms");
+    }
+
+    private static Map<Integer, String> loadHistory(Connection connection) throws SQLException {
+        Map<Integer, String> history = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+            while (rows.next()) {
+                history.put(rows.getInt(1), rows.getString(2));
+            }
+        }
+        return history;
+    }
+
+    private static void lock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet result = statement.executeQuery()) {
+                if (!result.next() || result.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for the schema migration lock");
+                }
+            }
+        }
+    }
+
+    private static void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.executeQuery().close();
+        }
+    }
+
+    /**
+     * Version of a script named V&lt;version&gt;__&lt;description&gt;.sql
+     */
+    static int versionOf(String name) {
+        return Integer.parseInt(name.substring(1, name.indexOf("__")));
+    }
+
+    static String descriptionOf(String name) {
+        return name.substring(name.indexOf("__") + 2, name.lastIndexOf('.')).replace('_', ' ');
+    }
+}
@@ -1,7 +1,11 @@
 package com.mycompany.blockkbusterr.service;
 
+import com.mycompany.blockkbusterr.dto.UserSummary;
 import com.mycompany.blockkbusterr.entity.User;
 import com.mycompany.blockkbusterr.entity.UserRole;
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.repository.Page;
+import com.mycompany.blockkbusterr.repository.PageRequest;
 import com.mycompany.blockkbusterr.repository.UserRepository;
 import com.mycompany.blockkbusterr.util.PasswordUtil;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -9,17 +13,25 @@ import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @ApplicationScoped
 @Transactional
+@Monitored
 public class UserService {
     
     @Inject
     private UserRepository userRepository;
     
+    @Inject
+    private PasswordHashingService passwordHashingService;
+    
     /**
-     * Register a new user
+     * Register a new user. Runs outside a transaction so no connection is held
+     * while the password is hashed; the insert is its own transaction, and the
+     * unique username and email keys reject a concurrent duplicate.
      */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public User registerUser(String firstName, String lastName, String email, String username, String password) {
         // Validate input
         if (firstName == null || firstName.trim().isEmpty()) {
@@ -48,13 +60,15 @@ public class UserService {
             throw new IllegalArgumentException("Email already exists");
         }
         
+        String hashedPassword = passwordHashingService.hash(password);
+        
         // Create new user
         User user = new User();
         user.setFirstName(firstName.trim());
         user.setLastName(lastName.trim());
         user.setEmail(email.trim().toLowerCase());
         user.setUsername(username.trim().toLowerCase());
-        user.setPassword(PasswordUtil.hashPassword(password));
+        user.setPassword(hashedPassword);
         user.setRole(UserRole.USER);
         user.setActive(true);
         
@@ -64,20 +78,29 @@ public class UserService {
     /**
      * Authenticate user
      */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public Optional<User> authenticateUser(String username, String password) {
+        return passwordHashingService.await(authenticateUserAsync(username, password));
+    }
+    
+    /**
+     * Authenticate user login, verifying the password on the hashing pool.
+     * The future fails with RejectedExecutionException when the pool is saturated.
+     */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public CompletableFuture<Optional<User>> authenticateUserAsync(String username, String password) {
         if (username == null || password == null) {
-            return Optional.empty();
+            return CompletableFuture.completedFuture(Optional.empty());
         }
         
         Optional<User> userOpt = userRepository.findByUsername(username.trim().toLowerCase());
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            if (user.getActive() && PasswordUtil.verifyPassword(password, user.getPassword())) {
-                return Optional.of(user);
-            }
+        if (userOpt.isEmpty() || !userOpt.get().getActive()) {
+            return CompletableFuture.completedFuture(Optional.empty());
         }
         
-        return Optional.empty();
+        User user = userOpt.get();
+        return passwordHashingService.verifyAsync(password, user.getPassword())
+                .thenApply(valid -> valid ? Optional.of(user) : Optional.<User>empty());
     }
     
     /**
@@ -131,6 +154,47 @@ public class UserService {
         return userRepository.searchByName(searchTerm.trim());
     }
     
+    /**
+     * Build a user page request from a client page token (blank for the first page)
+     */
+    public PageRequest toPageRequest(String pageToken, int pageSize) {
+        return UserRepository.SORT_BY_USERNAME.decode(pageToken, pageSize > 0 ? pageSize : PageRequest.DEFAULT_SIZE);
+    }
+    
+    /**
+     * Get one page of users ordered by username
+     */
+    public Page<User> getUsersPage(PageRequest pageRequest) {
+        return userRepository.findPage(UserRepository.SORT_BY_USERNAME, pageRequest);
+    }
+    
+    /**
+     * Search one page of users by name, ordered by username
+     */
+    public Page<User> searchUsersByNamePage(String searchTerm, PageRequest pageRequest) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return getUsersPage(pageRequest);
+        }
+        return userRepository.searchByNamePage(searchTerm.trim(), pageRequest);
+    }
+    
+    /**
+     * Get one page of user list rows, ordered by username
+     */
+    public Page<UserSummary> getUserSummariesPage(PageRequest pageRequest) {
+        return userRepository.findSummariesPage(pageRequest);
+    }
+    
+    /**
+     * Search one page of user list rows by name, ordered by username
+     */
+    public Page<UserSummary> searchUserSummariesPage(String searchTerm, PageRequest pageRequest) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return getUserSummariesPage(pageRequest);
+        }
+        return userRepository.searchSummariesByNamePage(searchTerm.trim(), pageRequest);
+    }
+    
     /**
      * Get users by role
      */
@@ -175,8 +239,10 @@ public class UserService {
     }
     
     /**
-     * Change user password
+     * Change user password. Runs outside a transaction, like registerUser, so
+     * no connection is held while the passwords are verified and hashed.
      */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public boolean changePassword(Long userId, String currentPassword, String newPassword) {
         Optional<User> userOpt = userRepository.findById(userId);
         if (userOpt.isEmpty()) {
@@ -186,7 +252,7 @@ public class UserService {
         User user = userOpt.get();
         
         // Verify current password
-        if (!PasswordUtil.verifyPassword(currentPassword, user.getPassword())) {
+        if (!passwordHashingService.verify(currentPassword, user.getPassword())) {
             return false;
         }
         
@@ -196,19 +262,20 @@ public class UserService {
         }
         
         // Update password
-        String hashedPassword = PasswordUtil.hashPassword(newPassword);
+        String hashedPassword = passwordHashingService.hash(newPassword);
         return userRepository.updatePassword(userId, hashedPassword);
     }
     
     /**
-     * Reset user password (admin function)
+     * Reset user password (admin function), outside a transaction like changePassword
      */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public boolean resetPassword(Long userId, String newPassword) {
         if (!PasswordUtil.isValidPassword(newPassword)) {
             throw new IllegalArgumentException("Password must be at least 6 characters and contain both letters and numbers");
         }
         
-        String hashedPassword = PasswordUtil.hashPassword(newPassword);
+        String hashedPassword = passwordHashingService.hash(newPassword);
         return userRepository.updatePassword(userId, hashedPassword);
     }
     
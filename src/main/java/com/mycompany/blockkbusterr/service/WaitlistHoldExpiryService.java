@@ -0,0 +1,64 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Passes on copies held for waitlisted users who did not confirm them in time.
+ * Each expired hold is closed in its own transaction, so one failing entry
+ * does not keep the others from moving on to the next user in line.
+ */
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+@Monitored
+public class WaitlistHoldExpiryService {
+    
+    private static final Logger logger = Logger.getLogger(WaitlistHoldExpiryService.class.getName());
+    
+    /** Most holds expired per run; any left over wait for the next run */
+    private static final int MAX_PER_RUN = 200;
+    
+    @Inject
+    private WaitlistService waitlistService;
+    
+    @Inject
+    private RentalService rentalService;
+    
+    /**
+     * Scheduled run every five minutes, so a lapsed hold is not kept from the next user for long
+     */
+    @Schedule(hour = "*", minute = "*/5", persistent = false)
+    public void scheduledRun() {
+        expireHolds();
+    }
+    
+    /**
+     * Expire all lapsed holds and return how many were passed on
+     */
+    public int expireHolds() {
+        List<Long> entryIds = waitlistService.findExpiredOfferIds(LocalDateTime.now(), MAX_PER_RUN);
+        int expired = 0;
+        for (Long entryId : entryIds) {
+            try {
+                // No transaction here, so each hold is passed on independently
+                if (rentalService.expireWaitlistOffer(entryId)) {
+                    expired++;
+                }
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to expire waitlist hold " + entryId, e);
+            }
+        }
+        if (expired > 0) {
+            logger.info("Expired " + expired + " waitlist holds");
+        }
+        return expired;
+    }
+}
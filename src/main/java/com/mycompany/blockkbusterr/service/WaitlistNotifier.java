@@ -0,0 +1,79 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.WaitlistEntry;
+import com.mycompany.blockkbusterr.entity.WaitlistStatus;
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.repository.WaitlistRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Tells users what became of their waitlist entries.
+ * An offered or skipped entry is a pending notice until the user has been
+ * shown it on a page load, so notices live in waitlist_entries itself and
+ * survive restarts; users no longer need to keep reloading a movie to catch
+ * it in stock. Notices are shown in the application only; there is no mail
+ * or push channel to send them through.
+ */
+@ApplicationScoped
+@Transactional
+@Monitored
+public class WaitlistNotifier {
+
+    private static final Logger logger = Logger.getLogger(WaitlistNotifier.class.getName());
+
+    /** Most notices shown at once; the rest follow on the next page load */
+    private static final int MAX_NOTICES_PER_USER = 20;
+
+    private static final DateTimeFormatter HOLD_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+
+    @Inject
+    private WaitlistRepository waitlistRepository;
+
+    /**
+     * Log the outcome once the return that resolved the entry has committed
+     */
+    public void onWaitlistResolved(@Observes(during = TransactionPhase.AFTER_SUCCESS) WaitlistResolvedEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        logger.info("Waitlist notice for user " + event.getUserId() + ": "
+                + format(event.getMovieTitle(), event.getStatus(), event.getRentalId(), event.getReason(), null));
+    }
+
+    /**
+     * Take a user's pending notices, oldest first, and mark them as shown
+     */
+    public List<String> drain(Long userId) {
+        List<String> notices = new ArrayList<>();
+        for (Object[] row : waitlistRepository.findUnnotifiedWithTitles(userId, MAX_NOTICES_PER_USER)) {
+            WaitlistEntry entry = (WaitlistEntry) row[0];
+            notices.add(format((String) row[1], entry.getStatus(), entry.getRentalId(), entry.getNote(),
+                    entry.getOfferedUntil()));
+            entry.markNotified();
+        }
+        return notices;
+    }
+
+    private static String format(String movieTitle, WaitlistStatus status, Long rentalId, String reason,
+                                 LocalDateTime offeredUntil) {
+        String title = movieTitle != null ? "'" + movieTitle + "'" : "A movie you waited for";
+        if (status == WaitlistStatus.OFFERED) {
+            String until = offeredUntil != null ? " until " + offeredUntil.format(HOLD_FORMAT) : "";
+            return title + " is back in stock and a copy is held for you" + until
+                    + ". Confirm or decline it under Held For You.";
+        }
+        if (status == WaitlistStatus.FULFILLED) {
+            return title + " is back in stock and has been rented to you (rental ID " + rentalId + ").";
+        }
+        return title + " came back in stock, but could not be rented to you: " + reason;
+    }
+}
@@ -0,0 +1,89 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.WaitlistStatus;
+import java.time.LocalDateTime;
+
+/**
+ * CDI event fired by WaitlistService when a copy reaches a waitlist entry or
+ * its hold ends: OFFERED when the copy is held for the user, FULFILLED with the
+ * rental the user confirmed, or SKIPPED with the reason the user could not
+ * take it.
+ * Observers should use TransactionPhase.AFTER_SUCCESS, as the outcome only
+ * holds once the transaction commits.
+ */
+public class WaitlistResolvedEvent {
+
+    private final Long userId;
+    private final Long movieId;
+    private final String movieTitle;
+    private final WaitlistStatus status;
+    private final Long rentalId;
+    private final String reason;
+    private final LocalDateTime resolvedAt;
+
+    public WaitlistResolvedEvent(Long userId, Long movieId, String movieTitle, WaitlistStatus status,
+                                 Long rentalId, String reason, LocalDateTime resolvedAt) {
+        this.userId = userId;
+        this.movieId = movieId;
+        this.movieTitle = movieTitle;
+        this.status = status;
+        this.rentalId = rentalId;
+        this.reason = reason;
+        this.resolvedAt = resolvedAt;
+    }
+
+    /**
+     * ID of the waiting user
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * ID of the movie waited for
+     */
+    public Long getMovieId() {
+        return movieId;
+    }
+
+    /**
+     * Title of the movie waited for
+     */
+    public String getMovieTitle() {
+        return movieTitle;
+    }
+
+    /**
+     * FULFILLED or SKIPPED
+     */
+    public WaitlistStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * ID of the rental made for the user, when fulfilled
+     */
+    public Long getRentalId() {
+        return rentalId;
+    }
+
+    /**
+     * Why the user was passed over, when skipped
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * When the entry was resolved
+     */
+    public LocalDateTime getResolvedAt() {
+        return resolvedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "WaitlistResolvedEvent{userId=" + userId + ", movieId=" + movieId + ", status=" + status
+                + ", rentalId=" + rentalId + ", resolvedAt=" + resolvedAt + "}";
+    }
+}
@@ -0,0 +1,414 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.entity.WaitlistEntry;
+import com.mycompany.blockkbusterr.entity.WaitlistStatus;
+import com.mycompany.blockkbusterr.metrics.Monitored;
+import com.mycompany.blockkbusterr.repository.MovieRepository;
+import com.mycompany.blockkbusterr.repository.WaitlistRepository;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Waitlists for out-of-stock movies.
+ * Each movie has a FIFO queue of waiting entry IDs in memory, loaded lazily
+ * from waitlist_entries and kept in step with it: joins are queued once they
+ * commit, and an entry claimed for a returned copy goes back to the head of
+ * its queue if the return rolls back. The claimed row is locked and checked
+ * again, so a copy is never handed to an entry cancelled elsewhere. A copy
+ * returned to stock while a user was joining is allocated once the join commits;
+ * restocked copies are held for the queue in the restock's own transaction.
+ * <p>
+ * A copy reaching an entry is held for its user, who confirms or declines it;
+ * holds not confirmed in time are passed on by WaitlistHoldExpiryService.
+ * Users learn of offers and outcomes through WaitlistResolvedEvent and the
+ * notices of WaitlistNotifier rather than by polling the movie page for stock.
+ */
+@ApplicationScoped
+@Transactional
+@Monitored
+public class WaitlistService {
+    
+    private static final Logger logger = Logger.getLogger(WaitlistService.class.getName());
+    
+    /** Most movies a user may wait for at once */
+    public static final int MAX_WAITING_ENTRIES = 5;
+    
+    @Inject
+    private WaitlistRepository waitlistRepository;
+    
+    @Inject
+    private MovieRepository movieRepository;
+    
+    @Inject
+    private RentalService rentalService;
+    
+    @Inject
+    private Event<WaitlistResolvedEvent> waitlistResolved;
+    
+    @Resource
+    private TransactionSynchronizationRegistry transactionRegistry;
+    
+    @Resource
+    private ManagedExecutorService executor;
+    
+    private final ConcurrentMap<Long, MovieQueue> queues = new ConcurrentHashMap<>();
+    
+    /**
+     * Put a user on the waitlist of a movie that is out of stock
+     */
+    public WaitlistEntry join(Long userId, Long movieId) {
+        if (userId == null || movieId == null) {
+            throw new IllegalArgumentException("User ID and movie ID are required");
+        }
+        
+        // Same checks as renting, except that the movie must be out of stock
+        RentalService.RentalEligibility eligibility = rentalService.checkEligibility(userId, movieId);
+        String problem = eligibility.getProblemIgnoringStock();
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
+        if (eligibility.getAvailableCopies() > 0) {
+            throw new IllegalArgumentException("Movie is available for rental now");
+        }
+        
+        List<WaitlistEntry> waiting = waitlistRepository.findOpenByUserId(userId);
+        if (waiting.stream().anyMatch(entry -> entry.getMovieId().equals(movieId))) {
+            throw new IllegalArgumentException("User is already on the waitlist for this movie");
+        }
+        if (waiting.size() >= MAX_WAITING_ENTRIES) {
+            throw new IllegalArgumentException("User has reached maximum number of waitlist entries");
+        }
+        
+        WaitlistEntry saved = waitlistRepository.save(new WaitlistEntry(userId, movieId));
+        // The identity is assigned when the insert is flushed, so read it at commit
+        afterCompletion(committed -> {
+            if (committed) {
+                queueFor(movieId).addIfLoaded(saved.getEntryId());
+                allocateReturnedStock(movieId);
+            }
+        });
+        return saved;
+    }
+    
+    /**
+     * A copy returned between the stock check of a join and its commit went back
+     * to the inventory, as nobody was queued yet; hand it to the queue now.
+     * Runs in its own transaction, since the join's has already ended.
+     */
+    private void allocateReturnedStock(Long movieId) {
+        try {
+            executor.submit(() -> {
+                try {
+                    rentalService.allocateStockToWaitlist(movieId);
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Allocating stock to the waitlist of movie " + movieId + " failed", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warning("Stock of movie " + movieId + " not checked after a waitlist join, executor rejected it: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Take a user off a waitlist; returns false if the entry is no longer waiting
+     */
+    public boolean leave(Long userId, Long entryId) {
+        Optional<WaitlistEntry> entryOpt = waitlistRepository.findByIdForUpdate(entryId);
+        if (entryOpt.isEmpty() || !entryOpt.get().getUserId().equals(userId)) {
+            throw new IllegalArgumentException("Waitlist entry not found");
+        }
+        
+        WaitlistEntry entry = entryOpt.get();
+        if (!entry.isWaiting()) {
+            return false;
+        }
+        entry.resolve(WaitlistStatus.CANCELLED, null, "Left the waitlist");
+        waitlistRepository.update(entry);
+        
+        Long movieId = entry.getMovieId();
+        afterCompletion(committed -> {
+            if (committed) {
+                queueFor(movieId).remove(entryId);
+            }
+        });
+        return true;
+    }
+    
+    /**
+     * Take the first waiting entry of a movie, its row locked until the
+     * transaction ends. Every entry returned must be fulfilled or skipped;
+     * it goes back to the head of the queue if the transaction rolls back.
+     */
+    public Optional<WaitlistEntry> claimNext(Long movieId) {
+        MovieQueue queue = queueFor(movieId);
+        Long entryId;
+        while ((entryId = queue.poll()) != null) {
+            Optional<WaitlistEntry> entryOpt = waitlistRepository.findByIdForUpdate(entryId);
+            // Resolved on another node since the queue was loaded: drop it
+            if (entryOpt.isEmpty() || !entryOpt.get().isWaiting()) {
+                continue;
+            }
+            Long claimed = entryId;
+            afterCompletion(committed -> {
+                if (!committed) {
+                    queue.addIfLoaded(claimed);
+                }
+            });
+            return entryOpt;
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Hold the copy for a claimed entry until the given time
+     */
+    public void offer(WaitlistEntry entry, LocalDateTime until, String movieTitle) {
+        entry.offer(until);
+        waitlistRepository.update(entry);
+        waitlistResolved.fire(new WaitlistResolvedEvent(entry.getUserId(), entry.getMovieId(), movieTitle,
+                WaitlistStatus.OFFERED, null, null, LocalDateTime.now()));
+    }
+    
+    /**
+     * Find a user's entry that holds a copy and lock its row until the transaction ends
+     */
+    public WaitlistEntry findOfferForUpdate(Long userId, Long entryId) {
+        Optional<WaitlistEntry> entryOpt = waitlistRepository.findByIdForUpdate(entryId);
+        if (entryOpt.isEmpty() || !entryOpt.get().getUserId().equals(userId)) {
+            throw new IllegalArgumentException("Waitlist entry not found");
+        }
+        if (!entryOpt.get().isOffered()) {
+            throw new IllegalArgumentException("No copy is held for this waitlist entry");
+        }
+        return entryOpt.get();
+    }
+    
+    /**
+     * Find an entry whose hold has ended and lock its row; empty if it was
+     * confirmed or declined meanwhile
+     */
+    public Optional<WaitlistEntry> findExpiredOfferForUpdate(Long entryId, LocalDateTime now) {
+        return waitlistRepository.findByIdForUpdate(entryId)
+                .filter(entry -> entry.isOffered() && entry.getOfferedUntil().isBefore(now));
+    }
+    
+    /**
+     * IDs of entries whose hold has ended, oldest first
+     */
+    public List<Long> findExpiredOfferIds(LocalDateTime now, int maxResults) {
+        return waitlistRepository.findExpiredOfferIds(now, maxResults);
+    }
+    
+    /**
+     * Close an offered entry with the rental the user confirmed; the user made it,
+     * so there is nothing left to tell
+     */
+    public void fulfil(WaitlistEntry entry, Long rentalId, String movieTitle) {
+        entry.resolve(WaitlistStatus.FULFILLED, rentalId, null);
+        entry.markNotified();
+        waitlistRepository.update(entry);
+        waitlistResolved.fire(new WaitlistResolvedEvent(entry.getUserId(), entry.getMovieId(), movieTitle,
+                WaitlistStatus.FULFILLED, rentalId, null, LocalDateTime.now()));
+    }
+    
+    /**
+     * Close an offered entry whose user turned the held copy down
+     */
+    public void decline(WaitlistEntry entry) {
+        entry.resolve(WaitlistStatus.CANCELLED, null, "Declined the held copy");
+        entry.markNotified();
+        waitlistRepository.update(entry);
+    }
+    
+    /**
+     * Close a claimed entry whose user could not take the copy
+     */
+    public void skip(WaitlistEntry entry, String reason, String movieTitle) {
+        entry.resolve(WaitlistStatus.SKIPPED, null, reason);
+        waitlistRepository.update(entry);
+        waitlistResolved.fire(new WaitlistResolvedEvent(entry.getUserId(), entry.getMovieId(), movieTitle,
+                WaitlistStatus.SKIPPED, null, reason, LocalDateTime.now()));
+    }
+    
+    /**
+     * Position of a waiting entry in its movie's queue, from 1; 0 if it is not waiting
+     */
+    public int getPosition(Long movieId, Long entryId) {
+        return queueFor(movieId).positionOf(entryId);
+    }
+    
+    /**
+     * Number of users waiting for a movie
+     */
+    public int getWaitingCount(Long movieId) {
+        return queueFor(movieId).size();
+    }
+    
+    /**
+     * A user's waiting entries with their movie titles and queue positions
+     */
+    public List<WaitlistPosition> getWaitingPositions(Long userId) {
+        List<WaitlistPosition> positions = new ArrayList<>();
+        for (WaitlistEntry entry : waitlistRepository.findWaitingByUserId(userId)) {
+            String title = movieRepository.findById(entry.getMovieId()).map(Movie::getTitle).orElse("");
+            positions.add(new WaitlistPosition(entry.getEntryId(), entry.getMovieId(), title,
+                    getPosition(entry.getMovieId(), entry.getEntryId()), entry.getCreatedAt()));
+        }
+        return positions;
+    }
+    
+    /**
+     * Copies held for a user, soonest expiry first
+     */
+    public List<WaitlistOffer> getOffers(Long userId) {
+        List<WaitlistOffer> offers = new ArrayList<>();
+        for (Object[] row : waitlistRepository.findOfferedWithTitles(userId)) {
+            WaitlistEntry entry = (WaitlistEntry) row[0];
+            offers.add(new WaitlistOffer(entry.getEntryId(), entry.getMovieId(), (String) row[1], entry.getOfferedUntil()));
+        }
+        return offers;
+    }
+    
+    /**
+     * Drop the in-memory queue of a movie; it is reloaded on next use
+     */
+    public void evict(Long movieId) {
+        queues.remove(movieId);
+    }
+    
+    private MovieQueue queueFor(Long movieId) {
+        MovieQueue queue = queues.computeIfAbsent(movieId, id -> new MovieQueue());
+        queue.loadIfNeeded(() -> {
+            List<Long> entryIds = new ArrayList<>();
+            for (WaitlistEntry entry : waitlistRepository.findWaitingByMovieId(movieId)) {
+                entryIds.add(entry.getEntryId());
+            }
+            return entryIds;
+        });
+        return queue;
+    }
+    
+    private void afterCompletion(CompletionCallback callback) {
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                callback.completed(status == Status.STATUS_COMMITTED);
+            }
+        });
+    }
+    
+    @FunctionalInterface
+    private interface CompletionCallback {
+        void completed(boolean committed);
+    }
+    
+    @FunctionalInterface
+    private interface QueueLoader {
+        List<Long> load();
+    }
+    
+    /**
+     * Waiting entry IDs of one movie; entry IDs increase with join order, so
+     * the smallest is the head of the queue
+     */
+    private static final class MovieQueue {
+        private final TreeSet<Long> entryIds = new TreeSet<>();
+        private boolean loaded;
+        
+        // Loading holds the lock, so a join committed meanwhile is added after it or read by it
+        synchronized void loadIfNeeded(QueueLoader loader) {
+            if (!loaded) {
+                entryIds.addAll(loader.load());
+                loaded = true;
+            }
+        }
+        
+        // Before loading, the load itself reads committed entries
+        synchronized void addIfLoaded(Long entryId) {
+            if (loaded) {
+                entryIds.add(entryId);
+            }
+        }
+        
+        synchronized Long poll() {
+            return entryIds.pollFirst();
+        }
+        
+        synchronized void remove(Long entryId) {
+            entryIds.remove(entryId);
+        }
+        
+        synchronized int positionOf(Long entryId) {
+            return entryIds.contains(entryId) ? entryIds.headSet(entryId).size() + 1 : 0;
+        }
+        
+        synchronized int size() {
+            return entryIds.size();
+        }
+    }
+    
+    // Inner class for a user's place in a waitlist
+    public static class WaitlistPosition {
+        private final Long entryId;
+        private final Long movieId;
+        private final String movieTitle;
+        private final int position;
+        private final LocalDateTime joinedAt;
+        
+        public WaitlistPosition(Long entryId, Long movieId, String movieTitle, int position, LocalDateTime joinedAt) {
+            this.entryId = entryId;
+            this.movieId = movieId;
+            this.movieTitle = movieTitle;
+            this.position = position;
+            this.joinedAt = joinedAt;
+        }
+        
+        public Long getEntryId() { return entryId; }
+        public Long getMovieId() { return movieId; }
+        public String getMovieTitle() { return movieTitle; }
+        public int getPosition() { return position; }
+        public LocalDateTime getJoinedAt() { return joinedAt; }
+    }
+    
+    // Inner class for a copy held for a user
+    public static class WaitlistOffer {
+        private final Long entryId;
+        private final Long movieId;
+        private final String movieTitle;
+        private final LocalDateTime offeredUntil;
+        
+        public WaitlistOffer(Long entryId, Long movieId, String movieTitle, LocalDateTime offeredUntil) {
+            this.entryId = entryId;
+            this.movieId = movieId;
+            this.movieTitle = movieTitle;
+            this.offeredUntil = offeredUntil;
+        }
+        
+        public Long getEntryId() { return entryId; }
+        public Long getMovieId() { return movieId; }
+        public String getMovieTitle() { return movieTitle; }
+        public LocalDateTime getOfferedUntil() { return offeredUntil; }
+    }
+}
@@ -0,0 +1,273 @@
+package com.mycompany.blockkbusterr.util;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonParser;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streaming reader of catalog import files, one record at a time, so memory use
+ * does not depend on the file size.
+ * CSV files start with a header row; JSON files hold a top-level array of objects.
+ * Field names are matched ignoring case, spaces, underscores and dashes, so
+ * "releaseYear", "release_year" and "Release Year" are the same field.
+ */
+public abstract class CatalogFileReader implements Closeable {
+
+    public enum Format {
+        CSV, JSON;
+
+        /**
+         * Format implied by a file name's extension, or null if unknown
+         */
+        public static Format fromFileName(String fileName) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            if (lower.endsWith(".csv")) {
+                return CSV;
+            }
+            if (lower.endsWith(".json")) {
+                return JSON;
+            }
+            return null;
+        }
+    }
+
+    private long rowNumber;
+
+    /**
+     * Open a catalog file in the given format
+     */
+    public static CatalogFileReader open(Path file, Format format) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        try {
+            return format == Format.CSV ? new CsvReader(reader) : new JsonReader(reader);
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Next record, or null at the end of the file.
+     * Records are numbered from 1, not counting a CSV header.
+     */
+    public CatalogRecord next() throws IOException {
+        Map<String, String> fields = readFields();
+        if (fields == null) {
+            return null;
+        }
+        return new CatalogRecord(++rowNumber, fields);
+    }
+
+    protected abstract Map<String, String> readFields() throws IOException;
+
+    static String normalizeName(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != ' ' && c != '_' && c != '-') {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * One record of a catalog file
+     */
+    public static final class CatalogRecord {
+        private final long rowNumber;
+        private final Map<String, String> fields;
+
+        CatalogRecord(long rowNumber, Map<String, String> fields) {
+            this.rowNumber = rowNumber;
+            this.fields = fields;
+        }
+
+        public long getRowNumber() {
+            return rowNumber;
+        }
+
+        /**
+         * Value of a field, or null if absent or blank
+         */
+        public String get(String name) {
+            String value = fields.get(normalizeName(name));
+            return value == null || value.trim().isEmpty() ? null : value.trim();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV: comma separated, optionally double-quoted fields, where quoted
+     * fields may contain commas, doubled quotes and line breaks
+     */
+    private static final class CsvReader extends CatalogFileReader {
+        private final BufferedReader reader;
+        private final List<String> header;
+
+        CsvReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> names = readRow();
+            if (names == null) {
+                throw new IOException("CSV file is empty");
+            }
+            header = new ArrayList<>(names.size());
+            for (String name : names) {
+                header.add(normalizeName(name.replace("\uFEFF", "")));
+            }
+        }
+
+        @Override
+        protected Map<String, String> readFields() throws IOException {
+            List<String> values;
+            do {
+                values = readRow();
+                // Skip blank lines
+            } while (values != null && values.size() == 1 && values.get(0).isEmpty());
+            if (values == null) {
+                return null;
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                fields.put(header.get(i), values.get(i));
+            }
+            return fields;
+        }
+
+        private List<String> readRow() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        reader.mark(1);
+                        int following = reader.read();
+                        if (following == '"') {
+                            value.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        value.append((char) c);
+                    }
+                } else if (c == '"' && value.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    break;
+                } else if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                    break;
+                } else {
+                    value.append((char) c);
+                }
+                c = reader.read();
+            }
+            values.add(value.toString());
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * JSON array of flat objects, read with the streaming JSON-P parser.
+     * Nested arrays and objects inside a record are skipped.
+     */
+    private static final class JsonReader extends CatalogFileReader {
+        private final BufferedReader reader;
+        private final JsonParser parser;
+
+        JsonReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            this.parser = Json.createParser(reader);
+            if (!parser.hasNext() || parser.next() != JsonParser.Event.START_ARRAY) {
+                throw new IOException("JSON catalog must be an array of movie objects");
+            }
+        }
+
+        @Override
+        protected Map<String, String> readFields() throws IOException {
+            while (parser.hasNext()) {
+                JsonParser.Event event = parser.next();
+                if (event == JsonParser.Event.END_ARRAY) {
+                    return null;
+                }
+                if (event == JsonParser.Event.START_OBJECT) {
+                    return readObject();
+                }
+                throw new IOException("Expected a movie object at " + parser.getLocation());
+            }
+            return null;
+        }
+
+        private Map<String, String> readObject() {
+            Map<String, String> fields = new HashMap<>();
+            String name = null;
+            while (parser.hasNext()) {
+                JsonParser.Event event = parser.next();
+                switch (event) {
+                    case KEY_NAME:
+                        name = normalizeName(parser.getString());
+                        break;
+                    case VALUE_STRING:
+                    case VALUE_NUMBER:
+                        fields.put(name, parser.getString());
+                        break;
+                    case VALUE_TRUE:
+                        fields.put(name, "true");
+                        break;
+                    case VALUE_FALSE:
+                        fields.put(name, "false");
+                        break;
+                    case VALUE_NULL:
+                        fields.remove(name);
+                        break;
+                    case START_OBJECT:
+                        parser.skipObject();
+                        break;
+                    case START_ARRAY:
+                        parser.skipArray();
+                        break;
+                    case END_OBJECT:
+                        return fields;
+                    default:
+                        break;
+                }
+            }
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.mycompany.blockkbusterr.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sparse item-to-item co-rental matrix: for every pair of movies, the number of
+ * users who rented both. Movie and user IDs are mapped to dense int indexes;
+ * each movie has a primitive row map (other movie index to count) and each user
+ * a sorted array of the distinct movies they rented.
+ * <p>
+ * The bulk build sorts the per-user baskets and fills the rows on a fork/join
+ * pool, each task owning a disjoint range of rows so no locking is needed.
+ * After that, rentals are added one at a time. Not thread-safe.
+ */
+public class CoRentalMatrix {
+
+    private static final int[] EMPTY_BASKET = new int[0];
+
+    private final LongIntHashMap movieIndex;
+    private long[] movieIds;
+    private IntIntHashMap[] rows;
+    private int movieCount;
+
+    private final LongIntHashMap userIndex;
+    private int[][] baskets;
+    private int[] basketSizes;
+    private int userCount;
+
+    private long rentalCount;
+
+    public CoRentalMatrix() {
+        this(16, 16);
+    }
+
+    private CoRentalMatrix(int expectedMovies, int expectedUsers) {
+        movieIndex = new LongIntHashMap(expectedMovies);
+        movieIds = new long[Math.max(4, expectedMovies)];
+        rows = new IntIntHashMap[movieIds.length];
+        userIndex = new LongIntHashMap(expectedUsers);
+        baskets = new int[Math.max(4, expectedUsers)][];
+        basketSizes = new int[baskets.length];
+    }
+
+    /**
+     * Build a matrix from (user ID, movie ID) rental pairs using the given number of worker threads.
+     * Repeated rentals of a movie by the same user count once.
+     */
+    public static CoRentalMatrix build(long[] userIds, long[] rentedMovieIds, int length, int parallelism) {
+        CoRentalMatrix matrix = new CoRentalMatrix(1024, Math.max(16, length / 8));
+        for (int i = 0; i < length; i++) {
+            matrix.append(matrix.userIndexOf(userIds[i]), matrix.movieIndexOf(rentedMovieIds[i]));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            int users = matrix.userCount;
+            pool.invoke(new BasketSorter(matrix, 0, users, Math.max(256, users / (pool.getParallelism() * 8))));
+            int movies = matrix.movieCount;
+            pool.invoke(new RowBuilder(matrix, 0, movies, Math.max(1, movies / (pool.getParallelism() * 8))));
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int u = 0; u < matrix.userCount; u++) {
+            matrix.rentalCount += matrix.basketSizes[u];
+        }
+        return matrix;
+    }
+
+    /**
+     * Record that a user rented a movie; returns false if they had rented it before
+     */
+    public boolean addRental(long userId, long movieId) {
+        int user = userIndexOf(userId);
+        int movie = movieIndexOf(movieId);
+        int[] basket = baskets[user];
+        int size = basketSizes[user];
+        int position = Arrays.binarySearch(basket, 0, size, movie);
+        if (position >= 0) {
+            return false;
+        }
+
+        IntIntHashMap row = rowOf(movie);
+        for (int i = 0; i < size; i++) {
+            row.addTo(basket[i], 1);
+            rowOf(basket[i]).addTo(movie, 1);
+        }
+
+        int insertAt = -(position + 1);
+        if (size == basket.length) {
+            basket = Arrays.copyOf(basket, Math.max(4, size << 1));
+            baskets[user] = basket;
+        }
+        System.arraycopy(basket, insertAt, basket, insertAt + 1, size - insertAt);
+        basket[insertAt] = movie;
+        basketSizes[user] = size + 1;
+        rentalCount++;
+        return true;
+    }
+
+    /**
+     * IDs of the movies most often rented by users who rented the given movie,
+     * highest count first and then by movie ID
+     */
+    public long[] topCoRented(long movieId, int limit) {
+        int movie = movieIndex.get(movieId);
+        if (movie < 0 || rows[movie] == null || limit <= 0) {
+            return new long[0];
+        }
+
+        IntIntHashMap row = rows[movie];
+        int[] topMovies = new int[limit];
+        int[] topCounts = new int[limit];
+        int found = 0;
+        for (int slot = 0; slot < row.capacity(); slot++) {
+            int other = row.keyAt(slot);
+            if (other < 0) {
+                continue;
+            }
+            int count = row.valueAt(slot);
+            if (found == limit && !ranksBefore(count, other, topCounts[limit - 1], topMovies[limit - 1])) {
+                continue;
+            }
+            // Insertion into the small sorted top list
+            int position = found < limit ? found++ : limit - 1;
+            while (position > 0 && ranksBefore(count, other, topCounts[position - 1], topMovies[position - 1])) {
+                topCounts[position] = topCounts[position - 1];
+                topMovies[position] = topMovies[position - 1];
+                position--;
+            }
+            topCounts[position] = count;
+            topMovies[position] = other;
+        }
+
+        long[] result = new long[found];
+        for (int i = 0; i < found; i++) {
+            result[i] = movieIds[topMovies[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Number of users who rented both movies
+     */
+    public int coRentalCount(long movieId, long otherMovieId) {
+        int movie = movieIndex.get(movieId);
+        int other = movieIndex.get(otherMovieId);
+        if (movie < 0 || other < 0 || rows[movie] == null) {
+            return 0;
+        }
+        return rows[movie].get(other);
+    }
+
+    public int getMovieCount() {
+        return movieCount;
+    }
+
+    public int getUserCount() {
+        return userCount;
+    }
+
+    /**
+     * Number of distinct (user, movie) rentals
+     */
+    public long getRentalCount() {
+        return rentalCount;
+    }
+
+    /**
+     * Number of non-zero (movie, movie) cells, counting both directions
+     */
+    public long getPairCount() {
+        long pairs = 0;
+        for (int m = 0; m < movieCount; m++) {
+            if (rows[m] != null) {
+                pairs += rows[m].size();
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Approximate retained heap size of the matrix
+     */
+    public long estimatedBytes() {
+        long bytes = movieIndex.estimatedBytes() + userIndex.estimatedBytes()
+                + 16 + 8L * movieIds.length + 16 + 8L * rows.length
+                + 16 + 8L * baskets.length + 16 + 4L * basketSizes.length;
+        for (int m = 0; m < movieCount; m++) {
+            if (rows[m] != null) {
+                bytes += 24 + rows[m].estimatedBytes();
+            }
+        }
+        for (int u = 0; u < userCount; u++) {
+            bytes += 16 + 4L * baskets[u].length;
+        }
+        return bytes;
+    }
+
+    private boolean ranksBefore(int count, int movie, int otherCount, int otherMovie) {
+        return count > otherCount || (count == otherCount && movieIds[movie] < movieIds[otherMovie]);
+    }
+
+    private int movieIndexOf(long movieId) {
+        int index = movieIndex.putIfAbsent(movieId, movieCount);
+        if (index == movieCount) {
+            if (movieCount == movieIds.length) {
+                movieIds = Arrays.copyOf(movieIds, movieCount << 1);
+                rows = Arrays.copyOf(rows, movieCount << 1);
+            }
+            movieIds[movieCount++] = movieId;
+        }
+        return index;
+    }
+
+    private int userIndexOf(long userId) {
+        int index = userIndex.putIfAbsent(userId, userCount);
+        if (index == userCount) {
+            if (userCount == baskets.length) {
+                baskets = Arrays.copyOf(baskets, userCount << 1);
+                basketSizes = Arrays.copyOf(basketSizes, userCount << 1);
+            }
+            baskets[userCount++] = EMPTY_BASKET;
+        }
+        return index;
+    }
+
+    private IntIntHashMap rowOf(int movie) {
+        IntIntHashMap row = rows[movie];
+        if (row == null) {
+            row = new IntIntHashMap();
+            rows[movie] = row;
+        }
+        return row;
+    }
+
+    // Unsorted append used by the bulk build; BasketSorter restores the invariant
+    private void append(int user, int movie) {
+        int[] basket = baskets[user];
+        int size = basketSizes[user];
+        if (size == basket.length) {
+            basket = Arrays.copyOf(basket, Math.max(4, size << 1));
+            baskets[user] = basket;
+        }
+        basket[size] = movie;
+        basketSizes[user] = size + 1;
+    }
+
+    /**
+     * Sorts and deduplicates a range of user baskets
+     */
+    private static final class BasketSorter extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient CoRentalMatrix matrix;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        BasketSorter(CoRentalMatrix matrix, int from, int to, int grain) {
+            this.matrix = matrix;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > grain) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BasketSorter(matrix, from, middle, grain), new BasketSorter(matrix, middle, to, grain));
+                return;
+            }
+            for (int u = from; u < to; u++) {
+                int[] basket = matrix.baskets[u];
+                int size = matrix.basketSizes[u];
+                Arrays.sort(basket, 0, size);
+                int distinct = 0;
+                for (int i = 0; i < size; i++) {
+                    if (distinct == 0 || basket[i] != basket[distinct - 1]) {
+                        basket[distinct++] = basket[i];
+                    }
+                }
+                matrix.basketSizes[u] = distinct;
+            }
+        }
+    }
+
+    /**
+     * Fills the rows of a range of movie indexes by scanning every basket;
+     * sorted baskets let each task jump straight to its own movies
+     */
+    private static final class RowBuilder extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient CoRentalMatrix matrix;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        RowBuilder(CoRentalMatrix matrix, int from, int to, int grain) {
+            this.matrix = matrix;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > grain) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowBuilder(matrix, from, middle, grain), new RowBuilder(matrix, middle, to, grain));
+                return;
+            }
+            for (int u = 0; u < matrix.userCount; u++) {
+                int[] basket = matrix.baskets[u];
+                int size = matrix.basketSizes[u];
+                if (size < 2) {
+                    continue;
+                }
+                int start = Arrays.binarySearch(basket, 0, size, from);
+                if (start < 0) {
+                    start = -(start + 1);
+                }
+                for (int i = start; i < size && basket[i] < to; i++) {
+                    IntIntHashMap row = matrix.rowOf(basket[i]);
+                    for (int j = 0; j < size; j++) {
+                        if (j != i) {
+                            row.addTo(basket[j], 1);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.mycompany.blockkbusterr.util;
+
+import com.mycompany.blockkbusterr.repository.Page;
+import com.mycompany.blockkbusterr.repository.PageRequest;
+import jakarta.activation.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * CSV dump of a keyset-paginated query, produced as it is read: one page is
+ * fetched whenever the bytes of the previous one are used up, so memory use
+ * is bounded by the page size rather than the table size, and the reader can
+ * start processing before the last page is fetched.
+ * Each page fetch is a separate query, typically in its own transaction.
+ */
+public class CsvExportStream<T> extends InputStream {
+
+    public static final String CONTENT_TYPE = "text/csv";
+
+    private final Function<PageRequest, Page<T>> pages;
+    private final Function<T, List<Object>> columns;
+    private final int pageSize;
+
+    private PageRequest nextRequest;
+    private byte[] buffer;
+    private int position;
+
+    public CsvExportStream(List<String> header, Function<PageRequest, Page<T>> pages,
+                           Function<T, List<Object>> columns, int pageSize) {
+        this.pages = pages;
+        this.columns = columns;
+        this.pageSize = pageSize;
+        this.nextRequest = PageRequest.first(pageSize);
+        this.buffer = line(new StringBuilder(), header).toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(length, buffer.length - position);
+        System.arraycopy(buffer, position, target, offset, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Make sure unread bytes are buffered, fetching pages as needed; false at the end
+     */
+    private boolean fill() throws IOException {
+        while (position >= buffer.length) {
+            if (nextRequest == null) {
+                return false;
+            }
+            Page<T> page;
+            try {
+                page = pages.apply(nextRequest);
+            } catch (RuntimeException e) {
+                throw new IOException("Export failed: " + e.getMessage(), e);
+            }
+            StringBuilder text = new StringBuilder(page.getSize() * 64);
+            for (T item : page.getItems()) {
+                line(text, columns.apply(item));
+            }
+            nextRequest = page.nextRequest(pageSize);
+            buffer = text.toString().getBytes(StandardCharsets.UTF_8);
+            position = 0;
+        }
+        return true;
+    }
+
+    private static StringBuilder line(StringBuilder text, List<?> values) {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                text.append(',');
+            }
+            Object value = values.get(i);
+            text.append(escape(value != null ? value.toString() : null));
+        }
+        return text.append("\r\n");
+    }
+
+    /**
+     * Quote a CSV field when it contains a separator, quote or line break
+     */
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Read-once data source over this stream, for a streamed MTOM attachment
+     */
+    public DataSource asDataSource(String name) {
+        InputStream stream = this;
+        return new DataSource() {
+            @Override
+            public InputStream getInputStream() {
+                return stream;
+            }
+
+            @Override
+            public OutputStream getOutputStream() throws IOException {
+                throw new IOException("Export data source is read-only");
+            }
+
+            @Override
+            public String getContentType() {
+                return CONTENT_TYPE;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
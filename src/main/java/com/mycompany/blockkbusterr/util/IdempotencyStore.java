@@ -0,0 +1,159 @@
+package com.mycompany.blockkbusterr.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory store of idempotency keys and the results of the
+ * operations they identify.
+ * The first call with a key runs the operation; calls with the same key while
+ * it runs wait for it and share its result, and later calls get the stored
+ * result until it expires. Only successes are stored: a failure is passed to
+ * the callers waiting on it, then the key is forgotten so it can be retried.
+ * When full, the oldest completed keys are evicted first; keys still in
+ * flight are never evicted, and a new key is rejected with
+ * RejectedExecutionException while every stored key is in flight.
+ */
+public class IdempotencyStore<V> {
+
+    private final int maxKeys;
+    private final long ttlNanos;
+
+    // Insertion order, so expiry and eviction start from the oldest key
+    private final Map<String, Entry<V>> entries = new LinkedHashMap<>();
+
+    private long replayed;
+    private long coalesced;
+
+    public IdempotencyStore(int maxKeys, long ttlMillis) {
+        if (maxKeys <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Key limit and time to live must be positive");
+        }
+        this.maxKeys = maxKeys;
+        this.ttlNanos = ttlMillis * 1_000_000;
+    }
+
+    /**
+     * Run the operation once per key. The fingerprint describes the request;
+     * reusing a key for a different request is rejected.
+     * Throws RejectedExecutionException when the store is full of keys in flight.
+     */
+    public V execute(String key, Object fingerprint, Supplier<V> operation) {
+        Entry<V> entry;
+        boolean owner = false;
+        synchronized (this) {
+            long now = System.nanoTime();
+            expire(now);
+            entry = entries.get(key);
+            if (entry != null && !Objects.equals(entry.fingerprint, fingerprint)) {
+                throw new IllegalArgumentException("Idempotency key was already used for a different request");
+            }
+            if (entry == null) {
+                if (!evict()) {
+                    throw new RejectedExecutionException("Too many requests in flight, try again shortly");
+                }
+                entry = new Entry<>(fingerprint);
+                entries.put(key, entry);
+                owner = true;
+            } else if (entry.future.isDone()) {
+                replayed++;
+            } else {
+                coalesced++;
+            }
+        }
+
+        if (owner) {
+            V result;
+            try {
+                result = operation.get();
+            } catch (RuntimeException | Error e) {
+                synchronized (this) {
+                    entries.remove(key, entry);
+                }
+                entry.future.completeExceptionally(e);
+                throw e;
+            }
+            synchronized (this) {
+                entry.expiresAt = System.nanoTime() + ttlNanos;
+            }
+            entry.future.complete(result);
+            return result;
+        }
+
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drop expired keys from the oldest end, stopping at the first completed key
+     * that is still live. Keys in flight are passed over, so a slow operation
+     * does not keep newer keys from expiring.
+     */
+    private void expire(long now) {
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry<V> entry = iterator.next();
+            if (!entry.future.isDone()) {
+                continue;
+            }
+            if (entry.expiresAt - now > 0) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Make room for one more key by dropping the oldest completed ones;
+     * false if every stored key is still in flight
+     */
+    private boolean evict() {
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (entries.size() >= maxKeys && iterator.hasNext()) {
+            if (iterator.next().future.isDone()) {
+                iterator.remove();
+            }
+        }
+        return entries.size() < maxKeys;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Calls answered from a stored result */
+    public synchronized long getReplayedCount() {
+        return replayed;
+    }
+
+    /** Calls that waited on an operation already in flight */
+    public synchronized long getCoalescedCount() {
+        return coalesced;
+    }
+
+    private static final class Entry<V> {
+        private final Object fingerprint;
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private long expiresAt;
+
+        Entry(Object fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.mycompany.blockkbusterr.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from non-negative int keys to int values.
+ * Keys and values live in two parallel primitive arrays, so there is no
+ * boxing and no per-entry object. Not thread-safe; entries cannot be removed.
+ */
+public class IntIntHashMap {
+
+    private static final int EMPTY = -1;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+
+    public IntIntHashMap() {
+        this(4);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Value for a key, or 0 if absent
+     */
+    public int get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int existing = keys[slot];
+            if (existing == key) {
+                return values[slot];
+            }
+            if (existing == EMPTY) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Add to the value of a key, inserting it with the increment if absent; returns the new value
+     */
+    public int addTo(int key, int increment) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Key must not be negative");
+        }
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int existing = keys[slot];
+            if (existing == key) {
+                values[slot] += increment;
+                return values[slot];
+            }
+            if (existing == EMPTY) {
+                keys[slot] = key;
+                values[slot] = increment;
+                if (++size >= resizeAt) {
+                    rehash(keys.length << 1);
+                }
+                return increment;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Slot count of the table; slots holding no entry have key -1
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Key stored in a slot, or -1 for an empty slot
+     */
+    public int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Value stored in a slot
+     */
+    public int valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Approximate heap size of the two backing arrays
+     */
+    public long estimatedBytes() {
+        return 2L * (16 + 4L * keys.length);
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != EMPTY) {
+                int slot = mix(key) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, (int) (expectedSize / LOAD_FACTOR) + 1) - 1) << 1;
+        return Math.max(4, capacity);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
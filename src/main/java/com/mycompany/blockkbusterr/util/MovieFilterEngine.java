@@ -0,0 +1,101 @@
+package com.mycompany.blockkbusterr.util;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental filter over a precomputed, normalized snapshot of the movie catalog.
+ * When a search term extends the previous one (with the same genre filter), the
+ * previous result set is narrowed instead of rescanning the catalog.
+ * Availability changes with every rental, so it is not part of the snapshot;
+ * callers check the stock of the matches when they filter.
+ */
+public class MovieFilterEngine implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Entry> snapshot;
+
+    // State of the last evaluated query
+    private String lastTerm;
+    private String lastGenre;
+    private List<Entry> lastResult;
+
+    public MovieFilterEngine(List<Movie> movies) {
+        this.snapshot = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            snapshot.add(new Entry(movie));
+        }
+    }
+
+    /**
+     * Filter the snapshot by search term (title or description) and genre
+     */
+    public List<Movie> filter(String searchTerm, String genre) {
+        String term = normalize(searchTerm);
+        String genreFilter = normalize(genre);
+
+        List<Entry> source = snapshot;
+        if (lastResult != null
+                && lastGenre.equals(genreFilter)
+                && term.startsWith(lastTerm)) {
+            // Refinement of the previous query: only the previous matches can still match
+            source = lastResult;
+        }
+
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry : source) {
+            if (entry.matches(term, genreFilter)) {
+                result.add(entry);
+            }
+        }
+
+        lastTerm = term;
+        lastGenre = genreFilter;
+        lastResult = result;
+
+        List<Movie> movies = new ArrayList<>(result.size());
+        for (Entry entry : result) {
+            movies.add(entry.movie);
+        }
+        return movies;
+    }
+
+    /**
+     * Number of movies in the snapshot
+     */
+    public int size() {
+        return snapshot.size();
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+
+    // Movie with its searchable fields normalized once up front
+    private static class Entry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Movie movie;
+        private final String title;
+        private final String description;
+        private final String genre;
+
+        Entry(Movie movie) {
+            this.movie = movie;
+            this.title = normalize(movie.getTitle());
+            this.description = normalize(movie.getDescription());
+            this.genre = normalize(movie.getGenre());
+        }
+
+        boolean matches(String term, String genreFilter) {
+            if (!genreFilter.isEmpty() && !genre.equals(genreFilter)) {
+                return false;
+            }
+            return term.isEmpty() || title.contains(term) || description.contains(term);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.mycompany.blockkbusterr.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL script read from the classpath and split into statements.
+ * A statement ends with a semicolon at the end of a line, and lines starting
+ * with -- are comments, which is enough for schema scripts without stored
+ * procedures or semicolons in string literals.
+ */
+public final class SqlScript {
+
+    private final String name;
+    private final String text;
+
+    private SqlScript(String name, String text) {
+        this.name = name;
+        // Line endings depend on the checkout; keep the checksum independent of them
+        this.text = text.replace("\r\n", "\n");
+    }
+
+    /**
+     * Load a script from the classpath
+     */
+    public static SqlScript load(String resource) throws IOException {
+        ClassLoader classLoader = SqlScript.class.getClassLoader();
+        try (InputStream in = classLoader.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("SQL script not found: " + resource);
+            }
+            return new SqlScript(resource, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Statements in script order, without the terminating semicolons
+     */
+    public List<String> getStatements() {
+        List<String> statements = new ArrayList<>();
+        StringBuilder statement = new StringBuilder();
+        for (String line : text.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            if (statement.length() > 0) {
+                statement.append('\n');
+            }
+            statement.append(line);
+            if (trimmed.endsWith(";")) {
+                statement.setLength(statement.lastIndexOf(";"));
+                statements.add(statement.toString().trim());
+                statement.setLength(0);
+            }
+        }
+        if (statement.toString().trim().length() > 0) {
+            statements.add(statement.toString().trim());
+        }
+        return statements;
+    }
+
+    /**
+     * SHA-256 of the script text, in hex
+     */
+    public String getChecksum() {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,18 +1,31 @@
 package com.mycompany.blockkbusterr.webservice;
 
+import com.mycompany.blockkbusterr.dto.MoviePageResponse;
 import com.mycompany.blockkbusterr.dto.MovieRequest;
 import com.mycompany.blockkbusterr.dto.MovieResponse;
+import com.mycompany.blockkbusterr.dto.MovieUpdateRequest;
+import com.mycompany.blockkbusterr.dto.QuantityUpdateRequest;
 import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.repository.PageRequest;
+import com.mycompany.blockkbusterr.service.MovieBatchService;
 import com.mycompany.blockkbusterr.service.MovieService;
-import com.mycompany.blockkbusterr.service.ReviewService;
+import com.mycompany.blockkbusterr.util.CsvExportStream;
+import jakarta.activation.DataHandler;
 import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
 import jakarta.inject.Inject;
 import jakarta.jws.WebMethod;
 import jakarta.jws.WebParam;
 import jakarta.jws.WebResult;
 import jakarta.jws.WebService;
+import jakarta.xml.bind.annotation.XmlMimeType;
+import jakarta.xml.ws.soap.MTOM;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -21,6 +34,7 @@ import java.util.stream.Collectors;
     serviceName = "MovieManagementService",
     targetNamespace = "http://webservice.blockkbusterr.mycompany.com/"
 )
+@MTOM
 @Stateless
 public class MovieManagementWebService {
     
@@ -28,7 +42,7 @@ public class MovieManagementWebService {
     private MovieService movieService;
     
     @Inject
-    private ReviewService reviewService;
+    private MovieBatchService movieBatchService;
     
     /**
      * Add a new movie
@@ -125,15 +139,8 @@ public class MovieManagementWebService {
             
             Optional<Movie> movieOpt = movieService.findMovieById(movieId);
             if (movieOpt.isPresent()) {
-                MovieResponse response = MovieResponse.success(movieOpt.get());
-                
-                // Add rating information
-                double avgRating = reviewService.getAverageRatingForMovie(movieId);
-                long reviewCount = reviewService.getReviewCountForMovie(movieId);
-                response.setAverageRating(avgRating);
-                response.setReviewCount(reviewCount);
-                
-                return response;
+                // Rating information comes from the movie's materialized aggregates
+                return MovieResponse.success(movieOpt.get());
             } else {
                 return MovieResponse.error("Movie not found");
             }
@@ -152,22 +159,174 @@ public class MovieManagementWebService {
         
         try {
             List<Movie> movies = movieService.getAllMovies();
-            return movies.stream()
-                    .map(movie -> {
-                        MovieResponse response = MovieResponse.success(movie);
-                        double avgRating = reviewService.getAverageRatingForMovie(movie.getMovieId());
-                        long reviewCount = reviewService.getReviewCountForMovie(movie.getMovieId());
-                        response.setAverageRating(avgRating);
-                        response.setReviewCount(reviewCount);
-                        return response;
-                    })
-                    .collect(Collectors.toList());
+            return toResponses(movies);
             
         } catch (Exception e) {
             return List.of(MovieResponse.error("Failed to get movies: " + e.getMessage()));
         }
     }
     
+    /**
+     * Get one page of movies in title order; pass the returned nextPageToken to get the next page
+     */
+    @WebMethod(operationName = "getMoviesPage")
+    @WebResult(name = "moviePage")
+    public MoviePageResponse getMoviesPage(
+            @WebParam(name = "pageToken") String pageToken,
+            @WebParam(name = "pageSize") int pageSize) {
+        
+        try {
+            return MoviePageResponse.success(movieService.getMoviesPage(movieService.toPageRequest(pageToken, pageSize)));
+            
+        } catch (Exception e) {
+            return MoviePageResponse.error("Failed to get movies: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Get one page of available movies in title order
+     */
+    @WebMethod(operationName = "getAvailableMoviesPage")
+    @WebResult(name = "moviePage")
+    public MoviePageResponse getAvailableMoviesPage(
+            @WebParam(name = "pageToken") String pageToken,
+            @WebParam(name = "pageSize") int pageSize) {
+        
+        try {
+            return MoviePageResponse.success(movieService.getAvailableMoviesPage(movieService.toPageRequest(pageToken, pageSize)));
+            
+        } catch (Exception e) {
+            return MoviePageResponse.error("Failed to get available movies: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Get one page of movies by title (partial match) in title order
+     */
+    @WebMethod(operationName = "searchMoviesByTitlePage")
+    @WebResult(name = "moviePage")
+    public MoviePageResponse searchMoviesByTitlePage(
+            @WebParam(name = "title") String title,
+            @WebParam(name = "pageToken") String pageToken,
+            @WebParam(name = "pageSize") int pageSize) {
+        
+        try {
+            return MoviePageResponse.success(movieService.searchMoviesByTitlePage(title, movieService.toPageRequest(pageToken, pageSize)));
+            
+        } catch (Exception e) {
+            return MoviePageResponse.error("Failed to search movies: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Get one page of movies by genre (partial match) in title order
+     */
+    @WebMethod(operationName = "searchMoviesByGenrePage")
+    @WebResult(name = "moviePage")
+    public MoviePageResponse searchMoviesByGenrePage(
+            @WebParam(name = "genre") String genre,
+            @WebParam(name = "pageToken") String pageToken,
+            @WebParam(name = "pageSize") int pageSize) {
+        
+        try {
+            return MoviePageResponse.success(movieService.searchMoviesByGenrePage(genre, movieService.toPageRequest(pageToken, pageSize)));
+            
+        } catch (Exception e) {
+            return MoviePageResponse.error("Failed to search movies by genre: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Get one page of movies matching a search term in title, genre or description, in title order
+     */
+    @WebMethod(operationName = "searchMoviesPage")
+    @WebResult(name = "moviePage")
+    public MoviePageResponse searchMoviesPage(
+            @WebParam(name = "searchTerm") String searchTerm,
+            @WebParam(name = "pageToken") String pageToken,
+            @WebParam(name = "pageSize") int pageSize) {
+        
+        try {
+            return MoviePageResponse.success(movieService.searchMoviesPage(searchTerm, movieService.toPageRequest(pageToken, pageSize)));
+            
+        } catch (Exception e) {
+            return MoviePageResponse.error("Failed to search movies: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Get one page of movies released in a year, in title order
+     */
+    @WebMethod(operationName = "getMoviesByYearPage")
+    @WebResult(name = "moviePage")
+    public MoviePageResponse getMoviesByYearPage(
+            @WebParam(name = "year") int year,
+            @WebParam(name = "pageToken") String pageToken,
+            @WebParam(name = "pageSize") int pageSize) {
+        
+        try {
+            return MoviePageResponse.success(movieService.getMoviesByReleaseYearPage(year, movieService.toPageRequest(pageToken, pageSize)));
+            
+        } catch (Exception e) {
+            return MoviePageResponse.error("Failed to get movies by year: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Get one page of low stock movies, lowest quantity first
+     */
+    @WebMethod(operationName = "getLowStockMoviesPage")
+    @WebResult(name = "moviePage")
+    public MoviePageResponse getLowStockMoviesPage(
+            @WebParam(name = "threshold") int threshold,
+            @WebParam(name = "pageToken") String pageToken,
+            @WebParam(name = "pageSize") int pageSize) {
+        
+        try {
+            return MoviePageResponse.success(movieService.getLowStockMoviesPage(threshold, movieService.toLowStockPageRequest(pageToken, pageSize)));
+            
+        } catch (Exception e) {
+            return MoviePageResponse.error("Failed to get low stock movies: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Get one page of out of stock movies in title order
+     */
+    @WebMethod(operationName = "getOutOfStockMoviesPage")
+    @WebResult(name = "moviePage")
+    public MoviePageResponse getOutOfStockMoviesPage(
+            @WebParam(name = "pageToken") String pageToken,
+            @WebParam(name = "pageSize") int pageSize) {
+        
+        try {
+            return MoviePageResponse.success(movieService.getOutOfStockMoviesPage(movieService.toPageRequest(pageToken, pageSize)));
+            
+        } catch (Exception e) {
+            return MoviePageResponse.error("Failed to get out of stock movies: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Export the whole catalog as a CSV MTOM attachment, in title order. The CSV is
+     * written page by page while the response streams, and uses the column names of
+     * the catalog import, so an export can be imported into another instance.
+     */
+    @WebMethod(operationName = "exportMovies")
+    @WebResult(name = "moviesCsv")
+    @XmlMimeType(CsvExportStream.CONTENT_TYPE)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public DataHandler exportMovies() {
+        CsvExportStream<Movie> export = new CsvExportStream<>(
+                List.of("movieId", "title", "releaseYear", "duration", "genre", "quantity", "description", "active"),
+                movieService::getMoviesPage,
+                movie -> Arrays.asList(movie.getMovieId(), movie.getTitle(), movie.getReleaseYear(),
+                        movie.getDuration(), movie.getGenre(), movie.getQuantity(), movie.getDescription(),
+                        movie.getActive()),
+                PageRequest.MAX_SIZE);
+        return new DataHandler(export.asDataSource("movies.csv"));
+    }
+    
     /**
      * Get available movies
      */
@@ -177,16 +336,7 @@ public class MovieManagementWebService {
         
         try {
             List<Movie> movies = movieService.getAvailableMovies();
-            return movies.stream()
-                    .map(movie -> {
-                        MovieResponse response = MovieResponse.success(movie);
-                        double avgRating = reviewService.getAverageRatingForMovie(movie.getMovieId());
-                        long reviewCount = reviewService.getReviewCountForMovie(movie.getMovieId());
-                        response.setAverageRating(avgRating);
-                        response.setReviewCount(reviewCount);
-                        return response;
-                    })
-                    .collect(Collectors.toList());
+            return toResponses(movies);
             
         } catch (Exception e) {
             return List.of(MovieResponse.error("Failed to get available movies: " + e.getMessage()));
@@ -203,9 +353,7 @@ public class MovieManagementWebService {
         
         try {
             List<Movie> movies = movieService.searchMoviesByTitle(title);
-            return movies.stream()
-                    .map(movie -> MovieResponse.success(movie))
-                    .collect(Collectors.toList());
+            return toResponses(movies);
             
         } catch (Exception e) {
             return List.of(MovieResponse.error("Failed to search movies: " + e.getMessage()));
@@ -222,9 +370,7 @@ public class MovieManagementWebService {
         
         try {
             List<Movie> movies = movieService.searchMoviesByGenre(genre);
-            return movies.stream()
-                    .map(movie -> MovieResponse.success(movie))
-                    .collect(Collectors.toList());
+            return toResponses(movies);
             
         } catch (Exception e) {
             return List.of(MovieResponse.error("Failed to search movies by genre: " + e.getMessage()));
@@ -241,9 +387,7 @@ public class MovieManagementWebService {
         
         try {
             List<Movie> movies = movieService.searchMovies(searchTerm);
-            return movies.stream()
-                    .map(movie -> MovieResponse.success(movie))
-                    .collect(Collectors.toList());
+            return toResponses(movies);
             
         } catch (Exception e) {
             return List.of(MovieResponse.error("Failed to search movies: " + e.getMessage()));
@@ -260,9 +404,7 @@ public class MovieManagementWebService {
         
         try {
             List<Movie> movies = movieService.getMoviesByReleaseYear(year);
-            return movies.stream()
-                    .map(movie -> MovieResponse.success(movie))
-                    .collect(Collectors.toList());
+            return toResponses(movies);
             
         } catch (Exception e) {
             return List.of(MovieResponse.error("Failed to get movies by year: " + e.getMessage()));
@@ -279,9 +421,7 @@ public class MovieManagementWebService {
         
         try {
             List<Movie> movies = movieService.getNewestMovies(limit);
-            return movies.stream()
-                    .map(movie -> MovieResponse.success(movie))
-                    .collect(Collectors.toList());
+            return toResponses(movies);
             
         } catch (Exception e) {
             return List.of(MovieResponse.error("Failed to get newest movies: " + e.getMessage()));
@@ -298,9 +438,7 @@ public class MovieManagementWebService {
         
         try {
             List<Movie> movies = movieService.getMostPopularMovies(limit);
-            return movies.stream()
-                    .map(movie -> MovieResponse.success(movie))
-                    .collect(Collectors.toList());
+            return toResponses(movies);
             
         } catch (Exception e) {
             return List.of(MovieResponse.error("Failed to get popular movies: " + e.getMessage()));
@@ -388,6 +526,121 @@ public class MovieManagementWebService {
         }
     }
     
+    /**
+     * Add many movies in one call. Movies are inserted in batched chunks, each chunk
+     * in its own transaction; returns one response per request, in request order.
+     */
+    @WebMethod(operationName = "addMovies")
+    @WebResult(name = "movieResponse")
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public List<MovieResponse> addMovies(
+            @WebParam(name = "movieRequest") List<MovieRequest> requests) {
+        
+        try {
+            List<MovieService.MovieChange> changes = new ArrayList<>();
+            for (MovieRequest request : nonNull(requests)) {
+                changes.add(request == null ? null : new MovieService.MovieChange(null,
+                        request.getTitle(), request.getReleaseYear(), request.getDuration(),
+                        request.getGenre(), request.getQuantity(), request.getDescription()));
+            }
+            return toBatchResponses(movieBatchService.addMovies(changes), "Movie added successfully");
+            
+        } catch (IllegalArgumentException e) {
+            return List.of(MovieResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return List.of(MovieResponse.error("Failed to add movies: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Update many movies in one call. Updates are applied in batched chunks, each chunk
+     * in its own transaction; returns one response per request, in request order.
+     */
+    @WebMethod(operationName = "updateMovies")
+    @WebResult(name = "movieResponse")
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public List<MovieResponse> updateMovies(
+            @WebParam(name = "movieUpdateRequest") List<MovieUpdateRequest> requests) {
+        
+        try {
+            List<MovieService.MovieChange> changes = new ArrayList<>();
+            for (MovieUpdateRequest request : nonNull(requests)) {
+                changes.add(request == null ? null : new MovieService.MovieChange(request.getMovieId(),
+                        request.getTitle(), request.getReleaseYear(), request.getDuration(),
+                        request.getGenre(), request.getQuantity(), request.getDescription()));
+            }
+            return toBatchResponses(movieBatchService.updateMovies(changes), "Movie updated successfully");
+            
+        } catch (IllegalArgumentException e) {
+            return List.of(MovieResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return List.of(MovieResponse.error("Failed to update movies: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Set the quantity of many movies in one call; returns one response per request,
+     * in request order
+     */
+    @WebMethod(operationName = "updateQuantities")
+    @WebResult(name = "movieResponse")
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public List<MovieResponse> updateQuantities(
+            @WebParam(name = "quantityUpdateRequest") List<QuantityUpdateRequest> requests) {
+        
+        try {
+            List<MovieService.MovieChange> changes = new ArrayList<>();
+            for (QuantityUpdateRequest request : nonNull(requests)) {
+                changes.add(request == null ? null
+                        : MovieService.MovieChange.quantity(request.getMovieId(), request.getQuantity()));
+            }
+            return toBatchResponses(movieBatchService.updateQuantities(changes), "Quantity updated successfully");
+            
+        } catch (IllegalArgumentException e) {
+            return List.of(MovieResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return List.of(MovieResponse.error("Failed to update quantities: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Get many movies by ID in one call; returns one response per ID, in request order
+     */
+    @WebMethod(operationName = "getMoviesByIds")
+    @WebResult(name = "movieResponse")
+    public List<MovieResponse> getMoviesByIds(
+            @WebParam(name = "movieId") List<Long> movieIds) {
+        
+        try {
+            List<Long> ids = nonNull(movieIds);
+            if (ids.size() > MovieBatchService.MAX_BATCH_SIZE) {
+                return List.of(MovieResponse.error("Batch cannot have more than " + MovieBatchService.MAX_BATCH_SIZE + " items"));
+            }
+            List<Long> lookup = new ArrayList<>(ids.size());
+            for (Long movieId : ids) {
+                if (movieId != null) {
+                    lookup.add(movieId);
+                }
+            }
+            Map<Long, Movie> movies = movieService.findMoviesByIds(lookup);
+            List<MovieResponse> responses = new ArrayList<>(ids.size());
+            for (Long movieId : ids) {
+                Movie movie = movieId != null ? movies.get(movieId) : null;
+                if (movie != null) {
+                    responses.add(MovieResponse.success(movie));
+                } else {
+                    MovieResponse response = MovieResponse.error(movieId == null ? "Movie ID cannot be null" : "Movie not found");
+                    response.setMovieId(movieId);
+                    responses.add(response);
+                }
+            }
+            return responses;
+            
+        } catch (Exception e) {
+            return List.of(MovieResponse.error("Failed to get movies: " + e.getMessage()));
+        }
+    }
+    
     /**
      * Get all genres
      */
@@ -433,9 +686,7 @@ public class MovieManagementWebService {
         
         try {
             List<Movie> movies = movieService.getLowStockMovies(threshold);
-            return movies.stream()
-                    .map(movie -> MovieResponse.success(movie))
-                    .collect(Collectors.toList());
+            return toResponses(movies);
             
         } catch (Exception e) {
             return List.of(MovieResponse.error("Failed to get low stock movies: " + e.getMessage()));
@@ -451,12 +702,43 @@ public class MovieManagementWebService {
         
         try {
             List<Movie> movies = movieService.getOutOfStockMovies();
-            return movies.stream()
-                    .map(movie -> MovieResponse.success(movie))
-                    .collect(Collectors.toList());
+            return toResponses(movies);
             
         } catch (Exception e) {
             return List.of(MovieResponse.error("Failed to get out of stock movies: " + e.getMessage()));
         }
     }
+    
+    /**
+     * Map batch results to responses in request order; failed items carry the
+     * requested movie ID, if any, and the reason
+     */
+    private List<MovieResponse> toBatchResponses(List<MovieBatchService.ItemResult> results, String message) {
+        List<MovieResponse> responses = new ArrayList<>(results.size());
+        for (MovieBatchService.ItemResult result : results) {
+            if (result.isSuccess()) {
+                responses.add(MovieResponse.success(result.getMovie(), message));
+            } else {
+                MovieResponse response = MovieResponse.error(result.getError());
+                if (result.getChange() != null) {
+                    response.setMovieId(result.getChange().getMovieId());
+                }
+                responses.add(response);
+            }
+        }
+        return responses;
+    }
+    
+    private static <T> List<T> nonNull(List<T> items) {
+        return items != null ? items : List.of();
+    }
+    
+    /**
+     * Map movies to responses; ratings are read from each movie's materialized aggregates
+     */
+    private List<MovieResponse> toResponses(List<Movie> movies) {
+        return movies.stream()
+                .map(MovieResponse::success)
+                .collect(Collectors.toList());
+    }
 }
\ No newline at end of file
@@ -1,18 +1,30 @@
 package com.mycompany.blockkbusterr.webservice;
 
 import com.mycompany.blockkbusterr.dto.LoginRequest;
+import com.mycompany.blockkbusterr.dto.UserPageResponse;
 import com.mycompany.blockkbusterr.dto.UserRequest;
 import com.mycompany.blockkbusterr.dto.UserResponse;
+import com.mycompany.blockkbusterr.dto.UserSummary;
 import com.mycompany.blockkbusterr.entity.User;
+import com.mycompany.blockkbusterr.repository.PageRequest;
+import com.mycompany.blockkbusterr.service.PasswordHashingService;
 import com.mycompany.blockkbusterr.service.UserService;
+import com.mycompany.blockkbusterr.util.CsvExportStream;
+import jakarta.activation.DataHandler;
 import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
 import jakarta.inject.Inject;
 import jakarta.jws.WebMethod;
 import jakarta.jws.WebParam;
 import jakarta.jws.WebResult;
 import jakarta.jws.WebService;
+import jakarta.xml.bind.annotation.XmlMimeType;
+import jakarta.xml.ws.soap.MTOM;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @WebService(
@@ -20,12 +32,16 @@ import java.util.stream.Collectors;
     serviceName = "UserManagementService",
     targetNamespace = "http://webservice.blockkbusterr.mycompany.com/"
 )
+@MTOM
 @Stateless
 public class UserManagementWebService {
     
     @Inject
     private UserService userService;
     
+    @Inject
+    private PasswordHashingService passwordHashingService;
+    
     /**
      * Register a new user
      */
@@ -57,9 +73,10 @@ public class UserManagementWebService {
     }
     
     /**
-     * Authenticate user login
+     * Authenticate user login; no transaction is held while the password is verified
      */
     @WebMethod(operationName = "authenticateUser")
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
     @WebResult(name = "userResponse")
     public UserResponse authenticateUser(
             @WebParam(name = "loginRequest") LoginRequest request) {
@@ -69,10 +86,10 @@ public class UserManagementWebService {
                 return UserResponse.error("Login request cannot be null");
             }
             
-            Optional<User> userOpt = userService.authenticateUser(
+            Optional<User> userOpt = passwordHashingService.await(userService.authenticateUserAsync(
                 request.getUsername(),
                 request.getPassword()
-            );
+            ));
             
             if (userOpt.isPresent()) {
                 return UserResponse.success(userOpt.get(), "Authentication successful");
@@ -80,6 +97,8 @@ public class UserManagementWebService {
                 return UserResponse.error("Invalid username or password");
             }
             
+        } catch (RejectedExecutionException e) {
+            return UserResponse.error("Authentication service is busy, please retry later");
         } catch (Exception e) {
             return UserResponse.error("Authentication failed: " + e.getMessage());
         }
@@ -231,6 +250,23 @@ public class UserManagementWebService {
         }
     }
     
+    /**
+     * Get one page of users ordered by username; pass the returned nextPageToken to get the next page
+     */
+    @WebMethod(operationName = "getUsersPage")
+    @WebResult(name = "userPage")
+    public UserPageResponse getUsersPage(
+            @WebParam(name = "pageToken") String pageToken,
+            @WebParam(name = "pageSize") int pageSize) {
+        
+        try {
+            return UserPageResponse.success(userService.getUsersPage(userService.toPageRequest(pageToken, pageSize)));
+            
+        } catch (Exception e) {
+            return UserPageResponse.error("Failed to get users: " + e.getMessage());
+        }
+    }
+    
     /**
      * Search users by name
      */
@@ -250,6 +286,42 @@ public class UserManagementWebService {
         }
     }
     
+    /**
+     * Get one page of users matching a name search, ordered by username
+     */
+    @WebMethod(operationName = "searchUsersPage")
+    @WebResult(name = "userPage")
+    public UserPageResponse searchUsersPage(
+            @WebParam(name = "searchTerm") String searchTerm,
+            @WebParam(name = "pageToken") String pageToken,
+            @WebParam(name = "pageSize") int pageSize) {
+        
+        try {
+            return UserPageResponse.success(userService.searchUsersByNamePage(searchTerm, userService.toPageRequest(pageToken, pageSize)));
+            
+        } catch (Exception e) {
+            return UserPageResponse.error("Failed to search users: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Export all users as a CSV MTOM attachment ordered by username (admin function).
+     * The CSV is written page by page while the response streams; credentials are not exported.
+     */
+    @WebMethod(operationName = "exportUsers")
+    @WebResult(name = "usersCsv")
+    @XmlMimeType(CsvExportStream.CONTENT_TYPE)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public DataHandler exportUsers() {
+        CsvExportStream<UserSummary> export = new CsvExportStream<>(
+                List.of("userId", "username", "firstName", "lastName", "email", "role", "active"),
+                userService::getUserSummariesPage,
+                user -> Arrays.asList(user.getUserId(), user.getUsername(), user.getFirstName(),
+                        user.getLastName(), user.getEmail(), user.getRole(), user.getActive()),
+                PageRequest.MAX_SIZE);
+        return new DataHandler(export.asDataSource("users.csv"));
+    }
+    
     /**
      * Activate user (admin function)
      */
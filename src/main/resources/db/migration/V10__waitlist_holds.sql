@@ -0,0 +1,7 @@
+-- A copy reaching the head of a waitlist is held for the user until offered_until
+-- instead of being rented at once (RentalService.claimWaitlistOffer); expired
+-- holds are found by status and time (WaitlistHoldExpiryService).
+
+ALTER TABLE waitlist_entries ADD COLUMN offered_until DATETIME;
+
+CREATE INDEX idx_waitlist_status_offered ON waitlist_entries (status, offered_until);
@@ -0,0 +1,64 @@
+-- Baseline schema, as OpenJPA's SynchronizeMappings generated it from the
+-- original entity mappings: identity IDs, no rating aggregates and no
+-- secondary indexes beyond the unique keys. On a database created that way
+-- every statement is a no-op; the later versions bring it up to date.
+
+CREATE TABLE IF NOT EXISTS users (
+    user_id BIGINT NOT NULL AUTO_INCREMENT,
+    first_name VARCHAR(50) NOT NULL,
+    last_name VARCHAR(50) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    username VARCHAR(30) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(255) NOT NULL,
+    created_at DATETIME NOT NULL,
+    updated_at DATETIME,
+    active BIT NOT NULL,
+    PRIMARY KEY (user_id),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_username UNIQUE (username)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS movies (
+    movie_id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(200) NOT NULL,
+    release_year INT NOT NULL,
+    duration INT NOT NULL,
+    genre VARCHAR(100) NOT NULL,
+    quantity INT NOT NULL,
+    description VARCHAR(1000),
+    created_at DATETIME NOT NULL,
+    updated_at DATETIME,
+    active BIT NOT NULL,
+    PRIMARY KEY (movie_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS rentals (
+    rental_id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    movie_id BIGINT NOT NULL,
+    borrow_date DATE NOT NULL,
+    return_date DATE NOT NULL,
+    actual_return_date DATE,
+    status VARCHAR(255) NOT NULL,
+    notes VARCHAR(500),
+    created_at DATETIME NOT NULL,
+    updated_at DATETIME,
+    PRIMARY KEY (rental_id),
+    CONSTRAINT fk_rentals_user FOREIGN KEY (user_id) REFERENCES users (user_id),
+    CONSTRAINT fk_rentals_movie FOREIGN KEY (movie_id) REFERENCES movies (movie_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS reviews (
+    review_id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    movie_id BIGINT NOT NULL,
+    rating INT NOT NULL,
+    comment VARCHAR(1000),
+    review_date DATETIME NOT NULL,
+    updated_at DATETIME,
+    active BIT NOT NULL,
+    PRIMARY KEY (review_id),
+    CONSTRAINT fk_reviews_user FOREIGN KEY (user_id) REFERENCES users (user_id),
+    CONSTRAINT fk_reviews_movie FOREIGN KEY (movie_id) REFERENCES movies (movie_id)
+) ENGINE = InnoDB;
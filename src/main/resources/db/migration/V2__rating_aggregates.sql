@@ -0,0 +1,22 @@
+-- Materialized rating aggregates on movies (Movie.ratingSum ... rating5Count).
+-- Existing rows start at zero; RatingReconciliationService backfills them
+-- from the active reviews at startup.
+
+ALTER TABLE movies ADD COLUMN rating_sum BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE movies ADD COLUMN rating_count BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE movies ADD COLUMN average_rating DOUBLE NOT NULL DEFAULT 0;
+
+ALTER TABLE movies ADD COLUMN rating_1_count BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE movies ADD COLUMN rating_2_count BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE movies ADD COLUMN rating_3_count BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE movies ADD COLUMN rating_4_count BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE movies ADD COLUMN rating_5_count BIGINT NOT NULL DEFAULT 0;
+
+-- MovieRepository.findByMinimumRating
+CREATE INDEX idx_movies_average_rating ON movies (average_rating);
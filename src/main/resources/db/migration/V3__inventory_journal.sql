@@ -0,0 +1,11 @@
+-- Journal of in-memory inventory changes not yet applied to movies.quantity
+-- (InventoryJournalEntry)
+
+CREATE TABLE IF NOT EXISTS inventory_journal (
+    entry_id BIGINT NOT NULL AUTO_INCREMENT,
+    movie_id BIGINT NOT NULL,
+    delta INT NOT NULL,
+    created_at DATETIME NOT NULL,
+    PRIMARY KEY (entry_id),
+    INDEX idx_inventory_journal_movie (movie_id)
+) ENGINE = InnoDB;
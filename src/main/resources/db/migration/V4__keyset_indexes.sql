@@ -0,0 +1,13 @@
+-- Sort keys of the keyset-paged lists, each followed by the ID tie-breaker
+
+-- MovieRepository.SORT_BY_TITLE
+CREATE INDEX idx_movies_title_id ON movies (title, movie_id);
+
+-- RentalRepository.findPageWithDetails, findRowsPage
+CREATE INDEX idx_rentals_borrow_date_id ON rentals (borrow_date, rental_id);
+
+-- RentalRepository.findByUserIdPage, findRowsByUserIdPage
+CREATE INDEX idx_rentals_user_borrow_date_id ON rentals (user_id, borrow_date, rental_id);
+
+-- ReviewRepository.findByMovieIdPage
+CREATE INDEX idx_reviews_movie_date_id ON reviews (movie_id, review_date, review_id);
@@ -0,0 +1,10 @@
+-- Hourly rental counts checkpointed by PopularityCheckpointService (PopularityBucket)
+
+CREATE TABLE IF NOT EXISTS popularity_buckets (
+    bucket_id BIGINT NOT NULL AUTO_INCREMENT,
+    movie_id BIGINT NOT NULL,
+    bucket_hour BIGINT NOT NULL,
+    rental_count INT NOT NULL,
+    PRIMARY KEY (bucket_id),
+    CONSTRAINT uk_popularity_bucket UNIQUE (movie_id, bucket_hour)
+) ENGINE = InnoDB;
@@ -0,0 +1,10 @@
+-- Pooled ID blocks for the table generators of users, movies, rentals and
+-- reviews. The identity columns keep AUTO_INCREMENT, which is unused once
+-- IDs are supplied; IdSequenceRepository moves each sequence past the
+-- highest existing ID at startup.
+
+CREATE TABLE IF NOT EXISTS id_sequences (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_value BIGINT,
+    PRIMARY KEY (sequence_name)
+) ENGINE = InnoDB;
@@ -0,0 +1,67 @@
+-- Composite and covering indexes for the repository queries.
+-- Each index lists the queries it serves. InnoDB appends the primary key to
+-- every secondary index, so (a, b) also orders ties on b by ID.
+-- Substring searches (LIKE '%term%') cannot use a B-tree index; movie
+-- searches go through MovieSearchIndex, user name searches still scan.
+
+-- RentalRepository
+
+-- findActiveRentalsByUser(Id), countActiveRentalsByUser, getUserRentalStats (covering)
+CREATE INDEX idx_rentals_user_status_return ON rentals (user_id, status, return_date);
+
+-- hasActiveRental (covering)
+CREATE INDEX idx_rentals_user_movie_status ON rentals (user_id, movie_id, status);
+
+-- findByMovie(Id), getRentalHistoryByMovie, findByMovieIdPage
+CREATE INDEX idx_rentals_movie_borrow_date_id ON rentals (movie_id, borrow_date, rental_id);
+
+-- findOverdueRentals, findOverdueCandidateIds, markAllOverdue, countOverdueRentals,
+-- countByStatus, findDueOnDate, findDueWithinDays, findOverdueRows
+CREATE INDEX idx_rentals_status_return_id ON rentals (status, return_date, rental_id);
+
+-- findRentalTimesSince (covering)
+CREATE INDEX idx_rentals_created_movie ON rentals (created_at, movie_id);
+
+-- ReviewRepository
+
+-- findByUser(Id), findByUserIdPage, countReviewsByUser
+CREATE INDEX idx_reviews_user_active_date_id ON reviews (user_id, active, review_date, review_id);
+
+-- findByUserAndMovie, findByUserIdAndMovieId, hasUserReviewedMovie
+CREATE INDEX idx_reviews_user_movie ON reviews (user_id, movie_id);
+
+-- getAverageRatingForMovie, countReviewsForMovie, getRatingDistributionForMovie,
+-- getRatingHistogramsForAllMovies (covering),
+-- findTopRatedReviewsForMovie
+CREATE INDEX idx_reviews_movie_active_rating_date ON reviews (movie_id, active, rating, review_date);
+
+-- findRecentReviews, findRecentReviewsLimited
+CREATE INDEX idx_reviews_active_date ON reviews (active, review_date);
+
+-- countReviewsByRating (covering), findByRating, findByRatingRange
+CREATE INDEX idx_reviews_rating_active ON reviews (rating, active);
+
+-- MovieRepository
+
+-- findOutOfStockMovies, findOutOfStockPage, countOutOfStockMovies, countAvailableMovies
+CREATE INDEX idx_movies_quantity_title_id ON movies (quantity, title, movie_id);
+
+-- findLowStockMovies, findLowStockSummaries, findLowStockPage, countLowStockMovies
+CREATE INDEX idx_movies_quantity_id ON movies (quantity, movie_id);
+
+-- findByReleaseYearPage, findByReleaseYearRange, findNewestMovies
+CREATE INDEX idx_movies_release_year_title_id ON movies (release_year, title, movie_id);
+
+-- findByDurationRange
+CREATE INDEX idx_movies_duration ON movies (duration);
+
+-- getDistinctGenres (covering)
+CREATE INDEX idx_movies_genre ON movies (genre);
+
+-- UserRepository
+
+-- findByRole, countByRole
+CREATE INDEX idx_users_role_name ON users (role, last_name, first_name);
+
+-- findActiveUsers, countActiveUsers, findUsersWithRentals
+CREATE INDEX idx_users_active_name ON users (active, last_name, first_name);
@@ -0,0 +1,19 @@
+-- Waitlist of users for out-of-stock movies (WaitlistEntry)
+
+CREATE TABLE IF NOT EXISTS waitlist_entries (
+    entry_id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    movie_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    rental_id BIGINT,
+    note VARCHAR(200),
+    created_at DATETIME NOT NULL,
+    resolved_at DATETIME,
+    PRIMARY KEY (entry_id),
+    -- Queue of a movie in order (WaitlistRepository.findWaitingByMovieId)
+    INDEX idx_waitlist_movie_status_id (movie_id, status, entry_id),
+    -- A user's reservations (findWaitingByUserId, findWaiting)
+    INDEX idx_waitlist_user_status (user_id, status),
+    CONSTRAINT fk_waitlist_user FOREIGN KEY (user_id) REFERENCES users (user_id),
+    CONSTRAINT fk_waitlist_movie FOREIGN KEY (movie_id) REFERENCES movies (movie_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,7 @@
+-- Waitlist notices are read from the resolved entries themselves (WaitlistNotifier),
+-- so they survive restarts. Entries resolved before this change are marked as
+-- already notified, so their outcomes are not shown again.
+
+ALTER TABLE waitlist_entries ADD COLUMN notified_at DATETIME;
+
+UPDATE waitlist_entries SET notified_at = resolved_at WHERE status <> 'WAITING' AND notified_at IS NULL;
@@ -0,0 +1,131 @@
+package com.mycompany.blockkbusterr.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Buckets tile the value range without gaps, each within 1/16 of its lower
+ * bound, and snapshots never report a value lower than was recorded.
+ */
+class LatencyHistogramTest {
+
+    private static final int LAST_BUCKET = LatencyHistogram.bucketOf(Long.MAX_VALUE);
+
+    @Test
+    void smallValuesHaveExactBuckets() {
+        for (int value = 0; value < 16; value++) {
+            assertEquals(value, LatencyHistogram.bucketOf(value));
+            assertEquals(value + 1, LatencyHistogram.upperBoundOf(value));
+        }
+    }
+
+    @Test
+    void bucketsAreContiguousAndNarrow() {
+        for (int bucket = 1; bucket < LAST_BUCKET; bucket++) {
+            long lower = LatencyHistogram.upperBoundOf(bucket - 1);
+            long upper = LatencyHistogram.upperBoundOf(bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(lower), "lower bound of bucket " + bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(upper - 1), "upper bound of bucket " + bucket);
+            assertTrue((upper - lower) * 16 <= Math.max(16, lower), "width of bucket " + bucket);
+        }
+    }
+
+    @Test
+    void everyValueFallsInsideItsBucket() {
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong() >>> (24 + random.nextInt(40));
+            int bucket = LatencyHistogram.bucketOf(value);
+            long lower = bucket == 0 ? 0 : LatencyHistogram.upperBoundOf(bucket - 1);
+            assertTrue(lower <= value && value < LatencyHistogram.upperBoundOf(bucket), "value " + value);
+        }
+    }
+
+    @Test
+    void hugeValuesShareTheLastBucket() {
+        assertEquals(LAST_BUCKET, LatencyHistogram.bucketOf(1L << 41));
+        assertEquals(LAST_BUCKET, LatencyHistogram.bucketOf((1L << 41) - 1));
+        assertEquals(LAST_BUCKET - 15, LatencyHistogram.bucketOf(1L << 40));
+    }
+
+    @Test
+    void snapshotSumsCountsAndClampsNegatives() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(250);
+        histogram.record(-5);
+        histogram.record(1_000);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(3, snapshot.getCount());
+        assertEquals(1_250, snapshot.getSumMicros());
+        assertEquals(1_000, snapshot.getMaxMicros());
+        assertEquals(1, snapshot.countAtOrBelow(0));
+    }
+
+    @Test
+    void quantilesAreUpperBoundsWithinOneSixteenth() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 1_000; value++) {
+            histogram.record(value);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        long median = snapshot.valueAtQuantile(0.5);
+        assertTrue(median >= 500 && median <= 500 + 500 / 16, "median " + median);
+        long p99 = snapshot.valueAtQuantile(0.99);
+        assertTrue(p99 >= 990 && p99 <= 1_000, "p99 " + p99);
+        assertEquals(1_000, snapshot.valueAtQuantile(1.0));
+        assertEquals(0, new LatencyHistogram().snapshot().valueAtQuantile(0.5));
+    }
+
+    @Test
+    void countAtOrBelowSkipsStraddlingBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10);
+        for (int i = 0; i < 100; i++) {
+            histogram.record(1_000);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        // 1000 shares the bucket [992, 1024)
+        assertEquals(1, snapshot.countAtOrBelow(1_000));
+        assertEquals(101, snapshot.countAtOrBelow(1_023));
+    }
+
+    @Test
+    void concurrentRecordsAreAllCounted() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        histogram.record(i % 500);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(40_000, snapshot.getCount());
+        assertEquals(4L * 20 * (499 * 500 / 2), snapshot.getSumMicros());
+        assertEquals(499, snapshot.getMaxMicros());
+    }
+}
@@ -0,0 +1,136 @@
+package com.mycompany.blockkbusterr.metrics;
+
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Slow statements are grouped by shape, which never carries a bound value,
+ * and shapes are turned back into SQL that EXPLAIN accepts.
+ */
+class QueryDiagnosticsTest {
+
+    private static final long SLOW_NANOS = 500_000_000L;
+
+    private long thresholdMillis;
+
+    @BeforeEach
+    void resetCollector() {
+        thresholdMillis = QueryDiagnostics.getThresholdMillis();
+        QueryDiagnostics.setThresholdMillis(200);
+        QueryDiagnostics.reset();
+    }
+
+    @AfterEach
+    void restoreThreshold() {
+        QueryDiagnostics.setThresholdMillis(thresholdMillis);
+        QueryDiagnostics.reset();
+    }
+
+    @Test
+    void shapeReplacesLiterals() {
+        assertEquals("SELECT * FROM users WHERE username = ? AND password = ?",
+                QueryDiagnostics.shapeOf("SELECT * FROM users WHERE username = 'alice' AND password = 'it''s \\'secret\\''"));
+        assertEquals("SELECT * FROM movies WHERE year > ? AND rating < ? AND code = ? AND tag = ?",
+                QueryDiagnostics.shapeOf("SELECT * FROM movies WHERE year > 1999 AND rating < -4.5e1 AND code = 0x1F AND tag = X'0A'"));
+    }
+
+    @Test
+    void shapeKeepsNumbersInsideIdentifiers() {
+        assertEquals("SELECT t0.movie_id, t1.col2 FROM movies t0, v2_rentals t1 WHERE t0.quantity > ?",
+                QueryDiagnostics.shapeOf("SELECT t0.movie_id, t1.col2 FROM movies t0, v2_rentals t1 WHERE t0.quantity > 0"));
+    }
+
+    @Test
+    void shapeCollapsesValueListsAndWhitespace() {
+        String first = QueryDiagnostics.shapeOf("SELECT *\n  FROM movies\tWHERE movie_id IN (1, 2, 3)");
+        String second = QueryDiagnostics.shapeOf("SELECT * FROM movies WHERE movie_id IN (?,?,?,?,?)");
+
+        assertEquals("SELECT * FROM movies WHERE movie_id IN (?...)", first);
+        assertEquals(first, second);
+    }
+
+    @Test
+    void explainableSqlFillsPlaceholders() {
+        assertEquals("SELECT * FROM movies WHERE genre = '1' AND movie_id IN ('1') ORDER BY title LIMIT 1 OFFSET 0",
+                QueryDiagnostics.explainableSql(
+                        "SELECT * FROM movies WHERE genre = ? AND movie_id IN (?...) ORDER BY title LIMIT ? OFFSET ?"));
+        assertEquals("SELECT * FROM rentals LIMIT 1",
+                QueryDiagnostics.explainableSql("SELECT * FROM rentals LIMIT ?, ?"));
+    }
+
+    @Test
+    void onlyReadsAndDmlAreExplainable() {
+        assertTrue(QueryDiagnostics.isExplainable(" select * from movies"));
+        assertTrue(QueryDiagnostics.isExplainable("UPDATE movies SET quantity = ?"));
+        assertTrue(QueryDiagnostics.isExplainable("DELETE FROM reviews WHERE review_id = ?"));
+        assertFalse(QueryDiagnostics.isExplainable("INSERT INTO movies VALUES (?...)"));
+        assertFalse(QueryDiagnostics.isExplainable("ALTER TABLE movies ADD INDEX idx (title)"));
+    }
+
+    @Test
+    void slowExecutionsGroupByShape() {
+        QueryDiagnostics.record(() -> "SELECT * FROM movies WHERE movie_id = 1", SLOW_NANOS);
+        QueryDiagnostics.record(() -> "SELECT * FROM movies WHERE movie_id = 2", 2 * SLOW_NANOS);
+        QueryDiagnostics.record(() -> "SELECT * FROM users WHERE user_id = 3", SLOW_NANOS);
+
+        List<SlowQueryShape> top = QueryDiagnostics.getTopShapes(10);
+
+        assertEquals(3, QueryDiagnostics.getSlowStatementCount());
+        assertEquals(2, top.size());
+        assertEquals("SELECT * FROM movies WHERE movie_id = ?", top.get(0).getShape());
+        assertEquals(2, top.get(0).getCount());
+        assertEquals(1_000, top.get(0).getMaxMillis());
+        assertEquals(1, QueryDiagnostics.getTopShapes(1).size());
+    }
+
+    @Test
+    void fastAndExplainStatementsAreIgnored() {
+        QueryDiagnostics.record(() -> {
+            throw new AssertionError("SQL of a fast statement must not be built");
+        }, 1_000_000L);
+        QueryDiagnostics.record(() -> "EXPLAIN SELECT * FROM movies", SLOW_NANOS);
+        QueryDiagnostics.record(() -> null, SLOW_NANOS);
+
+        assertEquals(0, QueryDiagnostics.getSlowStatementCount());
+        assertTrue(QueryDiagnostics.getTopShapes(10).isEmpty());
+    }
+
+    @Test
+    void repeatedSlowShapeNeedsPlanUntilCaptured() {
+        for (int i = 0; i < 3; i++) {
+            QueryDiagnostics.record(() -> "SELECT * FROM rentals WHERE user_id = 9", SLOW_NANOS);
+            QueryDiagnostics.record(() -> "INSERT INTO rentals VALUES (1, 2)", SLOW_NANOS);
+        }
+
+        List<SlowQueryShape> pending = QueryDiagnostics.getShapesNeedingPlan();
+        assertEquals(1, pending.size());
+        assertEquals("SELECT * FROM rentals WHERE user_id = ?", pending.get(0).getShape());
+
+        pending.get(0).setPlan("ref idx_rentals_user");
+        assertTrue(QueryDiagnostics.getShapesNeedingPlan().isEmpty());
+    }
+
+    @Test
+    void newShapesBeyondTheLimitAreDropped() {
+        for (int i = 0; i < QueryDiagnostics.MAX_SHAPES + 5; i++) {
+            // Digits inside an identifier are not literals, so every table is its own shape
+            String sql = "SELECT * FROM t" + i;
+            QueryDiagnostics.record(() -> sql, SLOW_NANOS);
+        }
+
+        assertEquals(QueryDiagnostics.MAX_SHAPES, QueryDiagnostics.getTopShapes(Integer.MAX_VALUE).size());
+        assertEquals(5, QueryDiagnostics.getDroppedShapeCount());
+    }
+
+    @Test
+    void negativeThresholdIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> QueryDiagnostics.setThresholdMillis(-1));
+    }
+}
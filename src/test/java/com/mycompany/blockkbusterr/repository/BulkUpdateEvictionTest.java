@@ -0,0 +1,109 @@
+package com.mycompany.blockkbusterr.repository;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.entity.Review;
+import jakarta.enterprise.event.Event;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bulk JPQL updates bypass the shared cache, so the repositories must evict
+ * what they changed, and only when a row was actually changed.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BulkUpdateEvictionTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SharedCache sharedCache;
+
+    @Mock
+    private Event<MovieChangedEvent> movieChanged;
+
+    @Mock
+    private Query query;
+
+    @InjectMocks
+    private MovieRepository movieRepository;
+
+    @InjectMocks
+    private ReviewRepository reviewRepository;
+
+    @BeforeEach
+    void stubBulkUpdates() {
+        when(entityManager.createQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+    }
+
+    @Test
+    void quantityUpdateEvictsMovieAndFiresChange() {
+        when(query.executeUpdate()).thenReturn(1);
+
+        assertTrue(movieRepository.adjustQuantity(7L, -2));
+
+        verify(sharedCache).evict(Movie.class, 7L);
+        ArgumentCaptor<MovieChangedEvent> event = ArgumentCaptor.forClass(MovieChangedEvent.class);
+        verify(movieChanged).fire(event.capture());
+        assertEquals(7L, event.getValue().getMovieId());
+    }
+
+    @Test
+    void quantityUpdateOfMissingMovieEvictsNothing() {
+        when(query.executeUpdate()).thenReturn(0);
+
+        assertFalse(movieRepository.decreaseQuantity(7L));
+
+        verifyNoInteractions(sharedCache, movieChanged);
+    }
+
+    @Test
+    void lockingMovieIsNotReportedAsChange() {
+        Movie movie = new Movie();
+        movie.setMovieId(7L);
+        when(entityManager.find(Movie.class, 7L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(movie);
+
+        assertTrue(movieRepository.findByIdForUpdate(7L).isPresent());
+
+        verifyNoInteractions(sharedCache, movieChanged);
+    }
+
+    @Test
+    void reviewSoftDeleteEvictsOnCommit() {
+        when(query.executeUpdate()).thenReturn(1);
+
+        assertTrue(reviewRepository.softDeleteReview(3L));
+
+        verify(sharedCache).evictOnCommit(Review.class, 3L);
+    }
+
+    @Test
+    void reviewAlreadyInactiveEvictsNothing() {
+        when(query.executeUpdate()).thenReturn(0);
+
+        assertFalse(reviewRepository.softDeleteReview(3L));
+
+        verifyNoInteractions(sharedCache);
+    }
+}
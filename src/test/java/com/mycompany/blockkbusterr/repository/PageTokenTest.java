@@ -0,0 +1,79 @@
+package com.mycompany.blockkbusterr.repository;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A page token decodes to a request continuing after the last row of its
+ * page, with the sort key parsed back to the attribute's type.
+ */
+class PageTokenTest {
+
+    @Test
+    void titleCursorRoundTrips() {
+        // Titles may contain the separator itself
+        PageRequest next = roundTrip("Alien\nDirector's Cut", 42L, MovieRepository.SORT_BY_TITLE);
+
+        assertEquals("Alien\nDirector's Cut", next.getAfterKey());
+        assertEquals(42L, next.getAfterId());
+        assertEquals(20, next.getSize());
+    }
+
+    @Test
+    void typedCursorsRoundTrip() {
+        assertEquals(3, roundTrip(3, 7L, MovieRepository.SORT_BY_QUANTITY).getAfterKey());
+        assertEquals(LocalDate.of(2024, 2, 29),
+                roundTrip(LocalDate.of(2024, 2, 29), 7L, RentalRepository.SORT_BY_BORROW_DATE).getAfterKey());
+        assertEquals(LocalDateTime.of(2024, 2, 29, 13, 45, 10),
+                roundTrip(LocalDateTime.of(2024, 2, 29, 13, 45, 10), 7L, ReviewRepository.SORT_BY_REVIEW_DATE).getAfterKey());
+    }
+
+    @Test
+    void idOnlyCursorRoundTrips() {
+        PageRequest next = roundTrip(null, 99L, SortKey.<Movie>byId(false));
+
+        assertNull(next.getAfterKey());
+        assertEquals(99L, next.getAfterId());
+    }
+
+    @Test
+    void lastPageHasNoToken() {
+        Page<String> page = new Page<>(List.of("a"), false, "a", 1L);
+
+        assertNull(page.getNextPageToken());
+        assertNull(page.nextRequest(20));
+    }
+
+    @Test
+    void blankTokenIsFirstPage() {
+        assertTrue(MovieRepository.SORT_BY_TITLE.decode(null, 20).isFirst());
+        assertTrue(MovieRepository.SORT_BY_TITLE.decode(" ", 20).isFirst());
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> MovieRepository.SORT_BY_TITLE.decode("not a token!", 20));
+        String badQuantity = new Page<>(List.of("a"), true, "many", 1L).getNextPageToken();
+        assertThrows(IllegalArgumentException.class, () -> MovieRepository.SORT_BY_QUANTITY.decode(badQuantity, 20));
+    }
+
+    @Test
+    void pageSizeIsCapped() {
+        assertEquals(PageRequest.MAX_SIZE, PageRequest.first(PageRequest.MAX_SIZE + 1).getSize());
+        assertThrows(IllegalArgumentException.class, () -> PageRequest.first(0));
+        assertThrows(IllegalArgumentException.class, () -> PageRequest.after("Alien", null, 20));
+    }
+
+    private static PageRequest roundTrip(Object lastKey, Long lastId, SortKey<?> sortKey) {
+        String token = new Page<>(List.of("row"), true, lastKey, lastId).getNextPageToken();
+        return sortKey.decode(token, 20);
+    }
+}
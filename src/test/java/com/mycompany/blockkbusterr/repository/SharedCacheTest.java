@@ -0,0 +1,107 @@
+package com.mycompany.blockkbusterr.repository;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.entity.Rental;
+import com.mycompany.blockkbusterr.entity.Review;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Entities changed by bulk statements are evicted at once and again by the
+ * after-commit observers.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SharedCacheTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Event<CacheEvictionEvent> cacheEviction;
+
+    @Mock
+    private Cache cache;
+
+    @InjectMocks
+    private SharedCache sharedCache;
+
+    @BeforeEach
+    void stubCache() {
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+    }
+
+    @Test
+    void evictOnCommitEvictsNowAndFiresEvictionEvent() {
+        sharedCache.evictOnCommit(Review.class, 3L);
+
+        verify(cache).evict(Review.class, 3L);
+        ArgumentCaptor<CacheEvictionEvent> event = ArgumentCaptor.forClass(CacheEvictionEvent.class);
+        verify(cacheEviction).fire(event.capture());
+        assertSame(Review.class, event.getValue().getEntityClass());
+        assertEquals(3L, event.getValue().getId());
+        assertEquals(1, sharedCache.getEvictionCount(CacheRegion.REVIEWS));
+    }
+
+    @Test
+    void committedEvictionEventEvictsAgain() {
+        sharedCache.evictOnCommit(Review.class, 3L);
+        sharedCache.onCacheEviction(new CacheEvictionEvent(Review.class, 3L));
+
+        verify(cache, times(2)).evict(Review.class, 3L);
+        assertEquals(2, sharedCache.getEvictionCount(CacheRegion.REVIEWS));
+    }
+
+    @Test
+    void evictionEventWithoutIdEvictsWholeType() {
+        sharedCache.onCacheEviction(new CacheEvictionEvent(Review.class, null));
+
+        verify(cache).evict(Review.class);
+    }
+
+    @Test
+    void uncachedEntityIsIgnored() {
+        sharedCache.evictOnCommit(Rental.class, 5L);
+
+        verifyNoInteractions(cache, cacheEviction);
+    }
+
+    @Test
+    void committedMovieChangeEvictsMovie() {
+        sharedCache.onMovieChanged(new MovieChangedEvent(7L));
+
+        verify(cache).evict(Movie.class, 7L);
+        assertEquals(1, sharedCache.getEvictionCount(CacheRegion.MOVIES));
+    }
+
+    @Test
+    void observersRunOnlyAfterCommit() throws NoSuchMethodException {
+        assertAfterSuccess(SharedCache.class.getMethod("onCacheEviction", CacheEvictionEvent.class));
+        assertAfterSuccess(SharedCache.class.getMethod("onMovieChanged", MovieChangedEvent.class));
+    }
+
+    static void assertAfterSuccess(Method observer) {
+        Observes observes = observer.getParameters()[0].getAnnotation(Observes.class);
+        assertEquals(TransactionPhase.AFTER_SUCCESS, observes.during(), observer.getName());
+    }
+}
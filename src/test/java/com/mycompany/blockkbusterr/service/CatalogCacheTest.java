@@ -0,0 +1,165 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.repository.MovieChangedEvent;
+import com.mycompany.blockkbusterr.repository.MovieRepository;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A committed movie change replaces only that movie in the catalog view and
+ * reloads the genre list only when the genres may have changed.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CatalogCacheTest {
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @InjectMocks
+    private CatalogCache catalogCache;
+
+    private Movie alien;
+    private Movie brazil;
+    private Movie casablanca;
+
+    @BeforeEach
+    void loadCatalog() {
+        alien = movie(1L, "Alien", "Horror", 3);
+        brazil = movie(2L, "Brazil", "Comedy", 2);
+        casablanca = movie(3L, "Casablanca", "Drama", 1);
+        when(movieRepository.findAll()).thenReturn(List.of(casablanca, alien, brazil));
+        when(movieRepository.getDistinctGenres()).thenReturn(List.of("Comedy", "Drama", "Horror"));
+    }
+
+    @Test
+    void catalogIsOrderedByTitle() {
+        assertEquals(List.of("Alien", "Brazil", "Casablanca"), titles(catalogCache.getCatalog()));
+    }
+
+    @Test
+    void changeReplacesOnlyThatMovie() {
+        List<Movie> before = catalogCache.getCatalog();
+        catalogCache.getGenres();
+        Movie rented = movie(2L, "Brazil", "Comedy", 1);
+        when(movieRepository.findById(2L)).thenReturn(Optional.of(rented));
+
+        catalogCache.onMovieChanged(new MovieChangedEvent(2L));
+
+        List<Movie> after = catalogCache.getCatalog();
+        assertNotSame(before, after);
+        assertSame(alien, after.get(0));
+        assertSame(rented, after.get(1));
+        assertSame(casablanca, after.get(2));
+        // Readers holding the old view are not affected
+        assertSame(brazil, before.get(1));
+        assertSame(rented, catalogCache.findMovie(2L).get());
+        catalogCache.getGenres();
+        verify(movieRepository, times(1)).findAll();
+        verify(movieRepository, times(1)).getDistinctGenres();
+    }
+
+    @Test
+    void retitledMovieMovesToItsPlace() {
+        catalogCache.getCatalog();
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(movie(1L, "Zelig", "Horror", 3)));
+
+        catalogCache.refresh(1L);
+
+        assertEquals(List.of("Brazil", "Casablanca", "Zelig"), titles(catalogCache.getCatalog()));
+    }
+
+    @Test
+    void newMovieIsInsertedAndGenresReloaded() {
+        catalogCache.getCatalog();
+        catalogCache.getGenres();
+        when(movieRepository.findById(4L)).thenReturn(Optional.of(movie(4L, "Amelie", "Romance", 5)));
+
+        catalogCache.refresh(4L);
+
+        assertEquals(List.of("Alien", "Amelie", "Brazil", "Casablanca"), titles(catalogCache.getCatalog()));
+        catalogCache.getGenres();
+        verify(movieRepository, times(2)).getDistinctGenres();
+    }
+
+    @Test
+    void deletedMovieIsRemovedAndGenresReloaded() {
+        catalogCache.getCatalog();
+        catalogCache.getGenres();
+        when(movieRepository.findById(3L)).thenReturn(Optional.empty());
+        when(movieRepository.findByIds(List.of(3L))).thenReturn(List.of());
+
+        catalogCache.refresh(3L);
+
+        assertEquals(List.of("Alien", "Brazil"), titles(catalogCache.getCatalog()));
+        assertTrue(catalogCache.findMovies(List.of(3L)).isEmpty());
+        catalogCache.getGenres();
+        verify(movieRepository, times(2)).getDistinctGenres();
+    }
+
+    @Test
+    void catalogLoadRacingChangeIsNotCached() {
+        when(movieRepository.findById(2L)).thenReturn(Optional.of(movie(2L, "Brazil", "Comedy", 0)));
+        when(movieRepository.findAll()).thenAnswer(invocation -> {
+            // The change commits while the old rows are being read
+            catalogCache.refresh(2L);
+            return List.of(casablanca, alien, brazil);
+        }).thenReturn(List.of(casablanca, alien, brazil));
+
+        catalogCache.getCatalog();
+        catalogCache.getCatalog();
+
+        verify(movieRepository, times(2)).findAll();
+    }
+
+    @Test
+    void clearDropsEverything() {
+        catalogCache.getCatalog();
+        catalogCache.getGenres();
+
+        catalogCache.clear();
+
+        catalogCache.getCatalog();
+        catalogCache.getGenres();
+        assertEquals(3, catalogCache.size());
+        verify(movieRepository, times(2)).findAll();
+        verify(movieRepository, times(2)).getDistinctGenres();
+    }
+
+    @Test
+    void changesApplyOnlyAfterCommit() throws NoSuchMethodException {
+        Observes observes = CatalogCache.class.getMethod("onMovieChanged", MovieChangedEvent.class)
+                .getParameters()[0].getAnnotation(Observes.class);
+        assertEquals(TransactionPhase.AFTER_SUCCESS, observes.during());
+    }
+
+    private static Movie movie(Long id, String title, String genre, int quantity) {
+        Movie movie = new Movie(title, 2000, 100, genre, quantity);
+        movie.setMovieId(id);
+        return movie;
+    }
+
+    private static List<String> titles(List<Movie> movies) {
+        return movies.stream().map(Movie::getTitle).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,197 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.InventoryJournalEntry;
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.repository.InventoryJournalRepository;
+import com.mycompany.blockkbusterr.repository.MovieRepository;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counters move as soon as a copy is reserved and give it back if the
+ * transaction rolls back; releases and absolute quantity changes only reach
+ * the counter once their transaction commits.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InventoryServiceTest {
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private InventoryJournalRepository journalRepository;
+
+    @Mock
+    private TransactionSynchronizationRegistry transactionRegistry;
+
+    @InjectMocks
+    private InventoryService inventoryService;
+
+    private final List<Synchronization> synchronizations = new ArrayList<>();
+
+    @BeforeEach
+    void stubStock() {
+        when(movieRepository.findById(7L)).thenReturn(Optional.of(movie(7L, 3)));
+        when(movieRepository.findById(8L)).thenReturn(Optional.empty());
+        when(journalRepository.sumPendingDelta(7L)).thenReturn(-1L);
+        doAnswer(invocation -> synchronizations.add(invocation.getArgument(0)))
+                .when(transactionRegistry).registerInterposedSynchronization(any());
+    }
+
+    @Test
+    void counterStartsFromQuantityPlusPendingJournal() {
+        assertEquals(2, inventoryService.getAvailableCount(7L));
+    }
+
+    @Test
+    void reservationIsKeptOnCommit() {
+        assertTrue(inventoryService.reserve(7L));
+        assertEquals(1, inventoryService.getAvailableCount(7L));
+
+        complete(Status.STATUS_COMMITTED);
+
+        assertEquals(1, inventoryService.getAvailableCount(7L));
+        verify(journalRepository).save(any(InventoryJournalEntry.class));
+    }
+
+    @Test
+    void reservationIsGivenBackOnRollback() {
+        assertTrue(inventoryService.reserve(7L));
+
+        complete(Status.STATUS_ROLLEDBACK);
+
+        assertEquals(2, inventoryService.getAvailableCount(7L));
+    }
+
+    @Test
+    void lastCopyCannotBeReservedTwice() {
+        assertTrue(inventoryService.reserve(7L));
+        assertTrue(inventoryService.reserve(7L));
+
+        assertFalse(inventoryService.reserve(7L));
+
+        assertEquals(0, inventoryService.getAvailableCount(7L));
+        assertEquals(2, synchronizations.size());
+    }
+
+    @Test
+    void releaseCountsOnlyAfterCommit() {
+        assertTrue(inventoryService.release(7L));
+        assertEquals(2, inventoryService.getAvailableCount(7L));
+
+        complete(Status.STATUS_COMMITTED);
+
+        assertEquals(3, inventoryService.getAvailableCount(7L));
+    }
+
+    @Test
+    void rolledBackReleaseIsNotCounted() {
+        assertTrue(inventoryService.release(7L));
+
+        complete(Status.STATUS_ROLLEDBACK);
+
+        assertEquals(2, inventoryService.getAvailableCount(7L));
+    }
+
+    @Test
+    void releaseOfMissingMovieFails() {
+        assertFalse(inventoryService.release(8L));
+
+        verify(journalRepository, never()).save(any());
+        assertTrue(synchronizations.isEmpty());
+    }
+
+    @Test
+    void setQuantitiesFoldsJournalAndMovesCounterOnCommit() {
+        inventoryService.getAvailableCount(7L);
+        InventoryJournalEntry rented = new InventoryJournalEntry(7L, -1);
+        rented.setEntryId(40L);
+        when(journalRepository.findByMovieIdsForUpdate(any())).thenReturn(List.of(rented));
+        Movie locked = movie(7L, 3);
+
+        Map<Long, Integer> deltas = inventoryService.setQuantities(List.of(locked), Map.of(7L, 5));
+
+        assertEquals(Map.of(7L, 3), deltas);
+        assertEquals(5, locked.getQuantity());
+        verify(journalRepository).deleteByIds(List.of(40L));
+        assertEquals(2, inventoryService.getAvailableCount(7L));
+
+        complete(Status.STATUS_COMMITTED);
+
+        assertEquals(5, inventoryService.getAvailableCount(7L));
+    }
+
+    @Test
+    void rolledBackQuantityChangeLeavesCounter() {
+        inventoryService.getAvailableCount(7L);
+        when(journalRepository.findByMovieIdsForUpdate(any())).thenReturn(List.of());
+
+        inventoryService.setQuantities(List.of(movie(7L, 2)), Map.of(7L, 10));
+        complete(Status.STATUS_ROLLEDBACK);
+
+        assertEquals(2, inventoryService.getAvailableCount(7L));
+    }
+
+    @Test
+    void reservationInFlightSurvivesQuantityChange() {
+        assertTrue(inventoryService.reserve(7L));
+        when(journalRepository.findByMovieIdsForUpdate(any())).thenReturn(List.of());
+
+        // The reservation's journal entry is not committed, so the locked row does not include it
+        inventoryService.setQuantities(List.of(movie(7L, 2)), Map.of(7L, 4));
+        complete(Status.STATUS_COMMITTED);
+
+        assertEquals(3, inventoryService.getAvailableCount(7L));
+    }
+
+    @Test
+    void discardDropsCounterOnlyAfterCommit() {
+        inventoryService.reserve(7L);
+        complete(Status.STATUS_COMMITTED);
+
+        inventoryService.discard(7L);
+        assertEquals(1, inventoryService.getAvailableCount(7L));
+        complete(Status.STATUS_COMMITTED);
+
+        // Reloaded from the row and journal
+        assertEquals(2, inventoryService.getAvailableCount(7L));
+        verify(journalRepository).deleteByMovieId(7L);
+    }
+
+    private void complete(int status) {
+        List<Synchronization> registered = new ArrayList<>(synchronizations);
+        synchronizations.clear();
+        for (Synchronization synchronization : registered) {
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    private static Movie movie(Long id, int quantity) {
+        Movie movie = new Movie("Alien", 1979, 117, "Horror", quantity);
+        movie.setMovieId(id);
+        return movie;
+    }
+}
@@ -0,0 +1,171 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.Movie;
+import com.mycompany.blockkbusterr.repository.MovieChangedEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Searches match whole tokens, token prefixes and, from three characters on,
+ * substrings; every query token must match, titles outrank genres and
+ * descriptions, and committed changes are reflected without a rebuild.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MovieSearchIndexTest {
+
+    @Mock
+    private CatalogCache catalogCache;
+
+    @InjectMocks
+    private MovieSearchIndex movieSearchIndex;
+
+    @BeforeEach
+    void loadCatalog() {
+        when(catalogCache.getCatalog()).thenReturn(List.of(
+                movie(1L, "Alien", "Horror", "A crew meets a deadly creature in space"),
+                movie(2L, "Aliens", "Action", "The marines return to the colony"),
+                movie(3L, "Royal Tenenbaums", "Comedy", "A family of former child prodigies"),
+                movie(4L, "Space Jam", "Comedy", "Basketball with cartoon aliens")));
+    }
+
+    @Test
+    void exactTitleMatchRanksFirst() {
+        assertEquals(List.of(1L, 2L, 4L), movieSearchIndex.search("alien"));
+    }
+
+    @Test
+    void prefixMatchesStartOfWord() {
+        assertEquals(List.of(1L, 2L, 4L), movieSearchIndex.search("ali"));
+        assertEquals(List.of(3L), movieSearchIndex.search("tenen"));
+    }
+
+    @Test
+    void shortTermsDoNotMatchInsideWords() {
+        // "al" is inside "royal" but starts no word of it
+        assertEquals(List.of(1L, 2L, 4L), movieSearchIndex.search("al"));
+    }
+
+    @Test
+    void trigramsMatchInsideWords() {
+        assertEquals(List.of(3L), movieSearchIndex.search("yal"));
+        assertEquals(List.of(3L), movieSearchIndex.search("baum"));
+    }
+
+    @Test
+    void everyTokenMustMatch() {
+        assertEquals(List.of(4L), movieSearchIndex.search("space comedy"));
+        assertTrue(movieSearchIndex.search("alien comedy marines").isEmpty());
+    }
+
+    @Test
+    void titleOutranksGenreAndDescription() {
+        when(catalogCache.getCatalog()).thenReturn(List.of(
+                movie(1L, "Quiet Night", "Drama", "A space station drifts"),
+                movie(2L, "Space Station", "Drama", "Astronauts at work")));
+
+        assertEquals(List.of(2L, 1L), movieSearchIndex.search("space"));
+    }
+
+    @Test
+    void blankTermMatchesNothing() {
+        assertTrue(movieSearchIndex.search("  ").isEmpty());
+        assertTrue(movieSearchIndex.search(null).isEmpty());
+    }
+
+    @Test
+    void committedChangeReindexesMovie() {
+        movieSearchIndex.search("alien");
+        when(catalogCache.findMovie(1L)).thenReturn(Optional.of(movie(1L, "Prometheus", "Horror", "Origins")));
+
+        movieSearchIndex.onMovieChanged(new MovieChangedEvent(1L));
+
+        assertEquals(List.of(2L, 4L), movieSearchIndex.search("alien"));
+        assertEquals(List.of(1L), movieSearchIndex.search("prometh"));
+    }
+
+    @Test
+    void committedDeleteRemovesMovie() {
+        movieSearchIndex.search("alien");
+        when(catalogCache.findMovie(2L)).thenReturn(Optional.empty());
+
+        movieSearchIndex.onMovieChanged(new MovieChangedEvent(2L));
+
+        assertEquals(List.of(1L, 4L), movieSearchIndex.search("alien"));
+        assertEquals(3, movieSearchIndex.size());
+        assertTrue(movieSearchIndex.search("marines").isEmpty());
+    }
+
+    @Test
+    void concurrentUpdatesAndSearchesKeepIndexConsistent() throws Exception {
+        movieSearchIndex.search("alien");
+        int writers = 4;
+        int moviesPerWriter = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            for (int w = 0; w < writers; w++) {
+                long firstId = 100L + w * moviesPerWriter;
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (long id = firstId; id < firstId + moviesPerWriter; id++) {
+                        movieSearchIndex.index(movie(id, "Sequel " + id, "Horror", "Another alien"));
+                        if (id % 2 == 0) {
+                            movieSearchIndex.remove(id);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int r = 0; r < 2; r++) {
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 200; i++) {
+                        // Searches see either state of a movie, never a half-indexed one
+                        for (Long id : movieSearchIndex.search("sequel alien")) {
+                            assertTrue(id >= 100L);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(4 + writers * moviesPerWriter / 2, movieSearchIndex.size());
+        List<Long> sequels = movieSearchIndex.search("sequel");
+        assertEquals(writers * moviesPerWriter / 2, sequels.size());
+        assertTrue(sequels.stream().allMatch(id -> id % 2 == 1));
+    }
+
+    private static Movie movie(Long id, String title, String genre, String description) {
+        Movie movie = new Movie(title, 2000, 100, genre, 1);
+        movie.setMovieId(id);
+        movie.setDescription(description);
+        return movie;
+    }
+}
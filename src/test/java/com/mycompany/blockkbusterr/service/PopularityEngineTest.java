@@ -0,0 +1,129 @@
+package com.mycompany.blockkbusterr.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hourly counts are summed into every window they fall inside, and drop out
+ * of each window as the ring of hours slides forward.
+ */
+class PopularityEngineTest {
+
+    private static final int HISTORY_HOURS = PopularityWindow.LAST_30_DAYS.getHours();
+
+    private PopularityEngine engine;
+
+    private long currentHour;
+
+    @BeforeEach
+    void createEngine() {
+        engine = new PopularityEngine();
+        currentHour = engine.getOldestHour() + HISTORY_HOURS - 1;
+    }
+
+    @Test
+    void countsAreAddedToEveryWindowTheyFallInside() {
+        engine.restore(1L, currentHour, 1);
+        engine.restore(1L, currentHour - 30, 2);
+        engine.restore(1L, currentHour - 10 * 24, 4);
+
+        assertEquals(1, engine.getRentalCount(1L, PopularityWindow.LAST_24_HOURS));
+        assertEquals(3, engine.getRentalCount(1L, PopularityWindow.LAST_7_DAYS));
+        assertEquals(7, engine.getRentalCount(1L, PopularityWindow.LAST_30_DAYS));
+    }
+
+    @Test
+    void rankingIsByCountThenMovieId() {
+        LocalDateTime now = LocalDateTime.now();
+        engine.record(3L, now);
+        engine.record(3L, now);
+        engine.record(2L, now);
+        engine.record(1L, now);
+
+        assertEquals(List.of(3L, 1L, 2L), engine.topMovieIds(PopularityWindow.LAST_24_HOURS, 10));
+        assertEquals(List.of(3L, 1L), engine.topMovieIds(PopularityWindow.LAST_24_HOURS, 2));
+    }
+
+    @Test
+    void slidingForwardDropsHoursFromShorterWindowsFirst() {
+        engine.restore(1L, currentHour - 23, 5);
+        engine.restore(2L, currentHour, 1);
+        assertEquals(List.of(1L, 2L), engine.topMovieIds(PopularityWindow.LAST_24_HOURS, 10));
+
+        engine.restore(2L, currentHour + 1, 1);
+
+        assertEquals(0, engine.getRentalCount(1L, PopularityWindow.LAST_24_HOURS));
+        assertEquals(5, engine.getRentalCount(1L, PopularityWindow.LAST_7_DAYS));
+        assertEquals(List.of(2L), engine.topMovieIds(PopularityWindow.LAST_24_HOURS, 10));
+        assertEquals(List.of(1L, 2L), engine.topMovieIds(PopularityWindow.LAST_7_DAYS, 10));
+    }
+
+    @Test
+    void reusedSlotStartsFromZero() {
+        long oldestHour = currentHour - HISTORY_HOURS + 1;
+        engine.restore(1L, oldestHour, 3);
+        engine.restore(2L, oldestHour, 2);
+        assertEquals(2, engine.getTrackedMovieCount());
+
+        // The next hour takes over the ring slot of the oldest one
+        engine.restore(1L, currentHour + 1, 1);
+
+        assertEquals(1, engine.getRentalCount(1L, PopularityWindow.LAST_30_DAYS));
+        assertEquals(0, engine.getRentalCount(2L, PopularityWindow.LAST_30_DAYS));
+        assertEquals(1, engine.getTrackedMovieCount());
+        assertEquals(List.of(1L), engine.topMovieIds(PopularityWindow.LAST_30_DAYS, 10));
+    }
+
+    @Test
+    void jumpPastTheWholeHistoryClearsEverything() {
+        engine.restore(1L, currentHour, 4);
+
+        engine.restore(2L, currentHour + HISTORY_HOURS, 1);
+
+        assertEquals(0, engine.getRentalCount(1L, PopularityWindow.LAST_30_DAYS));
+        assertEquals(1, engine.getTrackedMovieCount());
+    }
+
+    @Test
+    void rentalOlderThanTheLongestWindowIsIgnored() {
+        engine.record(1L, LocalDateTime.now().minusDays(31));
+
+        assertEquals(0, engine.getTrackedMovieCount());
+        assertTrue(engine.drainChanges().isEmpty());
+    }
+
+    @Test
+    void recordedHoursAreDrainedOnce() {
+        LocalDateTime now = LocalDateTime.now();
+        engine.record(1L, now);
+        engine.record(1L, now);
+        engine.restore(2L, currentHour, 5);
+
+        List<PopularityEngine.HourlyCount> changes = engine.drainChanges();
+
+        assertEquals(1, changes.size());
+        assertEquals(1L, changes.get(0).getMovieId());
+        assertEquals(PopularityEngine.epochHour(now), changes.get(0).getHour());
+        assertEquals(2, changes.get(0).getRentalCount());
+        assertTrue(engine.drainChanges().isEmpty());
+    }
+
+    @Test
+    void requeuedChangesAreDrainedWithCurrentCounts() {
+        LocalDateTime now = LocalDateTime.now();
+        engine.record(1L, now);
+        List<PopularityEngine.HourlyCount> failed = engine.drainChanges();
+        engine.record(1L, now);
+
+        engine.requeueChanges(failed);
+
+        List<PopularityEngine.HourlyCount> changes = engine.drainChanges();
+        assertEquals(1, changes.size());
+        assertEquals(2, changes.get(0).getRentalCount());
+    }
+}
@@ -0,0 +1,141 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.repository.MovieRepository;
+import com.mycompany.blockkbusterr.repository.RentalRepository;
+import com.mycompany.blockkbusterr.repository.UserRepository;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Every rental check is answered from the single eligibility row, which also
+ * seeds the inventory counter so the copy can be reserved without more reads.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RentalServiceTest {
+
+    @Mock
+    private RentalRepository rentalRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @InjectMocks
+    private RentalService rentalService;
+
+    @BeforeEach
+    void stubStock() {
+        when(inventoryService.getAvailableCount(7L)).thenReturn(2);
+    }
+
+    @Test
+    void eligibleRentalHasNoProblem() {
+        stubRow(true, true, 3L, 1L, 0L);
+
+        RentalService.RentalEligibility eligibility = rentalService.checkEligibility(1L, 7L);
+
+        assertNull(eligibility.getProblem());
+        assertTrue(eligibility.isEligible());
+        assertEquals(2, eligibility.getAvailableCopies());
+        assertEquals(1, eligibility.getActiveRentalCount());
+        verify(inventoryService).prime(7L, 3L);
+    }
+
+    @Test
+    void numericFlagsAreRead() {
+        stubRow(1, (byte) 0, 3L, 0L, 0L);
+
+        assertEquals("Movie is not active", rentalService.checkEligibility(1L, 7L).getProblem());
+    }
+
+    @Test
+    void missingUserIsReportedFirst() {
+        stubRow(null, null, null, 0L, 0L);
+
+        assertEquals("User not found", rentalService.checkEligibility(1L, 7L).getProblem());
+        verifyNoInteractions(inventoryService);
+    }
+
+    @Test
+    void missingMovieLeavesInventoryAlone() {
+        stubRow(true, null, null, 0L, 0L);
+
+        assertEquals("Movie not found", rentalService.checkEligibility(1L, 7L).getProblem());
+        verifyNoInteractions(inventoryService);
+    }
+
+    @Test
+    void inactiveUserIsRefused() {
+        stubRow(false, true, 3L, 0L, 0L);
+
+        assertEquals("User account is not active", rentalService.checkEligibility(1L, 7L).getProblem());
+    }
+
+    @Test
+    void secondRentalOfSameMovieIsRefused() {
+        stubRow(true, true, 3L, 1L, 1L);
+
+        assertEquals("User already has an active rental for this movie",
+                rentalService.checkEligibility(1L, 7L).getProblem());
+    }
+
+    @Test
+    void rentalLimitIsEnforced() {
+        stubRow(true, true, 3L, (long) RentalService.MAX_ACTIVE_RENTALS, 0L);
+
+        assertEquals("User has reached maximum number of active rentals",
+                rentalService.checkEligibility(1L, 7L).getProblem());
+    }
+
+    @Test
+    void outOfStockOnlyMattersWhenRenting() {
+        stubRow(true, true, 0L, 0L, 0L);
+        when(inventoryService.getAvailableCount(7L)).thenReturn(0);
+
+        RentalService.RentalEligibility eligibility = rentalService.checkEligibility(1L, 7L);
+
+        assertEquals("Movie is not available for rental", eligibility.getProblem());
+        assertNull(eligibility.getProblemIgnoringStock());
+    }
+
+    @Test
+    void refusedRentalReservesNothing() {
+        stubRow(true, true, 3L, 1L, 1L);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> rentalService.createRental(1L, 7L, LocalDate.now().plusDays(3)));
+
+        verify(inventoryService, never()).reserve(anyLong());
+        verify(rentalRepository, never()).save(any());
+    }
+
+    private void stubRow(Object userActive, Object movieActive, Long quantity, Long activeRentals,
+                         Long activeRentalsForMovie) {
+        when(rentalRepository.getRentalEligibility(1L, 7L))
+                .thenReturn(new Object[] {userActive, movieActive, quantity, activeRentals, activeRentalsForMovie});
+    }
+}
@@ -0,0 +1,194 @@
+package com.mycompany.blockkbusterr.service;
+
+import com.mycompany.blockkbusterr.entity.WaitlistEntry;
+import com.mycompany.blockkbusterr.entity.WaitlistStatus;
+import com.mycompany.blockkbusterr.repository.WaitlistRepository;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Each movie's queue serves entries in join order; joins and departures reach
+ * it only when they commit, and a claim that rolls back keeps its place.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WaitlistServiceTest {
+
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
+    @Mock
+    private RentalService rentalService;
+
+    @Mock
+    private TransactionSynchronizationRegistry transactionRegistry;
+
+    @Mock
+    private ManagedExecutorService executor;
+
+    @InjectMocks
+    private WaitlistService waitlistService;
+
+    private final Map<Long, WaitlistEntry> entries = new HashMap<>();
+
+    private final List<Synchronization> synchronizations = new ArrayList<>();
+
+    @BeforeEach
+    void stubWaitlist() {
+        // Loaded out of order, as another node may have written them
+        for (long id : new long[] {12L, 10L, 11L}) {
+            entries.put(id, entry(id, id + 100));
+        }
+        when(waitlistRepository.findWaitingByMovieId(7L)).thenReturn(List.copyOf(entries.values()));
+        when(waitlistRepository.findByIdForUpdate(any()))
+                .thenAnswer(invocation -> Optional.ofNullable(entries.get(invocation.<Long>getArgument(0))));
+        doAnswer(invocation -> synchronizations.add(invocation.getArgument(0)))
+                .when(transactionRegistry).registerInterposedSynchronization(any());
+    }
+
+    @Test
+    void entriesAreServedInJoinOrder() {
+        assertEquals(1, waitlistService.getPosition(7L, 10L));
+        assertEquals(2, waitlistService.getPosition(7L, 11L));
+        assertEquals(3, waitlistService.getPosition(7L, 12L));
+
+        assertEquals(10L, waitlistService.claimNext(7L).get().getEntryId());
+        assertEquals(11L, waitlistService.claimNext(7L).get().getEntryId());
+        assertEquals(12L, waitlistService.claimNext(7L).get().getEntryId());
+        assertTrue(waitlistService.claimNext(7L).isEmpty());
+    }
+
+    @Test
+    void claimRolledBackKeepsItsPlace() {
+        assertEquals(10L, waitlistService.claimNext(7L).get().getEntryId());
+        assertEquals(0, waitlistService.getPosition(7L, 10L));
+
+        complete(Status.STATUS_ROLLEDBACK);
+
+        assertEquals(1, waitlistService.getPosition(7L, 10L));
+        assertEquals(10L, waitlistService.claimNext(7L).get().getEntryId());
+    }
+
+    @Test
+    void claimCommittedLeavesTheQueue() {
+        waitlistService.claimNext(7L);
+
+        complete(Status.STATUS_COMMITTED);
+
+        assertEquals(2, waitlistService.getWaitingCount(7L));
+        assertEquals(11L, waitlistService.claimNext(7L).get().getEntryId());
+    }
+
+    @Test
+    void entryResolvedElsewhereIsPassedOver() {
+        entries.get(10L).resolve(WaitlistStatus.CANCELLED, null, "Left the waitlist");
+
+        assertEquals(11L, waitlistService.claimNext(7L).get().getEntryId());
+    }
+
+    @Test
+    void joinIsQueuedLastOnceCommitted() {
+        stubEligibility(0);
+        when(waitlistRepository.save(any(WaitlistEntry.class))).thenAnswer(invocation -> {
+            WaitlistEntry saved = invocation.getArgument(0);
+            saved.setEntryId(13L);
+            return saved;
+        });
+        waitlistService.getWaitingCount(7L);
+
+        waitlistService.join(113L, 7L);
+        assertEquals(3, waitlistService.getWaitingCount(7L));
+
+        complete(Status.STATUS_COMMITTED);
+
+        assertEquals(4, waitlistService.getPosition(7L, 13L));
+        verify(executor).submit(any(Runnable.class));
+    }
+
+    @Test
+    void joinRolledBackIsNotQueued() {
+        stubEligibility(0);
+        when(waitlistRepository.save(any(WaitlistEntry.class))).thenAnswer(invocation -> {
+            WaitlistEntry saved = invocation.getArgument(0);
+            saved.setEntryId(13L);
+            return saved;
+        });
+        waitlistService.getWaitingCount(7L);
+
+        waitlistService.join(113L, 7L);
+        complete(Status.STATUS_ROLLEDBACK);
+
+        assertEquals(0, waitlistService.getPosition(7L, 13L));
+        verify(executor, never()).submit(any(Runnable.class));
+    }
+
+    @Test
+    void joinIsRefusedWhileCopiesAreInStock() {
+        stubEligibility(1);
+
+        assertThrows(IllegalArgumentException.class, () -> waitlistService.join(113L, 7L));
+
+        verify(waitlistRepository, never()).save(any());
+    }
+
+    @Test
+    void leavingMovesLaterEntriesUp() {
+        assertTrue(waitlistService.leave(111L, 11L));
+        assertEquals(3, waitlistService.getPosition(7L, 12L));
+
+        complete(Status.STATUS_COMMITTED);
+
+        assertEquals(0, waitlistService.getPosition(7L, 11L));
+        assertEquals(1, waitlistService.getPosition(7L, 10L));
+        assertEquals(2, waitlistService.getPosition(7L, 12L));
+    }
+
+    @Test
+    void leavingSomeoneElsesEntryIsRefused() {
+        assertThrows(IllegalArgumentException.class, () -> waitlistService.leave(999L, 11L));
+    }
+
+    private void stubEligibility(int availableCopies) {
+        RentalService.RentalEligibility eligibility = mock(RentalService.RentalEligibility.class);
+        when(eligibility.getAvailableCopies()).thenReturn(availableCopies);
+        when(rentalService.checkEligibility(113L, 7L)).thenReturn(eligibility);
+    }
+
+    private void complete(int status) {
+        List<Synchronization> pending = new ArrayList<>(synchronizations);
+        synchronizations.clear();
+        pending.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static WaitlistEntry entry(Long entryId, Long userId) {
+        WaitlistEntry entry = new WaitlistEntry(userId, 7L);
+        entry.setEntryId(entryId);
+        entry.setStatus(WaitlistStatus.WAITING);
+        return entry;
+    }
+}
@@ -0,0 +1,132 @@
+package com.mycompany.blockkbusterr.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * CSV and JSON catalog files yield the same records, with field names matched
+ * loosely and values trimmed.
+ */
+class CatalogFileReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void csvRecordsAreReadByHeaderName() throws IOException {
+        Path file = write("movies.csv", "\uFEFFTitle,Release Year,genre_name\r\n"
+                + "Alien,1979,Horror\r\n"
+                + "\r\n"
+                + "Brazil, 1985 ,Comedy\n");
+
+        try (CatalogFileReader reader = CatalogFileReader.open(file, CatalogFileReader.Format.CSV)) {
+            CatalogFileReader.CatalogRecord alien = reader.next();
+            assertEquals(1, alien.getRowNumber());
+            assertEquals("Alien", alien.get("title"));
+            assertEquals("1979", alien.get("releaseYear"));
+            assertEquals("Horror", alien.get("genre-name"));
+
+            CatalogFileReader.CatalogRecord brazil = reader.next();
+            assertEquals(2, brazil.getRowNumber());
+            assertEquals("1985", brazil.get("release_year"));
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void csvQuotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        Path file = write("movies.csv", "title,description\n"
+                + "\"Crouching Tiger, Hidden Dragon\",\"A \"\"green\"\" sword\nstolen\"\n");
+
+        try (CatalogFileReader reader = CatalogFileReader.open(file, CatalogFileReader.Format.CSV)) {
+            CatalogFileReader.CatalogRecord record = reader.next();
+            assertEquals("Crouching Tiger, Hidden Dragon", record.get("title"));
+            assertEquals("A \"green\" sword\nstolen", record.get("description"));
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void csvMissingAndBlankFieldsAreNull() throws IOException {
+        Path file = write("movies.csv", "title,genre,quantity\nAlien,  \n");
+
+        try (CatalogFileReader reader = CatalogFileReader.open(file, CatalogFileReader.Format.CSV)) {
+            CatalogFileReader.CatalogRecord record = reader.next();
+            assertNull(record.get("genre"));
+            assertNull(record.get("quantity"));
+            assertNull(record.get("director"));
+        }
+    }
+
+    @Test
+    void csvUnterminatedQuoteIsRejected() throws IOException {
+        Path file = write("movies.csv", "title\n\"Alien\n");
+
+        try (CatalogFileReader reader = CatalogFileReader.open(file, CatalogFileReader.Format.CSV)) {
+            assertThrows(IOException.class, reader::next);
+        }
+    }
+
+    @Test
+    void emptyCsvIsRejected() throws IOException {
+        Path file = write("movies.csv", "");
+
+        assertThrows(IOException.class, () -> CatalogFileReader.open(file, CatalogFileReader.Format.CSV));
+    }
+
+    @Test
+    void jsonObjectsAreReadAsFlatRecords() throws IOException {
+        Path file = write("movies.json", "[\n"
+                + "  {\"title\": \"Alien\", \"release_year\": 1979, \"cast\": [\"Weaver\"],"
+                + " \"studio\": {\"name\": \"Fox\"}, \"genre\": null, \"classic\": true},\n"
+                + "  {\"Title\": \"Brazil\", \"Release Year\": \"1985\"}\n"
+                + "]");
+
+        try (CatalogFileReader reader = CatalogFileReader.open(file, CatalogFileReader.Format.JSON)) {
+            CatalogFileReader.CatalogRecord alien = reader.next();
+            assertEquals(1, alien.getRowNumber());
+            assertEquals("Alien", alien.get("title"));
+            assertEquals("1979", alien.get("releaseYear"));
+            assertEquals("true", alien.get("classic"));
+            assertNull(alien.get("genre"));
+            assertNull(alien.get("cast"));
+            assertNull(alien.get("studio"));
+
+            CatalogFileReader.CatalogRecord brazil = reader.next();
+            assertEquals(2, brazil.getRowNumber());
+            assertEquals("Brazil", brazil.get("title"));
+            assertEquals("1985", brazil.get("releaseYear"));
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void jsonMustBeAnArrayOfObjects() throws IOException {
+        Path notArray = write("object.json", "{\"title\": \"Alien\"}");
+        assertThrows(IOException.class, () -> CatalogFileReader.open(notArray, CatalogFileReader.Format.JSON));
+
+        Path notObjects = write("strings.json", "[\"Alien\"]");
+        try (CatalogFileReader reader = CatalogFileReader.open(notObjects, CatalogFileReader.Format.JSON)) {
+            assertThrows(IOException.class, reader::next);
+        }
+    }
+
+    @Test
+    void formatFollowsExtension() {
+        assertEquals(CatalogFileReader.Format.CSV, CatalogFileReader.Format.fromFileName("Catalog.CSV"));
+        assertEquals(CatalogFileReader.Format.JSON, CatalogFileReader.Format.fromFileName("catalog.json"));
+        assertNull(CatalogFileReader.Format.fromFileName("catalog.xml"));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,112 @@
+package com.mycompany.blockkbusterr.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The parallel bulk build and rentals added one at a time must produce the
+ * same matrix, and both must match a plain count of shared renters.
+ */
+class CoRentalMatrixTest {
+
+    private static final int RENTALS = 20_000;
+    private static final int USERS = 600;
+    private static final int MOVIES = 150;
+
+    private long[] userIds;
+    private long[] movieIds;
+
+    @BeforeEach
+    void generateRentals() {
+        Random random = new Random(42);
+        userIds = new long[RENTALS];
+        movieIds = new long[RENTALS];
+        for (int i = 0; i < RENTALS; i++) {
+            // Sparse IDs so the index maps have to resize
+            userIds[i] = 1_000_000L + 7L * random.nextInt(USERS);
+            movieIds[i] = 5_000L + 13L * random.nextInt(MOVIES);
+        }
+    }
+
+    @Test
+    void parallelBuildMatchesIncrementalAdds() {
+        CoRentalMatrix built = CoRentalMatrix.build(userIds, movieIds, RENTALS, 4);
+        CoRentalMatrix incremental = new CoRentalMatrix();
+        for (int i = 0; i < RENTALS; i++) {
+            incremental.addRental(userIds[i], movieIds[i]);
+        }
+
+        assertEquals(incremental.getMovieCount(), built.getMovieCount());
+        assertEquals(incremental.getUserCount(), built.getUserCount());
+        assertEquals(incremental.getRentalCount(), built.getRentalCount());
+        assertEquals(incremental.getPairCount(), built.getPairCount());
+        for (int m = 0; m < MOVIES; m++) {
+            long movieId = 5_000L + 13L * m;
+            assertArrayEquals(incremental.topCoRented(movieId, 10), built.topCoRented(movieId, 10),
+                    "movie " + movieId);
+        }
+    }
+
+    @Test
+    void countsMatchSharedRenters() {
+        Map<Long, Set<Long>> renters = new HashMap<>();
+        for (int i = 0; i < RENTALS; i++) {
+            renters.computeIfAbsent(movieIds[i], id -> new HashSet<>()).add(userIds[i]);
+        }
+
+        CoRentalMatrix matrix = CoRentalMatrix.build(userIds, movieIds, RENTALS, 3);
+
+        long distinctRentals = renters.values().stream().mapToLong(Set::size).sum();
+        assertEquals(distinctRentals, matrix.getRentalCount());
+        for (int a = 0; a < 20; a++) {
+            for (int b = 0; b < 20; b++) {
+                long movieId = 5_000L + 13L * a;
+                long otherMovieId = 5_000L + 13L * b;
+                Set<Long> shared = new HashSet<>(renters.get(movieId));
+                shared.retainAll(renters.get(otherMovieId));
+                int expected = a == b ? 0 : shared.size();
+                assertEquals(expected, matrix.coRentalCount(movieId, otherMovieId));
+            }
+        }
+    }
+
+    @Test
+    void repeatedRentalCountsOnce() {
+        CoRentalMatrix matrix = new CoRentalMatrix();
+        assertTrue(matrix.addRental(1L, 10L));
+        assertTrue(matrix.addRental(1L, 20L));
+        assertFalse(matrix.addRental(1L, 10L));
+
+        assertEquals(2, matrix.getRentalCount());
+        assertEquals(1, matrix.coRentalCount(10L, 20L));
+        assertEquals(1, matrix.coRentalCount(20L, 10L));
+        assertEquals(2, matrix.getPairCount());
+    }
+
+    @Test
+    void topCoRentedOrdersByCountThenMovieId() {
+        CoRentalMatrix matrix = new CoRentalMatrix();
+        matrix.addRental(1L, 10L);
+        matrix.addRental(1L, 30L);
+        matrix.addRental(1L, 20L);
+        matrix.addRental(2L, 10L);
+        matrix.addRental(2L, 30L);
+        matrix.addRental(3L, 10L);
+        matrix.addRental(3L, 40L);
+
+        assertArrayEquals(new long[] {30L, 20L, 40L}, matrix.topCoRented(10L, 5));
+        assertArrayEquals(new long[] {30L, 20L}, matrix.topCoRented(10L, 2));
+        assertArrayEquals(new long[0], matrix.topCoRented(99L, 5));
+        assertArrayEquals(new long[0], matrix.topCoRented(10L, 0));
+    }
+}
@@ -0,0 +1,169 @@
+package com.mycompany.blockkbusterr.util;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * An operation runs once per key: repeats replay its result until it expires,
+ * concurrent repeats wait for it, and failures leave the key free to retry.
+ */
+class IdempotencyStoreTest {
+
+    private ExecutorService executor;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void startExecutor() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void repeatedKeyReplaysStoredResult() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(10, 60_000);
+
+        assertEquals("rental 1", store.execute("key", "request", () -> "rental " + runs.incrementAndGet()));
+        assertEquals("rental 1", store.execute("key", "request", () -> "rental " + runs.incrementAndGet()));
+
+        assertEquals(1, runs.get());
+        assertEquals(1, store.getReplayedCount());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(10, 60_000);
+        store.execute("key", "rent movie 1", () -> "ok");
+
+        assertThrows(IllegalArgumentException.class, () -> store.execute("key", "rent movie 2", () -> "ok"));
+    }
+
+    @Test
+    void expiredResultRunsAgain() throws InterruptedException {
+        IdempotencyStore<Integer> store = new IdempotencyStore<>(10, 20);
+        store.execute("key", "request", runs::incrementAndGet);
+
+        Thread.sleep(50);
+
+        assertEquals(2, store.execute("key", "request", runs::incrementAndGet));
+        assertEquals(0, store.getReplayedCount());
+    }
+
+    @Test
+    void concurrentRepeatWaitsForRunningOperation() throws Exception {
+        IdempotencyStore<Integer> store = new IdempotencyStore<>(10, 60_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Integer> first = executor.submit(() -> store.execute("key", "request", () -> {
+            started.countDown();
+            await(release);
+            return runs.incrementAndGet();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Future<Integer> second = executor.submit(() -> store.execute("key", "request", runs::incrementAndGet));
+        waitFor(() -> store.getCoalescedCount() == 1);
+        release.countDown();
+
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void failureReachesWaitersAndFreesKey() throws Exception {
+        IdempotencyStore<Integer> store = new IdempotencyStore<>(10, 60_000);
+        IllegalStateException failure = new IllegalStateException("No copies left");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Integer> first = executor.submit(() -> store.execute("key", "request", () -> {
+            started.countDown();
+            await(release);
+            throw failure;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Integer> second = executor.submit(() -> store.execute("key", "request", runs::incrementAndGet));
+        waitFor(() -> store.getCoalescedCount() == 1);
+        release.countDown();
+
+        for (Future<Integer> call : List.of(first, second)) {
+            Exception thrown = assertThrows(Exception.class, () -> call.get(5, TimeUnit.SECONDS));
+            assertSame(failure, thrown.getCause());
+        }
+        assertEquals(0, store.size());
+        assertEquals(1, store.execute("key", "request", runs::incrementAndGet));
+    }
+
+    @Test
+    void oldestCompletedKeyIsEvictedWhenFull() {
+        IdempotencyStore<Integer> store = new IdempotencyStore<>(2, 60_000);
+        store.execute("a", "request", runs::incrementAndGet);
+        store.execute("b", "request", runs::incrementAndGet);
+        store.execute("c", "request", runs::incrementAndGet);
+
+        assertEquals(2, store.size());
+        assertEquals(3, store.execute("c", "request", runs::incrementAndGet));
+        assertEquals(4, store.execute("a", "request", runs::incrementAndGet));
+    }
+
+    @Test
+    void newKeyIsRejectedWhileStoreIsFullOfKeysInFlight() throws Exception {
+        IdempotencyStore<Integer> store = new IdempotencyStore<>(1, 60_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Integer> running = executor.submit(() -> store.execute("a", "request", () -> {
+            started.countDown();
+            await(release);
+            return runs.incrementAndGet();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(RejectedExecutionException.class, () -> store.execute("b", "request", runs::incrementAndGet));
+
+        release.countDown();
+        assertEquals(1, running.get(5, TimeUnit.SECONDS));
+        assertEquals(2, store.execute("b", "request", runs::incrementAndGet));
+    }
+
+    @Test
+    void limitsMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new IdempotencyStore<String>(0, 1_000));
+        assertThrows(IllegalArgumentException.class, () -> new IdempotencyStore<String>(10, 0));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.mycompany.blockkbusterr.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts survive every resize of the table and slot iteration sees each
+ * entry exactly once.
+ */
+class IntIntHashMapTest {
+
+    @Test
+    void addToInsertsAndAccumulates() {
+        IntIntHashMap map = new IntIntHashMap();
+
+        assertEquals(3, map.addTo(7, 3));
+        assertEquals(5, map.addTo(7, 2));
+
+        assertEquals(5, map.get(7));
+        assertEquals(0, map.get(8));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void countsSurviveResizes() {
+        IntIntHashMap map = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(5_000) * 31;
+            map.addTo(key, 1);
+            expected.merge(key, 1, Integer::sum);
+        }
+
+        assertTrue(map.capacity() > 4);
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, count) -> assertEquals(count.intValue(), map.get(key), "key " + key));
+    }
+
+    @Test
+    void slotsHoldEveryEntryOnce() {
+        IntIntHashMap map = new IntIntHashMap(2);
+        for (int key = 0; key < 100; key++) {
+            map.addTo(key, key + 1);
+        }
+
+        Map<Integer, Integer> seen = new HashMap<>();
+        for (int slot = 0; slot < map.capacity(); slot++) {
+            if (map.keyAt(slot) >= 0) {
+                assertNull(seen.put(map.keyAt(slot), map.valueAt(slot)));
+            }
+        }
+        assertEquals(100, seen.size());
+        seen.forEach((key, value) -> assertEquals(key + 1, value.intValue()));
+    }
+
+    @Test
+    void negativeKeyIsRejected() {
+        IntIntHashMap map = new IntIntHashMap();
+
+        assertThrows(IllegalArgumentException.class, () -> map.addTo(-1, 1));
+    }
+}
@@ -0,0 +1,52 @@
+package com.mycompany.blockkbusterr.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The first value put for a key sticks, across every resize of the table.
+ */
+class LongIntHashMapTest {
+
+    @Test
+    void putIfAbsentKeepsFirstValue() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertEquals(0, map.putIfAbsent(42L, 0));
+        assertEquals(0, map.putIfAbsent(42L, 5));
+
+        assertEquals(0, map.get(42L));
+        assertEquals(-1, map.get(43L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void indexesSurviveResizes() {
+        LongIntHashMap map = new LongIntHashMap(1);
+        int count = 20_000;
+        for (int i = 0; i < count; i++) {
+            // Keys wider than an int, half of them negative
+            assertEquals(i, map.putIfAbsent(key(i), i));
+        }
+
+        assertEquals(count, map.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, map.get(key(i)), "key " + key(i));
+            assertEquals(i, map.putIfAbsent(key(i), count + i));
+        }
+        assertEquals(-1, map.get(key(count)));
+    }
+
+    @Test
+    void negativeValueIsRejected() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertThrows(IllegalArgumentException.class, () -> map.putIfAbsent(1L, -1));
+    }
+
+    private static long key(int i) {
+        return (i % 2 == 0 ? 1L : -1L) * ((long) i << 32 | i);
+    }
+}